@@ -0,0 +1,188 @@
+package com.jonfreer.wedding.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IUnitOfWorkListener;
+import com.jonfreer.wedding.infrastructure.interfaces.services.LogService;
+
+/**
+ * State shared by the benchmarks: sample guests, and stand-ins for the
+ * database that hand rows out of memory, so that the benchmarks measure the
+ * code of the application rather than a database or a mocking library.
+ */
+final class BenchmarkFixtures {
+
+	private static final List<String> GUEST_COLUMNS = Arrays.asList(
+		"GUEST_ID", "FIRST_NAME", "LAST_NAME", "GUEST_DESCRIPTION", "GUEST_DIETARY_RESTRICTIONS",
+		"INVITE_CODE", "RESERVATION_ID", "IS_ATTENDING", "DATETIME_SUBMITTED");
+
+	private BenchmarkFixtures() {}
+
+	static com.jonfreer.wedding.domain.Guest domainGuest(int id) {
+		return new com.jonfreer.wedding.domain.Guest(
+			id, "Given" + id, "Surname" + id, "Friend of the groom.", "PA" + id, "None.",
+			new com.jonfreer.wedding.domain.Reservation(true, new Timestamp(1483228800000L + id)));
+	}
+
+	static com.jonfreer.wedding.servicemodel.Guest serviceModelGuest(int id) {
+		com.jonfreer.wedding.servicemodel.Guest guest = new com.jonfreer.wedding.servicemodel.Guest(
+			id, "Given" + id, "Surname" + id, "Friend of the groom.", "PA" + id, "None.");
+		guest.setReservation(new com.jonfreer.wedding.servicemodel.Reservation(true, new Timestamp(1483228800000L + id)));
+		return guest;
+	}
+
+	static List<com.jonfreer.wedding.servicemodel.Guest> serviceModelGuests(int count) {
+		List<com.jonfreer.wedding.servicemodel.Guest> guests = new ArrayList<com.jonfreer.wedding.servicemodel.Guest>(count);
+		for (int id = 1; id <= count; id++) {
+			guests.add(serviceModelGuest(id));
+		}
+		return guests;
+	}
+
+	/**
+	 * Creates the rows that the guest stored procedures hand back, one guest
+	 * (with a reservation) per row.
+	 */
+	static List<Object[]> guestRows(int count) {
+		List<Object[]> rows = new ArrayList<Object[]>(count);
+		for (int id = 1; id <= count; id++) {
+			rows.add(new Object[] {
+				id, "Given" + id, "Surname" + id, "Friend of the groom.", "None.",
+				"PA" + id, id, Boolean.TRUE, new Timestamp(1483228800000L + id) });
+		}
+		return rows;
+	}
+
+	/**
+	 * Creates a unit of work whose statements all return the rows provided
+	 * (columns as returned by the guest stored procedures) when executed.
+	 */
+	static IDatabaseUnitOfWork unitOfWork(List<Object[]> rows) {
+		final ResultSetHandler resultSetHandler = new ResultSetHandler(GUEST_COLUMNS, rows);
+		final ResultSet resultSet = proxy(ResultSet.class, resultSetHandler);
+		final CallableStatement statement = proxy(CallableStatement.class, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if (method.getName().equals("executeQuery") || method.getName().equals("getResultSet")) {
+					resultSetHandler.reset();
+					return resultSet;
+				}
+				return defaultValue(method.getReturnType());
+			}
+		});
+
+		return new IDatabaseUnitOfWork() {
+			public void Save() {}
+			public void Undo() {}
+			public void addListener(IUnitOfWorkListener listener) {}
+			public PreparedStatement createPreparedStatement(String sql) { return statement; }
+			public PreparedStatement createPreparedStatement(String sql, int autoGeneratedKeys) { return statement; }
+			public CallableStatement createCallableStatement(String sql) { return statement; }
+			public void destroyStatement(PreparedStatement statement) {}
+			public void destroyStatements(PreparedStatement... statements) {}
+		};
+	}
+
+	static LogService logService() {
+		return new LogService() {
+			public void error(String message, String stacktrace) {}
+			public void error(Exception exception) {}
+			public void warning(String message) {}
+			public void info(String message) {}
+			public void debug(String message) {}
+		};
+	}
+
+	private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+		return type.cast(Proxy.newProxyInstance(BenchmarkFixtures.class.getClassLoader(), new Class<?>[] { type }, handler));
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		if (type == boolean.class) {
+			return Boolean.FALSE;
+		}
+		if (type == int.class) {
+			return 0;
+		}
+		if (type == long.class) {
+			return 0L;
+		}
+		if (type == short.class) {
+			return (short) 0;
+		}
+		if (type == byte.class) {
+			return (byte) 0;
+		}
+		if (type == double.class) {
+			return 0d;
+		}
+		if (type == float.class) {
+			return 0f;
+		}
+		if (type == char.class) {
+			return '\0';
+		}
+		return null;
+	}
+
+	/**
+	 * A forward-only result set over rows held in memory, answering the getters
+	 * by column label or by column index.
+	 */
+	private static final class ResultSetHandler implements InvocationHandler {
+
+		private final List<String> columns;
+		private final List<Object[]> rows;
+		private int row;
+		private boolean wasNull;
+		private boolean isClosed;
+
+		private ResultSetHandler(List<String> columns, List<Object[]> rows) {
+			this.columns = columns;
+			this.rows = rows;
+		}
+
+		private void reset() {
+			this.row = -1;
+			this.wasNull = false;
+			this.isClosed = false;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) {
+			String name = method.getName();
+
+			if (name.equals("next")) {
+				return ++this.row < this.rows.size();
+			}
+			if (name.equals("wasNull")) {
+				return this.wasNull;
+			}
+			if (name.equals("findColumn")) {
+				return this.columns.indexOf(args[0]) + 1;
+			}
+			if (name.equals("close")) {
+				this.isClosed = true;
+				return null;
+			}
+			if (name.equals("isClosed")) {
+				return this.isClosed;
+			}
+			if (name.startsWith("get") && args != null && args.length > 0) {
+				int index = args[0] instanceof String ? this.columns.indexOf(args[0]) : (Integer) args[0] - 1;
+				Object value = this.rows.get(this.row)[index];
+				this.wasNull = value == null;
+				return value == null ? defaultValue(method.getReturnType()) : value;
+			}
+			return defaultValue(method.getReturnType());
+		}
+	}
+}
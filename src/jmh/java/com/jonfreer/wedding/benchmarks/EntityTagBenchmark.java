@@ -0,0 +1,63 @@
+package com.jonfreer.wedding.benchmarks;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.EntityTag;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.Base64Variants;
+import com.jonfreer.wedding.infrastructure.services.EntityTagService;
+import com.jonfreer.wedding.servicemodel.Guest;
+
+/**
+ * Measures the cost of computing the entity tag of a guest with EntityTagService,
+ * against the previous implementation (an MD5 digest of the string representation
+ * of the guest, encoded in base 64) as a baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntityTagBenchmark {
+
+	private EntityTagService entityTagService;
+	private Guest guest;
+
+	@Setup
+	public void setUp() {
+		this.entityTagService = new EntityTagService();
+		this.guest = BenchmarkFixtures.serviceModelGuest(1);
+	}
+
+	@Benchmark
+	public EntityTag get() {
+		return this.entityTagService.get(this.guest);
+	}
+
+	@Benchmark
+	public EntityTag getWeak() {
+		return this.entityTagService.get(this.guest, true);
+	}
+
+	@Benchmark
+	public EntityTag md5Baseline() throws NoSuchAlgorithmException {
+		MessageDigest digest = MessageDigest.getInstance("MD5");
+		byte[] bytesMD5 = digest.digest(this.guest.toString().getBytes(Charset.forName("UTF-8")));
+		return new EntityTag(Base64Variants.MIME_NO_LINEFEEDS.encode(bytesMD5));
+	}
+}
@@ -0,0 +1,67 @@
+package com.jonfreer.wedding.benchmarks;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.dozer.DozerBeanMapper;
+import org.dozer.Mapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jonfreer.wedding.application.mappers.GuestMapper;
+
+/**
+ * Measures the cost of mapping a single guest (with a reservation) between the
+ * domain model and the service model, with DozerBeanMapper and with GuestMapper.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GuestMappingBenchmark {
+
+	private Mapper dozerMapper;
+	private Mapper guestMapper;
+	private com.jonfreer.wedding.domain.Guest domainGuest;
+	private com.jonfreer.wedding.servicemodel.Guest serviceModelGuest;
+
+	@Setup
+	public void setUp() {
+		this.dozerMapper = new DozerBeanMapper();
+		this.guestMapper = new GuestMapper(new DozerBeanMapper());
+		this.domainGuest = new com.jonfreer.wedding.domain.Guest(
+			1, "Jon", "Freer", "Groom.", "PA000", "None.",
+			new com.jonfreer.wedding.domain.Reservation(true, new Date()));
+		this.serviceModelGuest = this.guestMapper.map(this.domainGuest, com.jonfreer.wedding.servicemodel.Guest.class);
+	}
+
+	@Benchmark
+	public com.jonfreer.wedding.servicemodel.Guest dozer_toServiceModel() {
+		return this.dozerMapper.map(this.domainGuest, com.jonfreer.wedding.servicemodel.Guest.class);
+	}
+
+	@Benchmark
+	public com.jonfreer.wedding.servicemodel.Guest explicit_toServiceModel() {
+		return this.guestMapper.map(this.domainGuest, com.jonfreer.wedding.servicemodel.Guest.class);
+	}
+
+	@Benchmark
+	public com.jonfreer.wedding.domain.Guest dozer_toDomain() {
+		return this.dozerMapper.map(this.serviceModelGuest, com.jonfreer.wedding.domain.Guest.class);
+	}
+
+	@Benchmark
+	public com.jonfreer.wedding.domain.Guest explicit_toDomain() {
+		return this.guestMapper.map(this.serviceModelGuest, com.jonfreer.wedding.domain.Guest.class);
+	}
+}
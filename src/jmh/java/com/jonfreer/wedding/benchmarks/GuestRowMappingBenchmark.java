@@ -0,0 +1,82 @@
+package com.jonfreer.wedding.benchmarks;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jonfreer.wedding.domain.Guest;
+import com.jonfreer.wedding.domain.Reservation;
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.infrastructure.repositories.GuestRepository;
+
+/**
+ * Measures the cost of GuestRepository turning the rows of a result set into
+ * guests. The rows come from memory, so the database is not measured. The
+ * baseline maps the rows the way the repository used to: every column looked
+ * up by name on every row, with a new UTC calendar per reservation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GuestRowMappingBenchmark {
+
+	@Param({ "1", "100", "100000" })
+	private int rows;
+
+	private IDatabaseUnitOfWork unitOfWork;
+	private GuestRepository guestRepository;
+
+	@Setup
+	public void setUp() {
+		this.unitOfWork = BenchmarkFixtures.unitOfWork(BenchmarkFixtures.guestRows(this.rows));
+		this.guestRepository = new GuestRepository(this.unitOfWork);
+	}
+
+	@Benchmark
+	public ArrayList<Guest> getGuests() {
+		return this.guestRepository.getGuests(null);
+	}
+
+	@Benchmark
+	public ArrayList<Guest> getGuestsByColumnNameBaseline() throws SQLException {
+		ArrayList<Guest> guests = new ArrayList<Guest>();
+		ResultSet result = this.unitOfWork.createCallableStatement("{CALL GetGuests(?, ?, ?, ?, ?)}").executeQuery();
+		while (result.next()) {
+			Guest guest = new Guest();
+			guest.setId(result.getInt("GUEST_ID"));
+			guest.setGivenName(result.getString("FIRST_NAME"));
+			guest.setSurName(result.getString("LAST_NAME"));
+			guest.setDescription(result.getString("GUEST_DESCRIPTION"));
+			guest.setDietaryRestrictions(result.getString("GUEST_DIETARY_RESTRICTIONS"));
+			guest.setInviteCode(result.getString("INVITE_CODE"));
+			result.getInt("RESERVATION_ID");
+			if (!result.wasNull()) {
+				Reservation reservation = new Reservation();
+				reservation.setIsAttending(result.getBoolean("IS_ATTENDING"));
+				reservation.setSubmittedDateTime(
+					result.getTimestamp("DATETIME_SUBMITTED", Calendar.getInstance(TimeZone.getTimeZone("UTC"))));
+				guest.setReservation(reservation);
+			}
+			guests.add(guest);
+		}
+		return guests;
+	}
+}
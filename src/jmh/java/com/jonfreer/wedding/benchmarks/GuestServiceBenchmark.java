@@ -0,0 +1,75 @@
+package com.jonfreer.wedding.benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Provider;
+
+import org.dozer.DozerBeanMapper;
+import org.dozer.Mapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jonfreer.wedding.application.mappers.GuestMapper;
+import com.jonfreer.wedding.application.services.GuestService;
+import com.jonfreer.wedding.domain.interfaces.repositories.IGuestRepository;
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.infrastructure.interfaces.factories.IGuestRepositoryFactory;
+import com.jonfreer.wedding.infrastructure.repositories.GuestRepository;
+import com.jonfreer.wedding.infrastructure.queries.GuestSearchQuery;
+import com.jonfreer.wedding.servicemodel.Guest;
+
+/**
+ * Measures the cost of GuestService retrieving a page of guests, from the rows
+ * of a result set to service model guests, with either mapper bound in MapperBinder.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GuestServiceBenchmark {
+
+	@Param({ "dozer", "explicit" })
+	private String mapper;
+
+	@Param({ "25" })
+	private int rows;
+
+	private GuestService guestService;
+
+	@Setup
+	public void setUp() {
+		final IDatabaseUnitOfWork unitOfWork = BenchmarkFixtures.unitOfWork(BenchmarkFixtures.guestRows(this.rows));
+		Mapper selectedMapper = "dozer".equals(this.mapper) ? new DozerBeanMapper() : new GuestMapper(new DozerBeanMapper());
+
+		this.guestService = new GuestService(
+			new IGuestRepositoryFactory() {
+				public IGuestRepository create(IDatabaseUnitOfWork unitOfWork) {
+					return new GuestRepository(unitOfWork);
+				}
+			},
+			new Provider<IDatabaseUnitOfWork>() {
+				public IDatabaseUnitOfWork get() {
+					return unitOfWork;
+				}
+			},
+			BenchmarkFixtures.logService(),
+			selectedMapper);
+	}
+
+	@Benchmark
+	public ArrayList<Guest> getGuests() {
+		return this.guestService.getGuests(new GuestSearchQuery(null, null, null, 0, this.rows));
+	}
+}
@@ -0,0 +1,57 @@
+package com.jonfreer.wedding.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jonfreer.wedding.servicemodel.Guest;
+
+/**
+ * Measures the cost of serializing service model guests to JSON, the way the
+ * Jackson provider registered with the application does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonSerializationBenchmark {
+
+	@Param({ "25" })
+	private int pageSize;
+
+	private ObjectMapper objectMapper;
+	private Guest guest;
+	private List<Guest> guests;
+
+	@Setup
+	public void setUp() {
+		this.objectMapper = new ObjectMapper();
+		this.guest = BenchmarkFixtures.serviceModelGuest(1);
+		this.guests = BenchmarkFixtures.serviceModelGuests(this.pageSize);
+	}
+
+	@Benchmark
+	public byte[] serializeGuest() throws JsonProcessingException {
+		return this.objectMapper.writeValueAsBytes(this.guest);
+	}
+
+	@Benchmark
+	public byte[] serializeGuests() throws JsonProcessingException {
+		return this.objectMapper.writeValueAsBytes(this.guests);
+	}
+}
@@ -0,0 +1,81 @@
+package com.jonfreer.wedding.benchmarks;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.UriBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.jonfreer.wedding.api.converters.GuestCollectionConverter;
+import com.jonfreer.wedding.api.converters.GuestConverter;
+import com.jonfreer.wedding.servicemodel.Guest;
+
+/**
+ * Measures the cost of building the Siren representations of a guest and of
+ * a page of the guest collection. The item URI baseline builds the URI of
+ * every item of the page with a UriBuilder, as the collection converter used to.
+ *
+ * The time spent in the Siren library itself (com.jonfreer:siren) is part of
+ * every measurement, so figures are only meaningful from a run against that
+ * library, not against stand-in classes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SirenConversionBenchmark {
+
+	@Param({ "25", "10000" })
+	private int pageSize;
+
+	private GuestConverter guestConverter;
+	private GuestCollectionConverter guestCollectionConverter;
+	private Guest guest;
+	private List<Guest> guests;
+	private URI guestUri;
+	private URI guestsUri;
+
+	@Setup
+	public void setUp() {
+		this.guestConverter = new GuestConverter();
+		this.guestCollectionConverter = new GuestCollectionConverter();
+		this.guest = BenchmarkFixtures.serviceModelGuest(1);
+		this.guests = BenchmarkFixtures.serviceModelGuests(this.pageSize);
+		this.guestUri = URI.create("http://api.jonfreer.com/wedding/guests/1");
+		this.guestsUri = URI.create("http://api.jonfreer.com/wedding/guests?skip=0&take=" + this.pageSize);
+	}
+
+	@Benchmark
+	public Object convertGuest() {
+		return this.guestConverter.convert(this.guest, this.guestUri);
+	}
+
+	@Benchmark
+	public Object convertGuestCollection() throws URISyntaxException {
+		return this.guestCollectionConverter.convert(this.guests, this.guestsUri, 0, this.pageSize, this.pageSize * 4);
+	}
+
+	@Benchmark
+	public void itemUrisByUriBuilderBaseline(Blackhole blackhole) {
+		for (Guest guest : this.guests) {
+			blackhole.consume(
+				UriBuilder.fromUri(this.guestsUri).replaceQuery("").path("/{id}/").build(guest.getId()));
+		}
+	}
+}
@@ -2,19 +2,30 @@ package com.jonfreer.wedding;
 
 import com.fasterxml.jackson.jaxrs.json.JacksonJsonProvider;
 import com.jonfreer.wedding.api.resources.GuestResource;
+import com.jonfreer.wedding.api.resources.MetricsResource;
 import com.jonfreer.wedding.api.exceptionmappers.GeneralExceptionMapper;
 import com.jonfreer.wedding.api.exceptionmappers.NotFoundExceptionMapper;
 import com.jonfreer.wedding.api.filters.CacheControlFilter;
 import com.jonfreer.wedding.api.filters.ConditionalGetFilter;
 import com.jonfreer.wedding.api.filters.ConditionalPutFilter;
+import com.jonfreer.wedding.api.filters.MetricsFilter;
+import com.jonfreer.wedding.api.filters.ResponseCacheFilter;
+import com.jonfreer.wedding.api.filters.ServerTimingFilter;
+import com.jonfreer.wedding.api.filters.UnitOfWorkFilter;
 import com.jonfreer.wedding.hk2.IGuestServiceBinder;
+import com.jonfreer.wedding.hk2.ApplicationConfigurationBinder;
 import com.jonfreer.wedding.hk2.ConverterBinder;
 import com.jonfreer.wedding.hk2.EntityTagServiceBinder;
+import com.jonfreer.wedding.hk2.IDatabaseUnitOfWorkBinder;
 import com.jonfreer.wedding.hk2.IDatabaseUnitOfWorkFactoryBinder;
 import com.jonfreer.wedding.hk2.LogServiceBinder;
+import com.jonfreer.wedding.hk2.SlowStatementLogBinder;
 import com.jonfreer.wedding.hk2.IGuestRepositoryFactoryBinder;
 import com.jonfreer.wedding.hk2.ResourceMetadataServiceBinder;
+import com.jonfreer.wedding.hk2.ResponseCacheBinder;
 import com.jonfreer.wedding.hk2.MapperBinder;
+import com.jonfreer.wedding.hk2.MetricRegistryBinder;
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
 import org.glassfish.jersey.server.ResourceConfig;
 
 /**
@@ -29,23 +40,35 @@ public class WeddingApplicationConfiguration extends ResourceConfig {
             e.printStackTrace();
         }
 
+        ApplicationConfiguration configuration = new ApplicationConfiguration();
+
         //JAX-RS Components.
         this.register(GuestResource.class);
+        this.register(MetricsResource.class);
         this.register(GeneralExceptionMapper.class);
         this.register(NotFoundExceptionMapper.class);
         this.register(JacksonJsonProvider.class);
         this.register(CacheControlFilter.class);
         this.register(ConditionalGetFilter.class);
         this.register(ConditionalPutFilter.class);
+        this.register(ResponseCacheFilter.class);
+        this.register(UnitOfWorkFilter.class);
+        this.register(MetricsFilter.class);
+        this.register(ServerTimingFilter.class);
 
         //HK2 Binders.
+        this.register(new ApplicationConfigurationBinder(configuration));
         this.register(new IGuestServiceBinder());
         this.register(new IGuestRepositoryFactoryBinder());
         this.register(new IDatabaseUnitOfWorkFactoryBinder());
+        this.register(new IDatabaseUnitOfWorkBinder());
         this.register(new ResourceMetadataServiceBinder());
-        this.register(new MapperBinder());
+        this.register(new ResponseCacheBinder());
+        this.register(new MapperBinder(configuration));
         this.register(new EntityTagServiceBinder());
         this.register(new LogServiceBinder());
         this.register(new ConverterBinder());
+        this.register(new MetricRegistryBinder());
+        this.register(new SlowStatementLogBinder());
     }
 }
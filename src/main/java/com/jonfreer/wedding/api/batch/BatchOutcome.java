@@ -0,0 +1,72 @@
+package com.jonfreer.wedding.api.batch;
+
+/**
+ * Represents the outcome of a single row of a batch request.
+ */
+public class BatchOutcome {
+
+	private int index;
+	private int status;
+	private Integer id;
+	private String location;
+	private String message;
+
+	public BatchOutcome() {}
+
+	/**
+	 * Constructs a BatchOutcome.
+	 *
+	 * @param index The position of the row within the request, starting at zero.
+	 * @param status The HTTP status code describing the outcome of the row.
+	 * @param id The identifier of the guest resource the row acted on; null when there is none.
+	 * @param location The URI of the guest resource the row acted on; null when there is none.
+	 * @param message An explanation of why the row failed; null when it succeeded.
+	 */
+	public BatchOutcome(int index, int status, Integer id, String location, String message) {
+		this.index = index;
+		this.status = status;
+		this.id = id;
+		this.location = location;
+		this.message = message;
+	}
+
+	public int getIndex() {
+		return this.index;
+	}
+
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
+	public int getStatus() {
+		return this.status;
+	}
+
+	public void setStatus(int status) {
+		this.status = status;
+	}
+
+	public Integer getId() {
+		return this.id;
+	}
+
+	public void setId(Integer id) {
+		this.id = id;
+	}
+
+	public String getLocation() {
+		return this.location;
+	}
+
+	public void setLocation(String location) {
+		this.location = location;
+	}
+
+	public String getMessage() {
+		return this.message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+}
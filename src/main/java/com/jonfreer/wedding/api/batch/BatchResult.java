@@ -0,0 +1,58 @@
+package com.jonfreer.wedding.api.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents the result of a batch request: the outcome of each of its rows,
+ * in the order of the rows, along with how many succeeded and failed.
+ */
+public class BatchResult {
+
+	private int succeeded;
+	private int failed;
+	private List<BatchOutcome> outcomes;
+
+	public BatchResult() {
+		this.outcomes = new ArrayList<BatchOutcome>();
+	}
+
+	/**
+	 * Adds the outcome of a row, counting it as succeeded when its status
+	 * is not an error status.
+	 *
+	 * @param outcome The outcome of the row.
+	 */
+	public void add(BatchOutcome outcome) {
+		this.outcomes.add(outcome);
+		if (outcome.getStatus() < 400) {
+			this.succeeded++;
+		} else {
+			this.failed++;
+		}
+	}
+
+	public int getSucceeded() {
+		return this.succeeded;
+	}
+
+	public void setSucceeded(int succeeded) {
+		this.succeeded = succeeded;
+	}
+
+	public int getFailed() {
+		return this.failed;
+	}
+
+	public void setFailed(int failed) {
+		this.failed = failed;
+	}
+
+	public List<BatchOutcome> getOutcomes() {
+		return this.outcomes;
+	}
+
+	public void setOutcomes(List<BatchOutcome> outcomes) {
+		this.outcomes = outcomes;
+	}
+}
@@ -0,0 +1,184 @@
+package com.jonfreer.wedding.api.batch;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import com.jonfreer.wedding.servicemodel.Guest;
+import com.jonfreer.wedding.servicemodel.Reservation;
+
+/**
+ * Parses guests from CSV (RFC 4180: comma separated, optionally quoted fields,
+ * quotes escaped by doubling them). The first record is a header naming the
+ * column of each field, in any order:
+ * givenName, surName, description, inviteCode, dietaryRestrictions and isAttending.
+ * A guest is given a reservation when its isAttending field is not empty.
+ *
+ * A malformed header fails the whole body; any other malformed record only
+ * fails its own row.
+ */
+public class GuestCsvParser {
+
+	private static final String[] COLUMNS =
+		{ "givenname", "surname", "description", "invitecode", "dietaryrestrictions", "isattending" };
+
+	/**
+	 * Represents a single parsed record: either a guest or the reason the
+	 * record could not be parsed.
+	 */
+	public static class Row {
+
+		private final Guest guest;
+		private final String error;
+
+		private Row(Guest guest, String error) {
+			this.guest = guest;
+			this.error = error;
+		}
+
+		public Guest getGuest() {
+			return this.guest;
+		}
+
+		public String getError() {
+			return this.error;
+		}
+	}
+
+	/**
+	 * Parses the guests of the CSV provided.
+	 *
+	 * @param csv The CSV, including its header.
+	 * @return The rows following the header, in order.
+	 * @throws IllegalArgumentException Thrown when the header is missing or
+	 *                                  names an unknown or repeated column.
+	 */
+	public List<Row> parse(String csv) {
+
+		List<List<String>> records = records(csv == null ? "" : csv);
+		if (records.isEmpty()) {
+			throw new IllegalArgumentException("The CSV must begin with a header naming its columns.");
+		}
+
+		int[] positions = new int[COLUMNS.length];
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = -1;
+		}
+
+		List<String> header = records.get(0);
+		for (int i = 0; i < header.size(); i++) {
+			int column = column(header.get(i));
+			if (column < 0) {
+				throw new IllegalArgumentException("The CSV header names an unknown column: '" + header.get(i) + "'.");
+			}
+			if (positions[column] >= 0) {
+				throw new IllegalArgumentException("The CSV header names a column twice: '" + header.get(i) + "'.");
+			}
+			positions[column] = i;
+		}
+
+		List<Row> rows = new ArrayList<Row>(records.size() - 1);
+		for (int r = 1; r < records.size(); r++) {
+			List<String> record = records.get(r);
+			if (record.size() != header.size()) {
+				rows.add(new Row(null, "The record has " + record.size() + " fields; the header has " + header.size() + "."));
+				continue;
+			}
+
+			Guest guest = new Guest();
+			guest.setGivenName(field(record, positions[0]));
+			guest.setSurName(field(record, positions[1]));
+			guest.setDescription(field(record, positions[2]));
+			guest.setInviteCode(field(record, positions[3]));
+			guest.setDietaryRestrictions(field(record, positions[4]));
+
+			String isAttending = field(record, positions[5]);
+			if (isAttending != null) {
+				if (!isAttending.equalsIgnoreCase("true") && !isAttending.equalsIgnoreCase("false")) {
+					rows.add(new Row(null, "The isAttending field must be either true or false."));
+					continue;
+				}
+				guest.setReservation(new Reservation(Boolean.valueOf(isAttending), new Date()));
+			}
+			rows.add(new Row(guest, null));
+		}
+		return rows;
+	}
+
+	private static int column(String name) {
+		String normalized = name.trim().toLowerCase(Locale.ROOT);
+		for (int i = 0; i < COLUMNS.length; i++) {
+			if (COLUMNS[i].equals(normalized)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Retrieves a field of a record; empty fields (and absent columns) are null.
+	 */
+	private static String field(List<String> record, int position) {
+		if (position < 0) {
+			return null;
+		}
+		String value = record.get(position).trim();
+		return value.isEmpty() ? null : value;
+	}
+
+	/**
+	 * Splits CSV into records of fields, skipping blank lines.
+	 */
+	private static List<List<String>> records(String csv) {
+		List<List<String>> records = new ArrayList<List<String>>();
+		List<String> record = new ArrayList<String>();
+		StringBuilder field = new StringBuilder();
+		boolean isQuoted = false;
+		boolean isBlank = true;
+
+		for (int i = 0; i < csv.length(); i++) {
+			char c = csv.charAt(i);
+
+			if (isQuoted) {
+				if (c == '"' && i + 1 < csv.length() && csv.charAt(i + 1) == '"') {
+					field.append('"');
+					i++;
+				} else if (c == '"') {
+					isQuoted = false;
+				} else {
+					field.append(c);
+				}
+			} else if (c == '"') {
+				isQuoted = true;
+				isBlank = false;
+			} else if (c == ',') {
+				record.add(field.toString());
+				field.setLength(0);
+				isBlank = false;
+			} else if (c == '\n' || c == '\r') {
+				if (c == '\r' && i + 1 < csv.length() && csv.charAt(i + 1) == '\n') {
+					i++;
+				}
+				if (!isBlank) {
+					record.add(field.toString());
+					records.add(record);
+					record = new ArrayList<String>();
+				}
+				field.setLength(0);
+				isBlank = true;
+			} else {
+				field.append(c);
+				if (!Character.isWhitespace(c)) {
+					isBlank = false;
+				}
+			}
+		}
+
+		if (!isBlank) {
+			record.add(field.toString());
+			records.add(record);
+		}
+		return records;
+	}
+}
@@ -0,0 +1,6 @@
+/**
+ * Provides the classes supporting requests that act on many guest resources
+ * at once: the per-row outcomes reported back, and the parsing of guests
+ * provided as CSV.
+ */
+package com.jonfreer.wedding.api.batch;
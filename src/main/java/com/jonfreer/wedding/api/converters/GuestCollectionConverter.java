@@ -17,28 +17,87 @@ import siren.Relation;
 public class GuestCollectionConverter {
 
 	public Entity convert(List<Guest> guests, URI requestUri, Integer skip, Integer take, Integer total) throws URISyntaxException {
-		
-		Link.Builder linkBuilder = new Link.Builder();
-		Entity.Builder entityBuilder = new Entity.Builder();
-		Action.Builder actionBuilder = new Action.Builder();
-		EmbeddedLinkSubEntity.Builder linkSubEntityBuilder = new EmbeddedLinkSubEntity.Builder();
-		final String sirenMediaType = "application/vnd.siren+json";
-		final String jsonMediaType = "application/json";
 
-		boolean hasPreviousLink = this.hasPreviousLink(skip, take, total);
-		boolean hasNextLink = this.hasNextLink(skip, take, total);
+		URI prevHref = null;
+		URI nextHref = null;
 
-		if(hasPreviousLink) {
+		if(this.hasPreviousLink(skip, take, total)) {
 			Integer prevSkip = skip - take >= 0 ? skip - take : 0;
 			Integer prevTake = skip - prevSkip < take ? skip - prevSkip : take;
 
-			URI prevHref = 
+			prevHref = 
 				UriBuilder
 					.fromUri(requestUri)
 					.replaceQueryParam("skip", prevSkip)
 					.replaceQueryParam("take", prevTake)
 					.build();
+		}
+
+		if(this.hasNextLink(skip, take, total)) {
+			int nextSkip = skip + take;
+			int nextTake = take;
+
+			nextHref = 
+				UriBuilder
+					.fromUri(requestUri)
+					.replaceQueryParam("skip", nextSkip)
+					.replaceQueryParam("take", nextTake)
+					.build();					
+		}
+
+		return this.build(guests, requestUri, prevHref, nextHref);
+	}
+
+	/**
+	 * Converts a page of guests retrieved by seeking (keyset pagination) into
+	 * a Siren collection entity. The previous and next links carry the cursors
+	 * provided in place of any offset.
+	 * 
+	 * @param guests The page of guests.
+	 * @param requestUri The URI of the request for the page.
+	 * @param previousCursor The cursor preceding the page; null when there is no previous page.
+	 * @param nextCursor The cursor following the page; null when there is no next page.
+	 * @return The Siren collection entity.
+	 * @throws URISyntaxException Thrown when a link cannot be built.
+	 */
+	public Entity convert(List<Guest> guests, URI requestUri, String previousCursor, String nextCursor) throws URISyntaxException {
+
+		URI prevHref = null;
+		URI nextHref = null;
+
+		if(previousCursor != null) {
+			prevHref = 
+				UriBuilder
+					.fromUri(requestUri)
+					.replaceQueryParam("skip", (Object[]) null)
+					.replaceQueryParam("after", (Object[]) null)
+					.replaceQueryParam("before", previousCursor)
+					.build();
+		}
 
+		if(nextCursor != null) {
+			nextHref = 
+				UriBuilder
+					.fromUri(requestUri)
+					.replaceQueryParam("skip", (Object[]) null)
+					.replaceQueryParam("before", (Object[]) null)
+					.replaceQueryParam("after", nextCursor)
+					.build();
+		}
+
+		return this.build(guests, requestUri, prevHref, nextHref);
+	}
+
+	private Entity build(List<Guest> guests, URI requestUri, URI prevHref, URI nextHref) throws URISyntaxException {
+		
+		Link.Builder linkBuilder = new Link.Builder();
+		Entity.Builder entityBuilder = new Entity.Builder();
+		Action.Builder actionBuilder = new Action.Builder();
+		EmbeddedLinkSubEntity.Builder linkSubEntityBuilder = new EmbeddedLinkSubEntity.Builder();
+		final String sirenMediaType = "application/vnd.siren+json";
+		final String jsonMediaType = "application/json";
+
+		if(prevHref != null) {
 			Link prevLink = 
 					linkBuilder
 					.rel(Relation.PREV)
@@ -51,17 +110,7 @@ public class GuestCollectionConverter {
 			linkBuilder.clear();
 		}
 
-		if(hasNextLink) {
-			int nextSkip = skip + take;
-			int nextTake = take;
-
-			URI nextHref = 
-				UriBuilder
-					.fromUri(requestUri)
-					.replaceQueryParam("skip", nextSkip)
-					.replaceQueryParam("take", nextTake)
-					.build();					
-
+		if(nextHref != null) {
 			Link nextLink = 
 					linkBuilder
 					.rel(Relation.NEXT)
@@ -85,10 +134,13 @@ public class GuestCollectionConverter {
 		entityBuilder.link(selfLink);
 		linkBuilder.clear();
 
+		//the collection URI without its query; every item URI is derived from it.
+		URI collectionHref = UriBuilder.fromUri(requestUri).replaceQuery("").build();
+
 		Action addGuest = 
 			actionBuilder
 				.method(HttpMethod.POST)
-				.href(UriBuilder.fromUri(requestUri).replaceQuery("").build())
+				.href(collectionHref)
 				.title("Add Guest")
 				.name("add-guest")
 				.type(jsonMediaType)
@@ -97,13 +149,12 @@ public class GuestCollectionConverter {
 		actionBuilder.clear();
 		entityBuilder.actions(addGuest);
 
+		String itemHrefPrefix = itemHrefPrefix(collectionHref);
+		StringBuilder itemHref = new StringBuilder(itemHrefPrefix.length() + 12);
+
 		for(Guest guest : guests) {
-			URI href = 
-				UriBuilder
-					.fromUri(requestUri)
-					.replaceQuery("")
-					.path("/{id}/")
-					.build(guest.getId());
+			itemHref.setLength(0);
+			URI href = URI.create(itemHref.append(itemHrefPrefix).append(guest.getId()).append('/').toString());
 
 			EmbeddedLinkSubEntity linkSubEntity = 
 				linkSubEntityBuilder
@@ -124,6 +175,16 @@ public class GuestCollectionConverter {
 		return entityBuilder.build();
 	}
 
+	/**
+	 * Produces the part of the URI of every item that precedes its identifier;
+	 * the item URI is the collection URI with the identifier appended as a
+	 * path segment, followed by a trailing slash.
+	 */
+	private static String itemHrefPrefix(URI collectionHref) {
+		String prefix = collectionHref.toString();
+		return prefix.endsWith("/") ? prefix : prefix + '/';
+	}
+
 	private boolean hasPreviousLink(Integer skip, Integer take, Integer total) {
 		boolean hasPrevious = false;
 		if (take != null && skip != null) {		
@@ -14,65 +14,37 @@ import siren.FieldType;
 import siren.HttpMethod;
 import siren.Link;
 import siren.Relation;
-import siren.factories.ActionBuilderFactory;
-import siren.factories.EntityBuilderFactory;
 import siren.factories.FieldBuilderFactory;
-import siren.factories.LinkBuilderFactory;
 
+/**
+ * Converts guests into Siren entities. The parts of the entity that are the
+ * same for every guest (the fields of the replace action) are built once;
+ * only the properties, links and actions that depend on the guest are built
+ * on each conversion.
+ */
 public class GuestConverter{
 
+	private static final Field<String> GIVEN_NAME_FIELD = textField("givenName", "Given Name");
+	private static final Field<String> SURNAME_FIELD = textField("surName", "Surname");
+	private static final Field<String> DESCRIPTION_FIELD = textField("description", "Description");
+	private static final Field<String> INVITE_CODE_FIELD = textField("inviteCode", "Invite Code");
+
 	public GuestConverter() {}
 
 	public Object convert(Guest guest, URI requestUri) {
 				
-		Entity.Builder entityBuilder = new EntityBuilderFactory().create();
-		Link.Builder linkBuilder = new LinkBuilderFactory().create();
-		Action.Builder actionBuilder = new ActionBuilderFactory().create();
-		Field.Builder<String> stringFieldBuilder = new FieldBuilderFactory<String>().create();
+		Entity.Builder entityBuilder = new Entity.Builder();
+		Action.Builder actionBuilder = new Action.Builder();
 
 		try {
 			Link selfLink = 
-				linkBuilder
+				new Link.Builder()
 				.href(requestUri)
 				.rel(Relation.SELF)
 				.type("application/json")
 				.title("Self")
 				.build();
 
-			Field<String> givenNameField =
-				stringFieldBuilder
-				.name("givenName")
-				.title("Given Name")
-				.type(FieldType.TEXT)
-				.build();
-
-			stringFieldBuilder.clear();
-
-			Field<String> surnameField =
-				stringFieldBuilder
-				.name("surName")
-				.title("Surname")
-				.type(FieldType.TEXT)
-				.build();
-
-			stringFieldBuilder.clear();
-
-			Field<String> descriptionField =
-				stringFieldBuilder
-				.name("description")
-				.title("Description")
-				.type(FieldType.TEXT)
-				.build();
-
-			stringFieldBuilder.clear();
-
-			Field<String> inviteCodeField =
-				stringFieldBuilder
-				.name("inviteCode")
-				.title("Invite Code")
-				.type(FieldType.TEXT)
-				.build();
-
 			Action deleteGuestAction = 
 				actionBuilder
 				.method(HttpMethod.DELETE)
@@ -90,7 +62,7 @@ public class GuestConverter{
 				.title("Replace Guest")
 				.name("replace-guest")
 				.href(requestUri)
-				.fields(givenNameField, surnameField, descriptionField, inviteCodeField)
+				.fields(GIVEN_NAME_FIELD, SURNAME_FIELD, DESCRIPTION_FIELD, INVITE_CODE_FIELD)
 				.type(MediaType.APPLICATION_JSON)
 				.build();
 
@@ -115,7 +87,15 @@ public class GuestConverter{
 
 		} catch (URISyntaxException e) {
 			e.printStackTrace();
-			return new RuntimeException(e);
+			throw new RuntimeException(e);
 		}
 	}
+
+	private static Field<String> textField(String name, String title) {
+		return new FieldBuilderFactory<String>().create()
+			.name(name)
+			.title(title)
+			.type(FieldType.TEXT)
+			.build();
+	}
 }
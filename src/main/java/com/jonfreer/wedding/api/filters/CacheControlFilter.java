@@ -6,6 +6,9 @@ import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerResponseContext;
 import javax.ws.rs.container.ContainerResponseFilter;
 import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Request;
 import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.Provider;
@@ -26,15 +29,40 @@ public class CacheControlFilter implements ContainerResponseFilter {
 		if(request.getMethod().equalsIgnoreCase("GET")){
 			
 			UriInfo uriInfo = requestContext.getUriInfo();
+			MultivaluedMap<String, Object> responseHeaders = responseContext.getHeaders();
+			EntityTag collectionEntityTag = 
+				(EntityTag) requestContext.getProperty(ConditionalGetFilter.COLLECTION_ENTITY_TAG);
 			
-			//for now, not providing caching abilities of search results.
-			if(uriInfo.getQueryParameters().isEmpty()){
+			if(responseHeaders.containsKey("Cache-Control")){
+				
+				//the resource decided how its representation is cached (e.g. /metrics is never cached).
+				
+			}else if(uriInfo.getQueryParameters().isEmpty()){
 				
 				CacheControl cacheControl = new CacheControl();
 				cacheControl.setPrivate(true);
 				cacheControl.setMaxAge(300);
 				
-				responseContext.getHeaders().add("Cache-Control", cacheControl);
+				responseHeaders.add("Cache-Control", cacheControl);
+				
+			}else if(collectionEntityTag != null){
+				
+				//search results change with any guest, so they are cached
+				//but revalidated against the collection entity tag every time.
+				CacheControl cacheControl = new CacheControl();
+				cacheControl.setPrivate(true);
+				cacheControl.setNoCache(true);
+				
+				responseHeaders.add("Cache-Control", cacheControl);
+			}
+			
+			if(collectionEntityTag != null){
+				responseHeaders.putSingle(HttpHeaders.ETAG, collectionEntityTag);
+				Object lastModified = requestContext.getProperty(ConditionalGetFilter.COLLECTION_LAST_MODIFIED);
+				if(lastModified != null){
+					responseHeaders.putSingle(HttpHeaders.LAST_MODIFIED, lastModified);
+				}
+				responseHeaders.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
 			}
 		}
 	}
@@ -1,35 +1,95 @@
 package com.jonfreer.wedding.api.filters;
 
 import java.io.IOException;
+import java.util.Date;
 
 import javax.inject.Inject;
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.Provider;
 
+import com.jonfreer.wedding.application.interfaces.services.IGuestService;
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
+import com.jonfreer.wedding.infrastructure.interfaces.services.EntityTagService;
 import com.jonfreer.wedding.infrastructure.interfaces.services.ResourceMetadataService;
+import com.jonfreer.wedding.infrastructure.metadata.CollectionVersion;
+import com.jonfreer.wedding.infrastructure.metadata.EntityTagMode;
 import com.jonfreer.wedding.infrastructure.metadata.ResourceMetadata;
+import com.jonfreer.wedding.infrastructure.metrics.ServerTiming;
 
+/**
+ * Answers conditional GET requests with 304 - Not Modified when the resource
+ * has not changed. Individual resources are compared against their resource
+ * metadata. The guest collection (including searches of it) is compared
+ * against an entity tag derived from the version of the collection as a whole,
+ * the request URI and the acceptable media types; that entity tag is left on
+ * the request for CacheControlFilter to send with the response.
+ */
 @Provider
 public class ConditionalGetFilter implements ContainerRequestFilter {
 
+	/**
+	 * The name of the request property holding the entity tag of the guest collection.
+	 */
+	public static final String COLLECTION_ENTITY_TAG =
+		ConditionalGetFilter.class.getName() + ".collectionEntityTag";
+
+	/**
+	 * The name of the request property holding the date and time the guest collection last changed.
+	 */
+	public static final String COLLECTION_LAST_MODIFIED =
+		ConditionalGetFilter.class.getName() + ".collectionLastModified";
+
+	private static final String GUEST_COLLECTION_PATH = "guests";
+
 	private ResourceMetadataService resourceMetadataService;
+	private IGuestService guestService;
+	private EntityTagService entityTagService;
+	private boolean isEnabled;
 	
 	@Inject
 	public ConditionalGetFilter(
-		ResourceMetadataService resourceMetadataService) {
+		ResourceMetadataService resourceMetadataService,
+		IGuestService guestService,
+		EntityTagService entityTagService,
+		ApplicationConfiguration configuration) {
 		
 		this.resourceMetadataService = resourceMetadataService;
+		this.guestService = guestService;
+		this.entityTagService = entityTagService;
+		//when entity tags come from guest versions, the resource evaluates the preconditions.
+		this.isEnabled = EntityTagMode.of(configuration) == EntityTagMode.METADATA;
 	}
 	
 	public void filter(ContainerRequestContext requestContext) throws IOException {
+		long span = ServerTiming.start();
+		try {
+			this.evaluatePreconditions(requestContext);
+		} finally {
+			ServerTiming.stop("conditional-get", span);
+		}
+	}
+
+	private void evaluatePreconditions(ContainerRequestContext requestContext) {
 		
 		Request request = requestContext.getRequest();
 		
-		if(request.getMethod().equalsIgnoreCase("GET")){
+		if(!request.getMethod().equalsIgnoreCase("GET")){
+			return;
+		}
+
+		if(isGuestCollection(requestContext.getUriInfo())){
+			this.filterCollection(requestContext);
+			return;
+		}
+
+		if(this.isEnabled){
 			
 			ResourceMetadata resourceMetadata =
 				this.resourceMetadataService.getResourceMetadata(
@@ -50,4 +110,40 @@ public class ConditionalGetFilter implements ContainerRequestFilter {
 		}
 	}
 
+	private void filterCollection(ContainerRequestContext requestContext) {
+
+		CollectionVersion collectionVersion = this.guestService.getGuestsVersion();
+		String accept = requestContext.getHeaderString(HttpHeaders.ACCEPT);
+
+		//the same version yields different results for different searches and media types.
+		EntityTag entityTag = this.entityTagService.get(
+			requestContext.getUriInfo().getRequestUri().toString()
+				+ '\n' + (accept == null ? "" : accept)
+				+ '\n' + collectionVersion.getVersion());
+		Date lastModified = collectionVersion.getLastModified();
+
+		requestContext.setProperty(COLLECTION_ENTITY_TAG, entityTag);
+		requestContext.setProperty(COLLECTION_LAST_MODIFIED, lastModified);
+
+		Request request = requestContext.getRequest();
+		ResponseBuilder responseBuilder = lastModified == null
+			? request.evaluatePreconditions(entityTag)
+			: request.evaluatePreconditions(lastModified, entityTag);
+
+		if(responseBuilder != null){
+			responseBuilder.header("Last-Modified", lastModified);
+			requestContext.abortWith(responseBuilder.build());
+		}
+	}
+
+	private static boolean isGuestCollection(UriInfo uriInfo) {
+		String path = uriInfo.getPath();
+		if(path.startsWith("/")){
+			path = path.substring(1);
+		}
+		if(path.endsWith("/")){
+			path = path.substring(0, path.length() - 1);
+		}
+		return GUEST_COLLECTION_PATH.equals(path);
+	}
 }
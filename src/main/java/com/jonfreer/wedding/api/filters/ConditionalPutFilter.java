@@ -10,17 +10,25 @@ import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.Provider;
 
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
 import com.jonfreer.wedding.infrastructure.interfaces.services.ResourceMetadataService;
+import com.jonfreer.wedding.infrastructure.metadata.EntityTagMode;
 import com.jonfreer.wedding.infrastructure.metadata.ResourceMetadata;
 
 @Provider
 public class ConditionalPutFilter implements ContainerRequestFilter {
 
 	private ResourceMetadataService resourceMetadataService;
+	private boolean isEnabled;
 	
 	@Inject
-	public ConditionalPutFilter(ResourceMetadataService resourceMetadataService){
+	public ConditionalPutFilter(
+		ResourceMetadataService resourceMetadataService,
+		ApplicationConfiguration configuration){
+		
 		this.resourceMetadataService = resourceMetadataService;
+		//when entity tags come from guest versions, the resource evaluates the preconditions.
+		this.isEnabled = EntityTagMode.of(configuration) == EntityTagMode.METADATA;
 	}
 	
 	public void filter(ContainerRequestContext requestContext) throws IOException {
@@ -28,7 +36,7 @@ public class ConditionalPutFilter implements ContainerRequestFilter {
 		Request request = requestContext.getRequest();
 		UriInfo uriInfo = requestContext.getUriInfo();
 		
-		if(request.getMethod().equalsIgnoreCase("PUT")){
+		if(this.isEnabled && request.getMethod().equalsIgnoreCase("PUT")){
 			
 			ResourceMetadata resourceMetadata = 
 				this.resourceMetadataService.getResourceMetadata(uriInfo.getRequestUri());
@@ -0,0 +1,92 @@
+package com.jonfreer.wedding.api.filters;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import com.jonfreer.wedding.infrastructure.metrics.MetricRegistry;
+
+/**
+ * Times every request matched to a resource method, by resource method and
+ * status code. Runs before every other filter on the way in and after them on
+ * the way out, so the time taken by the other filters is included; when the
+ * response has an entity, the time taken to write it is included as well.
+ */
+@Provider
+@Priority(Priorities.AUTHENTICATION)
+public class MetricsFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+	private static final String START = MetricsFilter.class.getName() + ".start";
+	private static final String METHOD = MetricsFilter.class.getName() + ".method";
+	private static final String STATUS = MetricsFilter.class.getName() + ".status";
+
+	private static final String TIMER = "wedding_http_request_duration_seconds";
+	private static final String HELP = "The time taken to serve a request, by resource method and status code.";
+
+	private final MetricRegistry metricRegistry;
+
+	@Context
+	private ResourceInfo resourceInfo;
+
+	@Inject
+	public MetricsFilter(MetricRegistry metricRegistry) {
+		this.metricRegistry = metricRegistry;
+	}
+
+	public void filter(ContainerRequestContext requestContext) throws IOException {
+		Method method = this.resourceInfo.getResourceMethod();
+		requestContext.setProperty(METHOD, method == null ? "unknown" : method.getName());
+		requestContext.setProperty(START, System.nanoTime());
+	}
+
+	public void filter(
+		ContainerRequestContext requestContext,
+		ContainerResponseContext responseContext) throws IOException {
+
+		Long start = (Long) requestContext.getProperty(START);
+		if (start == null) {
+			return;
+		}
+
+		String method = (String) requestContext.getProperty(METHOD);
+		String status = Integer.toString(responseContext.getStatus());
+
+		if (responseContext.hasEntity()) {
+			//the entity is written after the response filters have run.
+			requestContext.setProperty(STATUS, status);
+			return;
+		}
+
+		this.record(method, status, start);
+	}
+
+	public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+		try {
+			context.proceed();
+		} finally {
+			Long start = (Long) context.getProperty(START);
+			String status = (String) context.getProperty(STATUS);
+			if (start != null && status != null) {
+				this.record((String) context.getProperty(METHOD), status, start);
+			}
+		}
+	}
+
+	private void record(String method, String status, long start) {
+		this.metricRegistry.timer(TIMER, HELP, "method", method, "status", status)
+			.record(System.nanoTime() - start);
+	}
+}
@@ -0,0 +1,214 @@
+package com.jonfreer.wedding.api.filters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Date;
+import java.util.regex.Pattern;
+
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import com.jonfreer.wedding.infrastructure.caching.CachedResponse;
+import com.jonfreer.wedding.infrastructure.caching.ResponseCache;
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
+import com.jonfreer.wedding.infrastructure.interfaces.services.ResourceMetadataService;
+import com.jonfreer.wedding.infrastructure.metadata.EntityTagMode;
+import com.jonfreer.wedding.infrastructure.metadata.ResourceMetadata;
+import com.jonfreer.wedding.infrastructure.metrics.ServerTiming;
+
+/**
+ * Serves GET requests for individual guests from the ResponseCache when the
+ * representation rendered for the current entity tag of the resource (and the
+ * acceptable media types of the request) is held there, and adds the
+ * representations of successful GET requests to the cache as they are written.
+ *
+ * Runs after ConditionalGetFilter, so requests answered with 304 - Not Modified
+ * never reach the cache. Only applies when entity tags come from resource
+ * metadata, as that is what invalidates the cache. Other requests (the guest
+ * collection, metrics, and guests requested with a query string) never look
+ * up resource metadata here.
+ */
+@Provider
+@Priority(Priorities.USER + 100)
+public class ResponseCacheFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+	private static final String VARIANT = ResponseCacheFilter.class.getName() + ".variant";
+	private static final String REQUEST_URI = ResponseCacheFilter.class.getName() + ".requestUri";
+	private static final String VALIDATORS = ResponseCacheFilter.class.getName() + ".validators";
+	private static final Pattern GUEST_PATH = Pattern.compile("/?guests/\\d+/?");
+
+	private ResponseCache responseCache;
+	private ResourceMetadataService resourceMetadataService;
+	private boolean isEnabled;
+
+	@Inject
+	public ResponseCacheFilter(
+		ResponseCache responseCache,
+		ResourceMetadataService resourceMetadataService,
+		ApplicationConfiguration configuration) {
+
+		this.responseCache = responseCache;
+		this.resourceMetadataService = resourceMetadataService;
+		this.isEnabled = responseCache.isEnabled()
+			&& EntityTagMode.of(configuration) == EntityTagMode.METADATA;
+	}
+
+	public void filter(ContainerRequestContext requestContext) throws IOException {
+
+		if(!this.isEnabled
+			|| !requestContext.getMethod().equalsIgnoreCase("GET")
+			|| !isGuest(requestContext.getUriInfo())){
+			return;
+		}
+
+		long span = ServerTiming.start();
+		try {
+			this.lookUp(requestContext);
+		} finally {
+			ServerTiming.stop("response-cache", span);
+		}
+	}
+
+	private void lookUp(ContainerRequestContext requestContext) {
+
+		URI uri = requestContext.getUriInfo().getRequestUri();
+		String variant = variantOf(requestContext);
+		ResourceMetadata resourceMetadata = this.resourceMetadataService.getResourceMetadata(uri);
+
+		if(resourceMetadata != null){
+			CachedResponse cachedResponse =
+				this.responseCache.get(uri, variant, resourceMetadata.getEntityTag());
+
+			if(cachedResponse != null){
+				requestContext.abortWith(
+					Response.ok(cachedResponse.getBody())
+						.type(cachedResponse.getMediaType())
+						.tag(cachedResponse.getEntityTag())
+						.header("Last-Modified", cachedResponse.getLastModified())
+						.build());
+				return;
+			}
+		}
+
+		//resources without metadata yet have it created while they are rendered.
+		requestContext.setProperty(REQUEST_URI, uri);
+		requestContext.setProperty(VARIANT, variant);
+	}
+
+	public void filter(
+		ContainerRequestContext requestContext,
+		ContainerResponseContext responseContext) throws IOException {
+
+		if(requestContext.getProperty(VARIANT) == null
+			|| responseContext.getStatus() != Response.Status.OK.getStatusCode()
+			|| !responseContext.hasEntity()){
+			return;
+		}
+
+		Object entityTag = responseContext.getHeaders().getFirst(HttpHeaders.ETAG);
+		if(entityTag instanceof EntityTag){
+			requestContext.setProperty(
+				VALIDATORS, new Object[]{ entityTag, responseContext.getLastModified() });
+		}
+	}
+
+	public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+
+		String variant = (String) context.getProperty(VARIANT);
+		Object[] validators = (Object[]) context.getProperty(VALIDATORS);
+		if(variant == null || validators == null || context.getMediaType() == null){
+			context.proceed();
+			return;
+		}
+
+		OutputStream outputStream = context.getOutputStream();
+		CapturingOutputStream capturingStream =
+			new CapturingOutputStream(outputStream, this.responseCache.getMaximumEntryBytes());
+		context.setOutputStream(capturingStream);
+		try{
+			context.proceed();
+		}finally{
+			context.setOutputStream(outputStream);
+		}
+
+		byte[] body = capturingStream.getCaptured();
+		if(body != null){
+			MediaType mediaType = context.getMediaType();
+			this.responseCache.put(
+				(URI) context.getProperty(REQUEST_URI),
+				variant,
+				new CachedResponse((EntityTag) validators[0], (Date) validators[1], mediaType.toString(), body));
+		}
+	}
+
+	private static boolean isGuest(UriInfo uriInfo) {
+		return uriInfo.getRequestUri().getRawQuery() == null
+			&& GUEST_PATH.matcher(uriInfo.getPath()).matches();
+	}
+
+	private static String variantOf(ContainerRequestContext requestContext) {
+		String accept = requestContext.getHeaderString(HttpHeaders.ACCEPT);
+		return accept == null ? "" : accept;
+	}
+
+	/**
+	 * Passes everything written through to the stream it decorates, keeping a
+	 * copy as long as it stays within the limit provided.
+	 */
+	private static class CapturingOutputStream extends FilterOutputStream {
+
+		private final int limit;
+		private ByteArrayOutputStream captured;
+
+		private CapturingOutputStream(OutputStream outputStream, int limit) {
+			super(outputStream);
+			this.limit = limit;
+			this.captured = new ByteArrayOutputStream(Math.min(limit, 4096));
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			this.out.write(b);
+			if(this.reserve(1)){
+				this.captured.write(b);
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			this.out.write(b, off, len);
+			if(this.reserve(len)){
+				this.captured.write(b, off, len);
+			}
+		}
+
+		private byte[] getCaptured() {
+			return this.captured == null ? null : this.captured.toByteArray();
+		}
+
+		private boolean reserve(int len) {
+			if(this.captured != null && this.captured.size() + len > this.limit){
+				//too large to cache; stop copying.
+				this.captured = null;
+			}
+			return this.captured != null;
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.jonfreer.wedding.api.filters;
+
+import java.io.IOException;
+
+import javax.annotation.Priority;
+import javax.inject.Inject;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.ext.Provider;
+
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
+import com.jonfreer.wedding.infrastructure.metrics.ServerTiming;
+
+/**
+ * When enabled ('serverTiming.enabled'), records the spans of every request
+ * (filters, resource, service, repository, resource metadata and SQL) and
+ * sends them back in a Server-Timing response header, along with the total
+ * time taken up to the point the response headers are written. Runs before
+ * every other filter on the way in and after them on the way out.
+ */
+@Provider
+@Priority(Priorities.AUTHENTICATION)
+public class ServerTimingFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+	private static final String START = ServerTimingFilter.class.getName() + ".start";
+
+	private final boolean isEnabled;
+
+	@Inject
+	public ServerTimingFilter(ApplicationConfiguration configuration) {
+		this.isEnabled = configuration.getBoolean("serverTiming.enabled", false);
+	}
+
+	public void filter(ContainerRequestContext requestContext) throws IOException {
+		if (!this.isEnabled) {
+			return;
+		}
+
+		ServerTiming.begin();
+		requestContext.setProperty(START, ServerTiming.start());
+	}
+
+	public void filter(
+		ContainerRequestContext requestContext,
+		ContainerResponseContext responseContext) throws IOException {
+
+		Long start = (Long) requestContext.getProperty(START);
+		if (start == null) {
+			return;
+		}
+
+		ServerTiming.stop("total", start);
+		String serverTiming = ServerTiming.end();
+		if (serverTiming != null) {
+			responseContext.getHeaders().add("Server-Timing", serverTiming);
+		}
+	}
+}
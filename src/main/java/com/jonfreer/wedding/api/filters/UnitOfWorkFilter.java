@@ -0,0 +1,40 @@
+package com.jonfreer.wedding.api.filters;
+
+import java.io.IOException;
+
+import javax.inject.Inject;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.ext.Provider;
+
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+
+/**
+ * Completes the unit of work shared by the filters, resources and services
+ * taking part in a request. The unit of work is saved when the request
+ * succeeded, and undone when the response indicates an error.
+ */
+@Provider
+public class UnitOfWorkFilter implements ContainerResponseFilter {
+
+	private final javax.inject.Provider<IDatabaseUnitOfWork> unitOfWorkProvider;
+
+	@Inject
+	public UnitOfWorkFilter(javax.inject.Provider<IDatabaseUnitOfWork> unitOfWorkProvider) {
+		this.unitOfWorkProvider = unitOfWorkProvider;
+	}
+
+	public void filter(
+		ContainerRequestContext requestContext,
+		ContainerResponseContext responseContext) throws IOException {
+
+		IDatabaseUnitOfWork unitOfWork = this.unitOfWorkProvider.get();
+
+		if (responseContext.getStatus() >= 400) {
+			unitOfWork.Undo();
+		} else {
+			unitOfWork.Save();
+		}
+	}
+}
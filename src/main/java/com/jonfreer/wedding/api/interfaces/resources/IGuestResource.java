@@ -11,6 +11,8 @@ import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
+import java.util.List;
+
 /**
  * Defines the interface for resources that wish to interact
  * with guest resources.
@@ -36,6 +38,16 @@ public interface IGuestResource {
      *             matching the criteria is offset by the value provided.
      * @param take When provided, the collection guest resources
  *                 matching the criteria is limited by the value provided.
+     * @param after When provided, the collection guest resources is paginated
+     *              by cursor instead of by offset, starting after the position the
+     *              cursor (taken from a 'next' link) identifies. An empty value
+     *              starts from the beginning of the collection.
+     * @param before When provided, the collection guest resources is paginated
+     *               by cursor, ending before the position the cursor (taken from a
+     *               'prev' link) identifies.
+     * @param stream When true, and the collection is requested as plain JSON, the
+     *               guest resources are written to the response as they are read,
+     *               instead of being collected in memory first.
      * @return The response containing the matching guest resources.
      */
     @GET
@@ -48,7 +60,10 @@ public interface IGuestResource {
         @QueryParam("surname") String surname,
         @QueryParam("inviteCode") String inviteCode,
         @QueryParam("skip") Integer skip,
-        @QueryParam("take") Integer take
+        @QueryParam("take") Integer take,
+        @QueryParam("after") String after,
+        @QueryParam("before") String before,
+        @QueryParam("stream") @DefaultValue("false") boolean stream
     );
 
     /**
@@ -66,6 +81,63 @@ public interface IGuestResource {
     		@Context UriInfo uriInfo, 
     		Guest desiredGuestState) throws ResourceNotFoundException;
 
+    /**
+     * Creates many new guest resources at once, all in a single transaction,
+     * and appends them to the /guests/ resource collection. Rows that are not
+     * valid are rejected without affecting the others.
+     *
+     * @param uriInfo Information about the request URI.
+     * @param desiredGuestStates The desired states for the guest resources being created.
+     * @return javax.ws.rs.Response with an HTTP status of 200 - OK, containing the
+     * outcome of each row (201 - Created, or 400 - Bad Request when rejected).
+     */
+    @Path("batch")
+    @POST
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_JSON)
+    Response importGuests(
+    		@Context UriInfo uriInfo,
+    		List<Guest> desiredGuestStates);
+
+    /**
+     * Creates many new guest resources at once from CSV, all in a single transaction,
+     * and appends them to the /guests/ resource collection. The first line names the
+     * columns (givenName, surName, description, inviteCode, dietaryRestrictions and
+     * isAttending). Rows that are not valid are rejected without affecting the others.
+     *
+     * @param uriInfo Information about the request URI.
+     * @param desiredGuestStates The desired states for the guest resources being created, as CSV.
+     * @return javax.ws.rs.Response with an HTTP status of 200 - OK, containing the
+     * outcome of each row (201 - Created, or 400 - Bad Request when rejected).
+     */
+    @Path("batch")
+    @POST
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes("text/csv")
+    Response importGuestsCsv(
+    		@Context UriInfo uriInfo,
+    		String desiredGuestStates);
+
+    /**
+     * Replaces the current states of many guest resources at once (e.g. the
+     * reservations of everyone sharing an invite code), all in a single transaction.
+     * Rows that are not valid, or whose guest resource cannot be found, are
+     * rejected without affecting the others.
+     *
+     * @param uriInfo Information about the request URI.
+     * @param desiredGuestStates The desired states for the guest resources being
+     *                           updated, each carrying the id of its guest resource.
+     * @return javax.ws.rs.Response with an HTTP status of 200 - OK, containing the
+     * outcome of each row (200 - OK, 400 - Bad Request or 404 - Not Found).
+     */
+    @Path("batch")
+    @PUT
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_JSON)
+    Response updateGuests(
+    		@Context UriInfo uriInfo,
+    		List<Guest> desiredGuestStates);
+
     /**
      * Retrieves the current state of the guest resources with the id provided.
      *
@@ -0,0 +1,35 @@
+package com.jonfreer.wedding.api.interfaces.resources;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+/**
+ * Defines the interface for the resource exposing the metrics of the application.
+ */
+@Path("/metrics")
+public interface IMetricsResource {
+
+    /**
+     * Retrieves the metrics of the application in the Prometheus text format.
+     * The quantiles of the timers are rolling: they cover the last minute or so.
+     *
+     * @return The response containing the metrics.
+     */
+    @GET
+    @Produces("text/plain; version=0.0.4; charset=utf-8")
+    Response getMetrics();
+
+    /**
+     * Retrieves the slowest SQL statements executed, slowest first, with the
+     * rolling percentiles of their recent executions.
+     *
+     * @return The response containing the slowest statements.
+     */
+    @GET
+    @Path("/slow-statements")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response getSlowStatements();
+}
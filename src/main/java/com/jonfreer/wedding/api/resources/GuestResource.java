@@ -2,14 +2,24 @@ package com.jonfreer.wedding.api.resources;
 
 import siren.Entity;
 
+import com.jonfreer.wedding.api.batch.BatchOutcome;
+import com.jonfreer.wedding.api.batch.BatchResult;
+import com.jonfreer.wedding.api.batch.GuestCsvParser;
 import com.jonfreer.wedding.api.converters.GuestConverter;
 import com.jonfreer.wedding.api.converters.GuestCollectionConverter;
+import com.jonfreer.wedding.api.exceptionmappers.ErrorResponse;
 import com.jonfreer.wedding.api.interfaces.resources.IGuestResource;
+import com.jonfreer.wedding.api.streaming.GuestStreamingOutput;
 import com.jonfreer.wedding.application.interfaces.services.IGuestService;
 import com.jonfreer.wedding.application.exceptions.ResourceNotFoundException;
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
 import com.jonfreer.wedding.infrastructure.interfaces.services.EntityTagService;
 import com.jonfreer.wedding.infrastructure.interfaces.services.ResourceMetadataService;
+import com.jonfreer.wedding.infrastructure.metadata.EntityTagMode;
 import com.jonfreer.wedding.infrastructure.metadata.ResourceMetadata;
+import com.jonfreer.wedding.infrastructure.metrics.ServerTiming;
+import com.jonfreer.wedding.infrastructure.queries.GuestCursor;
 import com.jonfreer.wedding.infrastructure.queries.GuestSearchQuery;
 import com.jonfreer.wedding.servicemodel.Guest;
 
@@ -22,6 +32,7 @@ import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 import javax.inject.Inject;
+import javax.inject.Provider;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -29,6 +40,9 @@ import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.TimeZone;
 
 /**
@@ -36,6 +50,10 @@ import java.util.TimeZone;
  */
 public class GuestResource implements IGuestResource {
 
+	private static final int DEFAULT_PAGE_SIZE = 25;
+	private static final int DEFAULT_MAXIMUM_BATCH_SIZE = 5000;
+	private static final String CONVERSION_SPAN = "conversion";
+
 	@Inject
 	private IGuestService guestService;
 
@@ -51,6 +69,12 @@ public class GuestResource implements IGuestResource {
 	@Inject
 	private GuestCollectionConverter guestCollectionConverter;
 
+	@Inject
+	private Provider<IDatabaseUnitOfWork> unitOfWorkProvider;
+
+	@Inject
+	private ApplicationConfiguration configuration;
+
 	public GuestResource() {}
 
 	/**
@@ -62,6 +86,9 @@ public class GuestResource implements IGuestResource {
 	 *                that have a surname (last name) that matches.
 	 * @param inviteCode When provided, filters the collection guest resources
 	 *                   that have an invite code that matches.
+	 * @param after When provided, seeks to the page following the cursor.
+	 * @param before When provided, seeks to the page preceding the cursor.
+	 * @param stream When true, plain JSON is streamed from the database.
 	 * @return A response that contains a collection of guests.
 	 */
 	public Response getGuests(
@@ -72,9 +99,27 @@ public class GuestResource implements IGuestResource {
 		String surname,
 		String inviteCode,
 		Integer skip,
-		Integer take
+		Integer take,
+		String after,
+		String before,
+		boolean stream
 	){
 
+		if(stream && this.isStreamable(headers)){
+			GuestSearchQuery searchQuery = null;
+			if(givenName != null || surname != null || inviteCode != null || skip != null || take != null){
+				searchQuery = new GuestSearchQuery(givenName, surname, inviteCode, skip, take);
+			}
+			return Response
+				.ok(new GuestStreamingOutput(this.guestService, this.unitOfWorkProvider.get(), searchQuery))
+				.type(MediaType.APPLICATION_JSON_TYPE)
+				.build();
+		}
+
+		if(after != null || before != null){
+			return this.getGuestsPage(uriInfo, headers, givenName, surname, inviteCode, take, after, before);
+		}
+
 		GuestSearchQuery searchQuery = null;
 		if(givenName != null || surname != null || inviteCode != null || skip != null || take != null){
 			searchQuery = new GuestSearchQuery(givenName, surname, inviteCode, skip, take);
@@ -85,21 +130,16 @@ public class GuestResource implements IGuestResource {
 		if(headers.getAcceptableMediaTypes().contains(new MediaType("application", "vnd.siren+json"))) {
 
 			boolean isPaginatedRequest = take != null;
-			int total = guests.size();
+			int offset = skip == null ? 0 : skip;
+			int total = offset + guests.size();
 			
-			// if we are paginating...
-			if(isPaginatedRequest) {
-				total = this.guestService.getGuests(
-					new GuestSearchQuery(
-						searchQuery.getGivenName(),
-						searchQuery.getSurname(),
-						searchQuery.getInviteCode(),
-						null,
-						null
-					)
-				).size();
+			// if we are paginating, the total is only known without counting
+			// when the page came back short of a full page (and is not past the end).
+			if(isPaginatedRequest && (guests.size() >= take || (guests.isEmpty() && offset > 0))) {
+				total = this.guestService.getGuestCount(searchQuery);
 			}
 
+			long span = ServerTiming.start();
 			try {
 				Entity entity = 
 					this.guestCollectionConverter.convert(
@@ -112,12 +152,97 @@ public class GuestResource implements IGuestResource {
 				representation = entity;
 			} catch (URISyntaxException e) {
 				throw new RuntimeException(e);
+			} finally {
+				ServerTiming.stop(CONVERSION_SPAN, span);
 			}
 		}
 
 		return Response.ok(representation).build();
 	}
 
+	/**
+	 * Retrieves a page of the collection of guest resources by seeking past
+	 * a cursor (keyset pagination), so that the cost of retrieving a page does
+	 * not depend on how deep into the collection the page is. One more guest
+	 * than requested is retrieved to learn whether a further page exists.
+	 */
+	private Response getGuestsPage(
+		UriInfo uriInfo,
+		HttpHeaders headers,
+		String givenName,
+		String surname,
+		String inviteCode,
+		Integer take,
+		String after,
+		String before
+	){
+
+		Integer afterId = null;
+		Integer beforeId = null;
+		try{
+			if(before != null && !before.isEmpty()){
+				beforeId = GuestCursor.decode(before).getGuestId();
+			}else{
+				afterId = after == null || after.isEmpty() ? 0 : GuestCursor.decode(after).getGuestId();
+			}
+		}catch(IllegalArgumentException illegalArgumentEx){
+			ErrorResponse errorResponse = new ErrorResponse();
+			errorResponse.setMessage(illegalArgumentEx.getMessage());
+			return Response.status(Response.Status.BAD_REQUEST).entity(errorResponse).build();
+		}
+
+		int pageSize = take == null || take < 1 ? DEFAULT_PAGE_SIZE : take;
+		ArrayList<Guest> guests = this.guestService.getGuests(
+			GuestSearchQuery.seek(givenName, surname, inviteCode, afterId, beforeId, pageSize + 1));
+
+		boolean hasMore = guests.size() > pageSize;
+		if(hasMore){
+			// the extra guest lies beyond the page, in the direction being paged.
+			guests.remove(beforeId != null ? 0 : guests.size() - 1);
+		}
+
+		Object representation = guests;
+
+		if(headers.getAcceptableMediaTypes().contains(new MediaType("application", "vnd.siren+json"))) {
+
+			boolean hasPrevious = beforeId != null ? hasMore : afterId > 0 && !guests.isEmpty();
+			boolean hasNext = beforeId != null ? !guests.isEmpty() : hasMore;
+
+			String previousCursor = hasPrevious ? new GuestCursor(guests.get(0).getId()).encode() : null;
+			String nextCursor = hasNext ? new GuestCursor(guests.get(guests.size() - 1).getId()).encode() : null;
+
+			long span = ServerTiming.start();
+			try {
+				representation = 
+					this.guestCollectionConverter.convert(guests, uriInfo.getRequestUri(), previousCursor, nextCursor);
+			} catch (URISyntaxException e) {
+				throw new RuntimeException(e);
+			} finally {
+				ServerTiming.stop(CONVERSION_SPAN, span);
+			}
+		}
+
+		return Response.ok(representation).build();
+	}
+
+	/**
+	 * Determines whether the collection can be streamed for the request. Only
+	 * plain JSON is streamed; the Siren representation needs the whole page
+	 * up front to produce its links and XML is left to JAXB.
+	 */
+	private boolean isStreamable(HttpHeaders headers){
+		for(MediaType mediaType : headers.getAcceptableMediaTypes()){
+			if(mediaType.isCompatible(MediaType.APPLICATION_JSON_TYPE)){
+				return true;
+			}
+			if(mediaType.isCompatible(MediaType.APPLICATION_XML_TYPE)
+				|| mediaType.isCompatible(new MediaType("application", "vnd.siren+json"))){
+				return false;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Creates a new guest resource and appends it to the /guests/ resource collect
 	 *
@@ -129,14 +254,17 @@ public class GuestResource implements IGuestResource {
 		Guest desiredGuestState
 	) throws ResourceNotFoundException {
 
-		int guestId = this.guestService.insertGuest(desiredGuestState);
-		Guest guest = this.guestService.getGuest(guestId);
+		Guest guest = this.guestService.insertGuest(desiredGuestState);
 
 		URI location = 
 			UriBuilder
 				.fromUri(uriInfo.getRequestUri())
 				.path("/{id}/")
-				.build(guestId);
+				.build(guest.getId());
+
+		if(this.isVersioned()){
+			return this.tagged(Response.created(location).entity(guest), guest).build();
+		}
 
 		Date lastModified = Calendar.getInstance(TimeZone.getTimeZone("UTC")).getTime();
 		EntityTag entityTag = this.entityTagService.get(guest);
@@ -151,6 +279,132 @@ public class GuestResource implements IGuestResource {
 			.build();
 	}
 
+	/**
+	 * Creates many new guest resources at once. The guests are inserted in JDBC
+	 * batches, and so is their resource metadata, all in the unit of work of
+	 * the request, so either every valid row is created or none is.
+	 *
+	 * @param desiredGuestStates The desired states for the guest resources being created.
+	 * @return javax.ws.rs.Response with an HTTP status of 200 - OK, containing the outcome of each row.
+	 */
+	public Response importGuests(
+		UriInfo uriInfo,
+		List<Guest> desiredGuestStates
+	){
+		if(desiredGuestStates == null){
+			return badRequest("The body must be an array of guests.");
+		}
+
+		List<String> errors = new ArrayList<String>(desiredGuestStates.size());
+		for(int i = 0; i < desiredGuestStates.size(); i++){
+			errors.add(null);
+		}
+		return this.importRows(uriInfo, desiredGuestStates, errors);
+	}
+
+	/**
+	 * Creates many new guest resources at once from CSV. Records that cannot be
+	 * parsed are rejected; the others are created as by importGuests.
+	 *
+	 * @param desiredGuestStates The desired states for the guest resources being created, as CSV.
+	 * @return javax.ws.rs.Response with an HTTP status of 200 - OK, containing the outcome of each row.
+	 */
+	public Response importGuestsCsv(
+		UriInfo uriInfo,
+		String desiredGuestStates
+	){
+		List<GuestCsvParser.Row> rows;
+		try{
+			rows = new GuestCsvParser().parse(desiredGuestStates);
+		}catch(IllegalArgumentException illegalArgumentEx){
+			return badRequest(illegalArgumentEx.getMessage());
+		}
+
+		List<Guest> guests = new ArrayList<Guest>(rows.size());
+		List<String> errors = new ArrayList<String>(rows.size());
+		for(GuestCsvParser.Row row : rows){
+			guests.add(row.getGuest());
+			errors.add(row.getError());
+		}
+		return this.importRows(uriInfo, guests, errors);
+	}
+
+	/**
+	 * Replaces the current states of many guest resources at once. The guests are
+	 * written in JDBC batches, and so is the resource metadata of those that have
+	 * it (without looking it up first), all in the unit of work of the request, so
+	 * either every valid row is applied or none is.
+	 *
+	 * @param desiredGuestStates The desired states for the guest resources being updated.
+	 * @return javax.ws.rs.Response with an HTTP status of 200 - OK, containing the outcome of each row.
+	 */
+	public Response updateGuests(
+		UriInfo uriInfo,
+		List<Guest> desiredGuestStates
+	){
+		if(desiredGuestStates == null){
+			return badRequest("The body must be an array of guests.");
+		}
+
+		Response tooLarge = this.checkBatchSize(desiredGuestStates.size());
+		if(tooLarge != null){
+			return tooLarge;
+		}
+
+		List<String> errors = new ArrayList<String>(desiredGuestStates.size());
+		List<Guest> accepted = new ArrayList<Guest>(desiredGuestStates.size());
+		Set<Integer> ids = new HashSet<Integer>();
+		Date now = Calendar.getInstance(TimeZone.getTimeZone("UTC")).getTime();
+		for(Guest guest : desiredGuestStates){
+			String error = rejection(guest);
+			if(error == null && guest.getId() == null){
+				error = "A guest requires an id.";
+			}else if(error == null && !ids.add(guest.getId())){
+				error = "The guest with an id of '" + guest.getId() + "' appears more than once.";
+			}
+			errors.add(error);
+			if(error == null){
+				if(guest.getReservation() != null && guest.getReservation().getSubmittedDateTime() == null){
+					guest.getReservation().setSubmittedDateTime(now);
+				}
+				accepted.add(guest);
+			}
+		}
+
+		Set<Integer> missingIds = accepted.isEmpty()
+			? new HashSet<Integer>()
+			: this.guestService.updateGuests(accepted);
+
+		String itemHrefPrefix = itemHrefPrefix(uriInfo);
+		List<ResourceMetadata> resourceMetadata = new ArrayList<ResourceMetadata>();
+
+		BatchResult result = new BatchResult();
+		for(int i = 0; i < desiredGuestStates.size(); i++){
+			Guest guest = desiredGuestStates.get(i);
+			if(errors.get(i) != null){
+				result.add(new BatchOutcome(i, Response.Status.BAD_REQUEST.getStatusCode(), null, null, errors.get(i)));
+				continue;
+			}
+			if(missingIds.contains(guest.getId())){
+				result.add(new BatchOutcome(i, Response.Status.NOT_FOUND.getStatusCode(), guest.getId(), null,
+					"A guest with an ID of '" + guest.getId() + "' could not be found."));
+				continue;
+			}
+
+			String location = itemHrefPrefix + guest.getId() + '/';
+			//as for a single update, only resource metadata that exists is replaced.
+			if(!this.isVersioned()){
+				resourceMetadata.add(
+					new ResourceMetadata(URI.create(location), new Date(), this.entityTagService.get(guest)));
+			}
+			result.add(new BatchOutcome(i, Response.Status.OK.getStatusCode(), guest.getId(), location, null));
+		}
+
+		this.resourceMetadataService.updateResourceMetaData(resourceMetadata);
+
+		return Response.ok(result).build();
+	}
+
 	/**
 	 * Retrieves the current state of the guest resources with the id provided.
 	 * 
@@ -180,6 +434,14 @@ public class GuestResource implements IGuestResource {
 
 		Guest guest = this.guestService.getGuest(id);
 
+		if(this.isVersioned()){
+			ResponseBuilder notModified = this.evaluatePreconditions(request, guest);
+			if(notModified != null){
+				return this.tagged(notModified, guest).build();
+			}
+			return this.tagged(Response.ok(this.represent(guest, uriInfo, headers)), guest).build();
+		}
+
 		ResourceMetadata resourceMetadata = 
 			this.resourceMetadataService.getResourceMetadata(uriInfo.getRequestUri());
 
@@ -188,21 +450,12 @@ public class GuestResource implements IGuestResource {
 			Date lastModified = Calendar.getInstance(TimeZone.getTimeZone("UTC")).getTime();
 			EntityTag entityTag = this.entityTagService.get(guest);
 
-			this.resourceMetadataService.insertResourceMetadata(
-				new ResourceMetadata(uriInfo.getRequestUri(), lastModified, entityTag)
-				);
-			resourceMetadata = 
-				this.resourceMetadataService.getResourceMetadata(uriInfo.getRequestUri());
-		}
-
-		Object representation = guest;
-
-		if(headers.getAcceptableMediaTypes().contains(new MediaType("application", "vnd.siren+json"))) {
-			representation = this.guestConverter.convert(guest, uriInfo.getRequestUri());
+			ResourceMetadata desired = new ResourceMetadata(uriInfo.getRequestUri(), lastModified, entityTag);
+			resourceMetadata = stored(this.resourceMetadataService.insertResourceMetadata(desired), desired);
 		}
 
 		return Response
-			.ok(representation)
+			.ok(this.represent(guest, uriInfo, headers))
 			.header("Last-Modified", resourceMetadata.getLastModified())
 			.tag(resourceMetadata.getEntityTag())
 			.build();
@@ -210,10 +463,12 @@ public class GuestResource implements IGuestResource {
 
 	/**
 	 * Replaces the current state of the guest resource with the id provided.
+	 * A desired state without an id takes the id of the resource.
 	 *
 	 * @param id                The id of the guest resource to be updated.
 	 * @param desiredGuestState The desired state for the guest resource being updated.
-	 * @return javax.ws.rs.core.Response with an HTTP status of 200 - OK on success.
+	 * @return javax.ws.rs.core.Response with an HTTP status of 200 - OK on success,
+	 * or 400 - Bad Request when the desired state carries the id of another guest.
 	 * @throws NoSuchAlgorithmException 
 	 */
 	public Response updateGuest(
@@ -222,8 +477,28 @@ public class GuestResource implements IGuestResource {
 		int id, Guest desiredGuestState
 	) throws ResourceNotFoundException{
 
-		this.guestService.updateGuest(desiredGuestState);
-		Guest guest = guestService.getGuest(id);
+		// the guest replaced is the one identified by the path, which the preconditions were evaluated against.
+		if(desiredGuestState.getId() == null){
+			desiredGuestState.setId(id);
+		}else if(desiredGuestState.getId() != id){
+			ErrorResponse errorResponse = new ErrorResponse();
+			errorResponse.setMessage(
+				"The id of the guest provided (" + desiredGuestState.getId()
+				+ ") does not match the id of the guest resource (" + id + ").");
+			return Response.status(Response.Status.BAD_REQUEST).entity(errorResponse).build();
+		}
+
+		if(this.isVersioned()){
+			ResponseBuilder preconditionFailed = this.evaluatePreconditions(request, this.guestService.getGuest(id));
+			if(preconditionFailed != null){
+				return preconditionFailed.build();
+			}
+
+			Guest guest = this.guestService.updateGuest(desiredGuestState);
+			return this.tagged(Response.ok(guest), guest).build();
+		}
+
+		Guest guest = this.guestService.updateGuest(desiredGuestState);
 
 		ResponseBuilder responseBuilder = Response.ok(guest);
 
@@ -236,12 +511,8 @@ public class GuestResource implements IGuestResource {
 			Date lastModified = new Date();
 			EntityTag entityTag = this.entityTagService.get(guest);
 
-			this.resourceMetadataService.updateResourceMetaData(
-				new ResourceMetadata(uriInfo.getRequestUri(), lastModified, entityTag)
-			);
-
-			resourceMetadata = 
-				this.resourceMetadataService.getResourceMetadata(uriInfo.getRequestUri());
+			ResourceMetadata desired = new ResourceMetadata(uriInfo.getRequestUri(), lastModified, entityTag);
+			resourceMetadata = stored(this.resourceMetadataService.updateResourceMetaData(desired), desired);
 
 			responseBuilder
 				.header("Last-Modified", resourceMetadata.getLastModified())
@@ -264,7 +535,157 @@ public class GuestResource implements IGuestResource {
 	) throws ResourceNotFoundException {
 
 		this.guestService.deleteGuest(id);
-		this.resourceMetadataService.deleteResourceMetaData(uriInfo.getRequestUri());
+		if(!this.isVersioned()){
+			this.resourceMetadataService.deleteResourceMetaData(uriInfo.getRequestUri());
+		}
 		return Response.noContent().build();
 	}
+
+	/**
+	 * Creates the guests provided whose rows have no error, and reports the
+	 * outcome of every row.
+	 */
+	private Response importRows(UriInfo uriInfo, List<Guest> guests, List<String> errors){
+
+		Response tooLarge = this.checkBatchSize(guests.size());
+		if(tooLarge != null){
+			return tooLarge;
+		}
+
+		List<Guest> accepted = new ArrayList<Guest>(guests.size());
+		for(int i = 0; i < guests.size(); i++){
+			if(errors.get(i) == null){
+				errors.set(i, rejection(guests.get(i)));
+			}
+			if(errors.get(i) == null){
+				accepted.add(guests.get(i));
+			}
+		}
+
+		int[] ids = accepted.isEmpty() ? new int[0] : this.guestService.insertGuests(accepted);
+
+		String itemHrefPrefix = itemHrefPrefix(uriInfo);
+		Date lastModified = Calendar.getInstance(TimeZone.getTimeZone("UTC")).getTime();
+		List<ResourceMetadata> resourceMetadata = new ArrayList<ResourceMetadata>(ids.length);
+
+		BatchResult result = new BatchResult();
+		int created = 0;
+		for(int i = 0; i < guests.size(); i++){
+			if(errors.get(i) != null){
+				result.add(new BatchOutcome(i, Response.Status.BAD_REQUEST.getStatusCode(), null, null, errors.get(i)));
+				continue;
+			}
+
+			Guest guest = guests.get(i);
+			guest.setId(ids[created++]);
+			String location = itemHrefPrefix + guest.getId() + '/';
+			if(!this.isVersioned()){
+				resourceMetadata.add(
+					new ResourceMetadata(URI.create(location), lastModified, this.entityTagService.get(guest)));
+			}
+			result.add(new BatchOutcome(i, Response.Status.CREATED.getStatusCode(), guest.getId(), location, null));
+		}
+
+		this.resourceMetadataService.insertResourceMetadata(resourceMetadata);
+
+		return Response.ok(result).build();
+	}
+
+	/**
+	 * Produces the part of the URI of every guest resource that precedes its id;
+	 * the URI of a guest resource is the collection URI followed by the id.
+	 */
+	private static String itemHrefPrefix(UriInfo uriInfo){
+		String collectionHref = uriInfo.getBaseUriBuilder().path(IGuestResource.class).build().toString();
+		return collectionHref.endsWith("/") ? collectionHref : collectionHref + '/';
+	}
+
+	/**
+	 * Determines whether a batch of the size provided is too large to be accepted.
+	 *
+	 * @return The response to send instead (413 - Request Entity Too Large), or null
+	 * when the batch is accepted.
+	 */
+	private Response checkBatchSize(int size){
+		int maximumBatchSize = this.configuration.getInt("guestImport.maximumRows", DEFAULT_MAXIMUM_BATCH_SIZE);
+		if(size <= maximumBatchSize){
+			return null;
+		}
+		ErrorResponse errorResponse = new ErrorResponse();
+		errorResponse.setMessage("At most " + maximumBatchSize + " guests can be written at once.");
+		return Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE).entity(errorResponse).build();
+	}
+
+	/**
+	 * Determines why the guest provided cannot be written.
+	 *
+	 * @return The reason the guest is rejected, or null when it can be written.
+	 */
+	private static String rejection(Guest guest){
+		if(guest == null){
+			return "The guest is missing.";
+		}
+		if(guest.getGivenName() == null || guest.getGivenName().trim().isEmpty()
+			|| guest.getSurName() == null || guest.getSurName().trim().isEmpty()){
+			return "A guest requires both a given name and a surname.";
+		}
+		return null;
+	}
+
+	/**
+	 * Determines the resource metadata to describe a response with once it has been
+	 * written: as it is stored, or as it was built when writing it failed.
+	 */
+	private static ResourceMetadata stored(ResourceMetadata stored, ResourceMetadata desired){
+		return stored == null ? desired : stored;
+	}
+
+	private static Response badRequest(String message){
+		ErrorResponse errorResponse = new ErrorResponse();
+		errorResponse.setMessage(message);
+		return Response.status(Response.Status.BAD_REQUEST).entity(errorResponse).build();
+	}
+
+	/**
+	 * Determines whether entity tags and last modified dates come from the
+	 * version columns of guest rows rather than from resource metadata.
+	 */
+	private boolean isVersioned(){
+		return EntityTagMode.of(this.configuration) == EntityTagMode.VERSION;
+	}
+
+	/**
+	 * Evaluates the preconditions of the request against the version of the guest provided.
+	 *
+	 * @return The response builder for the response to send instead of proceeding
+	 * (304 - Not Modified or 412 - Precondition Failed), or null when the request
+	 * should proceed.
+	 */
+	private ResponseBuilder evaluatePreconditions(Request request, Guest guest){
+		EntityTag entityTag = this.entityTagService.getForVersion(guest.getId(), guest.getVersion());
+		return guest.getLastModified() == null
+			? request.evaluatePreconditions(entityTag)
+			: request.evaluatePreconditions(guest.getLastModified(), entityTag);
+	}
+
+	/**
+	 * Adds the entity tag and last modified date of the guest provided, taken from its version.
+	 */
+	private ResponseBuilder tagged(ResponseBuilder responseBuilder, Guest guest){
+		return responseBuilder
+			.header("Last-Modified", guest.getLastModified())
+			.tag(this.entityTagService.getForVersion(guest.getId(), guest.getVersion()));
+	}
+
+	private Object represent(Guest guest, UriInfo uriInfo, HttpHeaders headers){
+		if(headers.getAcceptableMediaTypes().contains(new MediaType("application", "vnd.siren+json"))) {
+			long span = ServerTiming.start();
+			try {
+				return this.guestConverter.convert(guest, uriInfo.getRequestUri());
+			} finally {
+				ServerTiming.stop(CONVERSION_SPAN, span);
+			}
+		}
+		return guest;
+	}
 }
@@ -0,0 +1,73 @@
+package com.jonfreer.wedding.api.resources;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import javax.inject.Inject;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import com.jonfreer.wedding.api.interfaces.resources.IMetricsResource;
+import com.jonfreer.wedding.infrastructure.metrics.MetricRegistry;
+import com.jonfreer.wedding.infrastructure.metrics.SlowStatementLog;
+
+/**
+ * JAX-RS resource class exposing the metrics of the application, along with
+ * the slowest SQL statements it has executed.
+ */
+public class MetricsResource implements IMetricsResource {
+
+	@Inject
+	private MetricRegistry metricRegistry;
+
+	@Inject
+	private SlowStatementLog slowStatementLog;
+
+	public MetricsResource() {}
+
+	/**
+	 * Retrieves the metrics of the application in the Prometheus text format.
+	 * The metrics are written straight to the response as they are read.
+	 *
+	 * @return A response that contains the metrics.
+	 */
+	public Response getMetrics() {
+
+		final MetricRegistry metricRegistry = this.metricRegistry;
+
+		CacheControl cacheControl = new CacheControl();
+		cacheControl.setNoStore(true);
+
+		return Response
+			.ok(new StreamingOutput() {
+				public void write(OutputStream output) throws IOException, WebApplicationException {
+					Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+					metricRegistry.write(writer);
+				}
+			})
+			.cacheControl(cacheControl)
+			.build();
+	}
+
+	/**
+	 * Retrieves the slowest SQL statements executed, slowest first, along with
+	 * the rolling percentiles of the time taken by each over the last minute or so.
+	 *
+	 * @return A response that contains the slowest statements.
+	 */
+	public Response getSlowStatements() {
+
+		CacheControl cacheControl = new CacheControl();
+		cacheControl.setNoStore(true);
+
+		return Response
+			.ok(this.slowStatementLog.getSlowStatements())
+			.cacheControl(cacheControl)
+			.build();
+	}
+}
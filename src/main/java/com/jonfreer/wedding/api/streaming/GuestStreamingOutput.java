@@ -0,0 +1,113 @@
+package com.jonfreer.wedding.api.streaming;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jonfreer.wedding.application.interfaces.services.IGuestService;
+import com.jonfreer.wedding.domain.interfaces.repositories.IResultHandler;
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.infrastructure.queries.GuestSearchQuery;
+import com.jonfreer.wedding.servicemodel.Guest;
+
+/**
+ * Writes the guests matching a search to the response as a JSON array while
+ * they are read from the database, so that memory use stays flat regardless
+ * of the number of guests.
+ *
+ * The guests are read when the response body is written, which happens after
+ * the response filters (including the one completing the unit of work of the
+ * request) have run. The unit of work used to read the guests is therefore
+ * completed here, once the last guest has been written.
+ */
+public class GuestStreamingOutput implements StreamingOutput {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+	private static final int FLUSH_INTERVAL = 256;
+
+	private final IGuestService guestService;
+	private final IDatabaseUnitOfWork unitOfWork;
+	private final GuestSearchQuery searchQuery;
+
+	/**
+	 * Constructs a GuestStreamingOutput.
+	 *
+	 * @param guestService The service the guests are read through.
+	 * @param unitOfWork The unit of work of the request, completed once the guests are written.
+	 * @param searchQuery The search criteria; when null, all guests are written.
+	 */
+	public GuestStreamingOutput(
+		IGuestService guestService,
+		IDatabaseUnitOfWork unitOfWork,
+		GuestSearchQuery searchQuery) {
+
+		this.guestService = guestService;
+		this.unitOfWork = unitOfWork;
+		this.searchQuery = searchQuery;
+	}
+
+	public void write(OutputStream output) throws IOException, WebApplicationException {
+
+		final JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(output, JsonEncoding.UTF8);
+		// the container owns the response stream.
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		boolean isWritten = false;
+
+		try {
+			generator.writeStartArray();
+
+			this.guestService.streamGuests(this.searchQuery, new IResultHandler<Guest>() {
+
+				private int count = 0;
+
+				public void handle(Guest guest) {
+					try {
+						generator.writeObject(guest);
+						if (++this.count % FLUSH_INTERVAL == 0) {
+							generator.flush();
+						}
+					} catch (IOException ioEx) {
+						throw new WriteFailedException(ioEx);
+					}
+				}
+			});
+
+			generator.writeEndArray();
+			generator.flush();
+			isWritten = true;
+
+		} catch (WriteFailedException writeFailedEx) {
+			throw writeFailedEx.getCause();
+		} finally {
+			if (isWritten) {
+				this.unitOfWork.Save();
+			} else {
+				this.unitOfWork.Undo();
+			}
+			generator.close();
+		}
+	}
+
+	/**
+	 * Carries a failure to write a guest out of the result handler, which
+	 * cannot throw checked exceptions.
+	 */
+	private static final class WriteFailedException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		private WriteFailedException(IOException cause) {
+			super(cause);
+		}
+
+		@Override
+		public synchronized IOException getCause() {
+			return (IOException) super.getCause();
+		}
+	}
+}
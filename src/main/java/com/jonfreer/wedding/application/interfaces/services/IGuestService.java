@@ -2,9 +2,13 @@ package com.jonfreer.wedding.application.interfaces.services;
 
 import com.jonfreer.wedding.servicemodel.Guest;
 import com.jonfreer.wedding.application.exceptions.ResourceNotFoundException;
+import com.jonfreer.wedding.domain.interfaces.repositories.IResultHandler;
+import com.jonfreer.wedding.infrastructure.metadata.CollectionVersion;
 import com.jonfreer.wedding.infrastructure.queries.GuestSearchQuery;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 import org.jvnet.hk2.annotations.Contract;
 
@@ -13,12 +17,34 @@ public interface IGuestService {
 
     ArrayList<Guest> getGuests(GuestSearchQuery searchQuery);
 
+    void streamGuests(GuestSearchQuery searchQuery, IResultHandler<Guest> handler);
+
+    int getGuestCount(GuestSearchQuery searchQuery);
+
+    CollectionVersion getGuestsVersion();
+
     Guest getGuest(int id) throws ResourceNotFoundException;
 
-    void updateGuest(Guest guest) throws ResourceNotFoundException;
+    /**
+     * Replaces the state of an existing guest.
+     *
+     * @param guest The desired state of the guest.
+     * @return The state of the guest as it was persisted.
+     */
+    Guest updateGuest(Guest guest) throws ResourceNotFoundException;
 
     void deleteGuest(int id) throws ResourceNotFoundException;
 
-    int insertGuest(Guest guest);
+    /**
+     * Creates a new guest.
+     *
+     * @param guest The desired state of the guest.
+     * @return The state of the guest as it was persisted, including its id.
+     */
+    Guest insertGuest(Guest guest);
+
+    int[] insertGuests(List<Guest> guests);
+
+    Set<Integer> updateGuests(List<Guest> guests);
 
 }
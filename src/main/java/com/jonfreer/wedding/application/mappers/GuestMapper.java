@@ -0,0 +1,159 @@
+package com.jonfreer.wedding.application.mappers;
+
+import java.util.Date;
+
+import org.dozer.Mapper;
+import org.dozer.MappingException;
+
+/**
+ * A mapper that maps guests (and their reservations) between the domain model
+ * and the service model with explicitly coded property copies, instead of
+ * discovering the properties through reflection on every call the way
+ * DozerBeanMapper does. The result of each mapping is identical to what
+ * DozerBeanMapper produces; dates are copied rather than shared.
+ *
+ * Mappings between any other classes are delegated to the mapper provided,
+ * so that this mapper can stand in for DozerBeanMapper wherever a Mapper is
+ * injected.
+ */
+public class GuestMapper implements Mapper {
+
+	private final Mapper fallbackMapper;
+
+	/**
+	 * Constructs a GuestMapper.
+	 *
+	 * @param fallbackMapper The mapper that mappings between classes other than
+	 *                       guests and reservations are delegated to.
+	 */
+	public GuestMapper(Mapper fallbackMapper) {
+		this.fallbackMapper = fallbackMapper;
+	}
+
+	public <T> T map(Object source, Class<T> destinationClass) throws MappingException {
+
+		if (source == null) {
+			throw new MappingException("Source object must not be null");
+		}
+
+		Object destination;
+		if (source instanceof com.jonfreer.wedding.domain.Guest
+			&& destinationClass == com.jonfreer.wedding.servicemodel.Guest.class) {
+
+			destination = toServiceModel((com.jonfreer.wedding.domain.Guest) source);
+
+		} else if (source instanceof com.jonfreer.wedding.servicemodel.Guest
+			&& destinationClass == com.jonfreer.wedding.domain.Guest.class) {
+
+			destination = toDomain((com.jonfreer.wedding.servicemodel.Guest) source);
+
+		} else if (source instanceof com.jonfreer.wedding.domain.Reservation
+			&& destinationClass == com.jonfreer.wedding.servicemodel.Reservation.class) {
+
+			destination = toServiceModel((com.jonfreer.wedding.domain.Reservation) source);
+
+		} else if (source instanceof com.jonfreer.wedding.servicemodel.Reservation
+			&& destinationClass == com.jonfreer.wedding.domain.Reservation.class) {
+
+			destination = toDomain((com.jonfreer.wedding.servicemodel.Reservation) source);
+
+		} else {
+			return this.fallbackMapper.map(source, destinationClass);
+		}
+
+		return destinationClass.cast(destination);
+	}
+
+	public void map(Object source, Object destination) throws MappingException {
+		this.fallbackMapper.map(source, destination);
+	}
+
+	public <T> T map(Object source, Class<T> destinationClass, String mapId) throws MappingException {
+		return this.fallbackMapper.map(source, destinationClass, mapId);
+	}
+
+	public void map(Object source, Object destination, String mapId) throws MappingException {
+		this.fallbackMapper.map(source, destination, mapId);
+	}
+
+	/**
+	 * Maps a domain guest to a service model guest.
+	 *
+	 * @param guest The domain guest to map.
+	 * @return The service model guest with the state of the domain guest.
+	 */
+	public static com.jonfreer.wedding.servicemodel.Guest toServiceModel(com.jonfreer.wedding.domain.Guest guest) {
+		com.jonfreer.wedding.servicemodel.Guest mapped = new com.jonfreer.wedding.servicemodel.Guest();
+		mapped.setId(guest.getId());
+		mapped.setGivenName(guest.getGivenName());
+		mapped.setSurName(guest.getSurName());
+		mapped.setDescription(guest.getDescription());
+		mapped.setInviteCode(guest.getInviteCode());
+		mapped.setDietaryRestrictions(guest.getDietaryRestrictions());
+		mapped.setVersion(guest.getVersion());
+		mapped.setLastModified(copy(guest.getLastModified()));
+		if (guest.getReservation() != null) {
+			mapped.setReservation(toServiceModel(guest.getReservation()));
+		}
+		return mapped;
+	}
+
+	/**
+	 * Maps a service model guest to a domain guest.
+	 *
+	 * @param guest The service model guest to map.
+	 * @return The domain guest with the state of the service model guest.
+	 */
+	public static com.jonfreer.wedding.domain.Guest toDomain(com.jonfreer.wedding.servicemodel.Guest guest) {
+		com.jonfreer.wedding.domain.Guest mapped = new com.jonfreer.wedding.domain.Guest();
+		mapped.setId(guest.getId());
+		mapped.setGivenName(guest.getGivenName());
+		mapped.setSurName(guest.getSurName());
+		mapped.setDescription(guest.getDescription());
+		mapped.setInviteCode(guest.getInviteCode());
+		mapped.setDietaryRestrictions(guest.getDietaryRestrictions());
+		mapped.setVersion(guest.getVersion());
+		mapped.setLastModified(copy(guest.getLastModified()));
+		if (guest.getReservation() != null) {
+			mapped.setReservation(toDomain(guest.getReservation()));
+		}
+		return mapped;
+	}
+
+	/**
+	 * Maps a domain reservation to a service model reservation.
+	 *
+	 * @param reservation The domain reservation to map.
+	 * @return The service model reservation with the state of the domain reservation.
+	 */
+	public static com.jonfreer.wedding.servicemodel.Reservation toServiceModel(
+		com.jonfreer.wedding.domain.Reservation reservation) {
+
+		com.jonfreer.wedding.servicemodel.Reservation mapped = new com.jonfreer.wedding.servicemodel.Reservation();
+		// the service model cannot represent an unknown attendance; like Dozer, leave the default.
+		if (reservation.getIsAttending() != null) {
+			mapped.setIsAttending(reservation.getIsAttending());
+		}
+		mapped.setSubmittedDateTime(copy(reservation.getSubmittedDateTime()));
+		return mapped;
+	}
+
+	/**
+	 * Maps a service model reservation to a domain reservation.
+	 *
+	 * @param reservation The service model reservation to map.
+	 * @return The domain reservation with the state of the service model reservation.
+	 */
+	public static com.jonfreer.wedding.domain.Reservation toDomain(
+		com.jonfreer.wedding.servicemodel.Reservation reservation) {
+
+		com.jonfreer.wedding.domain.Reservation mapped = new com.jonfreer.wedding.domain.Reservation();
+		mapped.setIsAttending(reservation.getIsAttending());
+		mapped.setSubmittedDateTime(copy(reservation.getSubmittedDateTime()));
+		return mapped;
+	}
+
+	private static Date copy(Date date) {
+		return date == null ? null : new Date(date.getTime());
+	}
+}
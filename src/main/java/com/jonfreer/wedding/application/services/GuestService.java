@@ -1,39 +1,49 @@
 package com.jonfreer.wedding.application.services;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 import com.jonfreer.wedding.infrastructure.interfaces.services.LogService;
+import com.jonfreer.wedding.infrastructure.metadata.CollectionVersion;
+import com.jonfreer.wedding.infrastructure.metrics.ServerTiming;
 import com.jonfreer.wedding.infrastructure.queries.GuestSearchQuery;
 import org.dozer.Mapper;
 import com.jonfreer.wedding.application.interfaces.services.IGuestService;
 import com.jonfreer.wedding.domain.interfaces.repositories.IGuestRepository;
+import com.jonfreer.wedding.domain.interfaces.repositories.IResultHandler;
 import com.jonfreer.wedding.infrastructure.exceptions.ResourceNotFoundException;
 import com.jonfreer.wedding.infrastructure.interfaces.factories.IGuestRepositoryFactory;
 import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
-import com.jonfreer.wedding.infrastructure.interfaces.factories.IDatabaseUnitOfWorkFactory;
 import org.jvnet.hk2.annotations.Service;
 
 import javax.inject.Named;
 import javax.inject.Inject;
+import javax.inject.Provider;
 
+/**
+ * Application service exposing guest operations. All operations take part in
+ * the unit of work of the current request, which is completed (saved or undone)
+ * once per request rather than by each operation.
+ */
 @Service
 @Named
 public class GuestService implements IGuestService {
 
     private final IGuestRepositoryFactory guestRepositoryFactory;
-    private final IDatabaseUnitOfWorkFactory databaseUnitOfWorkFactory;
+    private final Provider<IDatabaseUnitOfWork> unitOfWorkProvider;
     private final LogService logService;
     private final Mapper mapper;
 
     @Inject
     public GuestService(
             IGuestRepositoryFactory guestRepositoryFactory,
-            IDatabaseUnitOfWorkFactory databaseUnitOfWorkFactory,
+            Provider<IDatabaseUnitOfWork> unitOfWorkProvider,
             LogService logService,
             Mapper mapper) {
 
         this.guestRepositoryFactory = guestRepositoryFactory;
-        this.databaseUnitOfWorkFactory = databaseUnitOfWorkFactory;
+        this.unitOfWorkProvider = unitOfWorkProvider;
         this.logService = logService;
         this.mapper = mapper;
     }
@@ -41,57 +51,48 @@ public class GuestService implements IGuestService {
     public com.jonfreer.wedding.servicemodel.Guest getGuest(int id)
             throws com.jonfreer.wedding.application.exceptions.ResourceNotFoundException {
 
-        IDatabaseUnitOfWork unitOfWork =
-                this.databaseUnitOfWorkFactory.create();
         IGuestRepository guestRepository =
-                this.guestRepositoryFactory.create(unitOfWork);
+                this.guestRepositoryFactory.create(this.unitOfWorkProvider.get());
 
         try {
 
             com.jonfreer.wedding.domain.Guest guest = guestRepository.getGuest(id);
 
-            unitOfWork.Save();
-
-            return this.mapper.map(guest, com.jonfreer.wedding.servicemodel.Guest.class);
+            return this.map(guest, com.jonfreer.wedding.servicemodel.Guest.class);
 
         } catch (ResourceNotFoundException resourceNotFoundEx) {
-            unitOfWork.Undo();
             this.logService.info(resourceNotFoundEx.getLocalizedMessage());
             throw new com.jonfreer.wedding.application.exceptions.ResourceNotFoundException(
                     resourceNotFoundEx.getMessage(),
                     resourceNotFoundEx, resourceNotFoundEx.getResourceId());
         } catch (Exception ex) {
-            unitOfWork.Undo();
             this.logService.error(ex);
             throw new RuntimeException(ex);
         }
     }
 
-    public void updateGuest(com.jonfreer.wedding.servicemodel.Guest guest)
+    public com.jonfreer.wedding.servicemodel.Guest updateGuest(com.jonfreer.wedding.servicemodel.Guest guest)
             throws com.jonfreer.wedding.application.exceptions.ResourceNotFoundException {
 
-        IDatabaseUnitOfWork unitOfWork =
-                this.databaseUnitOfWorkFactory.create();
         IGuestRepository guestRepository =
-                this.guestRepositoryFactory.create(unitOfWork);
+                this.guestRepositoryFactory.create(this.unitOfWorkProvider.get());
 
         try {
 
             com.jonfreer.wedding.domain.Guest guestDomain =
-                    this.mapper.map(guest, com.jonfreer.wedding.domain.Guest.class);
+                    this.map(guest, com.jonfreer.wedding.domain.Guest.class);
 
             guestRepository.updateGuest(guestDomain);
 
-            unitOfWork.Save();
+            // the repository sets the state it assigned on the guest, so it is not read back.
+            return this.map(guestDomain, com.jonfreer.wedding.servicemodel.Guest.class);
 
         } catch (ResourceNotFoundException resourceNotFoundEx) {
-            unitOfWork.Undo();
             this.logService.info(resourceNotFoundEx.getLocalizedMessage());
             throw new com.jonfreer.wedding.application.exceptions.ResourceNotFoundException(
                     resourceNotFoundEx.getMessage(),
                     resourceNotFoundEx, resourceNotFoundEx.getResourceId());
         } catch (Exception ex) {
-            unitOfWork.Undo();
             this.logService.error(ex);
             throw new RuntimeException(ex);
         }
@@ -100,78 +101,159 @@ public class GuestService implements IGuestService {
     public void deleteGuest(int id)
             throws com.jonfreer.wedding.application.exceptions.ResourceNotFoundException {
 
-        IDatabaseUnitOfWork unitOfWork =
-                this.databaseUnitOfWorkFactory.create();
         IGuestRepository guestRepository =
-                this.guestRepositoryFactory.create(unitOfWork);
+                this.guestRepositoryFactory.create(this.unitOfWorkProvider.get());
 
         try {
 
             guestRepository.deleteGuest(id);
 
-            unitOfWork.Save();
-
         } catch (ResourceNotFoundException resourceNotFoundEx) {
-            unitOfWork.Undo();
             this.logService.info(resourceNotFoundEx.getLocalizedMessage());
             throw new com.jonfreer.wedding.application.exceptions.ResourceNotFoundException(
                     resourceNotFoundEx.getMessage(),
                     resourceNotFoundEx, resourceNotFoundEx.getResourceId());
         } catch (Exception ex) {
-            unitOfWork.Undo();
             this.logService.error(ex);
             throw new RuntimeException(ex);
         }
     }
 
-    public int insertGuest(com.jonfreer.wedding.servicemodel.Guest guest) {
+    public com.jonfreer.wedding.servicemodel.Guest insertGuest(com.jonfreer.wedding.servicemodel.Guest guest) {
 
-        IDatabaseUnitOfWork unitOfWork =
-                this.databaseUnitOfWorkFactory.create();
         IGuestRepository guestRepository =
-                this.guestRepositoryFactory.create(unitOfWork);
+                this.guestRepositoryFactory.create(this.unitOfWorkProvider.get());
 
         try {
             com.jonfreer.wedding.domain.Guest guestDomain =
-                this.mapper.map(guest, com.jonfreer.wedding.domain.Guest.class);
+                this.map(guest, com.jonfreer.wedding.domain.Guest.class);
             
-            int guestId = guestRepository.insertGuest(guestDomain);
+            guestRepository.insertGuest(guestDomain);
 
-            unitOfWork.Save();
-
-            return guestId;
+            // the repository sets the id and the state it assigned on the guest, so it is not read back.
+            return this.map(guestDomain, com.jonfreer.wedding.servicemodel.Guest.class);
         } catch (Exception ex) {
-            unitOfWork.Undo();
             this.logService.error(ex);
             ex.printStackTrace();
             throw new RuntimeException(ex);
         }
     }
 
+    public int[] insertGuests(List<com.jonfreer.wedding.servicemodel.Guest> guests) {
+
+        IGuestRepository guestRepository =
+                this.guestRepositoryFactory.create(this.unitOfWorkProvider.get());
+
+        try {
+            List<com.jonfreer.wedding.domain.Guest> guestsDomain =
+                new ArrayList<com.jonfreer.wedding.domain.Guest>(guests.size());
+            for (com.jonfreer.wedding.servicemodel.Guest guest : guests) {
+                guestsDomain.add(this.map(guest, com.jonfreer.wedding.domain.Guest.class));
+            }
+
+            return guestRepository.insertGuests(guestsDomain);
+        } catch (Exception ex) {
+            this.logService.error(ex);
+            throw new RuntimeException(ex);
+        }
+    }
+
+    public Set<Integer> updateGuests(List<com.jonfreer.wedding.servicemodel.Guest> guests) {
+
+        IGuestRepository guestRepository =
+                this.guestRepositoryFactory.create(this.unitOfWorkProvider.get());
+
+        try {
+            List<com.jonfreer.wedding.domain.Guest> guestsDomain =
+                new ArrayList<com.jonfreer.wedding.domain.Guest>(guests.size());
+            for (com.jonfreer.wedding.servicemodel.Guest guest : guests) {
+                guestsDomain.add(this.map(guest, com.jonfreer.wedding.domain.Guest.class));
+            }
+
+            Set<Integer> missingIds = guestRepository.updateGuests(guestsDomain);
+            if (!missingIds.isEmpty()) {
+                this.logService.info("Guests with IDs of " + missingIds + " could not be found.");
+            }
+            return missingIds;
+        } catch (Exception ex) {
+            this.logService.error(ex);
+            throw new RuntimeException(ex);
+        }
+    }
+
     public ArrayList<com.jonfreer.wedding.servicemodel.Guest> getGuests(GuestSearchQuery searchQuery) {
 
-        IDatabaseUnitOfWork unitOfWork =
-            this.databaseUnitOfWorkFactory.create();
         IGuestRepository guestRepository =
-            this.guestRepositoryFactory.create(unitOfWork);
+                this.guestRepositoryFactory.create(this.unitOfWorkProvider.get());
 
         try {
             ArrayList<com.jonfreer.wedding.domain.Guest> guests =
                 guestRepository.getGuests(searchQuery);
 
-            unitOfWork.Save();
-
             ArrayList<com.jonfreer.wedding.servicemodel.Guest> guestsServiceModel = 
             		new ArrayList<com.jonfreer.wedding.servicemodel.Guest>();
             for(com.jonfreer.wedding.domain.Guest guest : guests){
-            		guestsServiceModel.add(this.mapper.map(guest, com.jonfreer.wedding.servicemodel.Guest.class));
+            		guestsServiceModel.add(this.map(guest, com.jonfreer.wedding.servicemodel.Guest.class));
             }
             
             return guestsServiceModel;
         } catch (Exception ex) {
-            unitOfWork.Undo();
             this.logService.error(ex);
             throw new RuntimeException(ex);
         }
     }
+
+    public void streamGuests(
+            GuestSearchQuery searchQuery,
+            final IResultHandler<com.jonfreer.wedding.servicemodel.Guest> handler) {
+
+        IGuestRepository guestRepository =
+                this.guestRepositoryFactory.create(this.unitOfWorkProvider.get());
+
+        try {
+            guestRepository.streamGuests(searchQuery, new IResultHandler<com.jonfreer.wedding.domain.Guest>() {
+                public void handle(com.jonfreer.wedding.domain.Guest guest) {
+                    handler.handle(map(guest, com.jonfreer.wedding.servicemodel.Guest.class));
+                }
+            });
+        } catch (Exception ex) {
+            this.logService.error(ex);
+            throw new RuntimeException(ex);
+        }
+    }
+
+    public int getGuestCount(GuestSearchQuery searchQuery) {
+
+        IGuestRepository guestRepository =
+                this.guestRepositoryFactory.create(this.unitOfWorkProvider.get());
+
+        try {
+            return guestRepository.getGuestCount(searchQuery);
+        } catch (Exception ex) {
+            this.logService.error(ex);
+            throw new RuntimeException(ex);
+        }
+    }
+
+    public CollectionVersion getGuestsVersion() {
+
+        IGuestRepository guestRepository =
+                this.guestRepositoryFactory.create(this.unitOfWorkProvider.get());
+
+        try {
+            return guestRepository.getGuestsVersion();
+        } catch (Exception ex) {
+            this.logService.error(ex);
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private <T> T map(Object source, Class<T> destinationClass) {
+        long span = ServerTiming.start();
+        try {
+            return this.mapper.map(source, destinationClass);
+        } finally {
+            ServerTiming.stop("mapping", span);
+        }
+    }
 }
@@ -1,5 +1,7 @@
 package com.jonfreer.wedding.domain;
 
+import java.util.Date;
+
 /**
  * Represents a guest of the wedding.
  */
@@ -11,6 +13,8 @@ public class Guest extends Entity<Integer> implements Cloneable {
 	private String inviteCode;
 	private String dietaryRestrictions;
 	private Reservation reservation;
+	private Long version;
+	private Date lastModified;
 
 	/**
 	 * Default constructor for the Guest class. Creates an empty Guest object.
@@ -82,6 +86,8 @@ public class Guest extends Entity<Integer> implements Cloneable {
 		this.description = guest.description;
 		this.inviteCode = guest.inviteCode;
 		this.dietaryRestrictions = guest.dietaryRestrictions;
+		this.version = guest.version;
+		this.lastModified = guest.lastModified == null ? null : (Date) guest.lastModified.clone();
 		this.reservation =
 			guest.reservation == null ? (Reservation) guest.reservation.clone() : null;
 	}
@@ -243,6 +249,10 @@ public class Guest extends Entity<Integer> implements Cloneable {
 				guestObj.reservation = (Reservation) guestObj.reservation.clone();
 			}
 
+			if (guestObj.lastModified != null) {
+				guestObj.lastModified = (Date) guestObj.lastModified.clone();
+			}
+
 		} catch (CloneNotSupportedException e) { /* not possible. */ }
 
 		return guestObj;
@@ -361,4 +371,43 @@ public class Guest extends Entity<Integer> implements Cloneable {
 	public void setReservation(Reservation reservation) {
 		this.reservation = reservation;
 	}
+
+	/**
+	 * Retrieves the version of the guest, which increases every time the
+	 * guest is changed. The version is concurrency information rather than
+	 * state of the guest, so it does not take part in equality.
+	 *
+	 * @return The version of the guest, or null when it is not known.
+	 */
+	public Long getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * Alters the version of the guest.
+	 *
+	 * @param version The version of the guest.
+	 */
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	/**
+	 * Retrieves the date and time the guest was last changed. Like the version,
+	 * it does not take part in equality.
+	 *
+	 * @return The date and time the guest was last changed, or null when it is not known.
+	 */
+	public Date getLastModified() {
+		return this.lastModified;
+	}
+
+	/**
+	 * Alters the date and time the guest was last changed.
+	 *
+	 * @param lastModified The date and time the guest was last changed.
+	 */
+	public void setLastModified(Date lastModified) {
+		this.lastModified = lastModified;
+	}
 }
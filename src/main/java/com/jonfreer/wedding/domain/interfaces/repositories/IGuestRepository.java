@@ -2,9 +2,12 @@ package com.jonfreer.wedding.domain.interfaces.repositories;
 
 import com.jonfreer.wedding.domain.Guest;
 import com.jonfreer.wedding.infrastructure.exceptions.ResourceNotFoundException;
+import com.jonfreer.wedding.infrastructure.metadata.CollectionVersion;
 import com.jonfreer.wedding.infrastructure.queries.GuestSearchQuery;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 import org.jvnet.hk2.annotations.Contract;
 
@@ -22,6 +25,32 @@ public interface IGuestRepository extends IRepository<Guest> {
      */
     ArrayList<Guest> getGuests(GuestSearchQuery searchCriteria);
 
+    /**
+     * Hands the guests matching the search criteria to the handler provided one
+     * at a time, as they are read, without holding them all in memory at once.
+     *
+     * @param searchCriteria The search criteria; when null, all guests are streamed.
+     * @param handler The handler consuming the guests.
+     */
+    void streamGuests(GuestSearchQuery searchCriteria, IResultHandler<Guest> handler);
+
+    /**
+     * Retrieves the version of the collection of guests as a whole, which
+     * changes whenever any guest is created, changed or deleted.
+     *
+     * @return The version of the collection of guests.
+     */
+    CollectionVersion getGuestsVersion();
+
+    /**
+     * Counts the guests in the repository matching the search criteria provided.
+     * The pagination of the search criteria (skip and take) is disregarded.
+     *
+     * @param searchCriteria The search criteria; when null, all guests are counted.
+     * @return The number of guests matching the search criteria.
+     */
+    int getGuestCount(GuestSearchQuery searchCriteria);
+
     /**
      * Retrieves a specific guest from the repository.
      *
@@ -57,4 +86,21 @@ public interface IGuestRepository extends IRepository<Guest> {
      * @return The identifier of the newly created guest.
      */
     int insertGuest(Guest guest);
+
+    /**
+     * Creates new guests in the repository, all at once.
+     *
+     * @param guests The desired states of the guests to be created.
+     * @return The identifiers of the newly created guests, in the order of the guests provided.
+     */
+    int[] insertGuests(List<Guest> guests);
+
+    /**
+     * Replaces the current states of many guests with the Guest instances provided, all at once.
+     *
+     * @param guests The desired states for the existing guests.
+     * @return The identifiers of the guests provided that do not match any guest
+     *         within the repository, which are left untouched.
+     */
+    Set<Integer> updateGuests(List<Guest> guests);
 }
@@ -0,0 +1,19 @@
+package com.jonfreer.wedding.domain.interfaces.repositories;
+
+/**
+ * Defines the contract for any class or interface that wishes to
+ * consume results one at a time, as they are read, instead of
+ * receiving them all at once in a collection.
+ *
+ * @param <T> The type of the results being consumed.
+ */
+public interface IResultHandler<T> {
+
+    /**
+     * Consumes a single result. The result must not be retained
+     * beyond the call unless the handler means to hold on to it.
+     *
+     * @param result The result being consumed.
+     */
+    void handle(T result);
+}
@@ -18,6 +18,18 @@ public interface IDatabaseUnitOfWork extends IUnitOfWork {
      */
     PreparedStatement createPreparedStatement(String sql);
 
+    /**
+     * Constructs a prepared statement given an SQL string, which may be
+     * asked to make the keys generated by the database available.
+     *
+     * @param sql The parameterized SQL statement.
+     * @param autoGeneratedKeys Either Statement.RETURN_GENERATED_KEYS or
+     *                          Statement.NO_GENERATED_KEYS.
+     * @return A prepared statement that can be used to contribute
+     * to the unit of work.
+     */
+    PreparedStatement createPreparedStatement(String sql, int autoGeneratedKeys);
+
     /**
      * Constructs a callable statement given an SQL string.
      * @param sql The JDBC escaped syntax SQL statement.
@@ -16,4 +16,12 @@ public interface IUnitOfWork {
      */
     void Undo();
 
+    /**
+     * Registers a listener to be notified once the unit of work is completed.
+     * Listeners are notified in the order they were registered.
+     *
+     * @param listener The listener to be notified.
+     */
+    void addListener(IUnitOfWorkListener listener);
+
 }
@@ -0,0 +1,19 @@
+package com.jonfreer.wedding.domain.interfaces.unitofwork;
+
+/**
+ * Defines the contract for any class or interface that wishes
+ * to be notified once a unit of work has been completed.
+ */
+public interface IUnitOfWorkListener {
+
+    /**
+     * Invoked once the unit of work has been persisted.
+     */
+    void saved();
+
+    /**
+     * Invoked once the unit of work has been discarded, including
+     * when an attempt to persist it has failed.
+     */
+    void undone();
+}
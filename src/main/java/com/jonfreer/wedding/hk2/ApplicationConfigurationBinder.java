@@ -0,0 +1,33 @@
+package com.jonfreer.wedding.hk2;
+
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
+
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
+
+/**
+ * A specific abstract binder implementation that binds the
+ * ApplicationConfiguration class within the HK2 container. A single,
+ * already loaded configuration is bound so that it is only loaded once,
+ * and can be shared with the binders that need it while configuring.
+ */
+public class ApplicationConfigurationBinder extends AbstractBinder {
+
+	private final ApplicationConfiguration configuration;
+
+	/**
+	 * Constructs an ApplicationConfigurationBinder.
+	 *
+	 * @param configuration The settings of the application to be bound.
+	 */
+	public ApplicationConfigurationBinder(ApplicationConfiguration configuration) {
+		this.configuration = configuration;
+	}
+
+	/**
+	 * Configures the binding of the ApplicationConfiguration class.
+	 */
+	@Override
+	protected void configure() {
+		this.bind(this.configuration).to(ApplicationConfiguration.class);
+	}
+}
@@ -1,5 +1,7 @@
 package com.jonfreer.wedding.hk2;
 
+import javax.inject.Singleton;
+
 import org.glassfish.hk2.utilities.binding.AbstractBinder;
 
 import com.jonfreer.wedding.infrastructure.services.EntityTagService;
@@ -19,7 +21,9 @@ public class EntityTagServiceBinder extends AbstractBinder {
      */
 	@Override
 	protected void configure() {
-		this.bind(EntityTagService.class).to(com.jonfreer.wedding.infrastructure.interfaces.services.EntityTagService.class);
+		this.bind(EntityTagService.class)
+			.to(com.jonfreer.wedding.infrastructure.interfaces.services.EntityTagService.class)
+			.in(Singleton.class);
 	}
 
 }
@@ -0,0 +1,27 @@
+package com.jonfreer.wedding.hk2;
+
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
+import org.glassfish.jersey.process.internal.RequestScoped;
+
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.infrastructure.factories.RequestDatabaseUnitOfWorkFactory;
+
+/**
+ * A specific abstract binder implementation that binds the
+ * RequestDatabaseUnitOfWorkFactory class to the IDatabaseUnitOfWork
+ * interface within the HK2 container, so that a single unit of work
+ * is shared by every component taking part in a request.
+ */
+public class IDatabaseUnitOfWorkBinder extends AbstractBinder {
+
+    /**
+     * Configures the binding between the RequestDatabaseUnitOfWorkFactory
+     * class and the IDatabaseUnitOfWork interface.
+     */
+    @Override
+    protected void configure() {
+        this.bindFactory(RequestDatabaseUnitOfWorkFactory.class)
+            .to(IDatabaseUnitOfWork.class)
+            .in(RequestScoped.class);
+    }
+}
@@ -1,5 +1,7 @@
 package com.jonfreer.wedding.hk2;
 
+import javax.inject.Singleton;
+
 import org.glassfish.hk2.utilities.binding.AbstractBinder;
 
 import com.jonfreer.wedding.infrastructure.factories.DatabaseUnitOfWorkFactory;
@@ -8,7 +10,8 @@ import com.jonfreer.wedding.infrastructure.interfaces.factories.IDatabaseUnitOfW
 /**
  * A specific abstract binder implementation that binds the
  * DatabaseUnitOfWorkFactory class to the IDatabaseUnitOfWorkFactory
- * interface within the HK2 container.
+ * interface within the HK2 container. The factory is bound as a singleton
+ * so that all units of work share the same connection pool.
  *
  * @author jonfreer
  * @since 11/13/16
@@ -21,7 +24,7 @@ public class IDatabaseUnitOfWorkFactoryBinder extends AbstractBinder {
      */
     @Override
     protected void configure() {
-        this.bind(DatabaseUnitOfWorkFactory.class).to(IDatabaseUnitOfWorkFactory.class);
+        this.bind(DatabaseUnitOfWorkFactory.class).to(IDatabaseUnitOfWorkFactory.class).in(Singleton.class);
     }
 
 }
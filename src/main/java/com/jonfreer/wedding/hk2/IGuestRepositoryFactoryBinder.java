@@ -4,10 +4,13 @@ import com.jonfreer.wedding.infrastructure.factories.GuestRepositoryFactory;
 import com.jonfreer.wedding.infrastructure.interfaces.factories.IGuestRepositoryFactory;
 import org.glassfish.hk2.utilities.binding.AbstractBinder;
 
+import javax.inject.Singleton;
+
 /**
  * A specific abstract binder implementation that binds the
  * GuestRepositoryFactory class to the IGuestRepositoryFactory
- * interface within the HK2 container.
+ * interface within the HK2 container. The factory is bound as a singleton
+ * so that all guest repositories share the same guest cache.
  *
  * @author jonfreer
  * @since 11/13/16
@@ -20,6 +23,6 @@ public class IGuestRepositoryFactoryBinder extends AbstractBinder {
      */
     @Override
     protected void configure() {
-        this.bind(GuestRepositoryFactory.class).to(IGuestRepositoryFactory.class);
+        this.bind(GuestRepositoryFactory.class).to(IGuestRepositoryFactory.class).in(Singleton.class);
     }
 }
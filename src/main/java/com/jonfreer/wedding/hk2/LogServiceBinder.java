@@ -1,14 +1,20 @@
 package com.jonfreer.wedding.hk2;
 
+import javax.inject.Singleton;
+
 import org.glassfish.hk2.utilities.binding.AbstractBinder;
 
 import com.jonfreer.wedding.infrastructure.services.LogService;
 
+/**
+ * Binds the LogService class within the HK2 container. The service is bound
+ * as a singleton so that all requests share its background log writer.
+ */
 public class LogServiceBinder extends AbstractBinder {
 
 	@Override
 	protected void configure() {
-		this.bind(LogService.class).to(com.jonfreer.wedding.infrastructure.interfaces.services.LogService.class);
+		this.bind(LogService.class).to(com.jonfreer.wedding.infrastructure.interfaces.services.LogService.class).in(Singleton.class);
 	}
 
 }
@@ -4,21 +4,47 @@ import org.dozer.DozerBeanMapper;
 import org.dozer.Mapper;
 import org.glassfish.hk2.utilities.binding.AbstractBinder;
 
+import com.jonfreer.wedding.application.mappers.GuestMapper;
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
+
 /**
- * A specific abstract binder implementation that binds the
- * DozerBeanMapper class to the Mapper interface within the HK2 container.
+ * A specific abstract binder implementation that binds a mapper
+ * to the Mapper interface within the HK2 container. The setting
+ * 'mapper.implementation' selects the mapper: 'explicit' (the default)
+ * binds GuestMapper, which maps guests and reservations without
+ * reflection, while 'dozer' binds DozerBeanMapper.
  *
  * @author jonfreer
  * @since 11/13/16
  */
 public class MapperBinder extends AbstractBinder {
 
+    private final ApplicationConfiguration configuration;
+
     /**
-     * Configures the binding between the DozerBeanMapper class
+     * Constructs a MapperBinder.
+     *
+     * @param configuration The settings of the application.
+     */
+    public MapperBinder(ApplicationConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Configures the binding between the selected mapper
      * and the Mapper interface.
      */
     @Override
     protected void configure() {
-        this.bind(new DozerBeanMapper()).to(Mapper.class);
+        String implementation = this.configuration.getString("mapper.implementation", "explicit");
+
+        if ("dozer".equalsIgnoreCase(implementation)) {
+            this.bind(new DozerBeanMapper()).to(Mapper.class);
+        } else if ("explicit".equalsIgnoreCase(implementation)) {
+            this.bind(new GuestMapper(new DozerBeanMapper())).to(Mapper.class);
+        } else {
+            throw new IllegalArgumentException(
+                "The setting 'mapper.implementation' must be either 'explicit' or 'dozer'.");
+        }
     }
 }
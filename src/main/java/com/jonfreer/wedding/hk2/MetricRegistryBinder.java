@@ -0,0 +1,19 @@
+package com.jonfreer.wedding.hk2;
+
+import javax.inject.Singleton;
+
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
+
+import com.jonfreer.wedding.infrastructure.metrics.MetricRegistry;
+
+/**
+ * Binds the MetricRegistry class within the HK2 container. The registry is
+ * bound as a singleton so that all requests record into the same metrics.
+ */
+public class MetricRegistryBinder extends AbstractBinder {
+
+	@Override
+	protected void configure() {
+		this.bind(MetricRegistry.class).to(MetricRegistry.class).in(Singleton.class);
+	}
+}
@@ -3,11 +3,16 @@
  */
 package com.jonfreer.wedding.hk2;
 
+import javax.inject.Singleton;
+
 import org.glassfish.hk2.utilities.binding.AbstractBinder;
 
 import com.jonfreer.wedding.infrastructure.services.ResourceMetadataService;
 
 /**
+ * Binds the ResourceMetadataService class within the HK2 container. The service
+ * is bound as a singleton so that all requests share its resource metadata cache.
+ *
  * @author jonfreer
  *
  */
@@ -15,7 +20,7 @@ public class ResourceMetadataServiceBinder extends AbstractBinder {
 
 	@Override
 	protected void configure() {
-		this.bind(ResourceMetadataService.class).to(com.jonfreer.wedding.infrastructure.interfaces.services.ResourceMetadataService.class);
+		this.bind(ResourceMetadataService.class).to(com.jonfreer.wedding.infrastructure.interfaces.services.ResourceMetadataService.class).in(Singleton.class);
 	}
 
 }
@@ -0,0 +1,19 @@
+package com.jonfreer.wedding.hk2;
+
+import javax.inject.Singleton;
+
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
+
+import com.jonfreer.wedding.infrastructure.caching.ResponseCache;
+
+/**
+ * Binds the ResponseCache class within the HK2 container. The cache is bound
+ * as a singleton so that all requests share the representations it holds.
+ */
+public class ResponseCacheBinder extends AbstractBinder {
+
+	@Override
+	protected void configure() {
+		this.bind(ResponseCache.class).to(ResponseCache.class).in(Singleton.class);
+	}
+}
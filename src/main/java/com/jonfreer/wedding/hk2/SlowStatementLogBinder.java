@@ -0,0 +1,19 @@
+package com.jonfreer.wedding.hk2;
+
+import javax.inject.Singleton;
+
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
+
+import com.jonfreer.wedding.infrastructure.metrics.SlowStatementLog;
+
+/**
+ * Binds the SlowStatementLog class within the HK2 container. The log is bound
+ * as a singleton so that the statements of all units of work are compared.
+ */
+public class SlowStatementLogBinder extends AbstractBinder {
+
+	@Override
+	protected void configure() {
+		this.bind(SlowStatementLog.class).to(SlowStatementLog.class).in(Singleton.class);
+	}
+}
@@ -0,0 +1,55 @@
+package com.jonfreer.wedding.infrastructure.caching;
+
+import java.util.Date;
+
+import javax.ws.rs.core.EntityTag;
+
+/**
+ * Represents a rendered representation of a resource held by the ResponseCache:
+ * the serialized entity along with the media type it was serialized as and the
+ * validators it was sent with.
+ */
+public final class CachedResponse {
+
+	private final EntityTag entityTag;
+	private final Date lastModified;
+	private final String mediaType;
+	private final byte[] body;
+
+	/**
+	 * Constructs a CachedResponse.
+	 *
+	 * @param entityTag The entity tag the representation was sent with.
+	 * @param lastModified The last modified date the representation was sent with; may be null.
+	 * @param mediaType The media type the entity was serialized as.
+	 * @param body The serialized entity. Not copied; must not be changed afterwards.
+	 */
+	public CachedResponse(EntityTag entityTag, Date lastModified, String mediaType, byte[] body) {
+		this.entityTag = entityTag;
+		this.lastModified = lastModified == null ? null : new Date(lastModified.getTime());
+		this.mediaType = mediaType;
+		this.body = body;
+	}
+
+	public EntityTag getEntityTag() {
+		return this.entityTag;
+	}
+
+	public Date getLastModified() {
+		return this.lastModified == null ? null : new Date(this.lastModified.getTime());
+	}
+
+	public String getMediaType() {
+		return this.mediaType;
+	}
+
+	/**
+	 * Retrieves the serialized entity. The array is shared by every hit,
+	 * so callers must not change it.
+	 *
+	 * @return The serialized entity.
+	 */
+	public byte[] getBody() {
+		return this.body;
+	}
+}
@@ -0,0 +1,18 @@
+package com.jonfreer.wedding.infrastructure.caching;
+
+/**
+ * Determines which entry a LocalCache evicts when it is full.
+ */
+public enum EvictionPolicy {
+
+	/**
+	 * Evicts the entry that was read or written the longest time ago.
+	 */
+	LRU,
+
+	/**
+	 * Evicts the entry that has been read the fewest times, breaking
+	 * ties by evicting the least recently used of those entries.
+	 */
+	LFU
+}
@@ -0,0 +1,409 @@
+package com.jonfreer.wedding.infrastructure.caching;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, thread-safe, in-process cache. Once the cache holds its maximum
+ * number of entries, adding an entry evicts another according to the eviction
+ * policy of the cache. Entries older than the time to live are treated as
+ * absent and are removed when they are next looked up (or evicted first).
+ *
+ * Both eviction policies run in constant time: LRU keeps the entries in access
+ * order, while LFU keeps the keys in buckets of equal read frequency.
+ *
+ * A cache constructed with a weigher is also bounded by the total weight of
+ * its values; entries are evicted until a new value fits, and a value heavier
+ * than the maximum weight is not cached at all.
+ *
+ * State read from elsewhere can be cached without undoing an invalidation that
+ * raced with the read: take a stamp of the key before reading, and add the
+ * value with putIfUnchanged, which drops it if the key was invalidated since.
+ * Stamps are kept per stripe of keys rather than per key, so an invalidation
+ * of another key occasionally drops a value that could have been cached.
+ *
+ * @param <K> The type of the keys of the cache.
+ * @param <V> The type of the values held by the cache.
+ */
+public class LocalCache<K, V> implements LocalCacheMXBean {
+
+	private static final int INVALIDATION_STRIPES = 64;
+
+	private final int maximumSize;
+	private final long maximumWeight;
+	private final Weigher<? super V> weigher;
+	private long totalWeight;
+	private final long timeToLiveNanos;
+	private final EvictionPolicy evictionPolicy;
+	private final LinkedHashMap<K, Entry<V>> entries;
+	private final HashMap<Long, LinkedHashSet<K>> frequencies;
+	private long minimumFrequency;
+	private final AtomicLong hits;
+	private final AtomicLong misses;
+	private final AtomicLong evictions;
+	private final AtomicLong expirations;
+	private final long[] invalidations;
+
+	/**
+	 * Constructs a LocalCache.
+	 *
+	 * @param maximumSize The maximum number of entries held by the cache.
+	 * @param timeToLive The amount of time an entry remains usable after it is
+	 *                   added. Zero means entries never expire.
+	 * @param timeUnit The unit of the time to live.
+	 * @param evictionPolicy The policy determining which entry is evicted when
+	 *                       the cache is full.
+	 */
+	public LocalCache(int maximumSize, long timeToLive, TimeUnit timeUnit, EvictionPolicy evictionPolicy) {
+		this(maximumSize, Long.MAX_VALUE, null, timeToLive, timeUnit, evictionPolicy);
+	}
+
+	/**
+	 * Constructs a LocalCache bounded by the total weight of its values as well
+	 * as by its number of entries.
+	 *
+	 * @param maximumSize The maximum number of entries held by the cache.
+	 * @param maximumWeight The maximum total weight of the values held by the cache.
+	 * @param weigher The weigher determining the weight of each value.
+	 * @param timeToLive The amount of time an entry remains usable after it is
+	 *                   added. Zero means entries never expire.
+	 * @param timeUnit The unit of the time to live.
+	 * @param evictionPolicy The policy determining which entry is evicted when
+	 *                       the cache is full.
+	 */
+	public LocalCache(
+		int maximumSize,
+		long maximumWeight,
+		Weigher<? super V> weigher,
+		long timeToLive,
+		TimeUnit timeUnit,
+		EvictionPolicy evictionPolicy) {
+
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("The constructor argument 'maximumSize' must be positive.");
+		}
+
+		if (maximumWeight < 1) {
+			throw new IllegalArgumentException("The constructor argument 'maximumWeight' must be positive.");
+		}
+
+		if (timeToLive < 0) {
+			throw new IllegalArgumentException("The constructor argument 'timeToLive' cannot be negative.");
+		}
+
+		if (evictionPolicy == null) {
+			throw new IllegalArgumentException("The constructor argument 'evictionPolicy' cannot be null.");
+		}
+
+		this.maximumSize = maximumSize;
+		this.maximumWeight = maximumWeight;
+		this.weigher = weigher;
+		this.totalWeight = 0;
+		this.timeToLiveNanos = timeUnit.toNanos(timeToLive);
+		this.evictionPolicy = evictionPolicy;
+		this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, evictionPolicy == EvictionPolicy.LRU);
+		this.frequencies = new HashMap<Long, LinkedHashSet<K>>();
+		this.minimumFrequency = 0;
+		this.hits = new AtomicLong();
+		this.misses = new AtomicLong();
+		this.evictions = new AtomicLong();
+		this.expirations = new AtomicLong();
+		this.invalidations = new long[INVALIDATION_STRIPES];
+	}
+
+	/**
+	 * Retrieves the value cached for the key provided.
+	 *
+	 * @param key The key of the value to retrieve.
+	 * @return The cached value, or null when the cache holds no live entry for the key.
+	 */
+	public synchronized V get(K key) {
+
+		Entry<V> entry = this.entries.get(key);
+
+		if (entry == null) {
+			this.misses.incrementAndGet();
+			return null;
+		}
+
+		if (entry.isExpired(System.nanoTime())) {
+			this.remove(key);
+			this.expirations.incrementAndGet();
+			this.misses.incrementAndGet();
+			return null;
+		}
+
+		if (this.evictionPolicy == EvictionPolicy.LFU) {
+			this.touch(key, entry);
+		}
+
+		this.hits.incrementAndGet();
+		return entry.value;
+	}
+
+	/**
+	 * Adds or replaces the value cached for the key provided, evicting
+	 * another entry if the cache is full.
+	 *
+	 * @param key The key of the value being cached.
+	 * @param value The value being cached.
+	 */
+	public synchronized void put(K key, V value) {
+
+		if (key == null || value == null) {
+			throw new IllegalArgumentException("Neither the key nor the value of a cache entry can be null.");
+		}
+
+		long expiresAtNanos = this.timeToLiveNanos == 0 ? 0 : System.nanoTime() + this.timeToLiveNanos;
+		long weight = this.weigher == null ? 0 : this.weigher.weigh(value);
+		Entry<V> existing = this.entries.get(key);
+
+		if (existing != null && weight == existing.weight) {
+			existing.value = value;
+			existing.expiresAtNanos = expiresAtNanos;
+			return;
+		}
+
+		if (existing != null) {
+			// the weight changed; re-add the entry so that room is made for it.
+			this.remove(key);
+		}
+
+		if (weight > this.maximumWeight) {
+			return;
+		}
+
+		while (!this.entries.isEmpty()
+			&& (this.entries.size() >= this.maximumSize || this.totalWeight + weight > this.maximumWeight)) {
+			this.evict();
+		}
+
+		this.entries.put(key, new Entry<V>(value, expiresAtNanos, weight));
+		this.totalWeight += weight;
+
+		if (this.evictionPolicy == EvictionPolicy.LFU) {
+			this.bucket(1L).add(key);
+			this.minimumFrequency = 1;
+		}
+	}
+
+	/**
+	 * Adds the value provided unless the cache already holds a live entry for
+	 * the key. Use this method when caching state that was read (as opposed to
+	 * written), so that a read that raced with a write cannot replace the
+	 * state cached by the write.
+	 *
+	 * @param key The key of the value being cached.
+	 * @param value The value being cached.
+	 * @return true if the value was added; false otherwise.
+	 */
+	public synchronized boolean putIfAbsent(K key, V value) {
+		Entry<V> existing = this.entries.get(key);
+		if (existing != null && !existing.isExpired(System.nanoTime())) {
+			return false;
+		}
+		this.put(key, value);
+		return true;
+	}
+
+	/**
+	 * Retrieves the stamp of the key provided, which changes whenever the key
+	 * is invalidated. Take the stamp before reading the value to be cached.
+	 *
+	 * @param key The key of the value about to be read.
+	 * @return The stamp to pass to putIfUnchanged.
+	 */
+	public synchronized long stamp(K key) {
+		return this.invalidations[stripe(key)];
+	}
+
+	/**
+	 * Adds the value provided unless the cache already holds a live entry for
+	 * the key, or the key was invalidated since the stamp provided was taken.
+	 * Use this method when caching state that was read, so that a read that
+	 * raced with a write can neither replace the state cached by the write nor
+	 * bring back the state the write invalidated.
+	 *
+	 * @param key The key of the value being cached.
+	 * @param value The value being cached.
+	 * @param stamp The stamp of the key, taken before the value was read.
+	 * @return true if the value was added; false otherwise.
+	 */
+	public synchronized boolean putIfUnchanged(K key, V value, long stamp) {
+		if (this.invalidations[stripe(key)] != stamp) {
+			return false;
+		}
+		return this.putIfAbsent(key, value);
+	}
+
+	/**
+	 * Removes the value cached for the key provided, if any.
+	 *
+	 * @param key The key of the value to remove.
+	 */
+	public synchronized void invalidate(K key) {
+		this.remove(key);
+		this.invalidations[stripe(key)]++;
+	}
+
+	/**
+	 * Removes every value held by the cache.
+	 */
+	public synchronized void invalidateAll() {
+		for (int i = 0; i < this.invalidations.length; i++) {
+			this.invalidations[i]++;
+		}
+		this.entries.clear();
+		this.frequencies.clear();
+		this.totalWeight = 0;
+		this.minimumFrequency = 0;
+	}
+
+	/**
+	 * Retrieves a point-in-time snapshot of the statistics of the cache.
+	 *
+	 * @return The statistics of the cache.
+	 */
+	public LocalCacheStatistics getStatistics() {
+		return new LocalCacheStatistics(
+			this.getSize(), this.getHits(), this.getMisses(), this.getEvictions(), this.getExpirations());
+	}
+
+	public synchronized int getSize() {
+		return this.entries.size();
+	}
+
+	public int getMaximumSize() {
+		return this.maximumSize;
+	}
+
+	public synchronized long getWeight() {
+		return this.totalWeight;
+	}
+
+	public long getMaximumWeight() {
+		return this.maximumWeight;
+	}
+
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	public long getEvictions() {
+		return this.evictions.get();
+	}
+
+	public long getExpirations() {
+		return this.expirations.get();
+	}
+
+	public double getHitRate() {
+		return this.getStatistics().getHitRate();
+	}
+
+	private void evict() {
+
+		K victim = null;
+
+		if (this.evictionPolicy == EvictionPolicy.LRU) {
+			victim = this.entries.keySet().iterator().next();
+		} else {
+			LinkedHashSet<K> leastFrequent = this.frequencies.get(this.minimumFrequency);
+			if (leastFrequent == null || leastFrequent.isEmpty()) {
+				// invalidations can leave the minimum frequency pointing at an empty bucket.
+				this.minimumFrequency = Long.MAX_VALUE;
+				for (Map.Entry<Long, LinkedHashSet<K>> bucket : this.frequencies.entrySet()) {
+					if (!bucket.getValue().isEmpty() && bucket.getKey() < this.minimumFrequency) {
+						this.minimumFrequency = bucket.getKey();
+					}
+				}
+				leastFrequent = this.frequencies.get(this.minimumFrequency);
+			}
+			victim = leastFrequent.iterator().next();
+		}
+
+		// prefer discarding an expired entry over a live one.
+		long now = System.nanoTime();
+		Iterator<Map.Entry<K, Entry<V>>> iterator = this.entries.entrySet().iterator();
+		if (iterator.hasNext()) {
+			Map.Entry<K, Entry<V>> eldest = iterator.next();
+			if (eldest.getValue().isExpired(now)) {
+				this.remove(eldest.getKey());
+				this.expirations.incrementAndGet();
+				return;
+			}
+		}
+
+		this.remove(victim);
+		this.evictions.incrementAndGet();
+	}
+
+	private void touch(K key, Entry<V> entry) {
+		LinkedHashSet<K> current = this.frequencies.get(entry.frequency);
+		current.remove(key);
+		if (current.isEmpty()) {
+			this.frequencies.remove(entry.frequency);
+			if (this.minimumFrequency == entry.frequency) {
+				this.minimumFrequency = entry.frequency + 1;
+			}
+		}
+		entry.frequency++;
+		this.bucket(entry.frequency).add(key);
+	}
+
+	private LinkedHashSet<K> bucket(long frequency) {
+		LinkedHashSet<K> bucket = this.frequencies.get(frequency);
+		if (bucket == null) {
+			bucket = new LinkedHashSet<K>();
+			this.frequencies.put(frequency, bucket);
+		}
+		return bucket;
+	}
+
+	private static int stripe(Object key) {
+		int hash = key == null ? 0 : key.hashCode();
+		return (hash ^ (hash >>> 16)) & (INVALIDATION_STRIPES - 1);
+	}
+
+	private void remove(K key) {
+		Entry<V> entry = this.entries.remove(key);
+		if (entry != null) {
+			this.totalWeight -= entry.weight;
+		}
+		if (entry != null && this.evictionPolicy == EvictionPolicy.LFU) {
+			LinkedHashSet<K> bucket = this.frequencies.get(entry.frequency);
+			bucket.remove(key);
+			if (bucket.isEmpty()) {
+				this.frequencies.remove(entry.frequency);
+			}
+		}
+	}
+
+	private static class Entry<V> {
+
+		private V value;
+		private long expiresAtNanos;
+		private long frequency;
+		private final long weight;
+
+		private Entry(V value, long expiresAtNanos, long weight) {
+			this.value = value;
+			this.expiresAtNanos = expiresAtNanos;
+			this.frequency = 1;
+			this.weight = weight;
+		}
+
+		private boolean isExpired(long nowNanos) {
+			return this.expiresAtNanos != 0 && nowNanos - this.expiresAtNanos >= 0;
+		}
+	}
+}
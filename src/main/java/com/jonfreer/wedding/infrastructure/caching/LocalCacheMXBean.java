@@ -0,0 +1,27 @@
+package com.jonfreer.wedding.infrastructure.caching;
+
+/**
+ * Exposes the statistics of a LocalCache over JMX.
+ */
+public interface LocalCacheMXBean {
+
+	int getSize();
+
+	int getMaximumSize();
+
+	long getWeight();
+
+	long getMaximumWeight();
+
+	long getHits();
+
+	long getMisses();
+
+	long getEvictions();
+
+	long getExpirations();
+
+	double getHitRate();
+
+	void invalidateAll();
+}
@@ -0,0 +1,84 @@
+package com.jonfreer.wedding.infrastructure.caching;
+
+/**
+ * Represents a point-in-time snapshot of the statistics of a LocalCache.
+ */
+public class LocalCacheStatistics {
+
+	private final int size;
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	private final long expirations;
+
+	/**
+	 * Constructs a LocalCacheStatistics instance.
+	 *
+	 * @param size The number of entries held by the cache.
+	 * @param hits The number of lookups that found a live entry.
+	 * @param misses The number of lookups that found no live entry.
+	 * @param evictions The number of entries removed to make room for others.
+	 * @param expirations The number of entries removed because they outlived the time to live.
+	 */
+	public LocalCacheStatistics(int size, long hits, long misses, long evictions, long expirations) {
+		this.size = size;
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+		this.expirations = expirations;
+	}
+
+	public int getSize() {
+		return this.size;
+	}
+
+	public long getHits() {
+		return this.hits;
+	}
+
+	public long getMisses() {
+		return this.misses;
+	}
+
+	public long getEvictions() {
+		return this.evictions;
+	}
+
+	public long getExpirations() {
+		return this.expirations;
+	}
+
+	/**
+	 * Retrieves the proportion of lookups that found a live entry.
+	 *
+	 * @return The hit rate, between 0 and 1; zero when no lookups have been made.
+	 */
+	public double getHitRate() {
+		long lookups = this.hits + this.misses;
+		return lookups == 0 ? 0d : this.hits / (double) lookups;
+	}
+
+	/**
+	 * Creates a string representation of the statistics.
+	 *
+	 * @return The string representation.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("LocalCacheStatistics [size=");
+		builder.append(this.size);
+		builder.append(", hits=");
+		builder.append(this.hits);
+		builder.append(", misses=");
+		builder.append(this.misses);
+		builder.append(", evictions=");
+		builder.append(this.evictions);
+		builder.append(", expirations=");
+		builder.append(this.expirations);
+		builder.append(", hitRate=");
+		builder.append(this.getHitRate());
+		builder.append("]");
+		return builder.toString();
+	}
+}
@@ -0,0 +1,269 @@
+package com.jonfreer.wedding.infrastructure.caching;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.ws.rs.core.EntityTag;
+
+import org.jvnet.hk2.annotations.Service;
+
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
+import com.jonfreer.wedding.infrastructure.metadata.ResourceKeys;
+
+/**
+ * Holds the rendered representations of resources, so that a representation
+ * that has not changed is served without reaching the resource or serializing
+ * the entity again. Representations are grouped by the normalized URI of their
+ * resource and told apart by variant (the acceptable media types of the request
+ * that produced them); a representation is only served for the entity tag it
+ * was rendered with, so a stale representation is never served even before it
+ * is invalidated.
+ *
+ * The cache is bounded by both the number of resources and the total size of
+ * the representations held, and is configured with the 'responseCache.*'
+ * settings of the application. It is intended to be a singleton.
+ */
+@Service
+public class ResponseCache implements LocalCacheMXBean {
+
+	private static final String RESPONSE_CACHE_OBJECT_NAME =
+		"com.jonfreer.wedding:type=LocalCache,name=ResponseCache";
+
+	//accounts for the keys, headers and bookkeeping of each representation.
+	private static final int ENTRY_OVERHEAD = 256;
+
+	private final boolean isEnabled;
+	private final int maximumEntryBytes;
+	private final LocalCache<String, Map<String, CachedResponse>> cache;
+	private final AtomicLong hits;
+	private final AtomicLong misses;
+
+	/**
+	 * Constructs a ResponseCache, provided the settings of the application.
+	 *
+	 * @param configuration The settings of the application.
+	 */
+	@Inject
+	public ResponseCache(ApplicationConfiguration configuration) {
+		this.isEnabled = configuration.getBoolean("responseCache.enabled", true);
+		this.maximumEntryBytes = configuration.getInt("responseCache.maximumEntryBytes", 256 * 1024);
+		this.cache = new LocalCache<String, Map<String, CachedResponse>>(
+			configuration.getInt("responseCache.maximumSize", 1000),
+			configuration.getLong("responseCache.maximumBytes", 16L * 1024 * 1024),
+			new Weigher<Map<String, CachedResponse>>() {
+				public long weigh(Map<String, CachedResponse> variants) {
+					long weight = 0;
+					for (CachedResponse response : variants.values()) {
+						weight += response.getBody().length + ENTRY_OVERHEAD;
+					}
+					return weight;
+				}
+			},
+			configuration.getLong("responseCache.timeToLiveSeconds", 600),
+			TimeUnit.SECONDS,
+			EvictionPolicy.valueOf(configuration.getString("responseCache.evictionPolicy", "LRU")));
+		this.hits = new AtomicLong();
+		this.misses = new AtomicLong();
+
+		if (this.isEnabled) {
+			this.register();
+		}
+	}
+
+	/**
+	 * Determines whether representations are cached at all.
+	 *
+	 * @return true if the cache is enabled; false otherwise.
+	 */
+	public boolean isEnabled() {
+		return this.isEnabled;
+	}
+
+	/**
+	 * Retrieves the size of the largest representation worth caching.
+	 *
+	 * @return The maximum size of a single representation, in bytes.
+	 */
+	public int getMaximumEntryBytes() {
+		return this.maximumEntryBytes;
+	}
+
+	/**
+	 * Retrieves the representation of a resource rendered for the variant and
+	 * entity tag provided.
+	 *
+	 * @param uri The URI of the resource.
+	 * @param variant The variant of the representation.
+	 * @param entityTag The current entity tag of the resource.
+	 * @return The cached representation, or null when none matches.
+	 */
+	public CachedResponse get(URI uri, String variant, EntityTag entityTag) {
+		CachedResponse response = null;
+		if (this.isEnabled) {
+			Map<String, CachedResponse> variants = this.cache.get(ResourceKeys.of(uri));
+			if (variants != null) {
+				response = variants.get(variant);
+			}
+		}
+
+		if (response != null && response.getEntityTag().equals(entityTag)) {
+			this.hits.incrementAndGet();
+			return response;
+		}
+		this.misses.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Adds the representation of a resource rendered for the variant provided.
+	 * Representations of the resource rendered for other entity tags are discarded.
+	 *
+	 * @param uri The URI of the resource.
+	 * @param variant The variant of the representation.
+	 * @param response The representation.
+	 */
+	public void put(URI uri, String variant, CachedResponse response) {
+		if (!this.isEnabled || response.getBody().length > this.maximumEntryBytes) {
+			return;
+		}
+
+		String key = ResourceKeys.of(uri);
+		//the cache guards its own state with its monitor; holding it makes the merge atomic.
+		synchronized (this.cache) {
+			Map<String, CachedResponse> existing = this.cache.get(key);
+			Map<String, CachedResponse> variants = new HashMap<String, CachedResponse>();
+			if (existing != null) {
+				for (Map.Entry<String, CachedResponse> entry : existing.entrySet()) {
+					if (entry.getValue().getEntityTag().equals(response.getEntityTag())) {
+						variants.put(entry.getKey(), entry.getValue());
+					}
+				}
+			}
+			variants.put(variant, response);
+			//cached maps are never changed, so readers need no locking.
+			this.cache.put(key, Collections.unmodifiableMap(variants));
+		}
+	}
+
+	/**
+	 * Discards every representation of the resource identified by the key provided.
+	 *
+	 * @param resourceKey The key of the resource, as produced by ResourceKeys.
+	 */
+	public void invalidate(String resourceKey) {
+		this.cache.invalidate(resourceKey);
+	}
+
+	/**
+	 * Discards every representation of the resource identified by the URI provided.
+	 *
+	 * @param uri The URI of the resource.
+	 */
+	public void invalidate(URI uri) {
+		this.invalidate(ResourceKeys.of(uri));
+	}
+
+	/**
+	 * Retrieves a point-in-time snapshot of the statistics of the response cache.
+	 * Hits and misses count representations served and not served from the cache.
+	 *
+	 * @return The statistics of the response cache.
+	 */
+	public LocalCacheStatistics getStatistics() {
+		LocalCacheStatistics statistics = this.cache.getStatistics();
+		return new LocalCacheStatistics(
+			statistics.getSize(),
+			this.hits.get(),
+			this.misses.get(),
+			statistics.getEvictions(),
+			statistics.getExpirations());
+	}
+
+	public int getSize() {
+		return this.cache.getSize();
+	}
+
+	public int getMaximumSize() {
+		return this.cache.getMaximumSize();
+	}
+
+	public long getWeight() {
+		return this.cache.getWeight();
+	}
+
+	public long getMaximumWeight() {
+		return this.cache.getMaximumWeight();
+	}
+
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	public long getEvictions() {
+		return this.cache.getEvictions();
+	}
+
+	public long getExpirations() {
+		return this.cache.getExpirations();
+	}
+
+	public double getHitRate() {
+		return this.getStatistics().getHitRate();
+	}
+
+	public void invalidateAll() {
+		this.cache.invalidateAll();
+	}
+
+	/**
+	 * Unregisters the response cache from JMX. Invoked by the HK2 container when
+	 * the application is shutting down.
+	 */
+	@PreDestroy
+	public void destroy() {
+		if (!this.isEnabled) {
+			return;
+		}
+
+		try {
+			MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(RESPONSE_CACHE_OBJECT_NAME);
+			if (mBeanServer.isRegistered(objectName)) {
+				mBeanServer.unregisterMBean(objectName);
+			}
+		} catch (JMException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Exposes the statistics (including the hit rate) of the response cache over JMX.
+	 */
+	private void register() {
+		try {
+			MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(RESPONSE_CACHE_OBJECT_NAME);
+			if (mBeanServer.isRegistered(objectName)) {
+				mBeanServer.unregisterMBean(objectName);
+			}
+			mBeanServer.registerMBean(this, objectName);
+		} catch (JMException e) {
+			// monitoring is not essential; the cache remains fully functional.
+			e.printStackTrace();
+		}
+	}
+}
@@ -0,0 +1,20 @@
+package com.jonfreer.wedding.infrastructure.caching;
+
+/**
+ * Determines the weight of the values held by a LocalCache, e.g. their size
+ * in bytes, so that the cache can be bounded by total weight as well as by
+ * number of entries.
+ *
+ * @param <V> The type of the values being weighed.
+ */
+public interface Weigher<V> {
+
+	/**
+	 * Determines the weight of the value provided. The weight of a value
+	 * must not change while it is cached.
+	 *
+	 * @param value The value to weigh.
+	 * @return The weight of the value; never negative.
+	 */
+	long weigh(V value);
+}
@@ -0,0 +1,7 @@
+/**
+ * Contains the classes responsible for caching state in process so that
+ * frequently read, rarely changed state does not have to be retrieved
+ * from the database on every request.
+ *
+ */
+package com.jonfreer.wedding.infrastructure.caching;
@@ -0,0 +1,79 @@
+package com.jonfreer.wedding.infrastructure.configuration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import javax.inject.Named;
+
+import org.jvnet.hk2.annotations.Service;
+
+/**
+ * Represents the settings of the application. The settings are loaded from a
+ * file called 'application.properties' on the classpath; settings that are
+ * absent (or the file itself being absent) fall back to the defaults provided
+ * by the callers.
+ */
+@Service
+@Named
+public class ApplicationConfiguration {
+
+	private static final String RESOURCE_NAME = "application.properties";
+
+	private final Properties properties;
+
+	/**
+	 * Constructs an ApplicationConfiguration by loading 'application.properties'.
+	 */
+	public ApplicationConfiguration() {
+		this.properties = new Properties();
+
+		InputStream is = null;
+		try {
+			is = Thread.currentThread().getContextClassLoader().getResourceAsStream(RESOURCE_NAME);
+			if (is != null) {
+				this.properties.load(is);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new RuntimeException(e);
+		} finally {
+			try {
+				if (is != null) {
+					is.close();
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Constructs an ApplicationConfiguration from the properties provided.
+	 *
+	 * @param properties The settings of the application.
+	 */
+	public ApplicationConfiguration(Properties properties) {
+		this.properties = properties;
+	}
+
+	public String getString(String key, String defaultValue) {
+		String value = this.properties.getProperty(key);
+		return value == null ? defaultValue : value.trim();
+	}
+
+	public int getInt(String key, int defaultValue) {
+		String value = this.properties.getProperty(key);
+		return value == null ? defaultValue : Integer.parseInt(value.trim());
+	}
+
+	public long getLong(String key, long defaultValue) {
+		String value = this.properties.getProperty(key);
+		return value == null ? defaultValue : Long.parseLong(value.trim());
+	}
+
+	public boolean getBoolean(String key, boolean defaultValue) {
+		String value = this.properties.getProperty(key);
+		return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+	}
+}
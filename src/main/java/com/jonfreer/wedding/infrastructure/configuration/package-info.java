@@ -0,0 +1,6 @@
+/**
+ * Contains the classes responsible for loading the settings of the
+ * application, so that behavior can be tuned without recompiling.
+ *
+ */
+package com.jonfreer.wedding.infrastructure.configuration;
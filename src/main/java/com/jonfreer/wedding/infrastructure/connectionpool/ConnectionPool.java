@@ -0,0 +1,351 @@
+package com.jonfreer.wedding.infrastructure.connectionpool;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of database connections. Connections are handed out by
+ * acquire() and must be handed back by either release() (the connection is
+ * healthy and can be reused) or invalidate() (the connection is suspect and
+ * must be closed).
+ *
+ * Idle connections are handed out most-recently-used first, so that the
+ * connections left untouched for the longest time are the ones that get evicted
+ * once they have been idle for longer than the configured idle timeout.
+ */
+public class ConnectionPool implements ConnectionPoolMXBean {
+
+	private final ConnectionPoolConfiguration configuration;
+	private final ConnectionProvider connectionProvider;
+	private final LinkedBlockingDeque<PooledConnection> idleConnections;
+	private final Semaphore permits;
+	private final AtomicInteger totalConnections;
+	private final AtomicLong connectionsCreated;
+	private final AtomicLong connectionsDestroyed;
+	private final AtomicLong acquisitions;
+	private final AtomicLong acquisitionTimeouts;
+	private final AtomicLong validationFailures;
+	private final AtomicLong acquireNanos;
+	private final StatementCacheStatistics statementCacheStatistics;
+	private final ScheduledExecutorService evictionExecutor;
+	private volatile boolean isClosed;
+
+	/**
+	 * Constructs a ConnectionPool and opens the minimum number of connections.
+	 *
+	 * @param configuration The settings governing the behavior of the pool.
+	 * @param connectionProvider The provider used to open new physical connections.
+	 */
+	public ConnectionPool(ConnectionPoolConfiguration configuration, ConnectionProvider connectionProvider) {
+
+		if (configuration == null) {
+			throw new IllegalArgumentException("The constructor argument 'configuration' cannot be null.");
+		}
+
+		if (connectionProvider == null) {
+			throw new IllegalArgumentException("The constructor argument 'connectionProvider' cannot be null.");
+		}
+
+		this.configuration = configuration;
+		this.connectionProvider = connectionProvider;
+		this.idleConnections = new LinkedBlockingDeque<PooledConnection>();
+		this.permits = new Semaphore(configuration.getMaximumSize(), true);
+		this.totalConnections = new AtomicInteger();
+		this.connectionsCreated = new AtomicLong();
+		this.connectionsDestroyed = new AtomicLong();
+		this.acquisitions = new AtomicLong();
+		this.acquisitionTimeouts = new AtomicLong();
+		this.validationFailures = new AtomicLong();
+		this.acquireNanos = new AtomicLong();
+		this.statementCacheStatistics = new StatementCacheStatistics();
+
+		this.fill();
+
+		if (configuration.getIdleTimeoutMillis() > 0 && configuration.getEvictionIntervalMillis() > 0) {
+			this.evictionExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "connection-pool-evictor");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			this.evictionExecutor.scheduleWithFixedDelay(
+				new Runnable() {
+					public void run() {
+						evict();
+					}
+				},
+				configuration.getEvictionIntervalMillis(),
+				configuration.getEvictionIntervalMillis(),
+				TimeUnit.MILLISECONDS);
+		} else {
+			this.evictionExecutor = null;
+		}
+	}
+
+	/**
+	 * Hands out a connection from the pool, opening a new physical connection
+	 * when none are idle and the pool has not reached its maximum size. When the
+	 * pool is exhausted, the caller waits up to the configured acquire timeout.
+	 *
+	 * @return A connection that is exclusively owned by the caller until it is
+	 * released or invalidated.
+	 * @throws SQLTimeoutException Thrown when no connection became available
+	 *                             within the acquire timeout.
+	 * @throws SQLException Thrown when the pool has been closed or a new
+	 *                      connection could not be opened.
+	 */
+	public PooledConnection acquire() throws SQLException {
+
+		if (this.isClosed) {
+			throw new SQLException("The connection pool has been closed.");
+		}
+
+		long start = System.nanoTime();
+
+		try {
+			if (!this.permits.tryAcquire(this.configuration.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+				this.acquisitionTimeouts.incrementAndGet();
+				throw new SQLTimeoutException(
+					"Timed out after " + this.configuration.getAcquireTimeoutMillis()
+					+ "ms waiting for a database connection.");
+			}
+		} catch (InterruptedException interruptedEx) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a database connection.", interruptedEx);
+		}
+
+		try {
+			PooledConnection pooledConnection;
+
+			while ((pooledConnection = this.idleConnections.pollFirst()) != null) {
+				if (this.isValid(pooledConnection)) {
+					break;
+				}
+				this.validationFailures.incrementAndGet();
+				this.destroy(pooledConnection);
+			}
+
+			if (pooledConnection == null) {
+				pooledConnection = this.open();
+			}
+
+			pooledConnection.markBorrowed();
+			this.acquisitions.incrementAndGet();
+			this.acquireNanos.addAndGet(System.nanoTime() - start);
+
+			return pooledConnection;
+
+		} catch (SQLException | RuntimeException ex) {
+			this.permits.release();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Hands a healthy connection back to the pool so that it can be reused.
+	 * Releasing a connection that is not currently handed out has no effect.
+	 *
+	 * @param pooledConnection The connection being handed back.
+	 */
+	public void release(PooledConnection pooledConnection) {
+
+		if (pooledConnection == null || !pooledConnection.markReturned()) {
+			return;
+		}
+
+		try {
+			if (this.isClosed || pooledConnection.getConnection().isClosed()) {
+				this.destroy(pooledConnection);
+			} else {
+				this.idleConnections.offerFirst(pooledConnection);
+			}
+		} catch (SQLException sqlEx) {
+			sqlEx.printStackTrace();
+			this.destroy(pooledConnection);
+		} finally {
+			this.permits.release();
+		}
+	}
+
+	/**
+	 * Hands a suspect connection back to the pool so that it is closed
+	 * instead of being reused. Invalidating a connection that is not currently
+	 * handed out has no effect.
+	 *
+	 * @param pooledConnection The connection being handed back.
+	 */
+	public void invalidate(PooledConnection pooledConnection) {
+
+		if (pooledConnection == null || !pooledConnection.markReturned()) {
+			return;
+		}
+
+		try {
+			this.destroy(pooledConnection);
+		} finally {
+			this.permits.release();
+		}
+	}
+
+	/**
+	 * Closes all idle connections and stops handing out connections. Connections
+	 * that are currently handed out are closed as they are handed back.
+	 */
+	public void close() {
+
+		this.isClosed = true;
+
+		if (this.evictionExecutor != null) {
+			this.evictionExecutor.shutdownNow();
+		}
+
+		PooledConnection pooledConnection;
+		while ((pooledConnection = this.idleConnections.pollFirst()) != null) {
+			this.destroy(pooledConnection);
+		}
+	}
+
+	/**
+	 * Retrieves a point-in-time snapshot of the statistics of the pool.
+	 *
+	 * @return The statistics of the pool.
+	 */
+	public ConnectionPoolStatistics getStatistics() {
+		return new ConnectionPoolStatistics(
+			this.getTotalConnections(),
+			this.getIdleConnections(),
+			this.getPendingAcquisitions(),
+			this.getConnectionsCreated(),
+			this.getConnectionsDestroyed(),
+			this.getAcquisitions(),
+			this.getAcquisitionTimeouts(),
+			this.getValidationFailures(),
+			this.getAverageAcquireMillis(),
+			this.getStatementCacheHits(),
+			this.getStatementCacheMisses());
+	}
+
+	public int getTotalConnections() {
+		return this.totalConnections.get();
+	}
+
+	public int getIdleConnections() {
+		return this.idleConnections.size();
+	}
+
+	public int getActiveConnections() {
+		return Math.max(0, this.getTotalConnections() - this.getIdleConnections());
+	}
+
+	public int getPendingAcquisitions() {
+		return this.permits.getQueueLength();
+	}
+
+	public long getConnectionsCreated() {
+		return this.connectionsCreated.get();
+	}
+
+	public long getConnectionsDestroyed() {
+		return this.connectionsDestroyed.get();
+	}
+
+	public long getAcquisitions() {
+		return this.acquisitions.get();
+	}
+
+	public long getAcquisitionTimeouts() {
+		return this.acquisitionTimeouts.get();
+	}
+
+	public long getValidationFailures() {
+		return this.validationFailures.get();
+	}
+
+	public double getAverageAcquireMillis() {
+		long count = this.acquisitions.get();
+		return count == 0 ? 0d : (this.acquireNanos.get() / (double) count) / 1000000d;
+	}
+
+	public long getStatementCacheHits() {
+		return this.statementCacheStatistics.getHits();
+	}
+
+	public long getStatementCacheMisses() {
+		return this.statementCacheStatistics.getMisses();
+	}
+
+	/**
+	 * Closes connections that have been idle for longer than the idle timeout,
+	 * never shrinking the pool below its minimum size, and then tops the pool
+	 * back up to its minimum size.
+	 */
+	void evict() {
+
+		long cutoff = System.currentTimeMillis() - this.configuration.getIdleTimeoutMillis();
+		Iterator<PooledConnection> oldestFirst = this.idleConnections.descendingIterator();
+
+		while (oldestFirst.hasNext() && this.totalConnections.get() > this.configuration.getMinimumSize()) {
+			PooledConnection pooledConnection = oldestFirst.next();
+			if (pooledConnection.getLastReturnedTimeMillis() <= cutoff
+				&& this.idleConnections.removeLastOccurrence(pooledConnection)) {
+				this.destroy(pooledConnection);
+			}
+		}
+
+		this.fill();
+	}
+
+	private void fill() {
+		while (!this.isClosed && this.totalConnections.get() < this.configuration.getMinimumSize()) {
+			try {
+				this.idleConnections.offerLast(this.open());
+			} catch (SQLException sqlEx) {
+				// the database may be unavailable; connections will be opened on demand.
+				sqlEx.printStackTrace();
+				return;
+			}
+		}
+	}
+
+	private PooledConnection open() throws SQLException {
+		PooledConnection pooledConnection = new PooledConnection(
+			this.connectionProvider.open(),
+			new StatementCache(this.configuration.getStatementCacheSize(), this.statementCacheStatistics));
+		this.totalConnections.incrementAndGet();
+		this.connectionsCreated.incrementAndGet();
+		return pooledConnection;
+	}
+
+	private boolean isValid(PooledConnection pooledConnection) {
+		try {
+			if (pooledConnection.getConnection().isClosed()) {
+				return false;
+			}
+			return !this.configuration.getValidateOnBorrow()
+				|| pooledConnection.getConnection().isValid(this.configuration.getValidationTimeoutSeconds());
+		} catch (SQLException sqlEx) {
+			return false;
+		}
+	}
+
+	private void destroy(PooledConnection pooledConnection) {
+		this.totalConnections.decrementAndGet();
+		this.connectionsDestroyed.incrementAndGet();
+		try {
+			pooledConnection.getStatementCache().clear();
+			pooledConnection.getConnection().close();
+		} catch (SQLException sqlEx) {
+			sqlEx.printStackTrace();
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package com.jonfreer.wedding.infrastructure.connectionpool;
+
+import java.util.Properties;
+
+/**
+ * Represents the settings that govern the behavior of a ConnectionPool.
+ */
+public class ConnectionPoolConfiguration {
+
+	private static final String MINIMUM_SIZE = "pool.minimumSize";
+	private static final String MAXIMUM_SIZE = "pool.maximumSize";
+	private static final String ACQUIRE_TIMEOUT_MILLIS = "pool.acquireTimeoutMillis";
+	private static final String IDLE_TIMEOUT_MILLIS = "pool.idleTimeoutMillis";
+	private static final String EVICTION_INTERVAL_MILLIS = "pool.evictionIntervalMillis";
+	private static final String VALIDATE_ON_BORROW = "pool.validateOnBorrow";
+	private static final String VALIDATION_TIMEOUT_SECONDS = "pool.validationTimeoutSeconds";
+	private static final String STATEMENT_CACHE_SIZE = "pool.statementCacheSize";
+
+	private final int minimumSize;
+	private final int maximumSize;
+	private final long acquireTimeoutMillis;
+	private final long idleTimeoutMillis;
+	private final long evictionIntervalMillis;
+	private final boolean validateOnBorrow;
+	private final int validationTimeoutSeconds;
+	private final int statementCacheSize;
+
+	/**
+	 * Constructs a ConnectionPoolConfiguration.
+	 *
+	 * @param minimumSize The number of connections the pool keeps open, even when idle.
+	 * @param maximumSize The maximum number of connections the pool will ever have open.
+	 * @param acquireTimeoutMillis The amount of time a caller waits for a connection
+	 *                             before giving up.
+	 * @param idleTimeoutMillis The amount of time a connection may sit idle before it
+	 *                          becomes eligible for eviction. Zero disables eviction.
+	 * @param evictionIntervalMillis The amount of time between eviction runs. Zero
+	 *                               disables eviction.
+	 * @param validateOnBorrow true if connections are validated before being handed out;
+	 *                         false otherwise.
+	 * @param validationTimeoutSeconds The amount of time a validation may take before
+	 *                                 the connection is deemed invalid.
+	 * @param statementCacheSize The number of prepared statements cached per
+	 *                           connection. Zero disables statement caching.
+	 */
+	public ConnectionPoolConfiguration(
+		int minimumSize,
+		int maximumSize,
+		long acquireTimeoutMillis,
+		long idleTimeoutMillis,
+		long evictionIntervalMillis,
+		boolean validateOnBorrow,
+		int validationTimeoutSeconds,
+		int statementCacheSize) {
+
+		if (minimumSize < 0) {
+			throw new IllegalArgumentException("The constructor argument 'minimumSize' cannot be negative.");
+		}
+
+		if (maximumSize < 1 || maximumSize < minimumSize) {
+			throw new IllegalArgumentException(
+				"The constructor argument 'maximumSize' must be positive and no less than 'minimumSize'.");
+		}
+
+		if (acquireTimeoutMillis < 0 || idleTimeoutMillis < 0 || evictionIntervalMillis < 0) {
+			throw new IllegalArgumentException("Timeouts and intervals cannot be negative.");
+		}
+
+		if (validationTimeoutSeconds < 0) {
+			throw new IllegalArgumentException(
+				"The constructor argument 'validationTimeoutSeconds' cannot be negative.");
+		}
+
+		if (statementCacheSize < 0) {
+			throw new IllegalArgumentException(
+				"The constructor argument 'statementCacheSize' cannot be negative.");
+		}
+
+		this.minimumSize = minimumSize;
+		this.maximumSize = maximumSize;
+		this.acquireTimeoutMillis = acquireTimeoutMillis;
+		this.idleTimeoutMillis = idleTimeoutMillis;
+		this.evictionIntervalMillis = evictionIntervalMillis;
+		this.validateOnBorrow = validateOnBorrow;
+		this.validationTimeoutSeconds = validationTimeoutSeconds;
+		this.statementCacheSize = statementCacheSize;
+	}
+
+	/**
+	 * Creates a ConnectionPoolConfiguration from the 'pool.*' entries of the
+	 * properties provided. Entries that are absent fall back to defaults.
+	 *
+	 * @param properties The properties containing the pool settings.
+	 * @return The configuration described by the properties.
+	 */
+	public static ConnectionPoolConfiguration fromProperties(Properties properties) {
+		return new ConnectionPoolConfiguration(
+			Integer.parseInt(properties.getProperty(MINIMUM_SIZE, "2")),
+			Integer.parseInt(properties.getProperty(MAXIMUM_SIZE, "10")),
+			Long.parseLong(properties.getProperty(ACQUIRE_TIMEOUT_MILLIS, "5000")),
+			Long.parseLong(properties.getProperty(IDLE_TIMEOUT_MILLIS, "600000")),
+			Long.parseLong(properties.getProperty(EVICTION_INTERVAL_MILLIS, "60000")),
+			Boolean.parseBoolean(properties.getProperty(VALIDATE_ON_BORROW, "true")),
+			Integer.parseInt(properties.getProperty(VALIDATION_TIMEOUT_SECONDS, "2")),
+			Integer.parseInt(properties.getProperty(STATEMENT_CACHE_SIZE, "32"))
+		);
+	}
+
+	/**
+	 * Retrieves the number of connections the pool keeps open, even when idle.
+	 *
+	 * @return The minimum size of the pool.
+	 */
+	public int getMinimumSize() {
+		return this.minimumSize;
+	}
+
+	/**
+	 * Retrieves the maximum number of connections the pool will ever have open.
+	 *
+	 * @return The maximum size of the pool.
+	 */
+	public int getMaximumSize() {
+		return this.maximumSize;
+	}
+
+	/**
+	 * Retrieves the amount of time a caller waits for a connection before giving up.
+	 *
+	 * @return The acquire timeout in milliseconds.
+	 */
+	public long getAcquireTimeoutMillis() {
+		return this.acquireTimeoutMillis;
+	}
+
+	/**
+	 * Retrieves the amount of time a connection may sit idle before
+	 * it becomes eligible for eviction.
+	 *
+	 * @return The idle timeout in milliseconds.
+	 */
+	public long getIdleTimeoutMillis() {
+		return this.idleTimeoutMillis;
+	}
+
+	/**
+	 * Retrieves the amount of time between eviction runs.
+	 *
+	 * @return The eviction interval in milliseconds.
+	 */
+	public long getEvictionIntervalMillis() {
+		return this.evictionIntervalMillis;
+	}
+
+	/**
+	 * Indicates whether connections are validated before being handed out.
+	 *
+	 * @return true if connections are validated on borrow; false otherwise.
+	 */
+	public boolean getValidateOnBorrow() {
+		return this.validateOnBorrow;
+	}
+
+	/**
+	 * Retrieves the amount of time a validation may take before the
+	 * connection is deemed invalid.
+	 *
+	 * @return The validation timeout in seconds.
+	 */
+	public int getValidationTimeoutSeconds() {
+		return this.validationTimeoutSeconds;
+	}
+
+	/**
+	 * Retrieves the number of prepared statements cached per connection.
+	 *
+	 * @return The statement cache size; zero when statement caching is disabled.
+	 */
+	public int getStatementCacheSize() {
+		return this.statementCacheSize;
+	}
+}
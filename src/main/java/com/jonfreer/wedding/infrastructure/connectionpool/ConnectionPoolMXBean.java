@@ -0,0 +1,32 @@
+package com.jonfreer.wedding.infrastructure.connectionpool;
+
+/**
+ * Defines the management interface through which a ConnectionPool
+ * exposes its statistics over JMX.
+ */
+public interface ConnectionPoolMXBean {
+
+	int getTotalConnections();
+
+	int getIdleConnections();
+
+	int getActiveConnections();
+
+	int getPendingAcquisitions();
+
+	long getConnectionsCreated();
+
+	long getConnectionsDestroyed();
+
+	long getAcquisitions();
+
+	long getAcquisitionTimeouts();
+
+	long getValidationFailures();
+
+	double getAverageAcquireMillis();
+
+	long getStatementCacheHits();
+
+	long getStatementCacheMisses();
+}
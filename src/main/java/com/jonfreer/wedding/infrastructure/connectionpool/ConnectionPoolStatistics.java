@@ -0,0 +1,143 @@
+package com.jonfreer.wedding.infrastructure.connectionpool;
+
+/**
+ * Represents a point-in-time snapshot of the statistics of a ConnectionPool.
+ */
+public class ConnectionPoolStatistics {
+
+	private final int totalConnections;
+	private final int idleConnections;
+	private final int pendingAcquisitions;
+	private final long connectionsCreated;
+	private final long connectionsDestroyed;
+	private final long acquisitions;
+	private final long acquisitionTimeouts;
+	private final long validationFailures;
+	private final double averageAcquireMillis;
+	private final long statementCacheHits;
+	private final long statementCacheMisses;
+
+	/**
+	 * Constructs a ConnectionPoolStatistics snapshot.
+	 *
+	 * @param totalConnections The number of open physical connections.
+	 * @param idleConnections The number of open connections not currently in use.
+	 * @param pendingAcquisitions The number of callers waiting for a connection.
+	 * @param connectionsCreated The number of physical connections opened.
+	 * @param connectionsDestroyed The number of physical connections closed.
+	 * @param acquisitions The number of connections handed out.
+	 * @param acquisitionTimeouts The number of callers that gave up waiting.
+	 * @param validationFailures The number of connections that failed validation.
+	 * @param averageAcquireMillis The average time spent acquiring a connection.
+	 * @param statementCacheHits The number of statements served from a statement cache.
+	 * @param statementCacheMisses The number of statements that had to be prepared.
+	 */
+	public ConnectionPoolStatistics(
+		int totalConnections,
+		int idleConnections,
+		int pendingAcquisitions,
+		long connectionsCreated,
+		long connectionsDestroyed,
+		long acquisitions,
+		long acquisitionTimeouts,
+		long validationFailures,
+		double averageAcquireMillis,
+		long statementCacheHits,
+		long statementCacheMisses) {
+
+		this.totalConnections = totalConnections;
+		this.idleConnections = idleConnections;
+		this.pendingAcquisitions = pendingAcquisitions;
+		this.connectionsCreated = connectionsCreated;
+		this.connectionsDestroyed = connectionsDestroyed;
+		this.acquisitions = acquisitions;
+		this.acquisitionTimeouts = acquisitionTimeouts;
+		this.validationFailures = validationFailures;
+		this.averageAcquireMillis = averageAcquireMillis;
+		this.statementCacheHits = statementCacheHits;
+		this.statementCacheMisses = statementCacheMisses;
+	}
+
+	public int getTotalConnections() {
+		return this.totalConnections;
+	}
+
+	public int getIdleConnections() {
+		return this.idleConnections;
+	}
+
+	public int getActiveConnections() {
+		return Math.max(0, this.totalConnections - this.idleConnections);
+	}
+
+	public int getPendingAcquisitions() {
+		return this.pendingAcquisitions;
+	}
+
+	public long getConnectionsCreated() {
+		return this.connectionsCreated;
+	}
+
+	public long getConnectionsDestroyed() {
+		return this.connectionsDestroyed;
+	}
+
+	public long getAcquisitions() {
+		return this.acquisitions;
+	}
+
+	public long getAcquisitionTimeouts() {
+		return this.acquisitionTimeouts;
+	}
+
+	public long getValidationFailures() {
+		return this.validationFailures;
+	}
+
+	public double getAverageAcquireMillis() {
+		return this.averageAcquireMillis;
+	}
+
+	public long getStatementCacheHits() {
+		return this.statementCacheHits;
+	}
+
+	public long getStatementCacheMisses() {
+		return this.statementCacheMisses;
+	}
+
+	/**
+	 * Creates a string representation of the calling ConnectionPoolStatistics instance.
+	 *
+	 * @return A string representation of the calling ConnectionPoolStatistics instance.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		return builder
+			.append("ConnectionPoolStatistics [total=")
+			.append(this.totalConnections)
+			.append(", idle=")
+			.append(this.idleConnections)
+			.append(", pending=")
+			.append(this.pendingAcquisitions)
+			.append(", created=")
+			.append(this.connectionsCreated)
+			.append(", destroyed=")
+			.append(this.connectionsDestroyed)
+			.append(", acquisitions=")
+			.append(this.acquisitions)
+			.append(", timeouts=")
+			.append(this.acquisitionTimeouts)
+			.append(", validationFailures=")
+			.append(this.validationFailures)
+			.append(", averageAcquireMillis=")
+			.append(this.averageAcquireMillis)
+			.append(", statementCacheHits=")
+			.append(this.statementCacheHits)
+			.append(", statementCacheMisses=")
+			.append(this.statementCacheMisses)
+			.append("]")
+			.toString();
+	}
+}
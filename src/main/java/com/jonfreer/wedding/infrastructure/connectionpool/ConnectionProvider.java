@@ -0,0 +1,19 @@
+package com.jonfreer.wedding.infrastructure.connectionpool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Defines the contract for any class that is capable of opening
+ * new physical database connections on behalf of a ConnectionPool.
+ */
+public interface ConnectionProvider {
+
+	/**
+	 * Opens a new physical connection to the database.
+	 *
+	 * @return The newly opened connection.
+	 * @throws SQLException Thrown when the connection could not be established.
+	 */
+	Connection open() throws SQLException;
+}
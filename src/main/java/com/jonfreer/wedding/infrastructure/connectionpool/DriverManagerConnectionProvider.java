@@ -0,0 +1,39 @@
+package com.jonfreer.wedding.infrastructure.connectionpool;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * A ConnectionProvider that opens connections through the DriverManager
+ * class using a connection string and credentials.
+ */
+public class DriverManagerConnectionProvider implements ConnectionProvider {
+
+	private final String connectionString;
+	private final String username;
+	private final String password;
+
+	/**
+	 * Constructs a DriverManagerConnectionProvider.
+	 *
+	 * @param connectionString The JDBC connection string of the database.
+	 * @param username The username used to authenticate with the database.
+	 * @param password The password used to authenticate with the database.
+	 */
+	public DriverManagerConnectionProvider(String connectionString, String username, String password) {
+		this.connectionString = connectionString;
+		this.username = username;
+		this.password = password;
+	}
+
+	/**
+	 * Opens a new physical connection to the database.
+	 *
+	 * @return The newly opened connection.
+	 * @throws SQLException Thrown when the connection could not be established.
+	 */
+	public Connection open() throws SQLException {
+		return DriverManager.getConnection(this.connectionString, this.username, this.password);
+	}
+}
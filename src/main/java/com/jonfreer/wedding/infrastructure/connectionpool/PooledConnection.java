@@ -0,0 +1,85 @@
+package com.jonfreer.wedding.infrastructure.connectionpool;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Represents a physical database connection that is managed by a ConnectionPool.
+ * Instances are handed out by ConnectionPool.acquire() and must be handed back
+ * by either ConnectionPool.release() or ConnectionPool.invalidate().
+ */
+public class PooledConnection {
+
+	private final Connection connection;
+	private final StatementCache statementCache;
+	private final long createdTimeMillis;
+	private final AtomicBoolean isBorrowed;
+	private volatile long lastReturnedTimeMillis;
+
+	/**
+	 * Constructs a PooledConnection wrapping the physical connection provided.
+	 *
+	 * @param connection The physical connection being pooled.
+	 * @param statementCache The cache of statements prepared on the connection.
+	 */
+	PooledConnection(Connection connection, StatementCache statementCache) {
+		this.connection = connection;
+		this.statementCache = statementCache;
+		this.createdTimeMillis = System.currentTimeMillis();
+		this.lastReturnedTimeMillis = this.createdTimeMillis;
+		this.isBorrowed = new AtomicBoolean(false);
+	}
+
+	/**
+	 * Retrieves the physical connection. The connection must not be
+	 * closed by callers; it is to be handed back to the pool instead.
+	 *
+	 * @return The physical connection.
+	 */
+	public Connection getConnection() {
+		return this.connection;
+	}
+
+	/**
+	 * Retrieves the cache of statements prepared on the physical connection.
+	 * The cache lives as long as the physical connection does, so statements
+	 * prepared by one unit of work can be reused by the next.
+	 *
+	 * @return The statement cache of the connection.
+	 */
+	public StatementCache getStatementCache() {
+		return this.statementCache;
+	}
+
+	/**
+	 * Retrieves the date and time (in milliseconds since the epoch)
+	 * that the physical connection was opened.
+	 *
+	 * @return The time the physical connection was opened.
+	 */
+	public long getCreatedTimeMillis() {
+		return this.createdTimeMillis;
+	}
+
+	/**
+	 * Retrieves the date and time (in milliseconds since the epoch)
+	 * that the connection was last handed back to the pool.
+	 *
+	 * @return The time the connection was last handed back to the pool.
+	 */
+	public long getLastReturnedTimeMillis() {
+		return this.lastReturnedTimeMillis;
+	}
+
+	boolean markBorrowed() {
+		return this.isBorrowed.compareAndSet(false, true);
+	}
+
+	boolean markReturned() {
+		if (this.isBorrowed.compareAndSet(true, false)) {
+			this.lastReturnedTimeMillis = System.currentTimeMillis();
+			return true;
+		}
+		return false;
+	}
+}
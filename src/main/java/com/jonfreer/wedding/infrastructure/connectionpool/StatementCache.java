@@ -0,0 +1,112 @@
+package com.jonfreer.wedding.infrastructure.connectionpool;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least-recently-used cache of the prepared statements of a single pooled
+ * connection, keyed by SQL text. Because it belongs to the pooled connection,
+ * the cache outlives the units of work that use the connection.
+ *
+ * Statements are checked out of the cache with take() and checked back in with
+ * put(), so a statement is never handed to two callers at once. Instances are
+ * not thread-safe; a cache is only ever used by the thread that has borrowed
+ * its connection.
+ */
+public class StatementCache {
+
+	private final int maximumSize;
+	private final StatementCacheStatistics statistics;
+	private final LinkedHashMap<String, PreparedStatement> statements;
+
+	/**
+	 * Constructs a StatementCache.
+	 *
+	 * @param maximumSize The maximum number of statements kept in the cache.
+	 * @param statistics The statistics that hits, misses and evictions are recorded to.
+	 */
+	public StatementCache(int maximumSize, StatementCacheStatistics statistics) {
+		this.maximumSize = maximumSize;
+		this.statistics = statistics;
+		this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true);
+	}
+
+	/**
+	 * Indicates whether the cache is able to hold any statements.
+	 *
+	 * @return true if statements are cached; false otherwise.
+	 */
+	public boolean isEnabled() {
+		return this.maximumSize > 0;
+	}
+
+	/**
+	 * Checks a statement out of the cache.
+	 *
+	 * @param key The key identifying the statement, typically its SQL text.
+	 * @return The cached statement, or null when no statement is cached for the key.
+	 */
+	public PreparedStatement take(String key) {
+		PreparedStatement statement = this.statements.remove(key);
+		if (statement != null) {
+			this.statistics.recordHit();
+		} else {
+			this.statistics.recordMiss();
+		}
+		return statement;
+	}
+
+	/**
+	 * Checks a statement back into the cache, evicting (and closing) the least
+	 * recently used statement when the cache is full. If the cache already holds a
+	 * statement for the key, the statement provided is closed instead.
+	 *
+	 * @param key The key identifying the statement, typically its SQL text.
+	 * @param statement The statement being checked back in.
+	 */
+	public void put(String key, PreparedStatement statement) {
+
+		if (!this.isEnabled() || this.statements.containsKey(key)) {
+			this.close(statement);
+			return;
+		}
+
+		this.statements.put(key, statement);
+
+		if (this.statements.size() > this.maximumSize) {
+			Map.Entry<String, PreparedStatement> eldest = this.statements.entrySet().iterator().next();
+			this.statements.remove(eldest.getKey());
+			this.statistics.recordEviction();
+			this.close(eldest.getValue());
+		}
+	}
+
+	/**
+	 * Retrieves the number of statements currently held by the cache.
+	 *
+	 * @return The number of cached statements.
+	 */
+	public int size() {
+		return this.statements.size();
+	}
+
+	/**
+	 * Closes and removes every statement held by the cache.
+	 */
+	public void clear() {
+		for (PreparedStatement statement : this.statements.values()) {
+			this.close(statement);
+		}
+		this.statements.clear();
+	}
+
+	private void close(PreparedStatement statement) {
+		try {
+			statement.close();
+		} catch (SQLException sqlEx) {
+			sqlEx.printStackTrace();
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package com.jonfreer.wedding.infrastructure.connectionpool;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accumulates the hit, miss and eviction counts of the statement caches
+ * belonging to the connections of a single ConnectionPool.
+ */
+public class StatementCacheStatistics {
+
+	private final AtomicLong hits;
+	private final AtomicLong misses;
+	private final AtomicLong evictions;
+
+	/**
+	 * Constructs a StatementCacheStatistics instance with all counts set to zero.
+	 */
+	public StatementCacheStatistics() {
+		this.hits = new AtomicLong();
+		this.misses = new AtomicLong();
+		this.evictions = new AtomicLong();
+	}
+
+	/**
+	 * Retrieves the number of statements that were served from a cache.
+	 *
+	 * @return The number of cache hits.
+	 */
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	/**
+	 * Retrieves the number of statements that had to be prepared because
+	 * they were not present in a cache.
+	 *
+	 * @return The number of cache misses.
+	 */
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	/**
+	 * Retrieves the number of statements closed to make room in a cache.
+	 *
+	 * @return The number of cache evictions.
+	 */
+	public long getEvictions() {
+		return this.evictions.get();
+	}
+
+	void recordHit() {
+		this.hits.incrementAndGet();
+	}
+
+	void recordMiss() {
+		this.misses.incrementAndGet();
+	}
+
+	void recordEviction() {
+		this.evictions.incrementAndGet();
+	}
+}
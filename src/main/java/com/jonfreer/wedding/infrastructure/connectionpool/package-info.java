@@ -0,0 +1,7 @@
+/**
+ * Contains the classes responsible for pooling database connections so
+ * that units of work can reuse physical connections instead of
+ * establishing a new one for every unit of work.
+ *
+ */
+package com.jonfreer.wedding.infrastructure.connectionpool;
@@ -1,37 +1,69 @@
 package com.jonfreer.wedding.infrastructure.factories;
 
 import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.infrastructure.connectionpool.ConnectionPool;
+import com.jonfreer.wedding.infrastructure.connectionpool.ConnectionPoolConfiguration;
+import com.jonfreer.wedding.infrastructure.connectionpool.ConnectionPoolStatistics;
+import com.jonfreer.wedding.infrastructure.connectionpool.DriverManagerConnectionProvider;
 import com.jonfreer.wedding.infrastructure.interfaces.factories.IDatabaseUnitOfWorkFactory;
+import com.jonfreer.wedding.infrastructure.metrics.MeteredDatabaseUnitOfWork;
+import com.jonfreer.wedding.infrastructure.metrics.MetricRegistry;
+import com.jonfreer.wedding.infrastructure.metrics.SlowStatementLog;
 import com.jonfreer.wedding.infrastructure.unitofwork.DatabaseUnitOfWork;
 
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.jvnet.hk2.annotations.Service;
 
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
 import javax.inject.Named;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 /**
- * Factory that creates DatabaseUnitOfWork instances.
+ * Factory that creates DatabaseUnitOfWork instances. Each unit of work
+ * borrows its connection from a connection pool owned by the factory, so
+ * the factory is intended to be a singleton. The units of work are timed
+ * (statements, commits and rollbacks) into the metric registry provided,
+ * and their slowest statements kept track of by the slow statement log.
  */
 @Service
 @Named
 public class DatabaseUnitOfWorkFactory implements IDatabaseUnitOfWorkFactory {
 
+    private static final String CONNECTION_POOL_OBJECT_NAME =
+            "com.jonfreer.wedding:type=ConnectionPool,name=DatabaseUnitOfWorkFactory";
+
     private String connectionString;
     private String username;
     private String password;
+    private ConnectionPool connectionPool;
+    private MetricRegistry metricRegistry;
+    private SlowStatementLog slowStatementLog;
+    private final List<Runnable> shutdownTasks = new CopyOnWriteArrayList<Runnable>();
 
     /**
      * Constructs a DatabaseUnitOfWorkFactory. This constructor looks for a
      * file called 'databaseInfo.properties' in order to load in database
-     * configuration information.
+     * configuration information, including the settings of the connection pool.
+     *
+     * @param metricRegistry The registry that the units of work are timed into.
+     * @param slowStatementLog The log keeping track of the slowest statements of the units of work.
      */
-    public DatabaseUnitOfWorkFactory() {
+    @Inject
+    public DatabaseUnitOfWorkFactory(MetricRegistry metricRegistry, SlowStatementLog slowStatementLog) {
+
+        this.metricRegistry = metricRegistry;
+        this.slowStatementLog = slowStatementLog;
 
         InputStream is = null;
 
@@ -46,6 +78,10 @@ public class DatabaseUnitOfWorkFactory implements IDatabaseUnitOfWorkFactory {
             this.username = databaseProperties.getProperty("username");
             this.password = databaseProperties.getProperty("password");
 
+            this.connectionPool = new ConnectionPool(
+                    ConnectionPoolConfiguration.fromProperties(databaseProperties),
+                    new DriverManagerConnectionProvider(this.connectionString, this.username, this.password));
+
         } catch (FileNotFoundException e) {
             e.printStackTrace();
             throw new RuntimeException(e);
@@ -62,20 +98,109 @@ public class DatabaseUnitOfWorkFactory implements IDatabaseUnitOfWorkFactory {
                 throw new RuntimeException(e);
             }
         }
+
+        this.registerConnectionPool();
+    }
+
+    /**
+     * Constructs a DatabaseUnitOfWorkFactory whose units of work borrow their
+     * connections from the connection pool provided.
+     *
+     * @param connectionPool The connection pool owned by the factory.
+     * @param metricRegistry The registry that the units of work are timed into.
+     * @param slowStatementLog The log keeping track of the slowest statements of the units of work.
+     */
+    DatabaseUnitOfWorkFactory(
+            ConnectionPool connectionPool,
+            MetricRegistry metricRegistry,
+            SlowStatementLog slowStatementLog) {
+
+        this.connectionPool = connectionPool;
+        this.metricRegistry = metricRegistry;
+        this.slowStatementLog = slowStatementLog;
+        this.registerConnectionPool();
     }
 
     /**
-     * Creates a new instance of DatabaseUnitOfWork.
+     * Creates a new instance of DatabaseUnitOfWork, timed into the metric registry.
      *
      * @return The new instance of DatabaseUnitOfWork.
      */
     public IDatabaseUnitOfWork create() {
         try {
-            return new DatabaseUnitOfWork(
-                    DriverManager.getConnection(this.connectionString, this.username, this.password));
+            return new MeteredDatabaseUnitOfWork(
+                    new DatabaseUnitOfWork(this.connectionPool.acquire(), this.connectionPool),
+                    this.metricRegistry,
+                    this.slowStatementLog);
         } catch (SQLException e) {
             e.printStackTrace();
             throw new java.lang.RuntimeException(e);
         }
     }
+
+    /**
+     * Retrieves a point-in-time snapshot of the statistics of the
+     * connection pool backing the units of work created by this factory.
+     *
+     * @return The statistics of the connection pool.
+     */
+    public ConnectionPoolStatistics getConnectionPoolStatistics() {
+        return this.connectionPool.getStatistics();
+    }
+
+    /**
+     * Registers a task to be run when the factory is shutting down, before
+     * the connection pool is closed.
+     *
+     * @param task The task to be run.
+     */
+    public void addShutdownTask(Runnable task) {
+        this.shutdownTasks.add(task);
+    }
+
+    /**
+     * Runs the shutdown tasks registered, then closes the connection pool.
+     * Invoked by the HK2 container when the application is shutting down.
+     */
+    @PreDestroy
+    public void destroy() {
+        for (Runnable task : this.shutdownTasks) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        this.shutdownTasks.clear();
+
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(CONNECTION_POOL_OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        } finally {
+            this.connectionPool.close();
+        }
+    }
+
+    /**
+     * Exposes the statistics of the connection pool over JMX so that
+     * they can be monitored (e.g. through JConsole or the Tomcat manager).
+     */
+    private void registerConnectionPool() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(CONNECTION_POOL_OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(this.connectionPool, objectName);
+        } catch (JMException e) {
+            // monitoring is not essential; the pool remains fully functional.
+            e.printStackTrace();
+        }
+    }
 }
@@ -1,30 +1,144 @@
 package com.jonfreer.wedding.infrastructure.factories;
 
+import com.jonfreer.wedding.domain.Guest;
 import com.jonfreer.wedding.domain.interfaces.repositories.IGuestRepository;
 import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.infrastructure.caching.EvictionPolicy;
+import com.jonfreer.wedding.infrastructure.caching.LocalCache;
+import com.jonfreer.wedding.infrastructure.caching.LocalCacheStatistics;
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
 import com.jonfreer.wedding.infrastructure.interfaces.factories.IGuestRepositoryFactory;
+import com.jonfreer.wedding.infrastructure.metadata.EntityTagMode;
+import com.jonfreer.wedding.infrastructure.repositories.CachingGuestRepository;
 import com.jonfreer.wedding.infrastructure.repositories.GuestRepository;
 import org.jvnet.hk2.annotations.Service;
 
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
 import javax.inject.Named;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 /**
- * Factory that creates GuestRepository instances.
+ * Factory that creates GuestRepository instances. When the guest cache is
+ * enabled, the repositories are decorated with a CachingGuestRepository that
+ * shares a single cache owned by the factory, so the factory is intended to
+ * be a singleton.
  */
 @Service
 @Named
 public class GuestRepositoryFactory implements IGuestRepositoryFactory {
 
+    private static final String GUEST_CACHE_OBJECT_NAME =
+            "com.jonfreer.wedding:type=LocalCache,name=GuestCache";
+
+    private final LocalCache<Integer, Guest> guestCache;
+    private final boolean isVersioned;
+    private final Map<IDatabaseUnitOfWork, Set<Integer>> writtenGuestIds;
+
+    /**
+     * Constructs a GuestRepositoryFactory, provided the settings of the application
+     * describing the guest cache ('guestCache.*') and where entity tags come from ('etag.mode').
+     *
+     * @param configuration The settings of the application.
+     */
+    @Inject
+    public GuestRepositoryFactory(ApplicationConfiguration configuration) {
+        if (configuration.getBoolean("guestCache.enabled", true)) {
+            this.guestCache = new LocalCache<Integer, Guest>(
+                    configuration.getInt("guestCache.maximumSize", 1000),
+                    configuration.getLong("guestCache.timeToLiveSeconds", 300),
+                    TimeUnit.SECONDS,
+                    EvictionPolicy.valueOf(configuration.getString("guestCache.evictionPolicy", "LRU")));
+            this.registerGuestCache();
+        } else {
+            this.guestCache = null;
+        }
+        this.isVersioned = EntityTagMode.of(configuration) == EntityTagMode.VERSION;
+        this.writtenGuestIds = Collections.synchronizedMap(new WeakHashMap<IDatabaseUnitOfWork, Set<Integer>>());
+    }
+
     /**
      * Creates a new instance of GuestRepository, provided an instance of a class
      * that implements the IDatabaseUnitOfWork interface.
      *
      * @param unitOfWork The instance of IDatabaseUnitOfWork needed to create a new instance
      *                   of a class implementing the IGuestRepository interface.
-     * @return A new instance of GuestRepository.
+     * @return A new instance of GuestRepository, decorated with a CachingGuestRepository
+     * when the guest cache is enabled.
      */
     public IGuestRepository create(IDatabaseUnitOfWork unitOfWork) {
-        return new GuestRepository(unitOfWork);
+        GuestRepository guestRepository = new GuestRepository(unitOfWork, this.isVersioned);
+
+        if (this.guestCache == null) {
+            return guestRepository;
+        }
+
+        Set<Integer> writtenGuestIds;
+        synchronized (this.writtenGuestIds) {
+            writtenGuestIds = this.writtenGuestIds.get(unitOfWork);
+            if (writtenGuestIds == null) {
+                writtenGuestIds = Collections.synchronizedSet(new HashSet<Integer>());
+                this.writtenGuestIds.put(unitOfWork, writtenGuestIds);
+            }
+        }
+
+        return new CachingGuestRepository(guestRepository, this.guestCache, writtenGuestIds, unitOfWork);
+    }
+
+    /**
+     * Retrieves a point-in-time snapshot of the statistics of the guest cache.
+     *
+     * @return The statistics of the guest cache, or null when the cache is disabled.
+     */
+    public LocalCacheStatistics getGuestCacheStatistics() {
+        return this.guestCache == null ? null : this.guestCache.getStatistics();
+    }
+
+    /**
+     * Unregisters the guest cache from JMX. Invoked by the HK2 container when
+     * the application is shutting down.
+     */
+    @PreDestroy
+    public void destroy() {
+        if (this.guestCache == null) {
+            return;
+        }
+
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(GUEST_CACHE_OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
     }
 
+    /**
+     * Exposes the statistics (including the hit rate) of the guest cache over JMX.
+     */
+    private void registerGuestCache() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(GUEST_CACHE_OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(this.guestCache, objectName);
+        } catch (JMException e) {
+            // monitoring is not essential; the cache remains fully functional.
+            e.printStackTrace();
+        }
+    }
 }
@@ -0,0 +1,45 @@
+package com.jonfreer.wedding.infrastructure.factories;
+
+import javax.inject.Inject;
+
+import org.glassfish.hk2.api.Factory;
+
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.infrastructure.interfaces.factories.IDatabaseUnitOfWorkFactory;
+import com.jonfreer.wedding.infrastructure.unitofwork.LazyDatabaseUnitOfWork;
+
+/**
+ * HK2 factory that provides the unit of work shared by every component
+ * taking part in a single HTTP request. The unit of work only borrows a
+ * connection once it is first used, and is completed once per request by
+ * the UnitOfWorkFilter. Should the request end without the unit of work
+ * having been completed, it is undone when the request scope is disposed.
+ */
+public class RequestDatabaseUnitOfWorkFactory implements Factory<IDatabaseUnitOfWork> {
+
+	private final IDatabaseUnitOfWorkFactory unitOfWorkFactory;
+
+	@Inject
+	public RequestDatabaseUnitOfWorkFactory(IDatabaseUnitOfWorkFactory unitOfWorkFactory) {
+		this.unitOfWorkFactory = unitOfWorkFactory;
+	}
+
+	/**
+	 * Creates the unit of work for the current request.
+	 *
+	 * @return A unit of work that is opened lazily on first use.
+	 */
+	public IDatabaseUnitOfWork provide() {
+		return new LazyDatabaseUnitOfWork(this.unitOfWorkFactory);
+	}
+
+	/**
+	 * Undoes the unit of work of the current request if it is still open,
+	 * guaranteeing that its connection is handed back.
+	 *
+	 * @param unitOfWork The unit of work of the request being disposed.
+	 */
+	public void dispose(IDatabaseUnitOfWork unitOfWork) {
+		unitOfWork.Undo();
+	}
+}
@@ -16,4 +16,13 @@ public interface IDatabaseUnitOfWorkFactory {
      * @return The instance of a class that implements the IDatabaseUnitOfWork interface.
      */
     IDatabaseUnitOfWork create();
+
+    /**
+     * Registers a task to be run when the factory is shutting down, before the
+     * connections used by its units of work are closed (e.g. to write what is
+     * still pending to the database).
+     *
+     * @param task The task to be run.
+     */
+    void addShutdownTask(Runnable task);
 }
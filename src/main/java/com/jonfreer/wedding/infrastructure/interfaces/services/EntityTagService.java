@@ -13,9 +13,33 @@ import org.jvnet.hk2.annotations.Contract;
 public interface EntityTagService {
 
 	/**
-	 * 
-	 * @param entity
-	 * @return
+	 * Generates an entity tag from the state of the entity provided. Whether the
+	 * entity tag is weak is determined by the settings of the application.
+	 *
+	 * @param entity The entity to generate an entity tag for.
+	 * @return The entity tag for the current state of the entity.
 	 */
 	EntityTag get(Object entity);
+
+	/**
+	 * Generates an entity tag from the state of the entity provided.
+	 *
+	 * @param entity The entity to generate an entity tag for.
+	 * @param isWeak Indicates whether the entity tag generated is weak, i.e.
+	 *               identifies the state of the entity rather than the exact
+	 *               bytes of one of its representations.
+	 * @return The entity tag for the current state of the entity.
+	 */
+	EntityTag get(Object entity, boolean isWeak);
+
+	/**
+	 * Generates an entity tag from the identifier and version of an entity,
+	 * without looking at its state. Whether the entity tag is weak is
+	 * determined by the settings of the application.
+	 *
+	 * @param id The identifier of the entity.
+	 * @param version The version of the entity, which changes whenever its state does.
+	 * @return The entity tag for the version of the entity.
+	 */
+	EntityTag getForVersion(Object id, long version);
 }
@@ -1,6 +1,7 @@
 package com.jonfreer.wedding.infrastructure.interfaces.services;
 
 import java.net.URI;
+import java.util.List;
 
 import org.jvnet.hk2.annotations.Contract;
 
@@ -14,7 +15,8 @@ public interface ResourceMetadataService {
      * the provided URI.
      * @param uri The URI of the resource to retrieve metadata for.
      * @return The resource metadata for the resource identified by
-     * the provided URI.
+     * the provided URI, or null if the resource has none.
+     * @throws RuntimeException Thrown when the metadata cannot be read.
      */
     ResourceMetadata getResourceMetadata(URI uri);
 
@@ -22,15 +24,32 @@ public interface ResourceMetadataService {
      * Creates a new representation of resource metadata with the
      * provided state.
      * @param resourceMetadata The desired state for the new resource metadata.
+     * @return The resource metadata as it is stored, or null if it could not be written.
+     */
+    ResourceMetadata insertResourceMetadata(ResourceMetadata resourceMetadata);
+
+    /**
+     * Creates new representations of resource metadata with the
+     * provided states, all at once.
+     * @param resourceMetadata The desired states for the new resource metadata.
      */
-    void insertResourceMetadata(ResourceMetadata resourceMetadata);
+    void insertResourceMetadata(List<ResourceMetadata> resourceMetadata);
 
     /**
      * Replaces the state an existing representation of metadata about a resource
      * with the provided state.
      * @param resourceMetadata The desired state for the resource metadata.
+     * @return The resource metadata as it is stored, or null if it could not be written.
+     */
+    ResourceMetadata updateResourceMetaData(ResourceMetadata resourceMetadata);
+
+    /**
+     * Replaces the states of existing representations of metadata about
+     * resources with the provided states, all at once. Resources without
+     * metadata are left without.
+     * @param resourceMetadata The desired states for the resource metadata.
      */
-    void updateResourceMetaData(ResourceMetadata resourceMetadata);
+    void updateResourceMetaData(List<ResourceMetadata> resourceMetadata);
 
     /**
      * Deletes the resource metadata for a resource.
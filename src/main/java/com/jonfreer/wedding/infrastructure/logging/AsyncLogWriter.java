@@ -0,0 +1,277 @@
+package com.jonfreer.wedding.infrastructure.logging;
+
+import java.sql.CallableStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.infrastructure.interfaces.factories.IDatabaseUnitOfWorkFactory;
+
+/**
+ * Writes log records to the database on a background thread. Logging threads
+ * only enqueue records into a bounded ring buffer; the writer thread drains the
+ * buffer and inserts the records in JDBC batches, each batch in a unit of work
+ * of its own. What happens to records logged while the buffer is full is
+ * governed by the overflow policy of the writer. Its counters can be monitored
+ * over JMX.
+ */
+public class AsyncLogWriter implements AsyncLogWriterMXBean {
+
+	private static final String CREATE_LOG = "{ CALL CreateLog(?, ?, ?) }";
+	private static final String ERROR = "ERROR";
+	private static final ThreadLocal<Boolean> IS_WRITER_THREAD = new ThreadLocal<Boolean>();
+
+	private final IDatabaseUnitOfWorkFactory unitOfWorkFactory;
+	private final RingBuffer<LogRecord> buffer;
+	private final int batchSize;
+	private final long flushIntervalNanos;
+	private final OverflowPolicy overflowPolicy;
+	private final int sampleRate;
+	private final long blockTimeoutNanos;
+	private final AtomicLong enqueued;
+	private final AtomicLong written;
+	private final AtomicLong dropped;
+	private final AtomicLong failed;
+	private final AtomicLong sampleCounter;
+	private final Thread writerThread;
+	private volatile boolean isClosed;
+
+	/**
+	 * Constructs an AsyncLogWriter and starts its writer thread.
+	 *
+	 * @param unitOfWorkFactory The factory creating the units of work that records are written in.
+	 * @param capacity The number of records the buffer can hold.
+	 * @param batchSize The maximum number of records written in a single batch.
+	 * @param flushIntervalMillis The longest amount of time a record waits in
+	 *                            the buffer while the writer is idle.
+	 * @param overflowPolicy The policy applied to records logged while the buffer is full.
+	 * @param sampleRate Under the SAMPLE policy, one in every sampleRate records is
+	 *                   kept once the buffer is more than half full.
+	 * @param blockTimeoutMillis Under the BLOCK policy, the longest amount of time a
+	 *                           logging thread waits for room in the buffer.
+	 */
+	public AsyncLogWriter(
+		IDatabaseUnitOfWorkFactory unitOfWorkFactory,
+		int capacity,
+		int batchSize,
+		long flushIntervalMillis,
+		OverflowPolicy overflowPolicy,
+		int sampleRate,
+		long blockTimeoutMillis) {
+
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The constructor argument 'batchSize' must be positive.");
+		}
+
+		if (sampleRate < 1) {
+			throw new IllegalArgumentException("The constructor argument 'sampleRate' must be positive.");
+		}
+
+		this.unitOfWorkFactory = unitOfWorkFactory;
+		this.buffer = new RingBuffer<LogRecord>(capacity);
+		this.batchSize = batchSize;
+		this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+		this.overflowPolicy = overflowPolicy;
+		this.sampleRate = sampleRate;
+		this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+		this.enqueued = new AtomicLong();
+		this.written = new AtomicLong();
+		this.dropped = new AtomicLong();
+		this.failed = new AtomicLong();
+		this.sampleCounter = new AtomicLong();
+
+		this.writerThread = new Thread(new Runnable() {
+			public void run() {
+				IS_WRITER_THREAD.set(Boolean.TRUE);
+				drain();
+			}
+		}, "log-writer");
+		this.writerThread.setDaemon(true);
+		this.writerThread.start();
+	}
+
+	/**
+	 * Enqueues a record to be written. Never touches the database.
+	 *
+	 * @param record The record to be written.
+	 * @return true if the record was enqueued; false if it was discarded.
+	 */
+	public boolean write(LogRecord record) {
+
+		if (this.isClosed) {
+			this.dropped.incrementAndGet();
+			return false;
+		}
+
+		if (this.overflowPolicy == OverflowPolicy.SAMPLE
+			&& this.buffer.size() > this.buffer.capacity() / 2
+			&& !ERROR.equals(record.getLevel())
+			&& this.sampleCounter.getAndIncrement() % this.sampleRate != 0) {
+
+			this.dropped.incrementAndGet();
+			return false;
+		}
+
+		boolean isEnqueued = this.buffer.offer(record);
+
+		if (!isEnqueued && this.overflowPolicy == OverflowPolicy.BLOCK) {
+			long deadline = System.nanoTime() + this.blockTimeoutNanos;
+			while (!isEnqueued && System.nanoTime() - deadline < 0 && !this.isClosed) {
+				LockSupport.unpark(this.writerThread);
+				LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+				isEnqueued = this.buffer.offer(record);
+			}
+		}
+
+		if (!isEnqueued) {
+			this.dropped.incrementAndGet();
+			return false;
+		}
+
+		this.enqueued.incrementAndGet();
+		if (this.buffer.size() >= this.batchSize) {
+			LockSupport.unpark(this.writerThread);
+		}
+		return true;
+	}
+
+	/**
+	 * Stops accepting records, writes the records still in the buffer and
+	 * stops the writer thread, waiting at most the timeout provided.
+	 *
+	 * @param timeoutMillis The longest amount of time to wait for the buffer to be flushed.
+	 */
+	public void close(long timeoutMillis) {
+		this.isClosed = true;
+		LockSupport.unpark(this.writerThread);
+		try {
+			this.writerThread.join(timeoutMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Determines whether the current thread is the writer thread of an
+	 * AsyncLogWriter, so that work done while writing records (such as timing
+	 * the SQL that writes them) can avoid logging about itself.
+	 *
+	 * @return true if the current thread writes log records; false otherwise.
+	 */
+	public static boolean isWriterThread() {
+		return IS_WRITER_THREAD.get() != null;
+	}
+
+	/**
+	 * Retrieves the number of records accepted into the buffer.
+	 *
+	 * @return The number of records enqueued.
+	 */
+	public long getEnqueuedCount() {
+		return this.enqueued.get();
+	}
+
+	/**
+	 * Retrieves the number of records written to the database.
+	 *
+	 * @return The number of records written.
+	 */
+	public long getWrittenCount() {
+		return this.written.get();
+	}
+
+	/**
+	 * Retrieves the number of records discarded because of the overflow policy
+	 * (or because they were logged after the writer was closed).
+	 *
+	 * @return The number of records dropped.
+	 */
+	public long getDroppedCount() {
+		return this.dropped.get();
+	}
+
+	/**
+	 * Retrieves the number of records lost because their batch could not be written.
+	 *
+	 * @return The number of records that failed to be written.
+	 */
+	public long getFailedCount() {
+		return this.failed.get();
+	}
+
+	/**
+	 * Retrieves the number of records waiting in the buffer.
+	 *
+	 * @return The number of pending records.
+	 */
+	public int getPendingCount() {
+		return this.buffer.size();
+	}
+
+	private void drain() {
+		List<LogRecord> batch = new ArrayList<LogRecord>(this.batchSize);
+
+		while (true) {
+			LogRecord record;
+			while (batch.size() < this.batchSize && (record = this.buffer.poll()) != null) {
+				batch.add(record);
+			}
+
+			if (!batch.isEmpty()) {
+				this.writeBatch(batch);
+				batch.clear();
+				continue;
+			}
+
+			if (this.isClosed) {
+				return;
+			}
+
+			LockSupport.parkNanos(this.flushIntervalNanos);
+		}
+	}
+
+	private void writeBatch(List<LogRecord> batch) {
+
+		IDatabaseUnitOfWork unitOfWork = null;
+		CallableStatement createStatement = null;
+
+		try {
+			unitOfWork = this.unitOfWorkFactory.create();
+			createStatement = unitOfWork.createCallableStatement(CREATE_LOG);
+
+			for (LogRecord record : batch) {
+				createStatement.setString(1, record.getLevel());
+				createStatement.setString(2, record.getMessage());
+				if (record.getStacktrace() != null) {
+					createStatement.setString(3, record.getStacktrace());
+				} else {
+					createStatement.setNull(3, Types.VARCHAR);
+				}
+				createStatement.addBatch();
+			}
+
+			createStatement.executeBatch();
+			unitOfWork.destroyStatement(createStatement);
+			createStatement = null;
+			unitOfWork.Save();
+			this.written.addAndGet(batch.size());
+
+		} catch (SQLException | RuntimeException e) {
+			// the writer must survive an unavailable database; the batch is lost.
+			e.printStackTrace();
+			this.failed.addAndGet(batch.size());
+			if (unitOfWork != null) {
+				if (createStatement != null) {
+					unitOfWork.destroyStatement(createStatement);
+				}
+				unitOfWork.Undo();
+			}
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package com.jonfreer.wedding.infrastructure.logging;
+
+/**
+ * Defines the management interface through which an AsyncLogWriter
+ * exposes its counters over JMX.
+ */
+public interface AsyncLogWriterMXBean {
+
+	long getEnqueuedCount();
+
+	long getWrittenCount();
+
+	long getDroppedCount();
+
+	long getFailedCount();
+
+	int getPendingCount();
+}
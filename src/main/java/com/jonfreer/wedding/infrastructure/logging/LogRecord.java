@@ -0,0 +1,36 @@
+package com.jonfreer.wedding.infrastructure.logging;
+
+/**
+ * Represents a single log record waiting to be written.
+ */
+public class LogRecord {
+
+	private final String level;
+	private final String message;
+	private final String stacktrace;
+
+	/**
+	 * Constructs a LogRecord.
+	 *
+	 * @param level The severity of the record (e.g. 'ERROR').
+	 * @param message The message being logged.
+	 * @param stacktrace The stack trace accompanying the message; may be null.
+	 */
+	public LogRecord(String level, String message, String stacktrace) {
+		this.level = level;
+		this.message = message;
+		this.stacktrace = stacktrace;
+	}
+
+	public String getLevel() {
+		return this.level;
+	}
+
+	public String getMessage() {
+		return this.message;
+	}
+
+	public String getStacktrace() {
+		return this.stacktrace;
+	}
+}
@@ -0,0 +1,26 @@
+package com.jonfreer.wedding.infrastructure.logging;
+
+/**
+ * Determines what happens to a log record when the log writer
+ * is unable to keep up with the records being logged.
+ */
+public enum OverflowPolicy {
+
+	/**
+	 * Discards records while the buffer is full.
+	 */
+	DROP,
+
+	/**
+	 * Makes the logging thread wait (up to a timeout) for room in the buffer,
+	 * discarding the record if none becomes available in time.
+	 */
+	BLOCK,
+
+	/**
+	 * Once the buffer is more than half full, only keeps one in every N
+	 * records (errors are always kept), and discards records while the
+	 * buffer is full.
+	 */
+	SAMPLE
+}
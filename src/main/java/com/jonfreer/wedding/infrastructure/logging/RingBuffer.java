@@ -0,0 +1,124 @@
+package com.jonfreer.wedding.infrastructure.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free, multi-producer multi-consumer queue backed by an array.
+ * Every slot carries a sequence number that tells producers and consumers
+ * whether the slot is ready to be written or read, so that offering and polling
+ * only ever contend on a single compare-and-set of the tail or head respectively
+ * (the design described by Dmitry Vyukov for bounded MPMC queues).
+ *
+ * @param <E> The type of the elements held by the buffer.
+ */
+public class RingBuffer<E> {
+
+	private final int mask;
+	private final AtomicReferenceArray<E> elements;
+	private final AtomicLongArray sequences;
+	private final AtomicLong head;
+	private final AtomicLong tail;
+
+	/**
+	 * Constructs a RingBuffer.
+	 *
+	 * @param capacity The minimum number of elements the buffer can hold;
+	 *                 rounded up to the next power of two.
+	 */
+	public RingBuffer(int capacity) {
+
+		if (capacity < 2 || capacity > (1 << 30)) {
+			throw new IllegalArgumentException(
+				"The constructor argument 'capacity' must be between 2 and 2^30.");
+		}
+
+		int size = Integer.highestOneBit(capacity - 1) << 1;
+		this.mask = size - 1;
+		this.elements = new AtomicReferenceArray<E>(size);
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			this.sequences.set(i, i);
+		}
+		this.head = new AtomicLong();
+		this.tail = new AtomicLong();
+	}
+
+	/**
+	 * Adds an element to the tail of the buffer, if there is room for it.
+	 *
+	 * @param element The element being added.
+	 * @return true if the element was added; false if the buffer is full.
+	 */
+	public boolean offer(E element) {
+
+		if (element == null) {
+			throw new IllegalArgumentException("The argument 'element' cannot be null.");
+		}
+
+		long position = this.tail.get();
+		while (true) {
+			int index = (int) (position & this.mask);
+			long difference = this.sequences.get(index) - position;
+			if (difference == 0) {
+				if (this.tail.compareAndSet(position, position + 1)) {
+					this.elements.lazySet(index, element);
+					this.sequences.lazySet(index, position + 1);
+					return true;
+				}
+				position = this.tail.get();
+			} else if (difference < 0) {
+				return false;
+			} else {
+				position = this.tail.get();
+			}
+		}
+	}
+
+	/**
+	 * Removes the element at the head of the buffer.
+	 *
+	 * @return The element removed, or null if the buffer is empty.
+	 */
+	public E poll() {
+
+		long position = this.head.get();
+		while (true) {
+			int index = (int) (position & this.mask);
+			long difference = this.sequences.get(index) - (position + 1);
+			if (difference == 0) {
+				if (this.head.compareAndSet(position, position + 1)) {
+					E element = this.elements.get(index);
+					this.elements.lazySet(index, null);
+					this.sequences.lazySet(index, position + this.mask + 1);
+					return element;
+				}
+				position = this.head.get();
+			} else if (difference < 0) {
+				return null;
+			} else {
+				position = this.head.get();
+			}
+		}
+	}
+
+	/**
+	 * Retrieves the approximate number of elements held by the buffer.
+	 *
+	 * @return The number of elements held by the buffer.
+	 */
+	public int size() {
+		long size = this.tail.get() - this.head.get();
+		return (int) Math.max(0, Math.min(size, this.capacity()));
+	}
+
+	/**
+	 * Retrieves the number of elements the buffer can hold.
+	 *
+	 * @return The capacity of the buffer.
+	 */
+	public int capacity() {
+		return this.mask + 1;
+	}
+}
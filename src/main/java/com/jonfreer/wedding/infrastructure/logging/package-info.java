@@ -0,0 +1,7 @@
+/**
+ * Contains the classes responsible for writing log records to the database
+ * in the background, so that logging does not cost the thread serving a
+ * request a database round trip.
+ *
+ */
+package com.jonfreer.wedding.infrastructure.logging;
@@ -0,0 +1,44 @@
+package com.jonfreer.wedding.infrastructure.metadata;
+
+import java.util.Date;
+
+/**
+ * Represents the version of an entire collection of entities: a counter
+ * that changes whenever any entity in the collection is created, changed
+ * or deleted, along with the date and time of the latest such change.
+ */
+public class CollectionVersion {
+
+	private final long version;
+	private final Date lastModified;
+
+	/**
+	 * Constructs a CollectionVersion.
+	 *
+	 * @param version The change counter of the collection.
+	 * @param lastModified The date and time the collection last changed;
+	 *                     null when the collection has never changed.
+	 */
+	public CollectionVersion(long version, Date lastModified) {
+		this.version = version;
+		this.lastModified = lastModified == null ? null : (Date) lastModified.clone();
+	}
+
+	/**
+	 * Retrieves the change counter of the collection.
+	 *
+	 * @return The change counter of the collection.
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * Retrieves the date and time the collection last changed.
+	 *
+	 * @return The date and time the collection last changed, or null when it never has.
+	 */
+	public Date getLastModified() {
+		return this.lastModified == null ? null : (Date) this.lastModified.clone();
+	}
+}
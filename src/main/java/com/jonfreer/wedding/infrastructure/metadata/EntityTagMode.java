@@ -0,0 +1,37 @@
+package com.jonfreer.wedding.infrastructure.metadata;
+
+import java.util.Locale;
+
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
+
+/**
+ * Determines where the entity tags and last modified dates of guest
+ * resources come from.
+ */
+public enum EntityTagMode {
+
+	/**
+	 * The entity tag and last modified date of each resource are kept as
+	 * resource metadata, and the entity tag is a hash of the state of the
+	 * resource recomputed after every change.
+	 */
+	METADATA,
+
+	/**
+	 * The entity tag is derived from the identifier and version of the guest
+	 * row, and the last modified date is the one kept on the guest row, so
+	 * that no resource metadata is read or written and nothing is hashed.
+	 */
+	VERSION;
+
+	/**
+	 * Determines the mode selected by the setting 'etag.mode' of the
+	 * application, which defaults to 'metadata'.
+	 *
+	 * @param configuration The settings of the application.
+	 * @return The selected mode.
+	 */
+	public static EntityTagMode of(ApplicationConfiguration configuration) {
+		return valueOf(configuration.getString("etag.mode", "metadata").toUpperCase(Locale.ROOT));
+	}
+}
@@ -0,0 +1,49 @@
+package com.jonfreer.wedding.infrastructure.metadata;
+
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * Produces the keys that state about a resource (its metadata, its rendered
+ * representations) is cached under, so that every cache agrees on which URIs
+ * identify the same resource.
+ */
+public final class ResourceKeys {
+
+	private ResourceKeys() {}
+
+	/**
+	 * Produces the key for the URI provided. The scheme and host are
+	 * case-insensitive, dot segments are resolved, and a trailing slash on the
+	 * path is insignificant.
+	 *
+	 * @param uri The URI of the resource.
+	 * @return The normalized form of the URI.
+	 */
+	public static String of(URI uri) {
+		URI normalized = uri.normalize();
+
+		StringBuilder builder = new StringBuilder();
+		if(normalized.getScheme() != null){
+			builder.append(normalized.getScheme().toLowerCase(Locale.ROOT)).append("://");
+		}
+		if(normalized.getHost() != null){
+			builder.append(normalized.getHost().toLowerCase(Locale.ROOT));
+		}
+		if(normalized.getPort() != -1){
+			builder.append(':').append(normalized.getPort());
+		}
+
+		String path = normalized.getRawPath();
+		if(path != null){
+			while(path.length() > 1 && path.endsWith("/")){
+				path = path.substring(0, path.length() - 1);
+			}
+			builder.append(path);
+		}
+		if(normalized.getRawQuery() != null){
+			builder.append('?').append(normalized.getRawQuery());
+		}
+		return builder.toString();
+	}
+}
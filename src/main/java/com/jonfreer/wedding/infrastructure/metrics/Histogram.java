@@ -0,0 +1,169 @@
+package com.jonfreer.wedding.infrastructure.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative values (typically durations in nanoseconds),
+ * recorded into log-linear buckets in the manner of HdrHistogram: values below
+ * 128 each get a bucket of their own, and every power of two above that is
+ * split into 64 buckets of equal width. Percentiles are therefore reported
+ * with a relative error of at most 1/64 (about 1.6%), across the whole range
+ * of a long, in a fixed amount of memory.
+ *
+ * Recording never blocks and never allocates, so it is safe to do on every
+ * request. Values are accumulated for the lifetime of the histogram; see
+ * RollingHistogram for percentiles of recent values only.
+ */
+public class Histogram {
+
+	private static final int SUB_BUCKET_BITS = 6;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int LINEAR_BUCKET_COUNT = SUB_BUCKET_COUNT << 1;
+	private static final int BUCKET_COUNT = LINEAR_BUCKET_COUNT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+	private final AtomicLongArray buckets;
+	private final AtomicLong count;
+	private final AtomicLong sum;
+	private final AtomicLong max;
+
+	/**
+	 * Constructs an empty Histogram.
+	 */
+	public Histogram() {
+		this.buckets = new AtomicLongArray(BUCKET_COUNT);
+		this.count = new AtomicLong();
+		this.sum = new AtomicLong();
+		this.max = new AtomicLong();
+	}
+
+	/**
+	 * Records a value. Negative values are recorded as zero.
+	 *
+	 * @param value The value to record.
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+
+		this.buckets.incrementAndGet(indexOf(value));
+		this.count.incrementAndGet();
+		this.sum.addAndGet(value);
+
+		long currentMax;
+		while (value > (currentMax = this.max.get()) && !this.max.compareAndSet(currentMax, value)) {
+			// another thread raised the maximum; try again against its value.
+		}
+	}
+
+	/**
+	 * Retrieves the number of values recorded.
+	 *
+	 * @return The number of values recorded.
+	 */
+	public long getCount() {
+		return this.count.get();
+	}
+
+	/**
+	 * Retrieves the sum of the values recorded.
+	 *
+	 * @return The sum of the values recorded.
+	 */
+	public long getSum() {
+		return this.sum.get();
+	}
+
+	/**
+	 * Retrieves the largest value recorded.
+	 *
+	 * @return The largest value recorded, or zero if none were recorded.
+	 */
+	public long getMax() {
+		return this.max.get();
+	}
+
+	/**
+	 * Retrieves the value below which the percentage of recorded values provided
+	 * fall, reported as the highest value that shares its bucket (and never more
+	 * than the largest value recorded).
+	 *
+	 * @param percentile The percentile, between 0 and 100.
+	 * @return The value at the percentile provided, or zero if no values were recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long total = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			total += this.buckets.get(i);
+		}
+		if (total == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += this.buckets.get(i);
+			if (seen >= rank) {
+				return Math.min(highestValueOf(i), this.max.get());
+			}
+		}
+		return this.max.get();
+	}
+
+	/**
+	 * Adds the values recorded by the histogram provided to this histogram.
+	 *
+	 * @param other The histogram whose values are added.
+	 */
+	void add(Histogram other) {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			long bucket = other.buckets.get(i);
+			if (bucket != 0) {
+				this.buckets.addAndGet(i, bucket);
+			}
+		}
+		this.count.addAndGet(other.count.get());
+		this.sum.addAndGet(other.sum.get());
+
+		long value = other.max.get();
+		long currentMax;
+		while (value > (currentMax = this.max.get()) && !this.max.compareAndSet(currentMax, value)) {
+			// another thread raised the maximum; try again against its value.
+		}
+	}
+
+	/**
+	 * Discards every value recorded. Values recorded by other threads while the
+	 * histogram is being cleared may be discarded as well, or only in part.
+	 */
+	void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			this.buckets.set(i, 0);
+		}
+		this.count.set(0);
+		this.sum.set(0);
+		this.max.set(0);
+	}
+
+	static int indexOf(long value) {
+		if (value < LINEAR_BUCKET_COUNT) {
+			return (int) value;
+		}
+		// the bits below the leading SUB_BUCKET_BITS + 1 bits are dropped.
+		int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+		int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+		return LINEAR_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	static long highestValueOf(int index) {
+		if (index < LINEAR_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = (index - LINEAR_BUCKET_COUNT) / SUB_BUCKET_COUNT + 1;
+		long subBucket = (index - LINEAR_BUCKET_COUNT) % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+		long lowest = subBucket << shift;
+		return lowest + ((1L << shift) - 1);
+	}
+}
@@ -0,0 +1,98 @@
+package com.jonfreer.wedding.infrastructure.metrics;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Exposes the statistics of the caches (LocalCacheMXBean), connection pools
+ * (ConnectionPoolMXBean) and log writers (AsyncLogWriterMXBean) registered over
+ * JMX as metrics, labelled with the name they are registered under. Reading them
+ * from JMX means that anything monitored through JConsole is monitored through
+ * the metrics as well.
+ */
+final class JmxMetrics {
+
+	private static final String LOCAL_CACHES = "com.jonfreer.wedding:type=LocalCache,*";
+	private static final String CONNECTION_POOLS = "com.jonfreer.wedding:type=ConnectionPool,*";
+	private static final String LOG_WRITERS = "com.jonfreer.wedding:type=AsyncLogWriter,*";
+
+	// metric name, help, type, attribute.
+	private static final String[][] LOCAL_CACHE_METRICS = {
+		{ "wedding_cache_entries", "The number of entries held by the cache.", "gauge", "Size" },
+		{ "wedding_cache_weight", "The total weight of the entries held by the cache.", "gauge", "Weight" },
+		{ "wedding_cache_hits_total", "The number of lookups that found an entry.", "counter", "Hits" },
+		{ "wedding_cache_misses_total", "The number of lookups that found no entry.", "counter", "Misses" },
+		{ "wedding_cache_evictions_total", "The number of entries evicted to make room.", "counter", "Evictions" },
+		{ "wedding_cache_expirations_total", "The number of entries that outlived their time to live.", "counter", "Expirations" }
+	};
+
+	private static final String[][] CONNECTION_POOL_METRICS = {
+		{ "wedding_connection_pool_active_connections", "The number of connections handed out.", "gauge", "ActiveConnections" },
+		{ "wedding_connection_pool_idle_connections", "The number of connections waiting to be handed out.", "gauge", "IdleConnections" },
+		{ "wedding_connection_pool_pending_acquisitions", "The number of threads waiting for a connection.", "gauge", "PendingAcquisitions" },
+		{ "wedding_connection_pool_acquisitions_total", "The number of connections handed out.", "counter", "Acquisitions" },
+		{ "wedding_connection_pool_acquisition_timeouts_total", "The number of waits for a connection that timed out.", "counter", "AcquisitionTimeouts" },
+		{ "wedding_connection_pool_connections_created_total", "The number of physical connections opened.", "counter", "ConnectionsCreated" },
+		{ "wedding_connection_pool_connections_destroyed_total", "The number of physical connections closed.", "counter", "ConnectionsDestroyed" },
+		{ "wedding_connection_pool_validation_failures_total", "The number of connections found to be broken.", "counter", "ValidationFailures" },
+		{ "wedding_statement_cache_hits_total", "The number of statements reused from a statement cache.", "counter", "StatementCacheHits" },
+		{ "wedding_statement_cache_misses_total", "The number of statements that had to be prepared.", "counter", "StatementCacheMisses" }
+	};
+
+	private static final String[][] LOG_WRITER_METRICS = {
+		{ "wedding_log_records_pending", "The number of log records waiting to be written.", "gauge", "PendingCount" },
+		{ "wedding_log_records_enqueued_total", "The number of log records accepted for writing.", "counter", "EnqueuedCount" },
+		{ "wedding_log_records_written_total", "The number of log records written to the database.", "counter", "WrittenCount" },
+		{ "wedding_log_records_dropped_total", "The number of log records discarded while the buffer was full.", "counter", "DroppedCount" },
+		{ "wedding_log_records_failed_total", "The number of log records lost because their batch failed.", "counter", "FailedCount" }
+	};
+
+	private JmxMetrics() {}
+
+	static void write(MBeanServer mBeanServer, PrometheusTextWriter out) throws IOException {
+		write(mBeanServer, out, LOCAL_CACHES, "cache", LOCAL_CACHE_METRICS);
+		write(mBeanServer, out, CONNECTION_POOLS, "pool", CONNECTION_POOL_METRICS);
+		write(mBeanServer, out, LOG_WRITERS, "writer", LOG_WRITER_METRICS);
+	}
+
+	private static void write(
+		MBeanServer mBeanServer,
+		PrometheusTextWriter out,
+		String pattern,
+		String label,
+		String[][] metrics) throws IOException {
+
+		Set<ObjectName> objectNames;
+		try {
+			objectNames = new TreeSet<ObjectName>(mBeanServer.queryNames(new ObjectName(pattern), null));
+		} catch (JMException e) {
+			e.printStackTrace();
+			return;
+		}
+
+		if (objectNames.isEmpty()) {
+			return;
+		}
+
+		for (String[] metric : metrics) {
+			out.family(metric[0], metric[1], metric[2]);
+			for (ObjectName objectName : objectNames) {
+				Object value;
+				try {
+					value = mBeanServer.getAttribute(objectName, metric[3]);
+				} catch (JMException e) {
+					// the bean was unregistered after it was found; it is left out.
+					continue;
+				}
+				if (value instanceof Number) {
+					out.sample(metric[0], new String[] { label, objectName.getKeyProperty("name") }, ((Number) value).doubleValue());
+				}
+			}
+		}
+	}
+}
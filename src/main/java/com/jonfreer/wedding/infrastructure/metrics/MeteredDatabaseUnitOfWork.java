@@ -0,0 +1,194 @@
+package com.jonfreer.wedding.infrastructure.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IUnitOfWorkListener;
+
+/**
+ * A unit of work that times the unit of work it decorates: every execution of
+ * the statements it creates is recorded against the name of the statement, and
+ * every commit and rollback against its outcome. Executions are handed to the
+ * slow statement log as well.
+ *
+ * Statements are named after the stored procedure they call, or else after
+ * their SQL with lists of parameters in IN clauses collapsed, so that a
+ * statement built for any number of parameters is timed (and labelled) as one.
+ *
+ * The statements handed out are proxies of the statements of the decorated unit
+ * of work; they are unwrapped again when destroyed, so that the decorated unit
+ * of work (and its statement cache) only ever sees its own statements.
+ */
+public class MeteredDatabaseUnitOfWork implements IDatabaseUnitOfWork {
+
+	static final String STATEMENT_TIMER = "wedding_sql_statement_duration_seconds";
+	static final String UNIT_OF_WORK_TIMER = "wedding_unit_of_work_completion_duration_seconds";
+
+	private static final String STATEMENT_HELP = "The time taken to execute a SQL statement, by statement.";
+	private static final String UNIT_OF_WORK_HELP = "The time taken to commit or roll back a unit of work, by outcome.";
+
+	private static final Pattern CALL = Pattern.compile("^\\{\\s*CALL\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+	// a character class rather than a repeated group, which would recurse once per parameter.
+	private static final Pattern IN_LIST = Pattern.compile("\\bIN\\s*\\(\\s*\\?[\\s,?]*\\)", Pattern.CASE_INSENSITIVE);
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private final IDatabaseUnitOfWork unitOfWork;
+	private final MetricRegistry metricRegistry;
+	private final SlowStatementLog slowStatementLog;
+
+	/**
+	 * Constructs a MeteredDatabaseUnitOfWork.
+	 *
+	 * @param unitOfWork The unit of work being decorated.
+	 * @param metricRegistry The registry holding the timers.
+	 * @param slowStatementLog The log keeping track of the slowest statements.
+	 */
+	public MeteredDatabaseUnitOfWork(
+		IDatabaseUnitOfWork unitOfWork,
+		MetricRegistry metricRegistry,
+		SlowStatementLog slowStatementLog) {
+
+		this.unitOfWork = unitOfWork;
+		this.metricRegistry = metricRegistry;
+		this.slowStatementLog = slowStatementLog;
+	}
+
+	public void Save() {
+		long start = System.nanoTime();
+		try {
+			this.unitOfWork.Save();
+		} finally {
+			this.metricRegistry.timer(UNIT_OF_WORK_TIMER, UNIT_OF_WORK_HELP, "outcome", "commit")
+				.record(System.nanoTime() - start);
+		}
+	}
+
+	public void Undo() {
+		long start = System.nanoTime();
+		try {
+			this.unitOfWork.Undo();
+		} finally {
+			this.metricRegistry.timer(UNIT_OF_WORK_TIMER, UNIT_OF_WORK_HELP, "outcome", "rollback")
+				.record(System.nanoTime() - start);
+		}
+	}
+
+	public void addListener(IUnitOfWorkListener listener) {
+		this.unitOfWork.addListener(listener);
+	}
+
+	public PreparedStatement createPreparedStatement(String sql) {
+		return this.meter(PreparedStatement.class, this.unitOfWork.createPreparedStatement(sql), sql);
+	}
+
+	public PreparedStatement createPreparedStatement(String sql, int autoGeneratedKeys) {
+		return this.meter(PreparedStatement.class, this.unitOfWork.createPreparedStatement(sql, autoGeneratedKeys), sql);
+	}
+
+	public CallableStatement createCallableStatement(String sql) {
+		return this.meter(CallableStatement.class, this.unitOfWork.createCallableStatement(sql), sql);
+	}
+
+	public void destroyStatement(PreparedStatement statement) {
+		this.unitOfWork.destroyStatement(unwrap(statement));
+	}
+
+	public void destroyStatements(PreparedStatement... statements) {
+		PreparedStatement[] unwrapped = new PreparedStatement[statements.length];
+		for (int i = 0; i < statements.length; i++) {
+			unwrapped[i] = unwrap(statements[i]);
+		}
+		this.unitOfWork.destroyStatements(unwrapped);
+	}
+
+	private <T extends PreparedStatement> T meter(Class<T> type, T statement, String sql) {
+		if (statement == null) {
+			return null;
+		}
+		String name = nameOf(sql);
+		RollingHistogram histogram = this.metricRegistry.timer(STATEMENT_TIMER, STATEMENT_HELP, "statement", name);
+		return type.cast(Proxy.newProxyInstance(
+			type.getClassLoader(),
+			new Class<?>[] { type },
+			new TimingHandler(statement, name, histogram, this.slowStatementLog)));
+	}
+
+	/**
+	 * Names the statement provided: '{CALL GetGuest(?)}' is named 'GetGuest', and
+	 * 'SELECT ... WHERE ID IN (?, ?, ?)' is named 'SELECT ... WHERE ID IN (...)'.
+	 */
+	static String nameOf(String sql) {
+		Matcher call = CALL.matcher(sql);
+		if (call.find()) {
+			return call.group(1);
+		}
+		String name = IN_LIST.matcher(sql).replaceAll("IN (...)");
+		return WHITESPACE.matcher(name).replaceAll(" ").trim();
+	}
+
+	private static PreparedStatement unwrap(PreparedStatement statement) {
+		if (statement != null && Proxy.isProxyClass(statement.getClass())) {
+			InvocationHandler handler = Proxy.getInvocationHandler(statement);
+			if (handler instanceof TimingHandler) {
+				return ((TimingHandler) handler).statement;
+			}
+		}
+		return statement;
+	}
+
+	/**
+	 * Times the execute methods of a statement; all other methods are passed through.
+	 */
+	private static final class TimingHandler implements InvocationHandler {
+
+		private final PreparedStatement statement;
+		private final String name;
+		private final RollingHistogram histogram;
+		private final SlowStatementLog slowStatementLog;
+
+		private TimingHandler(
+			PreparedStatement statement,
+			String name,
+			RollingHistogram histogram,
+			SlowStatementLog slowStatementLog) {
+
+			this.statement = statement;
+			this.name = name;
+			this.histogram = histogram;
+			this.slowStatementLog = slowStatementLog;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if (name.equals("equals")) {
+				return proxy == args[0];
+			}
+			if (name.equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+
+			boolean isExecution = name.startsWith("execute");
+			long start = isExecution ? System.nanoTime() : 0;
+			long span = isExecution ? ServerTiming.start() : 0;
+			try {
+				return method.invoke(this.statement, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			} finally {
+				if (isExecution) {
+					long duration = System.nanoTime() - start;
+					this.histogram.record(duration);
+					this.slowStatementLog.record(this.name, this.histogram, duration);
+					ServerTiming.stop("db", span);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package com.jonfreer.wedding.infrastructure.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.jvnet.hk2.annotations.Service;
+
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
+
+/**
+ * Holds the metrics of the application and exposes them in the Prometheus
+ * text format. Durations are recorded in nanoseconds into rolling histograms,
+ * and are exposed as summaries (in seconds) reporting a fixed set of quantiles.
+ * The quantiles cover the last minute or so (configured through the
+ * 'metrics.*' settings of the application); the count and sum of each summary
+ * cover every duration recorded since the application started.
+ *
+ * The caches and connection pools that register themselves over JMX are
+ * exposed as well, read from JMX at the time the metrics are written.
+ */
+@Service
+public class MetricRegistry {
+
+	private static final double[] QUANTILES = { 0.5, 0.9, 0.95, 0.99, 0.999 };
+	private static final double NANOS_PER_SECOND = 1e9;
+
+	private final ConcurrentMap<String, TimerFamily> timerFamilies;
+	private final long windowSeconds;
+	private final int windows;
+
+	/**
+	 * Constructs an empty MetricRegistry whose quantiles cover six windows of ten seconds.
+	 */
+	public MetricRegistry() {
+		this(10, 6);
+	}
+
+	/**
+	 * Constructs an empty MetricRegistry configured by the application.
+	 *
+	 * @param configuration The configuration of the application.
+	 */
+	@Inject
+	public MetricRegistry(ApplicationConfiguration configuration) {
+		this(configuration.getLong("metrics.windowSeconds", 10), configuration.getInt("metrics.windows", 6));
+	}
+
+	private MetricRegistry(long windowSeconds, int windows) {
+		if (windowSeconds < 1) {
+			throw new IllegalArgumentException("The setting 'metrics.windowSeconds' must be positive.");
+		}
+
+		if (windows < 1) {
+			throw new IllegalArgumentException("The setting 'metrics.windows' must be positive.");
+		}
+
+		this.timerFamilies = new ConcurrentSkipListMap<String, TimerFamily>();
+		this.windowSeconds = windowSeconds;
+		this.windows = windows;
+	}
+
+	/**
+	 * Retrieves the histogram recording the durations (in nanoseconds) of the
+	 * timer with the name and labels provided, creating it if needed.
+	 *
+	 * @param name The name of the metric, e.g. wedding_http_request_duration_seconds.
+	 * @param help The description of the metric. Only the first description
+	 *             provided for a name is kept.
+	 * @param labels The labels distinguishing the timer from the others of the
+	 *               same name, as alternating names and values.
+	 * @return The histogram of the timer.
+	 */
+	public RollingHistogram timer(String name, String help, String... labels) {
+		if (labels.length % 2 != 0) {
+			throw new IllegalArgumentException("The argument 'labels' must alternate names and values.");
+		}
+
+		TimerFamily family = this.timerFamilies.get(name);
+		if (family == null) {
+			TimerFamily created = new TimerFamily(help, this.windowSeconds, this.windows);
+			family = this.timerFamilies.putIfAbsent(name, created);
+			if (family == null) {
+				family = created;
+			}
+		}
+		return family.get(labels);
+	}
+
+	/**
+	 * Writes every metric in the Prometheus text format.
+	 *
+	 * @param writer The writer the metrics are written to.
+	 * @throws IOException Thrown when the writer fails.
+	 */
+	public void write(Writer writer) throws IOException {
+		PrometheusTextWriter out = new PrometheusTextWriter(writer);
+
+		for (Map.Entry<String, TimerFamily> entry : this.timerFamilies.entrySet()) {
+			String name = entry.getKey();
+			TimerFamily family = entry.getValue();
+			out.family(name, family.help, "summary");
+
+			for (Timer timer : family.timers.values()) {
+				String[] labels = Arrays.copyOf(timer.labels, timer.labels.length + 2);
+				labels[labels.length - 2] = "quantile";
+				Histogram recent = timer.histogram.snapshot();
+				for (double quantile : QUANTILES) {
+					labels[labels.length - 1] = Double.toString(quantile);
+					out.sample(name, labels, recent.getValueAtPercentile(quantile * 100) / NANOS_PER_SECOND);
+				}
+				out.sample(name + "_sum", timer.labels, timer.histogram.getSum() / NANOS_PER_SECOND);
+				out.sample(name + "_count", timer.labels, timer.histogram.getCount());
+			}
+		}
+
+		JmxMetrics.write(ManagementFactory.getPlatformMBeanServer(), out);
+		writer.flush();
+	}
+
+	private static final class TimerFamily {
+
+		private final String help;
+		private final long windowSeconds;
+		private final int windows;
+		private final ConcurrentMap<String, Timer> timers;
+
+		private TimerFamily(String help, long windowSeconds, int windows) {
+			this.help = help;
+			this.windowSeconds = windowSeconds;
+			this.windows = windows;
+			this.timers = new ConcurrentHashMap<String, Timer>();
+		}
+
+		private RollingHistogram get(String[] labels) {
+			String key = Arrays.toString(labels);
+			Timer timer = this.timers.get(key);
+			if (timer == null) {
+				Timer created = new Timer(labels.clone(), new RollingHistogram(this.windowSeconds, TimeUnit.SECONDS, this.windows));
+				timer = this.timers.putIfAbsent(key, created);
+				if (timer == null) {
+					timer = created;
+				}
+			}
+			return timer.histogram;
+		}
+	}
+
+	private static final class Timer {
+
+		private final String[] labels;
+		private final RollingHistogram histogram;
+
+		private Timer(String[] labels, RollingHistogram histogram) {
+			this.labels = labels;
+			this.histogram = histogram;
+		}
+	}
+}
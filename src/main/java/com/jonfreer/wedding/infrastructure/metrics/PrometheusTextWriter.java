@@ -0,0 +1,75 @@
+package com.jonfreer.wedding.infrastructure.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes metrics in the Prometheus text exposition format (version 0.0.4).
+ */
+class PrometheusTextWriter {
+
+	private final Writer writer;
+
+	PrometheusTextWriter(Writer writer) {
+		this.writer = writer;
+	}
+
+	/**
+	 * Writes the HELP and TYPE lines that precede the samples of a metric family.
+	 */
+	void family(String name, String help, String type) throws IOException {
+		this.writer.write("# HELP ");
+		this.writer.write(name);
+		this.writer.write(' ');
+		this.writer.write(help.replace("\\", "\\\\").replace("\n", "\\n"));
+		this.writer.write("\n# TYPE ");
+		this.writer.write(name);
+		this.writer.write(' ');
+		this.writer.write(type);
+		this.writer.write('\n');
+	}
+
+	/**
+	 * Writes a sample.
+	 *
+	 * @param name The name of the sample.
+	 * @param labels The labels of the sample, as alternating names and values.
+	 * @param value The value of the sample.
+	 */
+	void sample(String name, String[] labels, double value) throws IOException {
+		this.writer.write(name);
+		if (labels.length > 0) {
+			this.writer.write('{');
+			for (int i = 0; i < labels.length; i += 2) {
+				if (i > 0) {
+					this.writer.write(',');
+				}
+				this.writer.write(labels[i]);
+				this.writer.write("=\"");
+				this.writer.write(escape(labels[i + 1]));
+				this.writer.write('"');
+			}
+			this.writer.write('}');
+		}
+		this.writer.write(' ');
+		this.writer.write(format(value));
+		this.writer.write('\n');
+	}
+
+	private static String escape(String labelValue) {
+		return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	private static String format(double value) {
+		if (Double.isNaN(value)) {
+			return "NaN";
+		}
+		if (Double.isInfinite(value)) {
+			return value > 0 ? "+Inf" : "-Inf";
+		}
+		if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+			return Long.toString((long) value);
+		}
+		return Double.toString(value);
+	}
+}
@@ -0,0 +1,138 @@
+package com.jonfreer.wedding.infrastructure.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A histogram whose percentiles only reflect recent values. Values are
+ * recorded into a ring of histograms, each covering a window of time; once
+ * the ring comes round to a window again, its histogram is cleared and it
+ * starts over. Percentiles are read from the windows still in the ring, so
+ * they cover between (windows - 1) and windows window lengths of time, and
+ * a slow spell stops showing in them soon after it ends.
+ *
+ * The histograms of the ring are allocated up front and cleared in place, so
+ * that recording never allocates. A value recorded by another thread while a
+ * window is being cleared may be left out of the percentiles.
+ *
+ * The count and the sum of the values cover every value recorded for the
+ * lifetime of the histogram, as rates are derived from them.
+ */
+public class RollingHistogram {
+
+	private final long windowNanos;
+	private final Window[] windows;
+	private final AtomicLong count;
+	private final AtomicLong sum;
+	private final long origin;
+
+	/**
+	 * Constructs an empty RollingHistogram.
+	 *
+	 * @param windowLength The length of time covered by each window.
+	 * @param timeUnit The unit of the window length.
+	 * @param windowCount The number of windows the percentiles are read from.
+	 */
+	public RollingHistogram(long windowLength, TimeUnit timeUnit, int windowCount) {
+
+		if (windowLength < 1) {
+			throw new IllegalArgumentException("The constructor argument 'windowLength' must be positive.");
+		}
+
+		if (windowCount < 1) {
+			throw new IllegalArgumentException("The constructor argument 'windowCount' must be positive.");
+		}
+
+		this.windowNanos = timeUnit.toNanos(windowLength);
+		this.windows = new Window[windowCount];
+		for (int i = 0; i < windowCount; i++) {
+			this.windows[i] = new Window();
+		}
+		this.count = new AtomicLong();
+		this.sum = new AtomicLong();
+		this.origin = System.nanoTime();
+	}
+
+	/**
+	 * Records a value. Negative values are recorded as zero.
+	 *
+	 * @param value The value to record.
+	 */
+	public void record(long value) {
+		this.record(value, System.nanoTime() - this.origin);
+	}
+
+	/**
+	 * Retrieves the number of values recorded since the histogram was created.
+	 *
+	 * @return The number of values recorded.
+	 */
+	public long getCount() {
+		return this.count.get();
+	}
+
+	/**
+	 * Retrieves the sum of the values recorded since the histogram was created.
+	 *
+	 * @return The sum of the values recorded.
+	 */
+	public long getSum() {
+		return this.sum.get();
+	}
+
+	/**
+	 * Merges the windows still in the ring into a single histogram, from which
+	 * any number of percentiles of the recent values can be read.
+	 *
+	 * @return The values recorded in the windows still in the ring.
+	 */
+	public Histogram snapshot() {
+		return this.snapshot(System.nanoTime() - this.origin);
+	}
+
+	void record(long value, long elapsedNanos) {
+		if (value < 0) {
+			value = 0;
+		}
+
+		this.window(elapsedNanos / this.windowNanos).histogram.record(value);
+		this.count.incrementAndGet();
+		this.sum.addAndGet(value);
+	}
+
+	Histogram snapshot(long elapsedNanos) {
+		long period = elapsedNanos / this.windowNanos;
+		Histogram snapshot = new Histogram();
+		for (Window window : this.windows) {
+			long windowPeriod = window.period.get();
+			if (windowPeriod > period - this.windows.length && windowPeriod <= period) {
+				snapshot.add(window.histogram);
+			}
+		}
+		return snapshot;
+	}
+
+	private Window window(long period) {
+		Window window = this.windows[(int) (period % this.windows.length)];
+		long windowPeriod;
+		while ((windowPeriod = window.period.get()) < period) {
+			if (window.period.compareAndSet(windowPeriod, period)) {
+				window.histogram.reset();
+				break;
+			}
+			// another thread started the window; use it unless it is stale as well.
+		}
+		return window;
+	}
+
+	private static final class Window {
+
+		private final AtomicLong period;
+		private final Histogram histogram;
+
+		private Window() {
+			this.period = new AtomicLong(Long.MIN_VALUE);
+			this.histogram = new Histogram();
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package com.jonfreer.wedding.infrastructure.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records how the time of the current request is spent, span by span, so that
+ * it can be sent back in a Server-Timing response header. Spans with the same
+ * name (e.g. every SQL statement executed) are added together.
+ *
+ * Recording only happens between begin() and end() on the thread serving the
+ * request; everywhere else, and for every request while the Server-Timing
+ * header is disabled, start() costs a thread local lookup and stop() nothing.
+ *
+ * <pre>
+ * long span = ServerTiming.start();
+ * try {
+ *     ...
+ * } finally {
+ *     ServerTiming.stop("repository", span);
+ * }
+ * </pre>
+ */
+public final class ServerTiming {
+
+	private static final ThreadLocal<Map<String, long[]>> SPANS = new ThreadLocal<Map<String, long[]>>();
+
+	private ServerTiming() {}
+
+	/**
+	 * Starts recording the spans of the request served by the current thread,
+	 * discarding anything left over from a previous request.
+	 */
+	public static void begin() {
+		SPANS.set(new LinkedHashMap<String, long[]>());
+	}
+
+	/**
+	 * Starts a span.
+	 *
+	 * @return The value to hand to stop() once the span ends, or zero when
+	 *         spans are not being recorded on the current thread.
+	 */
+	public static long start() {
+		return SPANS.get() == null ? 0 : System.nanoTime();
+	}
+
+	/**
+	 * Ends a span.
+	 *
+	 * @param name The name of the span, as it appears in the header.
+	 * @param start The value start() returned when the span started.
+	 */
+	public static void stop(String name, long start) {
+		if (start == 0) {
+			return;
+		}
+
+		long duration = System.nanoTime() - start;
+		Map<String, long[]> spans = SPANS.get();
+		if (spans == null) {
+			return;
+		}
+
+		long[] span = spans.get(name);
+		if (span == null) {
+			spans.put(name, new long[] { duration, 1 });
+		} else {
+			span[0] += duration;
+			span[1]++;
+		}
+	}
+
+	/**
+	 * Stops recording the spans of the current request.
+	 *
+	 * @return The value of the Server-Timing header describing the spans
+	 *         recorded, or null when none were being recorded.
+	 */
+	public static String end() {
+		Map<String, long[]> spans = SPANS.get();
+		if (spans == null) {
+			return null;
+		}
+		SPANS.remove();
+
+		StringBuilder header = new StringBuilder();
+		for (Map.Entry<String, long[]> entry : spans.entrySet()) {
+			long[] span = entry.getValue();
+			if (header.length() > 0) {
+				header.append(", ");
+			}
+			header.append(entry.getKey()).append(";dur=").append(millis(span[0]));
+			if (span[1] > 1) {
+				header.append(";desc=\"").append(span[1]).append(" calls\"");
+			}
+		}
+		return header.toString();
+	}
+
+	private static String millis(long nanos) {
+		// durations are reported in milliseconds, to the microsecond.
+		long micros = nanos / 1000;
+		String fraction = Long.toString(1000 + micros % 1000).substring(1);
+		return (micros / 1000) + "." + fraction;
+	}
+}
@@ -0,0 +1,85 @@
+package com.jonfreer.wedding.infrastructure.metrics;
+
+import java.util.Date;
+
+/**
+ * One of the slowest SQL statements executed: its slowest execution and its
+ * number of executions since the application started, along with the rolling
+ * percentiles of its recent executions (those of the last minute or so, as
+ * for the quantiles of /metrics). Durations are in milliseconds.
+ */
+public class SlowStatement {
+
+	private final String statement;
+	private final double slowestMillis;
+	private final Date slowestAt;
+	private final long executions;
+	private final double medianMillis;
+	private final double percentile95Millis;
+	private final double percentile99Millis;
+
+	SlowStatement(String statement, long slowestNanos, long slowestAt, RollingHistogram histogram) {
+		Histogram recent = histogram.snapshot();
+		this.statement = statement;
+		this.slowestMillis = millis(slowestNanos);
+		this.slowestAt = new Date(slowestAt);
+		this.executions = histogram.getCount();
+		this.medianMillis = millis(recent.getValueAtPercentile(50));
+		this.percentile95Millis = millis(recent.getValueAtPercentile(95));
+		this.percentile99Millis = millis(recent.getValueAtPercentile(99));
+	}
+
+	/**
+	 * @return The name of the statement: the stored procedure it calls, or its SQL.
+	 */
+	public String getStatement() {
+		return this.statement;
+	}
+
+	/**
+	 * @return The time taken by the slowest execution of the statement.
+	 */
+	public double getSlowestMillis() {
+		return this.slowestMillis;
+	}
+
+	/**
+	 * @return The date and time the slowest execution of the statement finished.
+	 */
+	public Date getSlowestAt() {
+		return this.slowestAt;
+	}
+
+	/**
+	 * @return The number of times the statement has been executed.
+	 */
+	public long getExecutions() {
+		return this.executions;
+	}
+
+	/**
+	 * @return The median time taken to execute the statement recently, or 0 when
+	 *         it has not been executed recently.
+	 */
+	public double getMedianMillis() {
+		return this.medianMillis;
+	}
+
+	/**
+	 * @return The 95th percentile of the time taken to execute the statement recently.
+	 */
+	public double getPercentile95Millis() {
+		return this.percentile95Millis;
+	}
+
+	/**
+	 * @return The 99th percentile of the time taken to execute the statement recently.
+	 */
+	public double getPercentile99Millis() {
+		return this.percentile99Millis;
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1e6;
+	}
+}
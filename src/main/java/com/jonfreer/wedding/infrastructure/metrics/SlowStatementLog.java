@@ -0,0 +1,145 @@
+package com.jonfreer.wedding.infrastructure.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+import org.jvnet.hk2.annotations.Service;
+
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
+import com.jonfreer.wedding.infrastructure.interfaces.services.LogService;
+import com.jonfreer.wedding.infrastructure.logging.AsyncLogWriter;
+
+/**
+ * Keeps track of the slowest SQL statements executed (by their slowest
+ * execution, one entry per statement name), and logs every execution that takes
+ * longer than a threshold as a warning. Configured through the
+ * 'slowStatements.*' settings of the application; a threshold of 0 turns the
+ * logging off.
+ *
+ * The log is written to the database by a background thread, whose own
+ * statements are timed like any other; executions on that thread are tracked
+ * but never logged, so that a slow log table cannot feed itself. The log
+ * service is looked up on first use, as it depends on the units of work that
+ * depend on this log.
+ */
+@Service
+public class SlowStatementLog {
+
+	private static final Comparator<Entry> SLOWEST_FIRST = new Comparator<Entry>() {
+		public int compare(Entry a, Entry b) {
+			return Long.compare(b.nanos, a.nanos);
+		}
+	};
+
+	private final Provider<LogService> logServiceProvider;
+	private final long thresholdNanos;
+	private final int size;
+	private final Map<String, Entry> entries;
+
+	// once full, executions no slower than the fastest entry are turned away without locking.
+	private volatile long floorNanos;
+
+	@Inject
+	public SlowStatementLog(Provider<LogService> logServiceProvider, ApplicationConfiguration configuration) {
+		this.logServiceProvider = logServiceProvider;
+		this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(
+			configuration.getLong("slowStatements.thresholdMillis", 250));
+		this.size = configuration.getInt("slowStatements.size", 20);
+		this.entries = new HashMap<String, Entry>();
+	}
+
+	/**
+	 * Records an execution of a statement.
+	 *
+	 * @param sql The name of the statement (see MeteredDatabaseUnitOfWork).
+	 * @param histogram The histogram the executions of the statement are timed into.
+	 * @param nanos The time taken by the execution, in nanoseconds.
+	 */
+	public void record(String sql, RollingHistogram histogram, long nanos) {
+		if (nanos > this.floorNanos) {
+			this.track(sql, histogram, nanos);
+		}
+
+		if (this.thresholdNanos > 0 && nanos >= this.thresholdNanos && !AsyncLogWriter.isWriterThread()) {
+			this.logServiceProvider.get().warning(
+				"Slow SQL statement (" + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms, threshold "
+				+ TimeUnit.NANOSECONDS.toMillis(this.thresholdNanos) + " ms): " + sql);
+		}
+	}
+
+	/**
+	 * Retrieves the slowest statements executed, slowest first.
+	 *
+	 * @return The slowest statements.
+	 */
+	public List<SlowStatement> getSlowStatements() {
+		List<Entry> slowest;
+		synchronized (this.entries) {
+			slowest = new ArrayList<Entry>(this.entries.values());
+		}
+		Collections.sort(slowest, SLOWEST_FIRST);
+
+		List<SlowStatement> slowStatements = new ArrayList<SlowStatement>(slowest.size());
+		for (Entry entry : slowest) {
+			slowStatements.add(new SlowStatement(entry.sql, entry.nanos, entry.at, entry.histogram));
+		}
+		return slowStatements;
+	}
+
+	private void track(String sql, RollingHistogram histogram, long nanos) {
+		synchronized (this.entries) {
+			Entry entry = this.entries.get(sql);
+			if (entry != null) {
+				if (nanos > entry.nanos) {
+					this.entries.put(sql, new Entry(sql, histogram, nanos));
+				}
+			} else if (this.entries.size() < this.size) {
+				this.entries.put(sql, new Entry(sql, histogram, nanos));
+			} else {
+				Entry fastest = this.fastest();
+				if (fastest == null || nanos <= fastest.nanos) {
+					return;
+				}
+				this.entries.remove(fastest.sql);
+				this.entries.put(sql, new Entry(sql, histogram, nanos));
+			}
+
+			if (this.size > 0 && this.entries.size() == this.size) {
+				this.floorNanos = this.fastest().nanos;
+			}
+		}
+	}
+
+	private Entry fastest() {
+		Entry fastest = null;
+		for (Entry entry : this.entries.values()) {
+			if (fastest == null || entry.nanos < fastest.nanos) {
+				fastest = entry;
+			}
+		}
+		return fastest;
+	}
+
+	private static final class Entry {
+
+		private final String sql;
+		private final RollingHistogram histogram;
+		private final long nanos;
+		private final long at;
+
+		private Entry(String sql, RollingHistogram histogram, long nanos) {
+			this.sql = sql;
+			this.histogram = histogram;
+			this.nanos = nanos;
+			this.at = System.currentTimeMillis();
+		}
+	}
+}
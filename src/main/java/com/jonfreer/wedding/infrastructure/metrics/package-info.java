@@ -0,0 +1,8 @@
+/**
+ * Contains the classes responsible for measuring where the time of the
+ * application goes (requests, SQL statements, units of work) and for
+ * exposing those measurements, along with the statistics of the caches
+ * and connection pools, in the Prometheus text format.
+ *
+ */
+package com.jonfreer.wedding.infrastructure.metrics;
@@ -0,0 +1,64 @@
+package com.jonfreer.wedding.infrastructure.queries;
+
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.Base64Variants;
+
+/**
+ * Represents a position within the guests ordered by their identifier, used to
+ * seek to a page of guests (keyset pagination) instead of offsetting into them.
+ * Cursors are handed to clients as opaque tokens, so that the sort key can
+ * change without breaking clients.
+ * @author jonfreer
+ */
+public class GuestCursor {
+
+	private static final String VERSION = "g1:";
+
+	private final int guestId;
+
+	/**
+	 * Constructs a GuestCursor positioned at the guest with the identifier provided.
+	 * @param guestId The identifier of the guest the cursor is positioned at.
+	 */
+	public GuestCursor(int guestId) {
+		this.guestId = guestId;
+	}
+
+	/**
+	 * Retrieves the identifier of the guest the cursor is positioned at.
+	 * @return The identifier of the guest.
+	 */
+	public int getGuestId() {
+		return this.guestId;
+	}
+
+	/**
+	 * Encodes the cursor as an opaque, URL-safe token.
+	 * @return The token representing the cursor.
+	 */
+	public String encode() {
+		// URL-safe alphabet, without padding.
+		return Base64Variants.MODIFIED_FOR_URL.encode(
+			(VERSION + this.guestId).getBytes(StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * Decodes a token previously produced by encode().
+	 * @param token The token representing a cursor.
+	 * @return The cursor represented by the token.
+	 * @throws IllegalArgumentException Thrown when the token was not produced by encode().
+	 */
+	public static GuestCursor decode(String token) {
+		try {
+			String decoded = new String(Base64Variants.MODIFIED_FOR_URL.decode(token), StandardCharsets.US_ASCII);
+			if (!decoded.startsWith(VERSION)) {
+				throw new IllegalArgumentException("The cursor '" + token + "' is not valid.");
+			}
+			return new GuestCursor(Integer.parseInt(decoded.substring(VERSION.length())));
+		} catch (IllegalArgumentException illegalArgumentEx) {
+			// NumberFormatException is an IllegalArgumentException as well.
+			throw new IllegalArgumentException("The cursor '" + token + "' is not valid.", illegalArgumentEx);
+		}
+	}
+}
@@ -2,7 +2,9 @@ package com.jonfreer.wedding.infrastructure.queries;
 
 /**
  * Represents query that is used when searching through
- * the Guest resources.
+ * the Guest resources. Results can either be paginated by offset
+ * (skip and take) or by seeking past a known guest (after or before,
+ * and take); the latter costs the same regardless of how deep the page is.
  * @author jonfreer
  */
 public class GuestSearchQuery {
@@ -12,6 +14,8 @@ public class GuestSearchQuery {
 	private String inviteCode;
 	private Integer skip;
 	private Integer take;
+	private Integer after;
+	private Integer before;
 	
 	public GuestSearchQuery(String givenName, String surname, String inviteCode, Integer skip, Integer take) {
 		this.givenName = givenName;
@@ -19,6 +23,29 @@ public class GuestSearchQuery {
 		this.inviteCode = inviteCode;
 		this.skip = skip;
 		this.take = take;
+		this.after = null;
+		this.before = null;
+	}
+	
+	/**
+	 * Constructs a GuestSearchQuery that seeks to a page of guests rather than
+	 * offsetting into them. At most one of after and before is expected.
+	 * @param givenName The given name to match; may be null.
+	 * @param surname The surname to match; may be null.
+	 * @param inviteCode The invite code to match; may be null.
+	 * @param after When provided, only guests with a greater identifier are included.
+	 * @param before When provided, only guests with a lesser identifier are included;
+	 *               the take guests closest to it, rather than the first take guests.
+	 * @param take The number of results to take (or limit).
+	 * @return The search query.
+	 */
+	public static GuestSearchQuery seek(
+		String givenName, String surname, String inviteCode, Integer after, Integer before, Integer take) {
+		
+		GuestSearchQuery searchQuery = new GuestSearchQuery(givenName, surname, inviteCode, null, take);
+		searchQuery.setAfter(after);
+		searchQuery.setBefore(before);
+		return searchQuery;
 	}
 	
 	/**
@@ -108,4 +135,45 @@ public class GuestSearchQuery {
 	public void setTake(Integer take) {
 		this.take = take;
 	}
+	
+	/**
+	 * Retrieves the identifier of the guest that results follow, when seeking forward.
+	 * @return The identifier results must be greater than; null when not seeking forward.
+	 */
+	public Integer getAfter() {
+		return after;
+	}
+	
+	/**
+	 * Alters the identifier of the guest that results follow.
+	 * @param after The identifier results must be greater than.
+	 */
+	public void setAfter(Integer after) {
+		this.after = after;
+	}
+	
+	/**
+	 * Retrieves the identifier of the guest that results precede, when seeking backward.
+	 * @return The identifier results must be less than; null when not seeking backward.
+	 */
+	public Integer getBefore() {
+		return before;
+	}
+	
+	/**
+	 * Alters the identifier of the guest that results precede.
+	 * @param before The identifier results must be less than.
+	 */
+	public void setBefore(Integer before) {
+		this.before = before;
+	}
+	
+	/**
+	 * Indicates whether the query seeks to a page of guests (keyset pagination)
+	 * rather than offsetting into them.
+	 * @return true if the query seeks; false otherwise.
+	 */
+	public boolean isSeeking() {
+		return after != null || before != null;
+	}
 }
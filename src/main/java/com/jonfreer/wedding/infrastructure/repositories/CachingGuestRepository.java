@@ -0,0 +1,176 @@
+package com.jonfreer.wedding.infrastructure.repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import com.jonfreer.wedding.domain.Guest;
+import com.jonfreer.wedding.domain.interfaces.repositories.IGuestRepository;
+import com.jonfreer.wedding.domain.interfaces.repositories.IResultHandler;
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IUnitOfWorkListener;
+import com.jonfreer.wedding.infrastructure.caching.LocalCache;
+import com.jonfreer.wedding.infrastructure.exceptions.ResourceNotFoundException;
+import com.jonfreer.wedding.infrastructure.metadata.CollectionVersion;
+import com.jonfreer.wedding.infrastructure.queries.GuestSearchQuery;
+
+/**
+ * A guest repository that serves individual guests from an in-process cache,
+ * falling back to (and populating the cache from) the repository it decorates.
+ * Searches always go to the decorated repository.
+ *
+ * Writes go straight through to the decorated repository and invalidate the
+ * cached guest. Because a write is not visible to other units of work until
+ * it is committed, guests written in the current unit of work are never
+ * served from nor added to the cache until it completes, and a concurrent
+ * reader may cache the state that preceded the write in the meantime; the
+ * guests written are therefore invalidated again once the unit of work is
+ * saved or undone. A guest read while it is being invalidated is not cached.
+ *
+ * Cached guests are never handed out directly; callers receive copies, so that
+ * changes made by callers do not leak into the cache.
+ */
+public class CachingGuestRepository implements IGuestRepository {
+
+	private final IGuestRepository guestRepository;
+	private final LocalCache<Integer, Guest> guestCache;
+	private final Set<Integer> writtenGuestIds;
+	private final IDatabaseUnitOfWork unitOfWork;
+
+	/**
+	 * Constructs a CachingGuestRepository.
+	 *
+	 * @param guestRepository The repository being decorated.
+	 * @param guestCache The cache shared by all caching guest repositories.
+	 * @param writtenGuestIds The identifiers of the guests written so far in the
+	 *                        unit of work of the decorated repository.
+	 * @param unitOfWork The unit of work of the decorated repository, whose
+	 *                   completion the guests written are invalidated upon.
+	 */
+	public CachingGuestRepository(
+		IGuestRepository guestRepository,
+		LocalCache<Integer, Guest> guestCache,
+		Set<Integer> writtenGuestIds,
+		IDatabaseUnitOfWork unitOfWork) {
+
+		this.guestRepository = guestRepository;
+		this.guestCache = guestCache;
+		this.writtenGuestIds = writtenGuestIds;
+		this.unitOfWork = unitOfWork;
+	}
+
+	public ArrayList<Guest> getGuests(GuestSearchQuery searchCriteria) {
+		return this.guestRepository.getGuests(searchCriteria);
+	}
+
+	public void streamGuests(GuestSearchQuery searchCriteria, IResultHandler<Guest> handler) {
+		this.guestRepository.streamGuests(searchCriteria, handler);
+	}
+
+	public CollectionVersion getGuestsVersion() {
+		return this.guestRepository.getGuestsVersion();
+	}
+
+	public int getGuestCount(GuestSearchQuery searchCriteria) {
+		return this.guestRepository.getGuestCount(searchCriteria);
+	}
+
+	public Guest getGuest(int id) throws ResourceNotFoundException {
+
+		if (this.writtenGuestIds.contains(id)) {
+			return this.guestRepository.getGuest(id);
+		}
+
+		Guest cachedGuest = this.guestCache.get(id);
+		if (cachedGuest != null) {
+			return (Guest) cachedGuest.clone();
+		}
+
+		// a write may invalidate the guest while it is being read; the state read
+		// must not be cached then, or the cache would serve it until it expires.
+		long stamp = this.guestCache.stamp(id);
+		Guest guest = this.guestRepository.getGuest(id);
+		this.guestCache.putIfUnchanged(id, (Guest) guest.clone(), stamp);
+		return guest;
+	}
+
+	public void updateGuest(Guest guest) throws ResourceNotFoundException {
+		this.written(guest.getId());
+		this.guestRepository.updateGuest(guest);
+	}
+
+	public void deleteGuest(int id) throws ResourceNotFoundException {
+		this.written(id);
+		this.guestRepository.deleteGuest(id);
+	}
+
+	public int insertGuest(Guest guest) {
+		int id = this.guestRepository.insertGuest(guest);
+		this.written(id);
+		return id;
+	}
+
+	public int[] insertGuests(List<Guest> guests) {
+		int[] ids = this.guestRepository.insertGuests(guests);
+		for (int id : ids) {
+			this.written(id);
+		}
+		return ids;
+	}
+
+	public Set<Integer> updateGuests(List<Guest> guests) {
+		for (Guest guest : guests) {
+			this.written(guest.getId());
+		}
+		return this.guestRepository.updateGuests(guests);
+	}
+
+	private void written(Integer id) {
+		if (id == null) {
+			return;
+		}
+
+		boolean isFirstWrite;
+		synchronized (this.writtenGuestIds) {
+			isFirstWrite = this.writtenGuestIds.isEmpty();
+			this.writtenGuestIds.add(id);
+		}
+		if (isFirstWrite) {
+			this.unitOfWork.addListener(new CompletionListener(this.guestCache, this.writtenGuestIds));
+		}
+		this.guestCache.invalidate(id);
+	}
+
+	/**
+	 * Invalidates the guests written in a unit of work once it is saved or
+	 * undone, discarding whatever concurrent readers cached in the meantime,
+	 * and lets the guests be cached again.
+	 */
+	private static final class CompletionListener implements IUnitOfWorkListener {
+
+		private final LocalCache<Integer, Guest> guestCache;
+		private final Set<Integer> writtenGuestIds;
+
+		private CompletionListener(LocalCache<Integer, Guest> guestCache, Set<Integer> writtenGuestIds) {
+			this.guestCache = guestCache;
+			this.writtenGuestIds = writtenGuestIds;
+		}
+
+		public void saved() {
+			this.completed();
+		}
+
+		public void undone() {
+			this.completed();
+		}
+
+		private void completed() {
+			synchronized (this.writtenGuestIds) {
+				for (Integer id : this.writtenGuestIds) {
+					this.guestCache.invalidate(id);
+				}
+				this.writtenGuestIds.clear();
+			}
+		}
+	}
+}
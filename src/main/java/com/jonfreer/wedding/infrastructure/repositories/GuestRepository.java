@@ -1,12 +1,21 @@
 package com.jonfreer.wedding.infrastructure.repositories;
 
 import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 
 import javax.inject.Named;
@@ -16,8 +25,11 @@ import org.jvnet.hk2.annotations.Service;
 import com.jonfreer.wedding.domain.Guest;
 import com.jonfreer.wedding.domain.Reservation;
 import com.jonfreer.wedding.domain.interfaces.repositories.IGuestRepository;
+import com.jonfreer.wedding.domain.interfaces.repositories.IResultHandler;
 import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
 import com.jonfreer.wedding.infrastructure.exceptions.ResourceNotFoundException;
+import com.jonfreer.wedding.infrastructure.metadata.CollectionVersion;
+import com.jonfreer.wedding.infrastructure.metrics.ServerTiming;
 import com.jonfreer.wedding.infrastructure.queries.GuestSearchQuery;
 
 /**
@@ -28,6 +40,21 @@ import com.jonfreer.wedding.infrastructure.queries.GuestSearchQuery;
 @Named
 public class GuestRepository extends DatabaseRepository implements IGuestRepository {
 
+	// the stored procedures return generated identifiers through OUT parameters,
+	// which JDBC batches cannot carry, and read whole guests one at a time; batched
+	// inserts and the locking reads of updates and deletes go to the tables directly.
+	private static final String INSERT_RESERVATION =
+		"INSERT INTO RESERVATION (IS_ATTENDING, DATETIME_SUBMITTED) VALUES (?, ?)";
+	private static final String INSERT_GUEST =
+		"INSERT INTO GUEST (FIRST_NAME, LAST_NAME, GUEST_DESCRIPTION, GUEST_DIETARY_RESTRICTIONS, INVITE_CODE, RESERVATION_ID) "
+		+ "VALUES (?, ?, ?, ?, ?, ?)";
+	private static final String SELECT_RESERVATION_IDS_FOR_UPDATE =
+		"SELECT GUEST_ID, RESERVATION_ID FROM GUEST WHERE GUEST_ID IN ";
+	private static final int INSERT_BATCH_SIZE = 500;
+	private static final String SPAN = "repository";
+
+	private final boolean isVersioned;
+
 	/**
 	 * Constructs a new instance provided an instance of a class that implements
 	 * the IDatabaseUnitOfWork interface. It is recommended that instead of
@@ -40,7 +67,28 @@ public class GuestRepository extends DatabaseRepository implements IGuestReposit
 	 *            being created will utilize this unit of work.
 	 */
 	public GuestRepository(IDatabaseUnitOfWork unitOfWork) {
+		this(unitOfWork, false);
+	}
+
+	/**
+	 * Constructs a new instance provided an instance of a class that implements
+	 * the IDatabaseUnitOfWork interface, and whether the guests retrieved carry
+	 * the version and last modified date of their rows.
+	 *
+	 * @param unitOfWork
+	 *            An instance of a class that implements the IDatabaseUnitOfWork
+	 *            interface. All methods invoked on the GuestRepository instance
+	 *            being created will utilize this unit of work.
+	 * @param isVersioned
+	 *            When true, the VERSION and DATETIME_MODIFIED columns returned
+	 *            by the guest stored procedures are read into the guests, and
+	 *            single guests are written through the CreateVersionedGuest and
+	 *            UpdateVersionedGuest stored procedures, which hand both back
+	 *            through OUT parameters.
+	 */
+	public GuestRepository(IDatabaseUnitOfWork unitOfWork, boolean isVersioned) {
 		super(unitOfWork);
+		this.isVersioned = isVersioned;
 	}
 
 	/**
@@ -59,6 +107,7 @@ public class GuestRepository extends DatabaseRepository implements IGuestReposit
 		CallableStatement cStatement = null;
 		ResultSet result = null;
 
+		long span = ServerTiming.start();
 		try {
 			cStatement = this.getUnitOfWork().createCallableStatement("{CALL GetGuest(?)}");
 
@@ -66,22 +115,7 @@ public class GuestRepository extends DatabaseRepository implements IGuestReposit
 			result = cStatement.executeQuery();
 
 			if (result.next()) {
-				guest = new Guest();
-				guest.setId(result.getInt("GUEST_ID"));
-				guest.setGivenName(result.getString("FIRST_NAME"));
-				guest.setSurName(result.getString("LAST_NAME"));
-				guest.setDescription(result.getString("GUEST_DESCRIPTION"));
-				guest.setDietaryRestrictions(result.getString("GUEST_DIETARY_RESTRICTIONS"));
-				guest.setInviteCode(result.getString("INVITE_CODE"));
-
-				result.getInt("RESERVATION_ID");
-				if (!result.wasNull()) {
-					Reservation reservation = new Reservation();
-					reservation.setIsAttending(result.getBoolean("IS_ATTENDING"));
-					reservation.setSubmittedDateTime(
-						result.getTimestamp("DATETIME_SUBMITTED", Calendar.getInstance(TimeZone.getTimeZone("UTC"))));
-					guest.setReservation(reservation);
-				}
+				guest = new GuestRowMapper(this.isVersioned).map(result);
 			}
 
 			if (guest == null) {
@@ -94,6 +128,7 @@ public class GuestRepository extends DatabaseRepository implements IGuestReposit
 			sqlEx.printStackTrace();
 			throw new RuntimeException(sqlEx);
 		} finally {
+			ServerTiming.stop(SPAN, span);
 			// release resources needed.
 			this.getUnitOfWork().destroyStatement(cStatement);
 		}
@@ -101,7 +136,10 @@ public class GuestRepository extends DatabaseRepository implements IGuestReposit
 
 	/**
 	 * Replaces the state of an existing guest with the state of the guest
-	 * provided.
+	 * provided. The state assigned while persisting the guest (the submitted
+	 * date and time of its reservation, in whole seconds, and its version and
+	 * last modified date when versioned) is set on the guest provided, so it
+	 * need not be read back.
 	 *
 	 * @param guest
 	 *            The desired state of the guest to update.
@@ -112,33 +150,31 @@ public class GuestRepository extends DatabaseRepository implements IGuestReposit
 	public void updateGuest(Guest guest) throws ResourceNotFoundException {
 
 		CallableStatement cStatement = null;
-		CallableStatement getGuest = null;
 
+		long span = ServerTiming.start();
 		try {
 
-			cStatement = this.getUnitOfWork().createCallableStatement("{CALL UpdateGuest(?, ?, ?, ?, ?, ?, ?)}");
+			Integer currentReservationId = this.lockReservationId(guest.getId());
+			int reservationId = currentReservationId == null ? 0 : currentReservationId;
+			boolean hasReservation = currentReservationId != null;
+			boolean addingReservation = !hasReservation && guest.getReservation() != null;
+			boolean updatingReservation = hasReservation && guest.getReservation() != null;
+			boolean deletingReservation = hasReservation && guest.getReservation() == null;
+
+			cStatement = this.getUnitOfWork().createCallableStatement(this.isVersioned
+				? "{CALL UpdateVersionedGuest(?, ?, ?, ?, ?, ?, ?, ?, ?)}"
+				: "{CALL UpdateGuest(?, ?, ?, ?, ?, ?, ?)}");
 			cStatement.setInt(1, guest.getId());
 			cStatement.setString(2, guest.getGivenName());
 			cStatement.setString(3, guest.getSurName());
 			cStatement.setString(4, guest.getDescription());
 			cStatement.setString(5, guest.getDietaryRestrictions());
 			cStatement.setString(6, guest.getInviteCode());
-
-			getGuest = this.getUnitOfWork().createCallableStatement("{CALL GetGuest(?)}");
-			getGuest.setInt(1, guest.getId());
-			ResultSet result = getGuest.executeQuery();
-
-			if (!result.next()) {
-				throw new ResourceNotFoundException("A guest with an ID of '" + guest.getId() + "' could not be found.",
-					guest.getId());
+			if (this.isVersioned) {
+				cStatement.registerOutParameter("Version", Types.BIGINT);
+				cStatement.registerOutParameter("DateTimeModified", Types.TIMESTAMP);
 			}
 
-			int reservationId = result.getInt("RESERVATION_ID");
-			boolean hasReservation = !result.wasNull();
-			boolean addingReservation = !hasReservation && guest.getReservation() != null;
-			boolean updatingReservation = hasReservation && guest.getReservation() != null;
-			boolean deletingReservation = hasReservation && guest.getReservation() == null;
-
 			if (addingReservation) {
 				reservationId = this.createReservation(guest.getReservation());
 				cStatement.setInt(7, reservationId);
@@ -156,12 +192,17 @@ public class GuestRepository extends DatabaseRepository implements IGuestReposit
 				cStatement.executeUpdate();
 			}
 
+			if (this.isVersioned) {
+				readVersion(cStatement, guest);
+			}
+
 		} catch (SQLException sqlEx) {
 			sqlEx.printStackTrace();
 			throw new RuntimeException(sqlEx);
 		} finally {
+			ServerTiming.stop(SPAN, span);
 			// release resources needed.
-			this.getUnitOfWork().destroyStatements(cStatement, getGuest);
+			this.getUnitOfWork().destroyStatement(cStatement);
 		}
 	}
 
@@ -177,26 +218,17 @@ public class GuestRepository extends DatabaseRepository implements IGuestReposit
 	public void deleteGuest(int id) throws ResourceNotFoundException {
 
 		CallableStatement cStatement = null;
-		CallableStatement getGuest = null;
 
+		long span = ServerTiming.start();
 		try {
-			getGuest = this.getUnitOfWork().createCallableStatement("{CALL GetGuest(?)}");
-			getGuest.setInt(1, id); //
-			ResultSet result = getGuest.executeQuery();
-
-			if (!result.next()) {
-				throw new ResourceNotFoundException("A guest with an ID of '" + id + "' could not be found.", id);
-			}
-
-			int reservationId = result.getInt("RESERVATION_ID");
-			boolean deleteReservation = !result.wasNull();
+			Integer reservationId = this.lockReservationId(id);
 
 			cStatement = this.getUnitOfWork().createCallableStatement("{CALL DeleteGuest(?)}");
 			cStatement.setInt(1, id);
 
 			cStatement.executeUpdate();
 
-			if (deleteReservation) {
+			if (reservationId != null) {
 				this.deleteReservation(reservationId);
 			}
 
@@ -204,13 +236,18 @@ public class GuestRepository extends DatabaseRepository implements IGuestReposit
 			sqlEx.printStackTrace();
 			throw new RuntimeException(sqlEx);
 		} finally {
+			ServerTiming.stop(SPAN, span);
 			// release resources needed.
-			this.getUnitOfWork().destroyStatements(cStatement, getGuest);
+			this.getUnitOfWork().destroyStatement(cStatement);
 		}
 	}
 
 	/**
-	 * Creates a new guest with the state provided.
+	 * Creates a new guest with the state provided. The identifier of the guest
+	 * and the state assigned while persisting it (the submitted date and time
+	 * of its reservation, in whole seconds, and its version and last modified
+	 * date when versioned) are set on the guest provided, so it need not be
+	 * read back.
 	 *
 	 * @param guest
 	 *            The desired state of the guest to create.
@@ -220,8 +257,11 @@ public class GuestRepository extends DatabaseRepository implements IGuestReposit
 
 		CallableStatement cStatement = null;
 
+		long span = ServerTiming.start();
 		try {
-			cStatement = this.getUnitOfWork().createCallableStatement("{CALL CreateGuest(?, ?, ?, ?, ?, ?, ?)}");
+			cStatement = this.getUnitOfWork().createCallableStatement(this.isVersioned
+				? "{CALL CreateVersionedGuest(?, ?, ?, ?, ?, ?, ?, ?, ?)}"
+				: "{CALL CreateGuest(?, ?, ?, ?, ?, ?, ?)}");
 			cStatement.setString(1, guest.getGivenName());
 			cStatement.setString(2, guest.getSurName());
 			cStatement.setString(3, guest.getDescription());
@@ -236,23 +276,99 @@ public class GuestRepository extends DatabaseRepository implements IGuestReposit
 			}
 
 			cStatement.registerOutParameter("Id", Types.INTEGER);
+			if (this.isVersioned) {
+				cStatement.registerOutParameter("Version", Types.BIGINT);
+				cStatement.registerOutParameter("DateTimeModified", Types.TIMESTAMP);
+			}
 
 			cStatement.executeUpdate();
 
-			return cStatement.getInt("Id");
+			int id = cStatement.getInt("Id");
+			guest.setId(id);
+			if (this.isVersioned) {
+				readVersion(cStatement, guest);
+			}
+			return id;
 
 		} catch (SQLException sqlEx) {
 			sqlEx.printStackTrace();
 			throw new RuntimeException(sqlEx);
 		} finally {
+			ServerTiming.stop(SPAN, span);
 			// release resources needed.
 			this.getUnitOfWork().destroyStatement(cStatement);
 		}
 	}
 
+	/**
+	 * Creates new guests with the states provided, using JDBC batches: the
+	 * reservations of the guests are inserted first, in batches of their own,
+	 * followed by the guests. Reservations without a submitted date and time
+	 * are submitted now.
+	 *
+	 * @param guests
+	 *            The desired states of the guests to create.
+	 * @return The identifiers of the newly created guests, in the order of the
+	 *         guests provided.
+	 */
+	public int[] insertGuests(List<Guest> guests) {
+
+		PreparedStatement insertGuest = null;
+
+		long span = ServerTiming.start();
+		try {
+			List<Reservation> reservations = new ArrayList<Reservation>();
+			for (Guest guest : guests) {
+				if (guest.getReservation() != null) {
+					reservations.add(guest.getReservation());
+				}
+			}
+			int[] reservationIds = this.insertReservations(reservations);
+
+			int[] guestIds = new int[guests.size()];
+			insertGuest = this.getUnitOfWork().createPreparedStatement(INSERT_GUEST, Statement.RETURN_GENERATED_KEYS);
+
+			int inserted = 0;
+			int reservation = 0;
+			for (int i = 0; i < guests.size(); i++) {
+				Guest guest = guests.get(i);
+				insertGuest.setString(1, guest.getGivenName());
+				insertGuest.setString(2, guest.getSurName());
+				insertGuest.setString(3, guest.getDescription());
+				insertGuest.setString(4, guest.getDietaryRestrictions());
+				insertGuest.setString(5, guest.getInviteCode());
+				if (guest.getReservation() == null) {
+					insertGuest.setNull(6, Types.INTEGER);
+				} else {
+					insertGuest.setInt(6, reservationIds[reservation++]);
+				}
+				insertGuest.addBatch();
+				if ((i + 1) % INSERT_BATCH_SIZE == 0) {
+					inserted = executeBatch(insertGuest, guestIds, inserted);
+				}
+			}
+			inserted = executeBatch(insertGuest, guestIds, inserted);
+			if (inserted != guestIds.length) {
+				throw new SQLException("A batched insert generated fewer keys than guests were inserted.");
+			}
+
+			return guestIds;
+
+		} catch (SQLException sqlEx) {
+			sqlEx.printStackTrace();
+			throw new RuntimeException(sqlEx);
+		} finally {
+			ServerTiming.stop(SPAN, span);
+			// release resources needed.
+			this.getUnitOfWork().destroyStatement(insertGuest);
+		}
+	}
+
 	/**
 	 * Retrieves all of the guests matching the provided search criteria. The
 	 * search criteria is optional, and when omitted, all guests are returned.
+	 * Guests sought past a cursor are returned in ascending order of their
+	 * identifiers, in either direction.
 	 * 
 	 * @param searchCriteria
 	 *            The search criteria that is used to filter the guests in the
@@ -267,62 +383,486 @@ public class GuestRepository extends DatabaseRepository implements IGuestReposit
 		CallableStatement cStatement = null;
 		ResultSet result = null;
 
+		long span = ServerTiming.start();
 		try {
-			cStatement = this.getUnitOfWork().createCallableStatement("{CALL GetGuests(?, ?, ?, ?, ?)}");
+			cStatement = this.prepareGetGuests(searchQuery);
+			result = cStatement.executeQuery();
 
-			if (searchQuery != null) { 
+			GuestRowMapper mapper = new GuestRowMapper(this.isVersioned);
+			while (result.next()) {
+				guests.add(mapper.map(result));
+			}
+
+			if (searchQuery != null && searchQuery.isSeeking() && searchQuery.getBefore() != null) {
+				// seeking backward, the rows closest to the cursor come back first.
+				Collections.reverse(guests);
+			}
+
+			return guests;
+		} catch (SQLException sqlEx) {
+			sqlEx.printStackTrace();
+			throw new RuntimeException(sqlEx);
+		} finally {
+			ServerTiming.stop(SPAN, span);
+			// release resources needed.
+			this.getUnitOfWork().destroyStatement(cStatement);
+		}
+	}
+
+	/**
+	 * Hands each of the guests matching the provided search criteria to the
+	 * handler provided as it is read. The driver is asked to stream the rows
+	 * instead of buffering the entire result set, so memory use stays flat
+	 * regardless of the number of guests. The unit of work cannot be used for
+	 * anything else until streaming has finished. Guests sought backward past
+	 * a cursor are handed over in descending order of their identifiers.
+	 * 
+	 * @param searchQuery
+	 *            The search criteria that is used to filter the guests in the
+	 *            repository.
+	 * @param handler
+	 *            The handler consuming the guests.
+	 */
+	public void streamGuests(GuestSearchQuery searchQuery, IResultHandler<Guest> handler) {
+
+		CallableStatement cStatement = null;
+		ResultSet result = null;
+
+		try {
+			cStatement = this.prepareGetGuests(searchQuery);
+			// Connector/J only streams rows of forward-only, read-only results with this fetch size.
+			cStatement.setFetchSize(Integer.MIN_VALUE);
+			result = cStatement.executeQuery();
+
+			GuestRowMapper mapper = new GuestRowMapper(this.isVersioned);
+			while (result.next()) {
+				handler.handle(mapper.map(result));
+			}
+
+		} catch (SQLException sqlEx) {
+			sqlEx.printStackTrace();
+			throw new RuntimeException(sqlEx);
+		} finally {
+			// a streamed result must be closed before the connection can be used again,
+			// and the statement may be handed out again by the statement cache.
+			try {
+				if (result != null) {
+					result.close();
+				}
+				if (cStatement != null) {
+					cStatement.setFetchSize(0);
+				}
+			} catch (SQLException sqlEx) {
+				sqlEx.printStackTrace();
+			}
+			// release resources needed.
+			this.getUnitOfWork().destroyStatement(cStatement);
+		}
+	}
+
+	/**
+	 * Counts the guests matching the provided search criteria, without retrieving
+	 * them. The pagination of the search criteria (skip and take) is disregarded,
+	 * so that the count is the total across all pages.
+	 * 
+	 * @param searchQuery
+	 *            The search criteria that is used to filter the guests in the
+	 *            repository.
+	 * @return The number of guests that match the search criteria if provided;
+	 *         otherwise, the number of guests in the repository.
+	 */
+	public int getGuestCount(GuestSearchQuery searchQuery) {
+
+		CallableStatement cStatement = null;
+		ResultSet result = null;
+
+		long span = ServerTiming.start();
+		try {
+			cStatement = this.getUnitOfWork().createCallableStatement("{CALL GetGuestsCount(?, ?, ?)}");
+
+			if (searchQuery != null) {
 				cStatement.setString(1, searchQuery.getInviteCode());
 				cStatement.setString(2, searchQuery.getGivenName());
 				cStatement.setString(3, searchQuery.getSurname());
-				cStatement.setInt(4, searchQuery.getSkip() == null ? 0 : searchQuery.getSkip());
-				cStatement.setInt(5, searchQuery.getTake() == null ? Integer.MAX_VALUE : searchQuery.getTake());
 			} else {
 				cStatement.setString(1, null);
 				cStatement.setString(2, null);
 				cStatement.setString(3, null);
-				cStatement.setInt(4, 0);
-				cStatement.setInt(5, Integer.MAX_VALUE);
 			}
 
 			result = cStatement.executeQuery();
 
-			while (result.next()) {
-				Guest guest = new Guest();
-				guest.setId(result.getInt("GUEST_ID"));
-				guest.setGivenName(result.getString("FIRST_NAME"));
-				guest.setSurName(result.getString("LAST_NAME"));
-				guest.setDescription(result.getString("GUEST_DESCRIPTION"));
-				guest.setDietaryRestrictions(result.getString("GUEST_DIETARY_RESTRICTIONS"));
-				guest.setInviteCode(result.getString("INVITE_CODE"));
-
-				result.getInt("RESERVATION_ID");
-				if (!result.wasNull()) {
-					Reservation reservation = new Reservation();
-					reservation.setIsAttending(result.getBoolean("IS_ATTENDING"));
-					reservation.setSubmittedDateTime(
-						result.getTimestamp("DATETIME_SUBMITTED", Calendar.getInstance(TimeZone.getTimeZone("UTC"))));
-					guest.setReservation(reservation);
-				}
+			return result.next() ? result.getInt(1) : 0;
+
+		} catch (SQLException sqlEx) {
+			sqlEx.printStackTrace();
+			throw new RuntimeException(sqlEx);
+		} finally {
+			ServerTiming.stop(SPAN, span);
+			// release resources needed.
+			this.getUnitOfWork().destroyStatement(cStatement);
+		}
+	}
+
+	private CallableStatement prepareGetGuests(GuestSearchQuery searchQuery) throws SQLException {
 
-				guests.add(guest);
+		CallableStatement cStatement;
+
+		if (searchQuery != null && searchQuery.isSeeking()) {
+			// seek past the guest identifier instead of offsetting. Seeking forward, the take rows
+			// above afterId come back in ascending order; seeking backward, the take rows below
+			// beforeId come back in descending order (ORDER BY GUEST_ID DESC LIMIT take).
+			cStatement = this.getUnitOfWork().createCallableStatement("{CALL GetGuestsSeek(?, ?, ?, ?, ?, ?)}");
+			cStatement.setString(1, searchQuery.getInviteCode());
+			cStatement.setString(2, searchQuery.getGivenName());
+			cStatement.setString(3, searchQuery.getSurname());
+			if (searchQuery.getAfter() != null) {
+				cStatement.setInt(4, searchQuery.getAfter());
+			} else {
+				cStatement.setNull(4, Types.INTEGER);
+			}
+			if (searchQuery.getBefore() != null) {
+				cStatement.setInt(5, searchQuery.getBefore());
+			} else {
+				cStatement.setNull(5, Types.INTEGER);
 			}
+			cStatement.setInt(6, searchQuery.getTake() == null ? Integer.MAX_VALUE : searchQuery.getTake());
+		} else if (searchQuery != null) { 
+			cStatement = this.getUnitOfWork().createCallableStatement("{CALL GetGuests(?, ?, ?, ?, ?)}");
+			cStatement.setString(1, searchQuery.getInviteCode());
+			cStatement.setString(2, searchQuery.getGivenName());
+			cStatement.setString(3, searchQuery.getSurname());
+			cStatement.setInt(4, searchQuery.getSkip() == null ? 0 : searchQuery.getSkip());
+			cStatement.setInt(5, searchQuery.getTake() == null ? Integer.MAX_VALUE : searchQuery.getTake());
+		} else {
+			cStatement = this.getUnitOfWork().createCallableStatement("{CALL GetGuests(?, ?, ?, ?, ?)}");
+			cStatement.setString(1, null);
+			cStatement.setString(2, null);
+			cStatement.setString(3, null);
+			cStatement.setInt(4, 0);
+			cStatement.setInt(5, Integer.MAX_VALUE);
+		}
+
+		return cStatement;
+	}
+
+	/**
+	 * Retrieves the version of the collection of guests as a whole: a change
+	 * counter maintained by the database, which changes whenever any guest is
+	 * created, changed or deleted, along with the date and time of that change.
+	 * 
+	 * @return The version of the collection of guests.
+	 */
+	public CollectionVersion getGuestsVersion() {
+
+		CallableStatement cStatement = null;
+		ResultSet result = null;
+
+		long span = ServerTiming.start();
+		try {
+			cStatement = this.getUnitOfWork().createCallableStatement("{CALL GetGuestsVersion()}");
+			result = cStatement.executeQuery();
+
+			if (!result.next()) {
+				return new CollectionVersion(0, null);
+			}
+
+			return new CollectionVersion(
+				result.getLong("VERSION"),
+				result.getTimestamp("DATETIME_MODIFIED", Calendar.getInstance(TimeZone.getTimeZone("UTC"))));
 
-			return guests;
 		} catch (SQLException sqlEx) {
 			sqlEx.printStackTrace();
 			throw new RuntimeException(sqlEx);
 		} finally {
+			ServerTiming.stop(SPAN, span);
 			// release resources needed.
 			this.getUnitOfWork().destroyStatement(cStatement);
 		}
 	}
 
+	/**
+	 * Replaces the states of existing guests with the states provided, using JDBC
+	 * batches. The current reservations of all of the guests are read (and their
+	 * rows locked until the unit of work completes) with a single query; the
+	 * reservations to add, change and remove are then written in a batch per kind
+	 * of change, and the guests in a batch of their own. Reservations without a
+	 * submitted date and time are submitted now.
+	 *
+	 * @param guests
+	 *            The desired states of the guests to update.
+	 * @return The identifiers of the guests provided that could not be found,
+	 *         which are left untouched.
+	 */
+	public Set<Integer> updateGuests(List<Guest> guests) {
+
+		CallableStatement updateReservation = null;
+		CallableStatement updateGuest = null;
+		CallableStatement deleteReservation = null;
+
+		long span = ServerTiming.start();
+		try {
+			List<Integer> guestIds = new ArrayList<Integer>(guests.size());
+			for (Guest guest : guests) {
+				guestIds.add(guest.getId());
+			}
+			Map<Integer, Integer> currentReservationIds = this.lockReservationIds(guestIds);
+
+			Set<Integer> missingIds = new HashSet<Integer>();
+			List<Guest> found = new ArrayList<Guest>(guests.size());
+			List<Reservation> added = new ArrayList<Reservation>();
+			for (Guest guest : guests) {
+				if (!currentReservationIds.containsKey(guest.getId())) {
+					missingIds.add(guest.getId());
+					continue;
+				}
+				found.add(guest);
+				if (guest.getReservation() != null && currentReservationIds.get(guest.getId()) == null) {
+					added.add(guest.getReservation());
+				}
+			}
+
+			int[] addedReservationIds = this.insertReservations(added);
+			Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+			Date now = utc.getTime();
+			int addedIndex = 0;
+			List<Integer> deletedReservationIds = new ArrayList<Integer>();
+
+			for (Guest guest : found) {
+				Integer reservationId = currentReservationIds.get(guest.getId());
+				Reservation reservation = guest.getReservation();
+
+				if (reservation != null && reservationId == null) {
+					reservationId = addedReservationIds[addedIndex++];
+				} else if (reservation != null) {
+					if (updateReservation == null) {
+						updateReservation =
+							this.getUnitOfWork().createCallableStatement("{CALL UpdateReservation(?, ?, ?)}");
+					}
+					Date submitted = stampSubmitted(reservation, now);
+					updateReservation.setInt(1, reservationId);
+					updateReservation.setTimestamp(2, new Timestamp(submitted.getTime()), utc);
+					updateReservation.setBoolean(3, reservation.getIsAttending());
+					updateReservation.addBatch();
+				} else if (reservationId != null) {
+					deletedReservationIds.add(reservationId);
+					reservationId = null;
+				}
+
+				if (updateGuest == null) {
+					updateGuest = this.getUnitOfWork().createCallableStatement("{CALL UpdateGuest(?, ?, ?, ?, ?, ?, ?)}");
+				}
+				updateGuest.setInt(1, guest.getId());
+				updateGuest.setString(2, guest.getGivenName());
+				updateGuest.setString(3, guest.getSurName());
+				updateGuest.setString(4, guest.getDescription());
+				updateGuest.setString(5, guest.getDietaryRestrictions());
+				updateGuest.setString(6, guest.getInviteCode());
+				if (reservationId == null) {
+					updateGuest.setNull(7, Types.INTEGER);
+				} else {
+					updateGuest.setInt(7, reservationId);
+				}
+				updateGuest.addBatch();
+			}
+
+			if (updateReservation != null) {
+				updateReservation.executeBatch();
+			}
+			if (updateGuest != null) {
+				updateGuest.executeBatch();
+			}
+
+			// reservations are removed once no guest refers to them anymore.
+			if (!deletedReservationIds.isEmpty()) {
+				deleteReservation = this.getUnitOfWork().createCallableStatement("{CALL DeleteReservation(?)}");
+				for (Integer deletedReservationId : deletedReservationIds) {
+					deleteReservation.setInt(1, deletedReservationId);
+					deleteReservation.addBatch();
+				}
+				deleteReservation.executeBatch();
+			}
+
+			return missingIds;
+
+		} catch (SQLException sqlEx) {
+			sqlEx.printStackTrace();
+			throw new RuntimeException(sqlEx);
+		} finally {
+			ServerTiming.stop(SPAN, span);
+			// release resources needed.
+			this.getUnitOfWork().destroyStatements(updateReservation, updateGuest, deleteReservation);
+		}
+	}
+
+	/**
+	 * Reads the identifier of the reservation of the guest provided, locking the
+	 * row of the guest until the unit of work completes. Only the reservation
+	 * identifier is read, rather than the whole guest.
+	 *
+	 * @return The reservation identifier of the guest, or null when it has none.
+	 * @throws ResourceNotFoundException
+	 *             Thrown when the guest could not be found.
+	 */
+	private Integer lockReservationId(int id) throws SQLException, ResourceNotFoundException {
+
+		Map<Integer, Integer> reservationIds = this.lockReservationIds(Collections.singletonList(id));
+		if (!reservationIds.containsKey(id)) {
+			throw new ResourceNotFoundException("A guest with an ID of '" + id + "' could not be found.", id);
+		}
+		return reservationIds.get(id);
+	}
+
+	/**
+	 * Reads the identifiers of the reservations of the guests provided, locking
+	 * the rows of the guests until the unit of work completes.
+	 *
+	 * @return The reservation identifier (null when there is none) of each guest
+	 *         found, keyed by guest identifier.
+	 */
+	private Map<Integer, Integer> lockReservationIds(List<Integer> guestIds) throws SQLException {
+
+		Map<Integer, Integer> reservationIds = new HashMap<Integer, Integer>();
+		if (guestIds.isEmpty()) {
+			return reservationIds;
+		}
+
+		// the number of parameters is rounded up to a power of two (repeating the
+		// last identifier), so that few distinct statements end up being prepared.
+		int parameterCount = Integer.highestOneBit(guestIds.size());
+		if (parameterCount < guestIds.size()) {
+			parameterCount <<= 1;
+		}
+
+		StringBuilder sql = new StringBuilder(SELECT_RESERVATION_IDS_FOR_UPDATE).append('(');
+		for (int i = 0; i < parameterCount; i++) {
+			sql.append(i == 0 ? "?" : ", ?");
+		}
+		sql.append(") FOR UPDATE");
+
+		PreparedStatement selectReservationIds = null;
+		ResultSet result = null;
+		try {
+			selectReservationIds = this.getUnitOfWork().createPreparedStatement(sql.toString());
+			for (int i = 0; i < parameterCount; i++) {
+				selectReservationIds.setInt(i + 1, guestIds.get(Math.min(i, guestIds.size() - 1)));
+			}
+
+			result = selectReservationIds.executeQuery();
+			while (result.next()) {
+				int guestId = result.getInt("GUEST_ID");
+				int reservationId = result.getInt("RESERVATION_ID");
+				reservationIds.put(guestId, result.wasNull() ? null : reservationId);
+			}
+			return reservationIds;
+		} finally {
+			if (result != null) {
+				result.close();
+			}
+			this.getUnitOfWork().destroyStatement(selectReservationIds);
+		}
+	}
+
+	/**
+	 * Inserts the reservations provided in batches.
+	 *
+	 * @return The identifiers of the newly created reservations, in the order
+	 *         of the reservations provided.
+	 */
+	private int[] insertReservations(List<Reservation> reservations) throws SQLException {
+
+		int[] reservationIds = new int[reservations.size()];
+		if (reservations.isEmpty()) {
+			return reservationIds;
+		}
+
+		PreparedStatement insertReservation = null;
+		try {
+			Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+			Date now = utc.getTime();
+			insertReservation =
+				this.getUnitOfWork().createPreparedStatement(INSERT_RESERVATION, Statement.RETURN_GENERATED_KEYS);
+
+			int inserted = 0;
+			for (int i = 0; i < reservations.size(); i++) {
+				Reservation reservation = reservations.get(i);
+				Date submitted = stampSubmitted(reservation, now);
+				insertReservation.setBoolean(1, reservation.getIsAttending());
+				insertReservation.setTimestamp(2, new Timestamp(submitted.getTime()), utc);
+				insertReservation.addBatch();
+				if ((i + 1) % INSERT_BATCH_SIZE == 0) {
+					inserted = executeBatch(insertReservation, reservationIds, inserted);
+				}
+			}
+			inserted = executeBatch(insertReservation, reservationIds, inserted);
+			if (inserted != reservationIds.length) {
+				throw new SQLException("A batched insert generated fewer keys than reservations were inserted.");
+			}
+			return reservationIds;
+		} finally {
+			this.getUnitOfWork().destroyStatement(insertReservation);
+		}
+	}
+
+	/**
+	 * Determines the submitted date and time written for the reservation provided
+	 * (now, when it has none), truncated to the whole seconds the database keeps,
+	 * and sets it on the reservation.
+	 */
+	private static Date stampSubmitted(Reservation reservation, Date now) {
+		Date submitted = reservation.getSubmittedDateTime() == null ? now : reservation.getSubmittedDateTime();
+		submitted = new Date(submitted.getTime() - (submitted.getTime() % 1000));
+		reservation.setSubmittedDateTime(submitted);
+		return submitted;
+	}
+
+	/**
+	 * Reads the version and last modified date the database assigned to the
+	 * guest provided from the OUT parameters of the statement that wrote it.
+	 */
+	private static void readVersion(CallableStatement cStatement, Guest guest) throws SQLException {
+		guest.setVersion(cStatement.getLong("Version"));
+		guest.setLastModified(
+			cStatement.getTimestamp("DateTimeModified", Calendar.getInstance(TimeZone.getTimeZone("UTC"))));
+	}
+
+	/**
+	 * Executes the statements batched so far and copies the keys they generated
+	 * into the array provided, starting at the offset provided.
+	 * 
+	 * @return The offset following the last key copied.
+	 */
+	private static int executeBatch(PreparedStatement statement, int[] keys, int offset) throws SQLException {
+
+		statement.executeBatch();
+		ResultSet generatedKeys = statement.getGeneratedKeys();
+		try {
+			while (generatedKeys.next()) {
+				if (offset == keys.length) {
+					throw new SQLException("A batched insert generated more keys than rows were inserted.");
+				}
+				keys[offset++] = generatedKeys.getInt(1);
+			}
+		} finally {
+			generatedKeys.close();
+		}
+		return offset;
+	}
+
+	/**
+	 * Creates the reservation provided. The submitted date and time set on the
+	 * reservation are passed to the stored procedure (IsAttending,
+	 * DateTimeSubmitted, OUT Id), so the reservation is written in a single
+	 * round trip and matches the state set on it.
+	 */
 	private int createReservation(Reservation reservation) {
 		CallableStatement createReservation = null;
 		try {
 			createReservation = 
-				this.getUnitOfWork().createCallableStatement("{CALL CreateReservation(?, ?)}");
+				this.getUnitOfWork().createCallableStatement("{CALL CreateReservation(?, ?, ?)}");
+			Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
 			createReservation.setBoolean(1, reservation.getIsAttending());
+			createReservation.setTimestamp(2, new Timestamp(stampSubmitted(reservation, utc.getTime()).getTime()), utc);
 			createReservation.registerOutParameter("Id", Types.INTEGER);
 			createReservation.executeUpdate();
 			return createReservation.getInt("Id");
@@ -340,9 +880,9 @@ public class GuestRepository extends DatabaseRepository implements IGuestReposit
 		try {
 			updateReservation = 
 				this.getUnitOfWork().createCallableStatement("{CALL UpdateReservation(?, ?, ?)}");
+			Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
 			updateReservation.setInt(1, reservationId);
-			updateReservation.setTimestamp(2, new Timestamp(reservation.getSubmittedDateTime().getTime()),
-				Calendar.getInstance(TimeZone.getTimeZone("UTC")));
+			updateReservation.setTimestamp(2, new Timestamp(stampSubmitted(reservation, utc.getTime()).getTime()), utc);
 			updateReservation.setBoolean(3, reservation.getIsAttending());
 			updateReservation.executeUpdate();
 		} catch (SQLException sqlEx) {
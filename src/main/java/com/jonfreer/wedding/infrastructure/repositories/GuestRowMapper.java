@@ -0,0 +1,103 @@
+package com.jonfreer.wedding.infrastructure.repositories;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import com.jonfreer.wedding.domain.Guest;
+import com.jonfreer.wedding.domain.Reservation;
+
+/**
+ * Turns the rows that the guest stored procedures hand back into guests. The
+ * indexes of the columns are looked up by name once, when the first row is
+ * mapped, and the rows are then read by index; the UTC calendar that the
+ * timestamps are read with is shared by all of the rows.
+ *
+ * A mapper is meant to be used for the rows of a single result set, by a single
+ * thread.
+ */
+class GuestRowMapper {
+
+	private final boolean isVersioned;
+	private final Calendar utc;
+	private boolean isResolved;
+	private int guestId;
+	private int firstName;
+	private int lastName;
+	private int description;
+	private int dietaryRestrictions;
+	private int inviteCode;
+	private int reservationId;
+	private int isAttending;
+	private int submitted;
+	private int version;
+	private int modified;
+
+	/**
+	 * Constructs a GuestRowMapper.
+	 *
+	 * @param isVersioned
+	 *            When true, the VERSION and DATETIME_MODIFIED columns are mapped
+	 *            as well.
+	 */
+	GuestRowMapper(boolean isVersioned) {
+		this.isVersioned = isVersioned;
+		this.utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+	}
+
+	/**
+	 * Maps the current row of the result set provided to a guest.
+	 *
+	 * @param result
+	 *            The result set, positioned on the row to be mapped. Must be the
+	 *            same result set for every call.
+	 * @return The guest the row describes.
+	 */
+	Guest map(ResultSet result) throws SQLException {
+
+		if (!this.isResolved) {
+			this.resolve(result);
+		}
+
+		Guest guest = new Guest();
+		guest.setId(result.getInt(this.guestId));
+		guest.setGivenName(result.getString(this.firstName));
+		guest.setSurName(result.getString(this.lastName));
+		guest.setDescription(result.getString(this.description));
+		guest.setDietaryRestrictions(result.getString(this.dietaryRestrictions));
+		guest.setInviteCode(result.getString(this.inviteCode));
+
+		result.getInt(this.reservationId);
+		if (!result.wasNull()) {
+			Reservation reservation = new Reservation();
+			reservation.setIsAttending(result.getBoolean(this.isAttending));
+			reservation.setSubmittedDateTime(result.getTimestamp(this.submitted, this.utc));
+			guest.setReservation(reservation);
+		}
+
+		if (this.isVersioned) {
+			guest.setVersion(result.getLong(this.version));
+			guest.setLastModified(result.getTimestamp(this.modified, this.utc));
+		}
+
+		return guest;
+	}
+
+	private void resolve(ResultSet result) throws SQLException {
+		this.guestId = result.findColumn("GUEST_ID");
+		this.firstName = result.findColumn("FIRST_NAME");
+		this.lastName = result.findColumn("LAST_NAME");
+		this.description = result.findColumn("GUEST_DESCRIPTION");
+		this.dietaryRestrictions = result.findColumn("GUEST_DIETARY_RESTRICTIONS");
+		this.inviteCode = result.findColumn("INVITE_CODE");
+		this.reservationId = result.findColumn("RESERVATION_ID");
+		this.isAttending = result.findColumn("IS_ATTENDING");
+		this.submitted = result.findColumn("DATETIME_SUBMITTED");
+		if (this.isVersioned) {
+			this.version = result.findColumn("VERSION");
+			this.modified = result.findColumn("DATETIME_MODIFIED");
+		}
+		this.isResolved = true;
+	}
+}
@@ -3,36 +3,137 @@
  */
 package com.jonfreer.wedding.infrastructure.services;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
+import java.util.Date;
 
+import javax.inject.Inject;
 import javax.ws.rs.core.EntityTag;
 
 import org.jvnet.hk2.annotations.Service;
 
-import java.nio.charset.Charset;
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
+import com.jonfreer.wedding.servicemodel.Guest;
+import com.jonfreer.wedding.servicemodel.Reservation;
 
 /**
+ * Generates entity tags from the state of entities, using the 64-bit FNV-1a
+ * hash. Guests (and their reservations) are hashed field by field, without
+ * building an intermediate string; any other entity is hashed by the
+ * characters of its string representation. Each field is preceded by its
+ * length (or a marker for null) so that adjacent fields cannot run together.
+ *
+ * The hash is not cryptographic: entity tags only need to change when the
+ * state of the entity changes, not to resist deliberate collisions.
+ *
  * @author jonfreer
  *
  */
 @Service
 public class EntityTagService implements com.jonfreer.wedding.infrastructure.interfaces.services.EntityTagService {
 
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+	private static final int NULL_MARKER = -1;
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private final boolean isWeakByDefault;
+
+	/**
+	 * Constructs an EntityTagService generating strong entity tags.
+	 */
+	public EntityTagService() {
+		this.isWeakByDefault = false;
+	}
+
+	/**
+	 * Constructs an EntityTagService, provided the settings of the application.
+	 * The setting 'etag.weak' determines whether the entity tags generated are
+	 * weak unless requested otherwise.
+	 *
+	 * @param configuration The settings of the application.
+	 */
+	@Inject
+	public EntityTagService(ApplicationConfiguration configuration) {
+		this.isWeakByDefault = configuration.getBoolean("etag.weak", false);
+	}
+
 	public EntityTag get(Object entity) {
-		MessageDigest digest;
-		try {
-			digest = MessageDigest.getInstance("MD5");
-			byte[] bytesMD5 = digest.digest(entity.toString().getBytes(Charset.forName("UTF-8")));
-			String entityTagStringBase64Encoded = 
-					Base64.getEncoder().encodeToString(bytesMD5);
-			
-			return new EntityTag(entityTagStringBase64Encoded);
-		} catch (NoSuchAlgorithmException e) {
-			e.printStackTrace();
-			throw new RuntimeException(e);
+		return this.get(entity, this.isWeakByDefault);
+	}
+
+	public EntityTag get(Object entity, boolean isWeak) {
+		long hash = FNV_OFFSET_BASIS;
+
+		if (entity instanceof Guest) {
+			hash = hash(hash, (Guest) entity);
+		} else {
+			hash = hash(hash, entity.toString());
 		}
+
+		return new EntityTag(toHex(hash), isWeak);
+	}
+
+	public EntityTag getForVersion(Object id, long version) {
+		return new EntityTag(id + "." + version, this.isWeakByDefault);
 	}
 
+	private static long hash(long hash, Guest guest) {
+		hash = hash(hash, guest.getId());
+		hash = hash(hash, guest.getGivenName());
+		hash = hash(hash, guest.getSurName());
+		hash = hash(hash, guest.getDescription());
+		hash = hash(hash, guest.getInviteCode());
+		hash = hash(hash, guest.getDietaryRestrictions());
+
+		Reservation reservation = guest.getReservation();
+		if (reservation == null) {
+			return hash(hash, NULL_MARKER);
+		}
+		hash = hash(hash, 1);
+		hash = hash(hash, reservation.getIsAttending() ? 1 : 0);
+		return hash(hash, reservation.getSubmittedDateTime());
+	}
+
+	private static long hash(long hash, String value) {
+		if (value == null) {
+			return hash(hash, NULL_MARKER);
+		}
+
+		int length = value.length();
+		hash = hash(hash, length);
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+			hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+		}
+		return hash;
+	}
+
+	private static long hash(long hash, Integer value) {
+		return value == null ? hash(hash, NULL_MARKER) : hash(hash(hash, 1), value.intValue());
+	}
+
+	private static long hash(long hash, Date value) {
+		if (value == null) {
+			return hash(hash, NULL_MARKER);
+		}
+		long time = value.getTime();
+		hash = hash(hash, (int) (time >>> 32));
+		return hash(hash, (int) time);
+	}
+
+	private static long hash(long hash, int value) {
+		for (int shift = 0; shift < 32; shift += 8) {
+			hash = (hash ^ ((value >>> shift) & 0xff)) * FNV_PRIME;
+		}
+		return hash;
+	}
+
+	private static String toHex(long hash) {
+		char[] digits = new char[16];
+		for (int i = 15; i >= 0; i--) {
+			digits[i] = HEX_DIGITS[(int) (hash & 0xf)];
+			hash >>>= 4;
+		}
+		return new String(digits);
+	}
 }
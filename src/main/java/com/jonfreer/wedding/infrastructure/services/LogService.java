@@ -1,17 +1,26 @@
 package com.jonfreer.wedding.infrastructure.services;
 
-import java.sql.CallableStatement;
-import java.sql.SQLException;
-import java.sql.Types;
+import java.lang.management.ManagementFactory;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.jvnet.hk2.annotations.Service;
 
-import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
 import com.jonfreer.wedding.infrastructure.interfaces.factories.IDatabaseUnitOfWorkFactory;
+import com.jonfreer.wedding.infrastructure.logging.AsyncLogWriter;
+import com.jonfreer.wedding.infrastructure.logging.LogRecord;
+import com.jonfreer.wedding.infrastructure.logging.OverflowPolicy;
 
 /**
+ * Logs to the database without making the logging thread wait for it: records
+ * are handed to an AsyncLogWriter, which writes them in batches on a background
+ * thread. The writer is configured through the 'log.*' settings of the application,
+ * and its counters (written, dropped, failed, pending) are exposed over JMX.
  * 
  * @author jonfreer
  * @since 03/26/2017
@@ -31,11 +40,31 @@ public class LogService implements com.jonfreer.wedding.infrastructure.interface
 		ERROR
 	}
 	
-	private final IDatabaseUnitOfWorkFactory unitOfWorkFactory;
+	private static final String LOG_WRITER_OBJECT_NAME =
+		"com.jonfreer.wedding:type=AsyncLogWriter,name=LogService";
+
+	private final AsyncLogWriter logWriter;
+	private final long shutdownTimeoutMillis;
 	
 	@Inject
-	public LogService(IDatabaseUnitOfWorkFactory unitOfWorkFactory){
-		this.unitOfWorkFactory = unitOfWorkFactory;
+	public LogService(IDatabaseUnitOfWorkFactory unitOfWorkFactory, ApplicationConfiguration configuration){
+		this.logWriter = new AsyncLogWriter(
+			unitOfWorkFactory,
+			configuration.getInt("log.bufferCapacity", 8192),
+			configuration.getInt("log.batchSize", 100),
+			configuration.getLong("log.flushIntervalMillis", 200),
+			OverflowPolicy.valueOf(configuration.getString("log.overflowPolicy", "DROP")),
+			configuration.getInt("log.sampleRate", 10),
+			configuration.getLong("log.blockTimeoutMillis", 100));
+		this.shutdownTimeoutMillis = configuration.getLong("log.shutdownTimeoutMillis", 5000);
+		this.registerLogWriter();
+
+		// the records still pending must be written before the connection pool is closed.
+		unitOfWorkFactory.addShutdownTask(new Runnable() {
+			public void run() {
+				destroy();
+			}
+		});
 	}
 	
 	
@@ -68,36 +97,54 @@ public class LogService implements com.jonfreer.wedding.infrastructure.interface
 	}
 	
 	private void log(LogLevel level, String message, String stacktrace){
-		
-		IDatabaseUnitOfWork unitOfWork = this.unitOfWorkFactory.create();	
-		CallableStatement createStatement = null;
+		this.logWriter.write(new LogRecord(level.toString(), message, stacktrace));
+	}
+	
+	/**
+	 * Retrieves the writer that records are handed to, so that its
+	 * counters (written, dropped, pending) can be monitored.
+	 * 
+	 * @return The writer of the log records.
+	 */
+	public AsyncLogWriter getLogWriter(){
+		return this.logWriter;
+	}
+	
+	/**
+	 * Writes the records that are still pending and stops the writer. Invoked
+	 * by the factory of the units of work before it closes its connection pool,
+	 * and by the HK2 container when the application is shutting down.
+	 */
+	@PreDestroy
+	public void destroy(){
+		this.logWriter.close(this.shutdownTimeoutMillis);
 
-        try {
-            createStatement = unitOfWork.createCallableStatement("{ CALL CreateLog(?, ?, ?) }");
-            createStatement.setString(1, level.toString());
-            createStatement.setString(2, message);
-            
-            if(stacktrace != null){
-            	createStatement.setString(3, stacktrace);
-            }else{
-            	createStatement.setNull(3, Types.VARCHAR);
-            }
-            
-            createStatement.executeUpdate();
-            unitOfWork.Save();
+		try {
+			MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(LOG_WRITER_OBJECT_NAME);
+			if (mBeanServer.isRegistered(objectName)) {
+				mBeanServer.unregisterMBean(objectName);
+			}
+		} catch (JMException e) {
+			e.printStackTrace();
+		}
+	}
 
-        } catch (SQLException e) {
-        		unitOfWork.Undo();
-            e.printStackTrace();
-        } finally {
-            try {
-                if (createStatement != null && !createStatement.isClosed()) {
-                    createStatement.close();
-                }
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
-        }
+	/**
+	 * Exposes the counters of the log writer over JMX, and through it as metrics.
+	 */
+	private void registerLogWriter() {
+		try {
+			MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(LOG_WRITER_OBJECT_NAME);
+			if (mBeanServer.isRegistered(objectName)) {
+				mBeanServer.unregisterMBean(objectName);
+			}
+			mBeanServer.registerMBean(this.logWriter, objectName);
+		} catch (JMException e) {
+			// monitoring is not essential; the writer remains fully functional.
+			e.printStackTrace();
+		}
 	}
 	
 	private String getStackTrace(Exception exception){
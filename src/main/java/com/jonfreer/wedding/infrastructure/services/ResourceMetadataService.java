@@ -1,29 +1,60 @@
 /**
- * 
+ *
  */
 package com.jonfreer.wedding.infrastructure.services;
 
+import java.lang.management.ManagementFactory;
 import java.net.URI;
 import java.sql.CallableStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.ws.rs.core.EntityTag;
 
 import org.jvnet.hk2.annotations.Service;
 
 import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
-import com.jonfreer.wedding.infrastructure.interfaces.factories.IDatabaseUnitOfWorkFactory;
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IUnitOfWorkListener;
+import com.jonfreer.wedding.infrastructure.caching.EvictionPolicy;
+import com.jonfreer.wedding.infrastructure.caching.LocalCache;
+import com.jonfreer.wedding.infrastructure.caching.LocalCacheStatistics;
+import com.jonfreer.wedding.infrastructure.caching.ResponseCache;
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
+import com.jonfreer.wedding.infrastructure.metadata.ResourceKeys;
 import com.jonfreer.wedding.infrastructure.metadata.ResourceMetadata;
+import com.jonfreer.wedding.infrastructure.metrics.ServerTiming;
 
 /**
- * An infrastructure service offering several operations to 
+ * An infrastructure service offering several operations to
  * calling clients that wish to interact with REST resource metadata.
- * 
+ * All operations take part in the unit of work of the current request.
+ *
+ * Resource metadata is cached in memory, keyed by the normalized URI of the
+ * resource, with the database as the backing store. Writes are only applied
+ * to the cache once the unit of work they took part in has been saved; until
+ * then, they are only visible to the unit of work that made them. The absence
+ * of metadata for a URI is cached as well, so that requests for resources
+ * without metadata (e.g. searches) do not reach the database either.
+ *
+ * Once a unit of work that changed the metadata of a resource is saved, the
+ * representations of that resource held by the response cache are discarded.
+ *
  * @author jonfreer
  * @since 1/4/17
  */
@@ -31,64 +62,86 @@ import com.jonfreer.wedding.infrastructure.metadata.ResourceMetadata;
 public class ResourceMetadataService
 	implements com.jonfreer.wedding.infrastructure.interfaces.services.ResourceMetadataService {
 
-	private final IDatabaseUnitOfWorkFactory unitOfWorkFactory;
-	
+	private static final String CACHE_OBJECT_NAME =
+		"com.jonfreer.wedding:type=LocalCache,name=ResourceMetadataCache";
+
+	private static final ResourceMetadata ABSENT =
+		new ResourceMetadata(URI.create("urn:absent"), new Date(0), new EntityTag("absent"));
+
+	// a write to metadata that may or may not exist; read through until the unit of work completes.
+	private static final ResourceMetadata UNKNOWN =
+		new ResourceMetadata(URI.create("urn:unknown"), new Date(0), new EntityTag("unknown"));
+
+	private static final String SPAN = "metadata";
+
+	private final Provider<IDatabaseUnitOfWork> unitOfWorkProvider;
+	private final LocalCache<String, ResourceMetadata> cache;
+	private final Map<IDatabaseUnitOfWork, Map<String, ResourceMetadata>> pendingWrites;
+	private final ResponseCache responseCache;
+
 	@Inject
-	public ResourceMetadataService(IDatabaseUnitOfWorkFactory unitOfWorkFactory){
-		this.unitOfWorkFactory = unitOfWorkFactory;
+	public ResourceMetadataService(
+		Provider<IDatabaseUnitOfWork> unitOfWorkProvider,
+		ApplicationConfiguration configuration,
+		ResponseCache responseCache){
+
+		this.unitOfWorkProvider = unitOfWorkProvider;
+		this.responseCache = responseCache;
+		this.cache = new LocalCache<String, ResourceMetadata>(
+			configuration.getInt("resourceMetadataCache.maximumSize", 5000),
+			configuration.getLong("resourceMetadataCache.timeToLiveSeconds", 600),
+			TimeUnit.SECONDS,
+			EvictionPolicy.valueOf(configuration.getString("resourceMetadataCache.evictionPolicy", "LRU")));
+		this.pendingWrites =
+			Collections.synchronizedMap(new WeakHashMap<IDatabaseUnitOfWork, Map<String, ResourceMetadata>>());
+		this.registerCache();
 	}
-	
+
 	/**
      * Retrieves resource metadata for a resource identified by
      * the provided URI.
      *
      * @param uri The URI of the resource to retrieve metadata for.
      * @return The resource metadata for the resource identified by
-     * the provided URI.
+     * the provided URI, or null if the resource has none.
+     * @throws RuntimeException Thrown when the metadata cannot be read; nothing is cached.
      */
-	
+
 	public ResourceMetadata getResourceMetadata(URI uri) {
-		
-		IDatabaseUnitOfWork unitOfWork = this.unitOfWorkFactory.create();		
-		CallableStatement cStatement =
-            unitOfWork.createCallableStatement("{ CALL GetResourceMetadata(?) }");
-        ResultSet results = null;
-        
-        try {
-            cStatement.setString(1, uri.toString());
-            results = cStatement.executeQuery();
+		long span = ServerTiming.start();
+		try {
+			return this.lookUpResourceMetadata(uri);
+		} finally {
+			ServerTiming.stop(SPAN, span);
+		}
+	}
 
-            if(results.next()){
-            	String matchingUri = results.getString(1);
-            	Timestamp lastModified = results.getTimestamp(2, Calendar.getInstance(TimeZone.getTimeZone("UTC")));
-            	String entityTag = results.getString(3);
-            	entityTag = entityTag.replace("\"", "");
-            	
-            	unitOfWork.Save();
-            	
-            	ResourceMetadata resourceMetadata = 
-                	new ResourceMetadata(URI.create(matchingUri), lastModified, new EntityTag(entityTag));
-                return resourceMetadata;
-            }
-        } catch (SQLException sqlException) {
-            sqlException.printStackTrace();
-            unitOfWork.Undo();
-        }
-        finally{
-            try{
-                if(cStatement != null && !cStatement.isClosed()){
-                    cStatement.close();
-                }
-                if(results != null && !results.isClosed()){
-                    results.close();
-                }
-            }
-            catch(SQLException anotherSqlException){
-                anotherSqlException.printStackTrace();
-            }
-        }
-		
-        return null;
+	private ResourceMetadata lookUpResourceMetadata(URI uri) {
+
+		String key = normalize(uri);
+		IDatabaseUnitOfWork unitOfWork = this.unitOfWorkProvider.get();
+
+		Map<String, ResourceMetadata> pending = this.pendingWrites.get(unitOfWork);
+		ResourceMetadata written = pending == null ? null : pending.get(key);
+		if(written != null && written != UNKNOWN){
+			return present(written);
+		}
+
+		if(written == null){
+			ResourceMetadata cached = this.cache.get(key);
+			if(cached != null){
+				return present(cached);
+			}
+		}
+
+		ResourceMetadata resourceMetadata = this.readResourceMetadata(unitOfWork, uri);
+		if(written == null){
+			this.cache.putIfAbsent(key, resourceMetadata == null ? ABSENT : resourceMetadata);
+		}else{
+			// the read sees the write of this unit of work, so it is kept with the write.
+			pending.put(key, resourceMetadata == null ? ABSENT : resourceMetadata);
+		}
+		return resourceMetadata;
 	}
 
 	/**
@@ -96,105 +149,340 @@ public class ResourceMetadataService
      * provided state.
      *
      * @param resourceMetadata The desired state for the new resource metadata.
+     * @return The resource metadata as it is stored, or null if it could not be written.
      */
-	
-	public void insertResourceMetadata(ResourceMetadata resourceMetadata) {
-		
-		IDatabaseUnitOfWork unitOfWork = this.unitOfWorkFactory.create();	
+
+	public ResourceMetadata insertResourceMetadata(ResourceMetadata resourceMetadata) {
+
+		IDatabaseUnitOfWork unitOfWork = this.unitOfWorkProvider.get();
 		CallableStatement cStatement =
             unitOfWork.createCallableStatement("{ CALL CreateResourceMetadata(?, ?, ?) }");
-		
+
+        long span = ServerTiming.start();
         try {
             cStatement.setString(1, resourceMetadata.getUri().toString());
             cStatement.setTimestamp(
-            		2, 
-            		new Timestamp(resourceMetadata.getLastModified().getTime()), 
+            		2,
+            		new Timestamp(resourceMetadata.getLastModified().getTime()),
             		Calendar.getInstance(TimeZone.getTimeZone("UTC"))
     		);
             cStatement.setString(3, resourceMetadata.getEntityTag().toString());
             cStatement.executeUpdate();
-            unitOfWork.Save();
+            ResourceMetadata stored = asStored(resourceMetadata);
+            this.written(unitOfWork, normalize(resourceMetadata.getUri()), stored);
+            return stored;
         } catch (SQLException sqlException) {
             sqlException.printStackTrace();
-            unitOfWork.Undo();
+            return null;
         } finally {
-            try{
-                if(cStatement != null && !cStatement.isClosed()){
-                    cStatement.close();
-                }
-            }
-            catch(SQLException anotherSqlException){
-                anotherSqlException.printStackTrace();
-            }
+            ServerTiming.stop(SPAN, span);
+            unitOfWork.destroyStatement(cStatement);
         }
 	}
 
+	/**
+     * Creates new representations of resource metadata with the
+     * provided states, in a single JDBC batch.
+     *
+     * @param resourceMetadata The desired states for the new resource metadata.
+     */
+
+	public void insertResourceMetadata(List<ResourceMetadata> resourceMetadata) {
+
+		IDatabaseUnitOfWork unitOfWork = this.unitOfWorkProvider.get();
+		if(this.writeBatch(unitOfWork, "{ CALL CreateResourceMetadata(?, ?, ?) }", resourceMetadata)){
+			for(ResourceMetadata metadata : resourceMetadata){
+				this.written(unitOfWork, normalize(metadata.getUri()), asStored(metadata));
+			}
+		}
+	}
+
 	/**
      * Replaces the state an existing representation of metadata about a resource
      * with the provided state.
      *
      * @param resourceMetadata The desired state for the resource metadata.
+     * @return The resource metadata as it is stored, or null if it could not be written.
      */
-	
-	public void updateResourceMetaData(ResourceMetadata resourceMetadata) {
-		
-		IDatabaseUnitOfWork unitOfWork = this.unitOfWorkFactory.create();		
+
+	public ResourceMetadata updateResourceMetaData(ResourceMetadata resourceMetadata) {
+
+		IDatabaseUnitOfWork unitOfWork = this.unitOfWorkProvider.get();
 		CallableStatement cStatement =
             unitOfWork.createCallableStatement("{ CALL UpdateResourceMetadata(?, ?, ?) }");
-		
+
+        long span = ServerTiming.start();
         try {
             cStatement.setString(1, resourceMetadata.getUri().toString());
             cStatement.setTimestamp(
-            		2, 
-            		new Timestamp(resourceMetadata.getLastModified().getTime()), 
+            		2,
+            		new Timestamp(resourceMetadata.getLastModified().getTime()),
             		Calendar.getInstance(TimeZone.getTimeZone("UTC"))
     		);
             cStatement.setString(3, resourceMetadata.getEntityTag().toString());
             cStatement.executeUpdate();
-            unitOfWork.Save();
+            ResourceMetadata stored = asStored(resourceMetadata);
+            this.written(unitOfWork, normalize(resourceMetadata.getUri()), stored);
+            return stored;
         } catch (SQLException sqlException) {
             sqlException.printStackTrace();
-            unitOfWork.Undo();
+            return null;
         } finally {
-            try{
-                if(cStatement != null && !cStatement.isClosed()){
-                    cStatement.close();
-                }
-            }
-            catch(SQLException anotherSqlException){
-                anotherSqlException.printStackTrace();
-            }
+            ServerTiming.stop(SPAN, span);
+            unitOfWork.destroyStatement(cStatement);
         }
 	}
 
+	/**
+     * Replaces the states of existing representations of metadata about
+     * resources with the provided states, in a single JDBC batch. Resources
+     * without metadata are left without; callers need not look the metadata
+     * up beforehand.
+     *
+     * @param resourceMetadata The desired states for the resource metadata.
+     */
+
+	public void updateResourceMetaData(List<ResourceMetadata> resourceMetadata) {
+
+		IDatabaseUnitOfWork unitOfWork = this.unitOfWorkProvider.get();
+		if(!this.writeBatch(unitOfWork, "{ CALL UpdateResourceMetadata(?, ?, ?) }", resourceMetadata)){
+			return;
+		}
+
+		Map<String, ResourceMetadata> pending = this.pendingWrites.get(unitOfWork);
+		for(ResourceMetadata metadata : resourceMetadata){
+			String key = normalize(metadata.getUri());
+			ResourceMetadata known = pending == null ? null : pending.get(key);
+			if(known == null){
+				known = this.cache.get(key);
+			}
+			if(known == ABSENT){
+				continue;
+			}
+			this.written(unitOfWork, key, known == null || known == UNKNOWN ? UNKNOWN : asStored(metadata));
+		}
+	}
+
 	/**
      * Deletes the resource metadata for a resource.
      *
      * @param uri The URI of the resource to delete metadata for.
      */
-	
+
 	public void deleteResourceMetaData(URI uri) {
-		
-		IDatabaseUnitOfWork unitOfWork = this.unitOfWorkFactory.create();		
+
+		IDatabaseUnitOfWork unitOfWork = this.unitOfWorkProvider.get();
 		CallableStatement cStatement =
             unitOfWork.createCallableStatement("{ CALL DeleteResourceMetadata(?) }");
-		
+
         try{
             cStatement.setString(1, uri.toString());
             cStatement.executeUpdate();
-            unitOfWork.Save();
+            this.written(unitOfWork, normalize(uri), ABSENT);
         }catch (SQLException sqlException) {
             sqlException.printStackTrace();
-            unitOfWork.Undo();
         } finally {
+            unitOfWork.destroyStatement(cStatement);
+        }
+	}
+
+	/**
+	 * Retrieves a point-in-time snapshot of the statistics of the resource metadata cache.
+	 *
+	 * @return The statistics of the resource metadata cache.
+	 */
+	public LocalCacheStatistics getCacheStatistics() {
+		return this.cache.getStatistics();
+	}
+
+	/**
+	 * Unregisters the resource metadata cache from JMX. Invoked by the HK2
+	 * container when the application is shutting down.
+	 */
+	@PreDestroy
+	public void destroy() {
+		try {
+			MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(CACHE_OBJECT_NAME);
+			if (mBeanServer.isRegistered(objectName)) {
+				mBeanServer.unregisterMBean(objectName);
+			}
+		} catch (JMException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Exposes the statistics (including the hit rate) of the resource metadata cache over JMX.
+	 */
+	private void registerCache() {
+		try {
+			MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(CACHE_OBJECT_NAME);
+			if (mBeanServer.isRegistered(objectName)) {
+				mBeanServer.unregisterMBean(objectName);
+			}
+			mBeanServer.registerMBean(this.cache, objectName);
+		} catch (JMException e) {
+			// monitoring is not essential; the cache remains fully functional.
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Produces the key that resource metadata is cached under for the URI provided.
+	 *
+	 * @param uri The URI of the resource.
+	 * @return The normalized form of the URI.
+	 */
+	static String normalize(URI uri) {
+		return ResourceKeys.of(uri);
+	}
+
+	private ResourceMetadata readResourceMetadata(IDatabaseUnitOfWork unitOfWork, URI uri) {
+
+		CallableStatement cStatement =
+            unitOfWork.createCallableStatement("{ CALL GetResourceMetadata(?) }");
+        ResultSet results = null;
+
+        try {
+            cStatement.setString(1, uri.toString());
+            results = cStatement.executeQuery();
+
+            if(results.next()){
+            	String matchingUri = results.getString(1);
+            	Timestamp lastModified = results.getTimestamp(2, Calendar.getInstance(TimeZone.getTimeZone("UTC")));
+            	String entityTag = results.getString(3);
+            	boolean isWeak = entityTag.startsWith("W/");
+            	entityTag = (isWeak ? entityTag.substring(2) : entityTag).replace("\"", "");
+
+            	ResourceMetadata resourceMetadata =
+                	new ResourceMetadata(URI.create(matchingUri), lastModified, new EntityTag(entityTag, isWeak));
+                return resourceMetadata;
+            }
+        } catch (SQLException sqlException) {
+            // a failed read must not pass for metadata that does not exist (and be cached as such).
+            sqlException.printStackTrace();
+            throw new RuntimeException(sqlException);
+        }
+        finally{
             try{
-                if(cStatement != null && !cStatement.isClosed()){
-                    cStatement.close();
+                if(results != null && !results.isClosed()){
+                    results.close();
                 }
-            }catch(SQLException anotherSqlException) {
+            }
+            catch(SQLException anotherSqlException){
                 anotherSqlException.printStackTrace();
             }
+            unitOfWork.destroyStatement(cStatement);
+        }
+
+        return null;
+	}
+
+	/**
+	 * Calls the stored procedure provided (taking the URI, last modified date and
+	 * entity tag) once for each of the resource metadata provided, in a single batch.
+	 *
+	 * @return Whether the batch was written.
+	 */
+	private boolean writeBatch(IDatabaseUnitOfWork unitOfWork, String sql, List<ResourceMetadata> resourceMetadata) {
+
+		if(resourceMetadata.isEmpty()){
+			return false;
+		}
+
+		CallableStatement cStatement = unitOfWork.createCallableStatement(sql);
+
+        try {
+        	Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        	for(ResourceMetadata metadata : resourceMetadata){
+        		cStatement.setString(1, metadata.getUri().toString());
+        		cStatement.setTimestamp(2, new Timestamp(metadata.getLastModified().getTime()), utc);
+        		cStatement.setString(3, metadata.getEntityTag().toString());
+        		cStatement.addBatch();
+        	}
+            cStatement.executeBatch();
+            return true;
+        } catch (SQLException sqlException) {
+            sqlException.printStackTrace();
+            return false;
+        } finally {
+            unitOfWork.destroyStatement(cStatement);
         }
 	}
 
+	/**
+	 * Records a write made in the unit of work provided. The write is visible to
+	 * that unit of work straight away, and is applied to the cache once the unit
+	 * of work is saved. Other units of work keep reading the committed state
+	 * until then.
+	 */
+	private void written(IDatabaseUnitOfWork unitOfWork, String key, ResourceMetadata resourceMetadata) {
+
+		Map<String, ResourceMetadata> pending;
+		boolean isFirstWrite = false;
+		synchronized(this.pendingWrites){
+			pending = this.pendingWrites.get(unitOfWork);
+			if(pending == null){
+				pending = new HashMap<String, ResourceMetadata>();
+				this.pendingWrites.put(unitOfWork, pending);
+				isFirstWrite = true;
+			}
+		}
+		pending.put(key, resourceMetadata);
+
+		if(isFirstWrite){
+			unitOfWork.addListener(new PendingWritesListener(unitOfWork));
+		}
+	}
+
+	/**
+	 * Mirrors the metadata that the database hands back for the metadata provided:
+	 * the database keeps whole seconds, and the entity tag is read back without
+	 * its quotes.
+	 */
+	private static ResourceMetadata asStored(ResourceMetadata resourceMetadata) {
+		long lastModified = resourceMetadata.getLastModified().getTime();
+		return new ResourceMetadata(
+			resourceMetadata.getUri(),
+			new Date(lastModified - (lastModified % 1000)),
+			new EntityTag(resourceMetadata.getEntityTag().getValue(), resourceMetadata.getEntityTag().isWeak()));
+	}
+
+	private static ResourceMetadata present(ResourceMetadata resourceMetadata) {
+		return resourceMetadata == ABSENT ? null : resourceMetadata;
+	}
+
+	/**
+	 * Applies the writes of a unit of work to the cache once it is saved (invalidating
+	 * the cached representations of the resources written), and discards them once
+	 * it is undone.
+	 */
+	private class PendingWritesListener implements IUnitOfWorkListener {
+
+		private final IDatabaseUnitOfWork unitOfWork;
+
+		private PendingWritesListener(IDatabaseUnitOfWork unitOfWork) {
+			this.unitOfWork = unitOfWork;
+		}
+
+		public void saved() {
+			Map<String, ResourceMetadata> pending = pendingWrites.remove(this.unitOfWork);
+			if(pending != null){
+				for(Map.Entry<String, ResourceMetadata> write : pending.entrySet()){
+					if(write.getValue() == UNKNOWN){
+						cache.invalidate(write.getKey());
+					}else{
+						cache.put(write.getKey(), write.getValue());
+					}
+					responseCache.invalidate(write.getKey());
+				}
+			}
+		}
+
+		public void undone() {
+			pendingWrites.remove(this.unitOfWork);
+		}
+	}
 }
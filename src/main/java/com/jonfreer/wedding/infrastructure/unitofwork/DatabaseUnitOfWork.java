@@ -2,22 +2,45 @@ package com.jonfreer.wedding.infrastructure.unitofwork;
 
 import java.sql.CallableStatement;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IUnitOfWorkListener;
+import com.jonfreer.wedding.infrastructure.connectionpool.ConnectionPool;
+import com.jonfreer.wedding.infrastructure.connectionpool.PooledConnection;
+import com.jonfreer.wedding.infrastructure.connectionpool.StatementCache;
 
 import java.sql.Connection;
 
 /**
  * Represents a unit of work in the context of database interactions.
+ * When the connection is borrowed from a connection pool, statements are
+ * served from (and returned to) the statement cache of the pooled connection.
  */
 public class DatabaseUnitOfWork implements IDatabaseUnitOfWork {
 
+    private static final String PREPARED_STATEMENT_KEY_PREFIX = "P:";
+    private static final String CALLABLE_STATEMENT_KEY_PREFIX = "C:";
+    private static final String GENERATED_KEYS_STATEMENT_KEY_PREFIX = "K:";
+
     private Connection connection;
+    private PooledConnection pooledConnection;
+    private ConnectionPool connectionPool;
+    private StatementCache statementCache;
+    private Map<PreparedStatement, String> checkedOutStatements;
+    private List<IUnitOfWorkListener> listeners;
+    private boolean isComplete;
 
     /**
      * Constructs a new instance provided an instance of Connection. It is
      * in the context of this connection that the unit of work will be utilized.
+     * The connection is closed once the unit of work is saved or undone.
      * It is recommended that an instance of this class is created by using the
      * DatabaseUnitOfWorkFactory class as opposed to invoking this constructor directly.
      *
@@ -26,6 +49,9 @@ public class DatabaseUnitOfWork implements IDatabaseUnitOfWork {
      */
     public DatabaseUnitOfWork(Connection connection) {
         this.connection = connection;
+        this.checkedOutStatements = new IdentityHashMap<PreparedStatement, String>();
+        this.listeners = new ArrayList<IUnitOfWorkListener>();
+        this.isComplete = false;
         try {
             this.connection.setAutoCommit(false);
         } catch (SQLException e) {
@@ -34,81 +60,153 @@ public class DatabaseUnitOfWork implements IDatabaseUnitOfWork {
     }
 
     /**
-     * Saves (commits) the unit of work to the database.
+     * Constructs a new instance provided a connection borrowed from a connection pool.
+     * The connection is handed back to the pool once the unit of work is saved
+     * or undone, instead of being closed.
+     *
+     * @param pooledConnection The pooled connection that this DatabaseUnitOfWork
+     *                         instance will be used with.
+     * @param connectionPool   The pool that the connection was borrowed from.
+     */
+    public DatabaseUnitOfWork(PooledConnection pooledConnection, ConnectionPool connectionPool) {
+        this(pooledConnection.getConnection());
+        this.pooledConnection = pooledConnection;
+        this.connectionPool = connectionPool;
+        this.statementCache = pooledConnection.getStatementCache();
+    }
+
+    /**
+     * Saves (commits) the unit of work to the database. Once saved,
+     * subsequent calls to Save() or Undo() have no effect.
      */
     
     public void Save() {
+        if (this.isComplete) {
+            return;
+        }
+
+        boolean isConnectionHealthy = true;
         try {
             this.connection.commit();
         } catch (SQLException e) {
             e.printStackTrace();
+            isConnectionHealthy = false;
         } finally {
-            try {
-                this.connection.close();
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+            this.complete(isConnectionHealthy);
         }
+        this.notifyListeners(isConnectionHealthy);
     }
 
     /**
-     * Undoes (performs a rollback for) the unit of work.
+     * Undoes (performs a rollback for) the unit of work. Once undone,
+     * subsequent calls to Save() or Undo() have no effect.
      */
     
     public void Undo() {
+        if (this.isComplete) {
+            return;
+        }
+
+        boolean isConnectionHealthy = true;
         try {
             this.connection.rollback();
         } catch (SQLException e) {
             e.printStackTrace();
+            isConnectionHealthy = false;
         } finally {
-            try {
-                this.connection.close();
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+            this.complete(isConnectionHealthy);
         }
+        this.notifyListeners(false);
+    }
+
+    /**
+     * Registers a listener to be notified once the unit of work is saved or undone.
+     *
+     * @param listener The listener to be notified.
+     */
+    public void addListener(IUnitOfWorkListener listener) {
+        this.listeners.add(listener);
     }
 
     /**
      * Constructs an instance of PreparedStatement in the context of
      * this unit of work. Use this method to add changes to the unit of
-     * work.
+     * work. A previously prepared statement for the same SQL is reused
+     * when one is available in the statement cache of the connection.
      *
      * @param sql The parameterized SQL to execute during this unit of work.
      * @return An instance of PreparedStatement representing a single parameterized
      * SQL statement to execute for this unit of work.
      */
     public PreparedStatement createPreparedStatement(String sql) {
+        return this.createPreparedStatement(sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    /**
+     * Constructs an instance of PreparedStatement in the context of
+     * this unit of work, which may be asked to make the keys generated
+     * by the database available. A previously prepared statement for the
+     * same SQL and the same handling of generated keys is reused when one
+     * is available in the statement cache of the connection.
+     *
+     * @param sql The parameterized SQL to execute during this unit of work.
+     * @param autoGeneratedKeys Either Statement.RETURN_GENERATED_KEYS or
+     *                          Statement.NO_GENERATED_KEYS.
+     * @return An instance of PreparedStatement representing a single parameterized
+     * SQL statement to execute for this unit of work.
+     */
+    public PreparedStatement createPreparedStatement(String sql, int autoGeneratedKeys) {
+        String key = (autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS
+            ? GENERATED_KEYS_STATEMENT_KEY_PREFIX
+            : PREPARED_STATEMENT_KEY_PREFIX) + sql;
+        PreparedStatement statement = this.takeCachedStatement(key);
+        if (statement != null) {
+            return statement;
+        }
+
         try {
-            return this.connection.prepareStatement(sql);
+            statement = this.connection.prepareStatement(sql, autoGeneratedKeys);
         } catch (SQLException e) {
             e.printStackTrace();
             throw new RuntimeException(e);
         }
+        this.checkedOutStatements.put(statement, key);
+        return statement;
     }
 
     /**
      * Constructs an instance of CallableStatement in the context of
      * this unit of work. Use this method to add changes to the unit of
-     * work when working with stored procedures.
+     * work when working with stored procedures. A previously prepared
+     * statement for the same SQL is reused when one is available in the
+     * statement cache of the connection.
      *
      * @param sql The JDBC escaped syntax SQL statement.
      * @return An instance of CallableStatement representing a single JDBC
      * escape syntax SQL statement to execute for this unit of work.
      */ 
     public CallableStatement createCallableStatement(String sql){
+        String key = CALLABLE_STATEMENT_KEY_PREFIX + sql;
+        CallableStatement statement = (CallableStatement) this.takeCachedStatement(key);
+        if (statement != null) {
+            return statement;
+        }
+
         try{
-            return this.connection.prepareCall(sql);
+            statement = this.connection.prepareCall(sql);
         }catch(SQLException e){
             e.printStackTrace();
             throw new RuntimeException(e);
         }
+        this.checkedOutStatements.put(statement, key);
+        return statement;
     }
     
     /**
-     * Closes the provided statement to release resources. All statements
-     * that have been created for this unit of work should be immediately closed
-     * once they are no longer in use.
+     * Releases the provided statement. Statements created by this unit of work
+     * are returned to the statement cache of the connection when it has one,
+     * and are closed otherwise. All statements that have been created for this
+     * unit of work should be immediately destroyed once they are no longer in use.
      * 
      * @param statement The statement to be destroyed.
      */
@@ -117,16 +215,24 @@ public class DatabaseUnitOfWork implements IDatabaseUnitOfWork {
     }
     
     /**
-     * Closes the provided statements to release resources. All statements
-     * that have been created for this unit of work should be immediately closed
-     * once they are no longer in use.
+     * Releases the provided statements. Statements created by this unit of work
+     * are returned to the statement cache of the connection when it has one,
+     * and are closed otherwise. All statements that have been created for this
+     * unit of work should be immediately destroyed once they are no longer in use.
      * 
      * @param statements The statements to be destroyed.
      */
     public void destroyStatements(PreparedStatement...statements) {
     		try {
 			for(PreparedStatement statement : statements) {
-				if (statement != null && !statement.isClosed()) {
+				if (statement == null || statement.isClosed()) {
+					continue;
+				}
+
+				String key = this.checkedOutStatements.remove(statement);
+				if (key != null && this.statementCache != null && this.statementCache.isEnabled()) {
+					this.recycle(key, statement);
+				} else {
 					statement.close();
 				}
 			}
@@ -135,4 +241,102 @@ public class DatabaseUnitOfWork implements IDatabaseUnitOfWork {
 			throw new RuntimeException(sqlEx);
 		}
     }
+
+    private PreparedStatement takeCachedStatement(String key) {
+        if (this.statementCache == null || !this.statementCache.isEnabled()) {
+            return null;
+        }
+
+        PreparedStatement statement = this.statementCache.take(key);
+        if (statement != null) {
+            this.checkedOutStatements.put(statement, key);
+        }
+        return statement;
+    }
+
+    /**
+     * Resets the state left on a statement by its previous use
+     * and returns it to the statement cache of the connection.
+     */
+    private void recycle(String key, PreparedStatement statement) throws SQLException {
+        try {
+            ResultSet results = statement.getResultSet();
+            if (results != null) {
+                results.close();
+            }
+            statement.clearParameters();
+            statement.clearBatch();
+        } catch (SQLException e) {
+            // a statement that cannot be reset is not worth keeping.
+            e.printStackTrace();
+            statement.close();
+            return;
+        }
+        this.statementCache.put(key, statement);
+    }
+
+    /**
+     * Closes the statements that were never destroyed by the callers of this unit
+     * of work, so that they do not linger on a connection that outlives it.
+     */
+    private void closeCheckedOutStatements() {
+        for (PreparedStatement statement : new ArrayList<PreparedStatement>(this.checkedOutStatements.keySet())) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        this.checkedOutStatements.clear();
+    }
+
+    /**
+     * Notifies the registered listeners of the outcome of the unit of work.
+     * A failing listener does not prevent the others from being notified.
+     *
+     * @param isSaved true if the unit of work was committed; false otherwise.
+     */
+    private void notifyListeners(boolean isSaved) {
+        List<IUnitOfWorkListener> notifying = this.listeners;
+        this.listeners = new ArrayList<IUnitOfWorkListener>();
+
+        for (IUnitOfWorkListener listener : notifying) {
+            try {
+                if (isSaved) {
+                    listener.saved();
+                } else {
+                    listener.undone();
+                }
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Relinquishes the connection once the unit of work has been saved or undone.
+     * Pooled connections are handed back to the pool (or discarded when they are
+     * no longer healthy); all other connections are closed.
+     *
+     * @param isConnectionHealthy true if the connection can be reused; false otherwise.
+     */
+    private void complete(boolean isConnectionHealthy) {
+        this.isComplete = true;
+        this.closeCheckedOutStatements();
+
+        if (this.connectionPool != null) {
+            if (isConnectionHealthy) {
+                this.connectionPool.release(this.pooledConnection);
+            } else {
+                this.connectionPool.invalidate(this.pooledConnection);
+            }
+            return;
+        }
+
+        try {
+            this.connection.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
 }
@@ -0,0 +1,161 @@
+package com.jonfreer.wedding.infrastructure.unitofwork;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IUnitOfWorkListener;
+import com.jonfreer.wedding.infrastructure.interfaces.factories.IDatabaseUnitOfWorkFactory;
+
+/**
+ * A unit of work that defers opening the underlying database unit of work
+ * (and therefore borrowing a connection) until a statement is first created.
+ * Saving or undoing a unit of work that was never used does not touch the database.
+ * Once saved or undone, the next statement created opens a new underlying unit of work.
+ *
+ * Nothing else opens the underlying unit of work: statements destroyed while it
+ * is not open belong to a unit of work that has already completed (which closed
+ * them), and listeners registered while it is not open are held until it is
+ * opened, or notified directly when this unit of work completes without it.
+ */
+public class LazyDatabaseUnitOfWork implements IDatabaseUnitOfWork {
+
+	private final IDatabaseUnitOfWorkFactory unitOfWorkFactory;
+	private IDatabaseUnitOfWork unitOfWork;
+	private List<IUnitOfWorkListener> pendingListeners;
+
+	/**
+	 * Constructs a LazyDatabaseUnitOfWork.
+	 *
+	 * @param unitOfWorkFactory The factory used to open the underlying unit of work on first use.
+	 */
+	public LazyDatabaseUnitOfWork(IDatabaseUnitOfWorkFactory unitOfWorkFactory) {
+		this.unitOfWorkFactory = unitOfWorkFactory;
+		this.unitOfWork = null;
+		this.pendingListeners = new ArrayList<IUnitOfWorkListener>();
+	}
+
+	/**
+	 * Indicates whether the underlying unit of work has been opened.
+	 *
+	 * @return true if a statement has been created since the unit of work was
+	 * constructed or last completed; false otherwise.
+	 */
+	public synchronized boolean isOpen() {
+		return this.unitOfWork != null;
+	}
+
+	/**
+	 * Saves (commits) the underlying unit of work, if it has been opened.
+	 */
+	public void Save() {
+		IDatabaseUnitOfWork completing;
+		List<IUnitOfWorkListener> notifying;
+		synchronized (this) {
+			completing = this.unitOfWork;
+			notifying = this.takePendingListeners();
+			this.unitOfWork = null;
+		}
+
+		if (completing != null) {
+			completing.Save();
+		}
+		for (IUnitOfWorkListener listener : notifying) {
+			try {
+				listener.saved();
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Undoes (performs a rollback for) the underlying unit of work, if it has been opened.
+	 */
+	public void Undo() {
+		IDatabaseUnitOfWork completing;
+		List<IUnitOfWorkListener> notifying;
+		synchronized (this) {
+			completing = this.unitOfWork;
+			notifying = this.takePendingListeners();
+			this.unitOfWork = null;
+		}
+
+		if (completing != null) {
+			completing.Undo();
+		}
+		for (IUnitOfWorkListener listener : notifying) {
+			try {
+				listener.undone();
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Registers a listener with the underlying unit of work when it is open;
+	 * otherwise, holds on to the listener without opening it.
+	 *
+	 * @param listener The listener to be notified once the unit of work is completed.
+	 */
+	public void addListener(IUnitOfWorkListener listener) {
+		IDatabaseUnitOfWork current;
+		synchronized (this) {
+			current = this.unitOfWork;
+			if (current == null) {
+				this.pendingListeners.add(listener);
+				return;
+			}
+		}
+		current.addListener(listener);
+	}
+
+	public PreparedStatement createPreparedStatement(String sql) {
+		return this.open().createPreparedStatement(sql);
+	}
+
+	public PreparedStatement createPreparedStatement(String sql, int autoGeneratedKeys) {
+		return this.open().createPreparedStatement(sql, autoGeneratedKeys);
+	}
+
+	public CallableStatement createCallableStatement(String sql) {
+		return this.open().createCallableStatement(sql);
+	}
+
+	public void destroyStatement(PreparedStatement statement) {
+		IDatabaseUnitOfWork current = this.current();
+		if (current != null) {
+			current.destroyStatement(statement);
+		}
+	}
+
+	public void destroyStatements(PreparedStatement... statements) {
+		IDatabaseUnitOfWork current = this.current();
+		if (current != null) {
+			current.destroyStatements(statements);
+		}
+	}
+
+	private synchronized IDatabaseUnitOfWork current() {
+		return this.unitOfWork;
+	}
+
+	private synchronized IDatabaseUnitOfWork open() {
+		if (this.unitOfWork == null) {
+			this.unitOfWork = this.unitOfWorkFactory.create();
+			for (IUnitOfWorkListener listener : this.takePendingListeners()) {
+				this.unitOfWork.addListener(listener);
+			}
+		}
+		return this.unitOfWork;
+	}
+
+	private List<IUnitOfWorkListener> takePendingListeners() {
+		List<IUnitOfWorkListener> taken = this.pendingListeners;
+		this.pendingListeners = new ArrayList<IUnitOfWorkListener>();
+		return taken;
+	}
+}
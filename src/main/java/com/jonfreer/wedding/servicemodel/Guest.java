@@ -1,6 +1,11 @@
 package com.jonfreer.wedding.servicemodel;
 
+import java.util.Date;
+
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 /**
  * Represents a guest of the wedding.
@@ -15,6 +20,8 @@ public class Guest implements Cloneable {
     private String inviteCode;
     private String dietaryRestrictions;
     private Reservation reservation;
+    private Long version;
+    private Date lastModified;
 
     /**
      * Default constructor for the Guest class. Creates an empty Guest object.
@@ -87,6 +94,8 @@ public class Guest implements Cloneable {
         this.description = guest.description;
         this.inviteCode = guest.inviteCode;
         this.dietaryRestrictions = guest.dietaryRestrictions;
+        this.version = guest.version;
+        this.lastModified = guest.lastModified == null ? null : (Date) guest.lastModified.clone();
         this.reservation =
                 guest.reservation == null ? (Reservation) guest.reservation.clone() : null;
     }
@@ -257,6 +266,10 @@ public class Guest implements Cloneable {
                 guestObj.reservation = (Reservation) guestObj.reservation.clone();
             }
 
+            if (guestObj.lastModified != null) {
+                guestObj.lastModified = (Date) guestObj.lastModified.clone();
+            }
+
         } catch (CloneNotSupportedException e) { /* not possible. */ }
 
         return guestObj;
@@ -393,4 +406,47 @@ public class Guest implements Cloneable {
     public void setReservation(Reservation reservation) {
         this.reservation = reservation;
     }
+
+    /**
+     * Retrieves the version of the guest, which increases every time the
+     * guest is changed. The version is only used to produce entity tags; it
+     * is not part of any representation of the guest, nor of its equality.
+     *
+     * @return The version of the guest, or null when it is not known.
+     */
+    @JsonIgnore
+    @XmlTransient
+    public Long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Alters the version of the guest.
+     *
+     * @param version The version of the guest.
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * Retrieves the date and time the guest was last changed. Like the version,
+     * it is not part of any representation of the guest, nor of its equality.
+     *
+     * @return The date and time the guest was last changed, or null when it is not known.
+     */
+    @JsonIgnore
+    @XmlTransient
+    public Date getLastModified() {
+        return this.lastModified;
+    }
+
+    /**
+     * Alters the date and time the guest was last changed.
+     *
+     * @param lastModified The date and time the guest was last changed.
+     */
+    public void setLastModified(Date lastModified) {
+        this.lastModified = lastModified;
+    }
 }
@@ -0,0 +1,44 @@
+package com.jonfreer.wedding.api.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class GuestCsvParserTest {
+
+	/**
+	 * INPUT	-	CSV with reordered columns, a quoted field containing a comma
+	 * 				and an escaped quote, a blank line and a malformed record.
+	 * OUTCOME	-	The well-formed records become guests; the malformed record
+	 * 				fails on its own.
+	 */
+	@Test
+	public void parse_outcomeIs_rowsParsedIndependently() {
+
+		//arrange.
+		String csv =
+			"surName,givenName,isAttending,description\r\n"
+			+ "Freer,Jon,true,\"Groom, \"\"the\"\" one\"\r\n"
+			+ "\r\n"
+			+ "Doe,Jane,,\n"
+			+ "Smith,John,maybe,\n";
+
+		//action.
+		List<GuestCsvParser.Row> rows = new GuestCsvParser().parse(csv);
+
+		//assert.
+		assertEquals(3, rows.size());
+		assertEquals("Jon", rows.get(0).getGuest().getGivenName());
+		assertEquals("Freer", rows.get(0).getGuest().getSurName());
+		assertEquals("Groom, \"the\" one", rows.get(0).getGuest().getDescription());
+		assertEquals(Boolean.TRUE, rows.get(0).getGuest().getReservation().getIsAttending());
+		assertNull(rows.get(1).getGuest().getReservation());
+		assertNull(rows.get(1).getGuest().getDescription());
+		assertNull(rows.get(2).getGuest());
+		assertNotNull(rows.get(2).getError());
+	}
+}
@@ -0,0 +1,84 @@
+package com.jonfreer.wedding.api.filters;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Properties;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.UriInfo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jonfreer.wedding.infrastructure.caching.ResponseCache;
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
+import com.jonfreer.wedding.infrastructure.interfaces.services.ResourceMetadataService;
+
+public class ResponseCacheFilterTest {
+
+	private ResourceMetadataService resourceMetadataServiceMock;
+	private ResponseCacheFilter responseCacheFilter;
+
+	@Before
+	public void setUp() {
+		ApplicationConfiguration configuration = new ApplicationConfiguration(new Properties());
+		this.resourceMetadataServiceMock = mock(ResourceMetadataService.class);
+		this.responseCacheFilter = new ResponseCacheFilter(
+			new ResponseCache(configuration), this.resourceMetadataServiceMock, configuration);
+	}
+
+	/**
+	 * INPUT	-	GET requests for metrics and for a guest with a query string.
+	 * OUTCOME	-	Neither looks up resource metadata.
+	 * @throws IOException Fails the test.
+	 */
+	@Test
+	public void filter_outcomeIs_otherRequestsNotLookedUp() throws IOException {
+
+		//arrange.
+		ContainerRequestContext metricsRequest = request("metrics", "http://api.example.com/metrics");
+		ContainerRequestContext queryRequest = request("guests/1", "http://api.example.com/guests/1?fields=id");
+
+		//action.
+		this.responseCacheFilter.filter(metricsRequest);
+		this.responseCacheFilter.filter(queryRequest);
+
+		//assert.
+		verify(this.resourceMetadataServiceMock, never()).getResourceMetadata(any(URI.class));
+	}
+
+	/**
+	 * INPUT	-	GET request for a guest.
+	 * OUTCOME	-	The resource metadata of the guest is looked up.
+	 * @throws IOException Fails the test.
+	 */
+	@Test
+	public void filter_outcomeIs_guestLookedUp() throws IOException {
+
+		//arrange.
+		URI uri = URI.create("http://api.example.com/guests/1");
+		ContainerRequestContext request = request("guests/1", uri.toString());
+
+		//action.
+		this.responseCacheFilter.filter(request);
+
+		//assert.
+		verify(this.resourceMetadataServiceMock).getResourceMetadata(uri);
+	}
+
+	private static ContainerRequestContext request(String path, String uri) {
+		ContainerRequestContext requestContext = mock(ContainerRequestContext.class);
+		UriInfo uriInfo = mock(UriInfo.class);
+		when(requestContext.getMethod()).thenReturn("GET");
+		when(requestContext.getUriInfo()).thenReturn(uriInfo);
+		when(uriInfo.getPath()).thenReturn(path);
+		when(uriInfo.getRequestUri()).thenReturn(URI.create(uri));
+		return requestContext;
+	}
+}
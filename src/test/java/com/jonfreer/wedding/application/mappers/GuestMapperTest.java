@@ -0,0 +1,59 @@
+package com.jonfreer.wedding.application.mappers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.Date;
+
+import org.dozer.DozerBeanMapper;
+import org.junit.Test;
+
+public class GuestMapperTest {
+
+	/**
+	 * INPUT	-	Domain guest with a reservation.
+	 * OUTCOME	-	The service model guest is the same as the one Dozer produces,
+	 * 				and does not share the submission date of the reservation.
+	 */
+	@Test
+	public void map_domainGuest_outcomeIs_sameAsDozer() {
+
+		//arrange.
+		DozerBeanMapper dozerMapper = new DozerBeanMapper();
+		GuestMapper guestMapper = new GuestMapper(dozerMapper);
+		com.jonfreer.wedding.domain.Guest guest = new com.jonfreer.wedding.domain.Guest(
+			1, "Jon", "Freer", "Groom.", "PA000", "None.",
+			new com.jonfreer.wedding.domain.Reservation(true, new Date(1483228800000L)));
+
+		//action.
+		com.jonfreer.wedding.servicemodel.Guest actualGuest =
+			guestMapper.map(guest, com.jonfreer.wedding.servicemodel.Guest.class);
+
+		//assert.
+		assertEquals(dozerMapper.map(guest, com.jonfreer.wedding.servicemodel.Guest.class), actualGuest);
+		assertNotSame(
+			guest.getReservation().getSubmittedDateTime(),
+			actualGuest.getReservation().getSubmittedDateTime());
+	}
+
+	/**
+	 * INPUT	-	Service model guest without a reservation.
+	 * OUTCOME	-	The domain guest is the same as the one Dozer produces.
+	 */
+	@Test
+	public void map_serviceModelGuest_outcomeIs_sameAsDozer() {
+
+		//arrange.
+		DozerBeanMapper dozerMapper = new DozerBeanMapper();
+		GuestMapper guestMapper = new GuestMapper(dozerMapper);
+		com.jonfreer.wedding.servicemodel.Guest guest = new com.jonfreer.wedding.servicemodel.Guest(
+			1, "Jon", "Freer", "Groom.", "PA000", "None.");
+
+		//action.
+		com.jonfreer.wedding.domain.Guest actualGuest =
+			guestMapper.map(guest, com.jonfreer.wedding.domain.Guest.class);
+
+		//assert.
+		assertEquals(dozerMapper.map(guest, com.jonfreer.wedding.domain.Guest.class), actualGuest);
+	}
+}
@@ -0,0 +1,159 @@
+package com.jonfreer.wedding.infrastructure.caching;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class LocalCacheTest {
+
+	/**
+	 * INPUT	-	LRU cache that is full; the oldest entry was read recently.
+	 * OUTCOME	-	The least recently used entry is evicted.
+	 */
+	@Test
+	public void put_lru_outcomeIs_leastRecentlyUsedEvicted() {
+
+		//arrange.
+		LocalCache<Integer, String> cache = new LocalCache<Integer, String>(2, 0, TimeUnit.SECONDS, EvictionPolicy.LRU);
+		cache.put(1, "one");
+		cache.put(2, "two");
+		cache.get(1);
+
+		//action.
+		cache.put(3, "three");
+
+		//assert.
+		assertEquals("one", cache.get(1));
+		assertNull(cache.get(2));
+		assertEquals("three", cache.get(3));
+		assertEquals(1, cache.getEvictions());
+	}
+
+	/**
+	 * INPUT	-	Cache bounded by weight; a value is added that does not fit alongside the others.
+	 * OUTCOME	-	Entries are evicted until it fits; a value heavier than the bound is not cached.
+	 */
+	@Test
+	public void put_weighted_outcomeIs_evictedUntilWithinWeight() {
+
+		//arrange.
+		LocalCache<Integer, String> cache = new LocalCache<Integer, String>(
+			10, 10, new Weigher<String>() {
+				public long weigh(String value) {
+					return value.length();
+				}
+			}, 0, TimeUnit.SECONDS, EvictionPolicy.LRU);
+		cache.put(1, "one");
+		cache.put(2, "two");
+		cache.put(3, "three");
+
+		//action.
+		cache.put(4, "seven");
+		cache.put(5, "eleven-chars");
+
+		//assert.
+		assertNull(cache.get(1));
+		assertNull(cache.get(2));
+		assertEquals("three", cache.get(3));
+		assertEquals("seven", cache.get(4));
+		assertNull(cache.get(5));
+		assertEquals(10, cache.getWeight());
+	}
+
+	/**
+	 * INPUT	-	LFU cache that is full; the newest entry was read most often.
+	 * OUTCOME	-	The least frequently used entry is evicted.
+	 */
+	@Test
+	public void put_lfu_outcomeIs_leastFrequentlyUsedEvicted() {
+
+		//arrange.
+		LocalCache<Integer, String> cache = new LocalCache<Integer, String>(2, 0, TimeUnit.SECONDS, EvictionPolicy.LFU);
+		cache.put(1, "one");
+		cache.put(2, "two");
+		cache.get(2);
+		cache.get(2);
+		cache.get(1);
+
+		//action.
+		cache.put(3, "three");
+
+		//assert.
+		assertNull(cache.get(1));
+		assertEquals("two", cache.get(2));
+		assertEquals("three", cache.get(3));
+	}
+
+	/**
+	 * INPUT	-	Entry read after its time to live has elapsed.
+	 * OUTCOME	-	The entry is treated as absent and counted as expired.
+	 * @throws InterruptedException Fails the test.
+	 */
+	@Test
+	public void get_outcomeIs_expiredEntryAbsent() throws InterruptedException {
+
+		//arrange.
+		LocalCache<Integer, String> cache = new LocalCache<Integer, String>(2, 1, TimeUnit.MILLISECONDS, EvictionPolicy.LRU);
+		cache.put(1, "one");
+		Thread.sleep(5);
+
+		//action.
+		String value = cache.get(1);
+
+		//assert.
+		assertNull(value);
+		assertEquals(0, cache.getSize());
+		assertEquals(1, cache.getExpirations());
+	}
+
+	/**
+	 * INPUT	-	One hit and one miss.
+	 * OUTCOME	-	The hit rate is one half.
+	 */
+	@Test
+	public void getStatistics_outcomeIs_hitRateCalculated() {
+
+		//arrange.
+		LocalCache<Integer, String> cache = new LocalCache<Integer, String>(2, 0, TimeUnit.SECONDS, EvictionPolicy.LRU);
+		cache.put(1, "one");
+		cache.get(1);
+		cache.get(2);
+
+		//action.
+		LocalCacheStatistics statistics = cache.getStatistics();
+
+		//assert.
+		assertEquals(1, statistics.getHits());
+		assertEquals(1, statistics.getMisses());
+		assertEquals(0.5d, statistics.getHitRate(), 0d);
+	}
+
+	/**
+	 * INPUT	-	Stamps taken for two keys; the first key is invalidated before either value is added.
+	 * OUTCOME	-	The value of the invalidated key is dropped; the other is cached.
+	 */
+	@Test
+	public void putIfUnchanged_outcomeIs_invalidatedKeyNotCached() {
+
+		//arrange.
+		LocalCache<Integer, String> cache = new LocalCache<Integer, String>(10, 0, TimeUnit.SECONDS, EvictionPolicy.LRU);
+		long firstStamp = cache.stamp(1);
+		long secondStamp = cache.stamp(2);
+		cache.invalidate(1);
+
+		//action.
+		boolean firstAdded = cache.putIfUnchanged(1, "one", firstStamp);
+		boolean secondAdded = cache.putIfUnchanged(2, "two", secondStamp);
+
+		//assert.
+		assertFalse(firstAdded);
+		assertTrue(secondAdded);
+		assertNull(cache.get(1));
+		assertEquals("two", cache.get(2));
+	}
+}
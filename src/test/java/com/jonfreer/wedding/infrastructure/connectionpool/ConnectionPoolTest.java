@@ -0,0 +1,179 @@
+package com.jonfreer.wedding.infrastructure.connectionpool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class ConnectionPoolTest {
+
+	private ConnectionProvider connectionProviderMock;
+
+	@Before
+	public void setUp() throws Exception {
+		this.connectionProviderMock = mock(ConnectionProvider.class);
+		when(this.connectionProviderMock.open()).thenAnswer(new Answer<Connection>() {
+			public Connection answer(InvocationOnMock invocation) throws Throwable {
+				Connection connectionMock = mock(Connection.class);
+				when(connectionMock.isValid(2)).thenReturn(true);
+				return connectionMock;
+			}
+		});
+	}
+
+	/**
+	 * INPUT	-	Pool with a minimum size of two.
+	 * OUTCOME	-	Two connections are opened up front and sit idle.
+	 * @throws SQLException Fails the test.
+	 */
+	@Test
+	public void constructor_outcomeIs_minimumConnectionsOpened() throws SQLException {
+
+		//action.
+		ConnectionPool connectionPool = new ConnectionPool(this.configuration(2, 4), this.connectionProviderMock);
+
+		//assert.
+		verify(this.connectionProviderMock, times(2)).open();
+		assertEquals(2, connectionPool.getTotalConnections());
+		assertEquals(2, connectionPool.getIdleConnections());
+		assertEquals(0, connectionPool.getActiveConnections());
+	}
+
+	/**
+	 * INPUT	-	Connection released back to the pool.
+	 * OUTCOME	-	The same physical connection is handed out again.
+	 * @throws SQLException Fails the test.
+	 */
+	@Test
+	public void acquire_outcomeIs_releasedConnectionReused() throws SQLException {
+
+		//arrange.
+		ConnectionPool connectionPool = new ConnectionPool(this.configuration(0, 1), this.connectionProviderMock);
+		PooledConnection first = connectionPool.acquire();
+		connectionPool.release(first);
+
+		//action.
+		PooledConnection second = connectionPool.acquire();
+
+		//assert.
+		assertSame(first.getConnection(), second.getConnection());
+		verify(this.connectionProviderMock, times(1)).open();
+		assertEquals(2, connectionPool.getAcquisitions());
+	}
+
+	/**
+	 * INPUT	-	Every connection of the pool handed out.
+	 * OUTCOME	-	SQLTimeoutException is thrown once the acquire timeout elapses.
+	 * @throws SQLException Passes the test.
+	 */
+	@Test(expected=SQLTimeoutException.class)
+	public void acquire_outcomeIs_timeoutWhenExhausted() throws SQLException {
+
+		//arrange.
+		ConnectionPool connectionPool = new ConnectionPool(this.configuration(0, 1), this.connectionProviderMock);
+		connectionPool.acquire();
+
+		//action.
+		connectionPool.acquire();
+	}
+
+	/**
+	 * INPUT	-	Idle connection that fails validation.
+	 * OUTCOME	-	The connection is closed and a new one is opened in its place.
+	 * @throws SQLException Fails the test.
+	 */
+	@Test
+	public void acquire_outcomeIs_invalidConnectionReplaced() throws SQLException {
+
+		//arrange.
+		ConnectionPool connectionPool = new ConnectionPool(this.configuration(1, 1), this.connectionProviderMock);
+		PooledConnection stale = connectionPool.acquire();
+		when(stale.getConnection().isValid(2)).thenReturn(false);
+		connectionPool.release(stale);
+
+		//action.
+		PooledConnection fresh = connectionPool.acquire();
+
+		//assert.
+		assertNotSame(stale.getConnection(), fresh.getConnection());
+		verify(stale.getConnection(), times(1)).close();
+		assertEquals(1, connectionPool.getValidationFailures());
+		assertEquals(1, connectionPool.getTotalConnections());
+	}
+
+	/**
+	 * INPUT	-	Connection invalidated, then released a second time.
+	 * OUTCOME	-	The connection is closed once and the pool is not over-released.
+	 * @throws SQLException Fails the test.
+	 */
+	@Test
+	public void invalidate_outcomeIs_connectionClosedOnce() throws SQLException {
+
+		//arrange.
+		ConnectionPool connectionPool = new ConnectionPool(this.configuration(0, 1), this.connectionProviderMock);
+		PooledConnection pooledConnection = connectionPool.acquire();
+
+		//action.
+		connectionPool.invalidate(pooledConnection);
+		connectionPool.release(pooledConnection);
+
+		//assert.
+		verify(pooledConnection.getConnection(), times(1)).close();
+		assertEquals(0, connectionPool.getTotalConnections());
+		assertEquals(0, connectionPool.getIdleConnections());
+		connectionPool.acquire();
+		assertEquals(1, connectionPool.getActiveConnections());
+	}
+
+	/**
+	 * INPUT	-	Idle connections older than the idle timeout.
+	 * OUTCOME	-	Connections beyond the minimum size are evicted.
+	 * @throws SQLException Fails the test.
+	 */
+	@Test
+	public void evict_outcomeIs_idleConnectionsAboveMinimumClosed() throws SQLException {
+
+		//arrange.
+		ConnectionPool connectionPool = new ConnectionPool(
+			new ConnectionPoolConfiguration(1, 3, 100, 1, 0, true, 2, 0), this.connectionProviderMock);
+		PooledConnection first = connectionPool.acquire();
+		PooledConnection second = connectionPool.acquire();
+		PooledConnection third = connectionPool.acquire();
+		connectionPool.release(first);
+		connectionPool.release(second);
+		connectionPool.release(third);
+		this.sleep(5);
+
+		//action.
+		connectionPool.evict();
+
+		//assert.
+		assertEquals(1, connectionPool.getTotalConnections());
+		assertEquals(1, connectionPool.getIdleConnections());
+		assertEquals(2, connectionPool.getConnectionsDestroyed());
+	}
+
+	private ConnectionPoolConfiguration configuration(int minimumSize, int maximumSize) {
+		return new ConnectionPoolConfiguration(minimumSize, maximumSize, 50, 0, 0, true, 2, 0);
+	}
+
+	private void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.jonfreer.wedding.infrastructure.connectionpool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.junit.Test;
+
+public class StatementCacheTest {
+
+	/**
+	 * INPUT	-	Statement checked back in, then checked out by the same key.
+	 * OUTCOME	-	The same statement is handed out and a hit is recorded.
+	 */
+	@Test
+	public void take_outcomeIs_cachedStatementReturned() {
+
+		//arrange.
+		StatementCacheStatistics statistics = new StatementCacheStatistics();
+		StatementCache statementCache = new StatementCache(2, statistics);
+		PreparedStatement statementMock = mock(PreparedStatement.class);
+
+		//action.
+		PreparedStatement first = statementCache.take("C:{ CALL GetGuest(?) }");
+		statementCache.put("C:{ CALL GetGuest(?) }", statementMock);
+		PreparedStatement second = statementCache.take("C:{ CALL GetGuest(?) }");
+
+		//assert.
+		assertNull(first);
+		assertSame(statementMock, second);
+		assertEquals(0, statementCache.size());
+		assertEquals(1, statistics.getHits());
+		assertEquals(1, statistics.getMisses());
+	}
+
+	/**
+	 * INPUT	-	More statements checked in than the cache can hold.
+	 * OUTCOME	-	The least recently used statement is evicted and closed.
+	 * @throws SQLException Fails the test.
+	 */
+	@Test
+	public void put_outcomeIs_leastRecentlyUsedStatementEvicted() throws SQLException {
+
+		//arrange.
+		StatementCacheStatistics statistics = new StatementCacheStatistics();
+		StatementCache statementCache = new StatementCache(2, statistics);
+		PreparedStatement firstMock = mock(PreparedStatement.class);
+		PreparedStatement secondMock = mock(PreparedStatement.class);
+		PreparedStatement thirdMock = mock(PreparedStatement.class);
+
+		//action.
+		statementCache.put("first", firstMock);
+		statementCache.put("second", secondMock);
+		statementCache.put("third", thirdMock);
+
+		//assert.
+		verify(firstMock).close();
+		verify(secondMock, never()).close();
+		verify(thirdMock, never()).close();
+		assertEquals(2, statementCache.size());
+		assertEquals(1, statistics.getEvictions());
+	}
+
+	/**
+	 * INPUT	-	Statement checked in to a cache with a size of zero.
+	 * OUTCOME	-	The statement is closed instead of cached.
+	 * @throws SQLException Fails the test.
+	 */
+	@Test
+	public void put_cacheDisabled_outcomeIs_statementClosed() throws SQLException {
+
+		//arrange.
+		StatementCache statementCache = new StatementCache(0, new StatementCacheStatistics());
+		PreparedStatement statementMock = mock(PreparedStatement.class);
+
+		//action.
+		statementCache.put("C:{ CALL GetGuest(?) }", statementMock);
+
+		//assert.
+		verify(statementMock).close();
+		assertEquals(0, statementCache.size());
+	}
+}
@@ -0,0 +1,65 @@
+package com.jonfreer.wedding.infrastructure.factories;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.util.Properties;
+
+import javax.inject.Provider;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
+import com.jonfreer.wedding.infrastructure.connectionpool.ConnectionPool;
+import com.jonfreer.wedding.infrastructure.connectionpool.PooledConnection;
+import com.jonfreer.wedding.infrastructure.interfaces.services.LogService;
+import com.jonfreer.wedding.infrastructure.metrics.MetricRegistry;
+import com.jonfreer.wedding.infrastructure.metrics.SlowStatementLog;
+
+public class DatabaseUnitOfWorkFactoryTest {
+
+	/**
+	 * INPUT	-	A record logged (and still pending) when the factory is destroyed.
+	 * OUTCOME	-	The record is written and committed before the connection pool is closed.
+	 * @throws Exception Fails the test.
+	 */
+	@Test
+	public void destroy_outcomeIs_pendingLogWrittenBeforePoolClosed() throws Exception {
+
+		//arrange.
+		ConnectionPool connectionPoolMock = mock(ConnectionPool.class);
+		PooledConnection pooledConnectionMock = mock(PooledConnection.class);
+		Connection connectionMock = mock(Connection.class);
+		when(connectionPoolMock.acquire()).thenReturn(pooledConnectionMock);
+		when(pooledConnectionMock.getConnection()).thenReturn(connectionMock);
+		when(connectionMock.prepareCall(anyString())).thenReturn(mock(CallableStatement.class));
+
+		@SuppressWarnings("unchecked")
+		Provider<LogService> logServiceProviderMock = mock(Provider.class);
+		ApplicationConfiguration configuration = new ApplicationConfiguration(new Properties());
+		DatabaseUnitOfWorkFactory unitOfWorkFactory = new DatabaseUnitOfWorkFactory(
+			connectionPoolMock, new MetricRegistry(), new SlowStatementLog(logServiceProviderMock, configuration));
+
+		Properties logProperties = new Properties();
+		logProperties.setProperty("log.flushIntervalMillis", "60000");
+		com.jonfreer.wedding.infrastructure.services.LogService logService =
+			new com.jonfreer.wedding.infrastructure.services.LogService(
+				unitOfWorkFactory, new ApplicationConfiguration(logProperties));
+		logService.info("shutting down");
+
+		//action.
+		unitOfWorkFactory.destroy();
+
+		//assert.
+		InOrder inOrder = inOrder(connectionMock, connectionPoolMock);
+		inOrder.verify(connectionMock).commit();
+		inOrder.verify(connectionPoolMock).close();
+		assertEquals(1, logService.getLogWriter().getWrittenCount());
+	}
+}
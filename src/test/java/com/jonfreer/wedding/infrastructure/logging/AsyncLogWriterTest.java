@@ -0,0 +1,103 @@
+package com.jonfreer.wedding.infrastructure.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.CallableStatement;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.infrastructure.interfaces.factories.IDatabaseUnitOfWorkFactory;
+
+public class AsyncLogWriterTest {
+
+	private IDatabaseUnitOfWorkFactory unitOfWorkFactoryMock;
+	private IDatabaseUnitOfWork unitOfWorkMock;
+	private CallableStatement callableStatementMock;
+
+	@Before
+	public void setUp() throws Exception {
+		this.unitOfWorkFactoryMock = mock(IDatabaseUnitOfWorkFactory.class);
+		this.unitOfWorkMock = mock(IDatabaseUnitOfWork.class);
+		this.callableStatementMock = mock(CallableStatement.class);
+		when(this.unitOfWorkFactoryMock.create()).thenReturn(this.unitOfWorkMock);
+		when(this.unitOfWorkMock.createCallableStatement("{ CALL CreateLog(?, ?, ?) }"))
+			.thenReturn(this.callableStatementMock);
+	}
+
+	/**
+	 * INPUT	-	Three records logged, then the writer is closed.
+	 * OUTCOME	-	The records are written in a single batch and a single unit of work.
+	 * @throws SQLException Fails the test.
+	 */
+	@Test
+	public void close_outcomeIs_pendingRecordsWrittenInBatch() throws SQLException {
+
+		//arrange.
+		AsyncLogWriter logWriter = new AsyncLogWriter(
+			this.unitOfWorkFactoryMock, 16, 10, 60000, OverflowPolicy.DROP, 1, 0);
+
+		//action.
+		logWriter.write(new LogRecord("INFO", "one", null));
+		logWriter.write(new LogRecord("INFO", "two", null));
+		logWriter.write(new LogRecord("ERROR", "three", "at Guest.get(Guest.java:1)"));
+		logWriter.close(5000);
+
+		//assert.
+		verify(this.callableStatementMock, times(3)).addBatch();
+		verify(this.callableStatementMock, times(1)).executeBatch();
+		verify(this.unitOfWorkMock, times(1)).Save();
+		assertEquals(3, logWriter.getWrittenCount());
+		assertEquals(0, logWriter.getDroppedCount());
+	}
+
+	/**
+	 * INPUT	-	Writer stalled on the database while the buffer fills up.
+	 * OUTCOME	-	Records logged while the buffer is full are dropped and counted.
+	 * @throws SQLException Fails the test.
+	 * @throws InterruptedException Fails the test.
+	 */
+	@Test
+	public void write_bufferFull_outcomeIs_recordDropped() throws SQLException, InterruptedException {
+
+		//arrange.
+		final CountDownLatch isWriting = new CountDownLatch(1);
+		final CountDownLatch mayFinish = new CountDownLatch(1);
+		when(this.callableStatementMock.executeBatch()).thenAnswer(new Answer<int[]>() {
+			public int[] answer(InvocationOnMock invocation) throws Throwable {
+				isWriting.countDown();
+				mayFinish.await();
+				return new int[0];
+			}
+		});
+		AsyncLogWriter logWriter = new AsyncLogWriter(
+			this.unitOfWorkFactoryMock, 2, 1, 1, OverflowPolicy.DROP, 1, 0);
+		logWriter.write(new LogRecord("INFO", "stalls the writer", null));
+		isWriting.await();
+
+		//action.
+		boolean first = logWriter.write(new LogRecord("INFO", "one", null));
+		boolean second = logWriter.write(new LogRecord("INFO", "two", null));
+		boolean third = logWriter.write(new LogRecord("INFO", "three", null));
+		mayFinish.countDown();
+		logWriter.close(5000);
+
+		//assert.
+		assertTrue(first);
+		assertTrue(second);
+		assertFalse(third);
+		assertEquals(1, logWriter.getDroppedCount());
+		assertEquals(3, logWriter.getWrittenCount());
+	}
+}
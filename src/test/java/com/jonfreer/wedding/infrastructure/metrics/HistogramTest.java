@@ -0,0 +1,55 @@
+package com.jonfreer.wedding.infrastructure.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HistogramTest {
+
+	/**
+	 * INPUT	-	The values 1 through 10000, each recorded once.
+	 * OUTCOME	-	Every percentile is within the relative error of the buckets (1/64).
+	 */
+	@Test
+	public void getValueAtPercentile_outcomeIs_withinRelativeError() {
+
+		//arrange.
+		Histogram histogram = new Histogram();
+		for (long value = 1; value <= 10000; value++) {
+			histogram.record(value);
+		}
+
+		//action.
+		long median = histogram.getValueAtPercentile(50);
+		long p99 = histogram.getValueAtPercentile(99);
+		long p100 = histogram.getValueAtPercentile(100);
+
+		//assert.
+		assertTrue(Math.abs(median - 5000) <= 5000 / 64);
+		assertTrue(Math.abs(p99 - 9900) <= 9900 / 64);
+		assertEquals(10000, p100);
+		assertEquals(10000, histogram.getCount());
+		assertEquals(50005000, histogram.getSum());
+	}
+
+	/**
+	 * INPUT	-	Values from the bottom to the top of the range of a long.
+	 * OUTCOME	-	Each value falls in a bucket whose bounds contain it.
+	 */
+	@Test
+	public void indexOf_outcomeIs_bucketContainsValue() {
+
+		//arrange.
+		long[] values = { 0, 1, 127, 128, 129, 255, 256, 1000003, Long.MAX_VALUE / 3, Long.MAX_VALUE };
+
+		for (long value : values) {
+			//action.
+			int index = Histogram.indexOf(value);
+
+			//assert.
+			assertTrue(value <= Histogram.highestValueOf(index));
+			assertTrue(index == 0 || value > Histogram.highestValueOf(index - 1));
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.jonfreer.wedding.infrastructure.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.CallableStatement;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import javax.inject.Provider;
+
+import org.junit.Test;
+
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
+import com.jonfreer.wedding.infrastructure.interfaces.services.LogService;
+
+public class MeteredDatabaseUnitOfWorkTest {
+
+	/**
+	 * INPUT	-	A statement that is created, executed twice and destroyed.
+	 * OUTCOME	-	Both executions are timed against the procedure the statement calls, and
+	 * 				handed to the slow statement log, and the decorated unit of work
+	 * 				destroys its own statement.
+	 */
+	@Test
+	public void createCallableStatement_outcomeIs_executionsTimedAndStatementUnwrapped() throws SQLException {
+
+		//arrange.
+		String sql = "{CALL GetGuest(?)}";
+		IDatabaseUnitOfWork unitOfWorkMock = mock(IDatabaseUnitOfWork.class);
+		CallableStatement statementMock = mock(CallableStatement.class);
+		when(unitOfWorkMock.createCallableStatement(sql)).thenReturn(statementMock);
+		MetricRegistry metricRegistry = new MetricRegistry();
+		@SuppressWarnings("unchecked")
+		Provider<LogService> logServiceProviderMock = mock(Provider.class);
+		SlowStatementLog slowStatementLog =
+			new SlowStatementLog(logServiceProviderMock, new ApplicationConfiguration(new Properties()));
+		IDatabaseUnitOfWork unitOfWork =
+			new MeteredDatabaseUnitOfWork(unitOfWorkMock, metricRegistry, slowStatementLog);
+
+		//action.
+		CallableStatement statement = unitOfWork.createCallableStatement(sql);
+		statement.setInt(1, 1);
+		statement.executeQuery();
+		statement.executeQuery();
+		unitOfWork.destroyStatements(statement);
+		unitOfWork.Save();
+
+		//assert.
+		assertNotSame(statementMock, statement);
+		verify(statementMock).setInt(1, 1);
+		verify(unitOfWorkMock).destroyStatements(statementMock);
+		verify(unitOfWorkMock).Save();
+		assertEquals(2, metricRegistry.timer(
+			MeteredDatabaseUnitOfWork.STATEMENT_TIMER, "", "statement", "GetGuest").getCount());
+		assertEquals(1, metricRegistry.timer(
+			MeteredDatabaseUnitOfWork.UNIT_OF_WORK_TIMER, "", "outcome", "commit").getCount());
+		assertEquals("GetGuest", slowStatementLog.getSlowStatements().get(0).getStatement());
+		assertEquals(2, slowStatementLog.getSlowStatements().get(0).getExecutions());
+	}
+
+	/**
+	 * INPUT	-	A statement selecting by a list of 8192 parameters.
+	 * OUTCOME	-	The list is collapsed, so the name does not depend on the number of parameters.
+	 */
+	@Test
+	public void nameOf_outcomeIs_inListCollapsed() {
+
+		//arrange.
+		StringBuilder sql = new StringBuilder("SELECT ID, RESERVATION_ID FROM GUEST\n WHERE ID IN (?");
+		for (int i = 1; i < 8192; i++) {
+			sql.append(", ?");
+		}
+		sql.append(") FOR UPDATE");
+
+		//action.
+		String name = MeteredDatabaseUnitOfWork.nameOf(sql.toString());
+
+		//assert.
+		assertEquals("SELECT ID, RESERVATION_ID FROM GUEST WHERE ID IN (...) FOR UPDATE", name);
+		assertEquals("CreateReservation", MeteredDatabaseUnitOfWork.nameOf("{ CALL CreateReservation(?, ?, ?) }"));
+	}
+}
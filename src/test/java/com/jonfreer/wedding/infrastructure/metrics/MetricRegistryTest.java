@@ -0,0 +1,99 @@
+package com.jonfreer.wedding.infrastructure.metrics;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import com.jonfreer.wedding.infrastructure.interfaces.factories.IDatabaseUnitOfWorkFactory;
+import com.jonfreer.wedding.infrastructure.logging.AsyncLogWriter;
+import com.jonfreer.wedding.infrastructure.logging.LogRecord;
+import com.jonfreer.wedding.infrastructure.logging.OverflowPolicy;
+
+public class MetricRegistryTest {
+
+	/**
+	 * INPUT	-	A timer with a label value that needs escaping, holding one duration of two seconds.
+	 * OUTCOME	-	The timer is written as a Prometheus summary, in seconds, with its label escaped.
+	 */
+	@Test
+	public void write_outcomeIs_summaryInPrometheusTextFormat() throws IOException {
+
+		//arrange.
+		MetricRegistry metricRegistry = new MetricRegistry();
+		metricRegistry.timer("test_duration_seconds", "A test timer.", "statement", "{CALL \"Get\"(?)}")
+			.record(TimeUnit.SECONDS.toNanos(2));
+		StringWriter writer = new StringWriter();
+
+		//action.
+		metricRegistry.write(writer);
+
+		//assert.
+		String text = writer.toString();
+		assertTrue(text.contains("# HELP test_duration_seconds A test timer.\n"));
+		assertTrue(text.contains("# TYPE test_duration_seconds summary\n"));
+		assertTrue(text.contains("test_duration_seconds{statement=\"{CALL \\\"Get\\\"(?)}\",quantile=\"0.99\"} 2"));
+		assertTrue(text.contains("test_duration_seconds_sum{statement=\"{CALL \\\"Get\\\"(?)}\"} 2\n"));
+		assertTrue(text.contains("test_duration_seconds_count{statement=\"{CALL \\\"Get\\\"(?)}\"} 1\n"));
+	}
+
+	/**
+	 * INPUT	-	A log writer registered over JMX that has dropped a record.
+	 * OUTCOME	-	Its counters are written as metrics, labelled with its name.
+	 */
+	@Test
+	public void write_outcomeIs_logWriterCountersFromJmx() throws IOException, JMException {
+
+		//arrange.
+		MetricRegistry metricRegistry = new MetricRegistry();
+		AsyncLogWriter logWriter = new AsyncLogWriter(
+			mock(IDatabaseUnitOfWorkFactory.class), 16, 10, 60000, OverflowPolicy.DROP, 1, 0);
+		logWriter.close(5000);
+		logWriter.write(new LogRecord("INFO", "after close", null));
+		MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+		ObjectName objectName = new ObjectName("com.jonfreer.wedding:type=AsyncLogWriter,name=MetricRegistryTest");
+		mBeanServer.registerMBean(logWriter, objectName);
+		StringWriter writer = new StringWriter();
+
+		//action.
+		try {
+			metricRegistry.write(writer);
+		} finally {
+			mBeanServer.unregisterMBean(objectName);
+		}
+
+		//assert.
+		String text = writer.toString();
+		assertTrue(text.contains("# TYPE wedding_log_records_dropped_total counter\n"));
+		assertTrue(text.contains("wedding_log_records_dropped_total{writer=\"MetricRegistryTest\"} 1\n"));
+		assertTrue(text.contains("wedding_log_records_written_total{writer=\"MetricRegistryTest\"} 0\n"));
+	}
+
+	/**
+	 * INPUT	-	The same name and labels, asked for twice.
+	 * OUTCOME	-	The same histogram is returned both times.
+	 */
+	@Test
+	public void timer_outcomeIs_sameHistogramForSameLabels() {
+
+		//arrange.
+		MetricRegistry metricRegistry = new MetricRegistry();
+
+		//action.
+		RollingHistogram first = metricRegistry.timer("test_duration_seconds", "A test timer.", "method", "getGuest");
+		RollingHistogram second = metricRegistry.timer("test_duration_seconds", "A test timer.", "method", "getGuest");
+
+		//assert.
+		assertSame(first, second);
+	}
+}
@@ -0,0 +1,54 @@
+package com.jonfreer.wedding.infrastructure.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class RollingHistogramTest {
+
+	/**
+	 * INPUT	-	A slow value, followed a full ring of windows later by a fast one.
+	 * OUTCOME	-	Only the fast value is left in the percentiles; the count and
+	 * 				sum still cover both values.
+	 */
+	@Test
+	public void snapshot_outcomeIs_oldWindowsRolledOut() {
+
+		//arrange.
+		RollingHistogram histogram = new RollingHistogram(10, TimeUnit.SECONDS, 6);
+		histogram.record(1000, TimeUnit.SECONDS.toNanos(5));
+		histogram.record(10, TimeUnit.SECONDS.toNanos(65));
+
+		//action.
+		Histogram recent = histogram.snapshot(TimeUnit.SECONDS.toNanos(65));
+
+		//assert.
+		assertEquals(1, recent.getCount());
+		assertEquals(10, recent.getValueAtPercentile(99));
+		assertEquals(2, histogram.getCount());
+		assertEquals(1010, histogram.getSum());
+	}
+
+	/**
+	 * INPUT	-	Values recorded in the first and in the last window of the ring.
+	 * OUTCOME	-	The percentiles cover the values of both windows.
+	 */
+	@Test
+	public void snapshot_outcomeIs_windowsInRingMerged() {
+
+		//arrange.
+		RollingHistogram histogram = new RollingHistogram(10, TimeUnit.SECONDS, 6);
+		histogram.record(1000, TimeUnit.SECONDS.toNanos(15));
+		histogram.record(10, TimeUnit.SECONDS.toNanos(65));
+
+		//action.
+		Histogram recent = histogram.snapshot(TimeUnit.SECONDS.toNanos(65));
+
+		//assert.
+		assertEquals(2, recent.getCount());
+		assertEquals(10, recent.getValueAtPercentile(50));
+		assertEquals(1000, recent.getValueAtPercentile(100));
+	}
+}
@@ -0,0 +1,50 @@
+package com.jonfreer.wedding.infrastructure.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ServerTimingTest {
+
+	/**
+	 * INPUT	-	Spans started and stopped without recording having begun.
+	 * OUTCOME	-	Nothing is recorded and there is no header.
+	 */
+	@Test
+	public void end_outcomeIs_nullWhenNotRecording() {
+
+		//arrange.
+		long span = ServerTiming.start();
+		ServerTiming.stop("repository", span);
+
+		//action.
+		String header = ServerTiming.end();
+
+		//assert.
+		assertEquals(0, span);
+		assertNull(header);
+	}
+
+	/**
+	 * INPUT	-	Two spans with the same name followed by a span with another name.
+	 * OUTCOME	-	The spans sharing a name are added together and counted, in the order first recorded.
+	 */
+	@Test
+	public void end_outcomeIs_spansAddedTogetherByName() {
+
+		//arrange.
+		ServerTiming.begin();
+		ServerTiming.stop("db", ServerTiming.start());
+		ServerTiming.stop("db", ServerTiming.start());
+		ServerTiming.stop("total", ServerTiming.start());
+
+		//action.
+		String header = ServerTiming.end();
+
+		//assert.
+		assertTrue(header, header.matches("db;dur=\\d+\\.\\d{3};desc=\"2 calls\", total;dur=\\d+\\.\\d{3}"));
+		assertNull(ServerTiming.end());
+	}
+}
@@ -0,0 +1,89 @@
+package com.jonfreer.wedding.infrastructure.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Provider;
+
+import org.junit.Test;
+
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
+import com.jonfreer.wedding.infrastructure.interfaces.services.LogService;
+
+public class SlowStatementLogTest {
+
+	/**
+	 * INPUT	-	Executions of three statements, more than one of some, into a log holding two.
+	 * OUTCOME	-	The two statements with the slowest executions are listed, slowest first,
+	 * 				each with its slowest execution.
+	 */
+	@Test
+	public void getSlowStatements_outcomeIs_slowestStatementsSlowestFirst() {
+
+		//arrange.
+		SlowStatementLog slowStatementLog = new SlowStatementLog(logServiceProvider(mock(LogService.class)), configuration(0, 2));
+		RollingHistogram histogram = new RollingHistogram(10, TimeUnit.SECONDS, 6);
+		slowStatementLog.record("{CALL GetGuest(?)}", histogram, millis(5));
+		slowStatementLog.record("{CALL GetGuests(?, ?, ?, ?, ?)}", histogram, millis(40));
+		slowStatementLog.record("{CALL GetGuest(?)}", histogram, millis(20));
+		slowStatementLog.record("{CALL GetGuestsVersion()}", histogram, millis(10));
+		slowStatementLog.record("{CALL GetGuestsVersion()}", histogram, millis(1));
+
+		//action.
+		List<SlowStatement> slowStatements = slowStatementLog.getSlowStatements();
+
+		//assert.
+		assertEquals(2, slowStatements.size());
+		assertEquals("{CALL GetGuests(?, ?, ?, ?, ?)}", slowStatements.get(0).getStatement());
+		assertEquals(40, slowStatements.get(0).getSlowestMillis(), 0);
+		assertEquals("{CALL GetGuest(?)}", slowStatements.get(1).getStatement());
+		assertEquals(20, slowStatements.get(1).getSlowestMillis(), 0);
+	}
+
+	/**
+	 * INPUT	-	One execution faster than the threshold and one as slow as it.
+	 * OUTCOME	-	Only the slow execution is logged, as a warning naming the statement.
+	 */
+	@Test
+	public void record_outcomeIs_slowExecutionLogged() {
+
+		//arrange.
+		LogService logServiceMock = mock(LogService.class);
+		SlowStatementLog slowStatementLog = new SlowStatementLog(logServiceProvider(logServiceMock), configuration(100, 20));
+
+		//action.
+		slowStatementLog.record("{CALL GetGuest(?)}", new RollingHistogram(10, TimeUnit.SECONDS, 6), millis(99));
+		slowStatementLog.record("{CALL GetGuests(?, ?, ?, ?, ?)}", new RollingHistogram(10, TimeUnit.SECONDS, 6), millis(100));
+
+		//assert.
+		verify(logServiceMock, times(1)).warning(anyString());
+		verify(logServiceMock).warning(contains("{CALL GetGuests(?, ?, ?, ?, ?)}"));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Provider<LogService> logServiceProvider(LogService logService) {
+		Provider<LogService> logServiceProvider = mock(Provider.class);
+		when(logServiceProvider.get()).thenReturn(logService);
+		return logServiceProvider;
+	}
+
+	private static ApplicationConfiguration configuration(long thresholdMillis, int size) {
+		Properties properties = new Properties();
+		properties.setProperty("slowStatements.thresholdMillis", Long.toString(thresholdMillis));
+		properties.setProperty("slowStatements.size", Integer.toString(size));
+		return new ApplicationConfiguration(properties);
+	}
+
+	private static long millis(long millis) {
+		return TimeUnit.MILLISECONDS.toNanos(millis);
+	}
+}
@@ -0,0 +1,36 @@
+package com.jonfreer.wedding.infrastructure.queries;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class GuestCursorTest {
+
+	/**
+	 * INPUT	-	Token produced by encoding a cursor.
+	 * OUTCOME	-	Decoding the token yields the same position.
+	 */
+	@Test
+	public void decode_outcomeIs_roundTrip() {
+
+		//arrange.
+		String token = new GuestCursor(1234).encode();
+
+		//action.
+		GuestCursor cursor = GuestCursor.decode(token);
+
+		//assert.
+		assertEquals(1234, cursor.getGuestId());
+	}
+
+	/**
+	 * INPUT	-	Token that was not produced by encoding a cursor.
+	 * OUTCOME	-	IllegalArgumentException is thrown.
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void decode_outcomeIs_invalidTokenRejected() {
+
+		//action.
+		GuestCursor.decode("not-a-cursor");
+	}
+}
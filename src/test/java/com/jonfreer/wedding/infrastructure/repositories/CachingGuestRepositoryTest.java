@@ -0,0 +1,147 @@
+package com.jonfreer.wedding.infrastructure.repositories;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.jonfreer.wedding.domain.Guest;
+import com.jonfreer.wedding.domain.interfaces.repositories.IGuestRepository;
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IUnitOfWorkListener;
+import com.jonfreer.wedding.infrastructure.caching.EvictionPolicy;
+import com.jonfreer.wedding.infrastructure.caching.LocalCache;
+import com.jonfreer.wedding.infrastructure.exceptions.ResourceNotFoundException;
+
+public class CachingGuestRepositoryTest {
+
+	private IGuestRepository guestRepositoryMock;
+	private LocalCache<Integer, Guest> guestCache;
+
+	@Before
+	public void setUp() throws Exception {
+		this.guestRepositoryMock = mock(IGuestRepository.class);
+		this.guestCache = new LocalCache<Integer, Guest>(10, 0, TimeUnit.SECONDS, EvictionPolicy.LRU);
+		when(this.guestRepositoryMock.getGuest(1)).thenReturn(new Guest(1, "Jon", "Freer", null, null, null));
+	}
+
+	/**
+	 * INPUT	-	Same guest retrieved twice.
+	 * OUTCOME	-	The decorated repository is only consulted once, and
+	 * 				each caller receives its own copy.
+	 * @throws ResourceNotFoundException Fails the test.
+	 */
+	@Test
+	public void getGuest_outcomeIs_servedFromCache() throws ResourceNotFoundException {
+
+		//arrange.
+		CachingGuestRepository repository = this.repository();
+
+		//action.
+		Guest first = repository.getGuest(1);
+		Guest second = repository.getGuest(1);
+
+		//assert.
+		verify(this.guestRepositoryMock, times(1)).getGuest(1);
+		assertEquals(first, second);
+		assertNotSame(first, second);
+	}
+
+	/**
+	 * INPUT	-	Guest updated after being cached.
+	 * OUTCOME	-	The cached guest is invalidated; reads in the same unit of
+	 * 				work and in subsequent ones go to the decorated repository.
+	 * @throws ResourceNotFoundException Fails the test.
+	 */
+	@Test
+	public void updateGuest_outcomeIs_cachedGuestInvalidated() throws ResourceNotFoundException {
+
+		//arrange.
+		CachingGuestRepository repository = this.repository();
+		Guest guest = repository.getGuest(1);
+
+		//action.
+		repository.updateGuest(guest);
+		repository.getGuest(1);
+		repository.getGuest(1);
+		this.repository().getGuest(1);
+
+		//assert.
+		verify(this.guestRepositoryMock).updateGuest(guest);
+		verify(this.guestRepositoryMock, times(4)).getGuest(1);
+	}
+
+	/**
+	 * INPUT	-	Guest updated, then read and cached by another unit of work before the update is saved.
+	 * OUTCOME	-	The guest cached in the meantime is invalidated once the update is saved.
+	 * @throws ResourceNotFoundException Fails the test.
+	 */
+	@Test
+	public void updateGuest_outcomeIs_cachedGuestInvalidatedWhenSaved() throws ResourceNotFoundException {
+
+		//arrange.
+		IDatabaseUnitOfWork unitOfWorkMock = mock(IDatabaseUnitOfWork.class);
+		CachingGuestRepository repository = this.repository(unitOfWorkMock);
+		Guest guest = new Guest(1, "Jon", "Freer", null, null, null);
+		ArgumentCaptor<IUnitOfWorkListener> listener = ArgumentCaptor.forClass(IUnitOfWorkListener.class);
+
+		//action.
+		repository.updateGuest(guest);
+		repository.updateGuest(guest);
+		this.repository().getGuest(1);
+		verify(unitOfWorkMock).addListener(listener.capture());
+		listener.getValue().saved();
+		repository.getGuest(1);
+		this.repository().getGuest(1);
+
+		//assert.
+		verify(unitOfWorkMock, times(1)).addListener(any(IUnitOfWorkListener.class));
+		verify(this.guestRepositoryMock, times(2)).getGuest(1);
+	}
+
+	/**
+	 * INPUT	-	Guest updated by another unit of work while it is being read.
+	 * OUTCOME	-	The state read is not cached; the next read goes to the decorated repository.
+	 * @throws ResourceNotFoundException Fails the test.
+	 */
+	@Test
+	public void getGuest_outcomeIs_guestInvalidatedDuringReadNotCached() throws ResourceNotFoundException {
+
+		//arrange.
+		final CachingGuestRepository writer = this.repository();
+		final Guest staleGuest = new Guest(1, "Jon", "Freer", null, null, null);
+		when(this.guestRepositoryMock.getGuest(1)).thenAnswer(new Answer<Guest>() {
+			public Guest answer(InvocationOnMock invocation) throws Throwable {
+				writer.updateGuest(staleGuest);
+				return staleGuest;
+			}
+		});
+
+		//action.
+		this.repository().getGuest(1);
+		this.repository().getGuest(1);
+
+		//assert.
+		verify(this.guestRepositoryMock, times(2)).getGuest(1);
+	}
+
+	private CachingGuestRepository repository() {
+		return this.repository(mock(IDatabaseUnitOfWork.class));
+	}
+
+	private CachingGuestRepository repository(IDatabaseUnitOfWork unitOfWork) {
+		return new CachingGuestRepository(this.guestRepositoryMock, this.guestCache, new HashSet<Integer>(), unitOfWork);
+	}
+}
@@ -4,12 +4,17 @@
 package com.jonfreer.wedding.infrastructure.repositories;
 
 import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Calendar;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -18,8 +23,10 @@ import com.jonfreer.wedding.annotations.BlackBox;
 import com.jonfreer.wedding.domain.Guest;
 import com.jonfreer.wedding.domain.Reservation;
 import com.jonfreer.wedding.domain.interfaces.repositories.IGuestRepository;
+import com.jonfreer.wedding.domain.interfaces.repositories.IResultHandler;
 import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
 import com.jonfreer.wedding.infrastructure.exceptions.ResourceNotFoundException;
+import com.jonfreer.wedding.infrastructure.metadata.CollectionVersion;
 import com.jonfreer.wedding.infrastructure.queries.GuestSearchQuery;
 import com.mysql.jdbc.CallableStatement;
 
@@ -99,14 +106,15 @@ public class GuestRepository_BlackBoxTest {
 		
 		//stub mocks.
 		when(resultSetMock.next()).thenReturn(true).thenReturn(false);
-		when(resultSetMock.getInt("GUEST_ID")).thenReturn(id);
-		when(resultSetMock.getString("FIRST_NAME")).thenReturn(firstName);
-		when(resultSetMock.getString("LAST_NAME")).thenReturn(lastName);
-		when(resultSetMock.getString("GUEST_DESCRIPTION")).thenReturn(description);
-		when(resultSetMock.getString("GUEST_DIETARY_RESTRICTIONS")).thenReturn(dietaryRestrictions);
-		when(resultSetMock.getString("INVITE_CODE")).thenReturn(inviteCode);
-		when(resultSetMock.getInt("RESERVATION_ID")).thenReturn(reservationId);
-		when(resultSetMock.getBoolean("IS_ATTENDING")).thenReturn(isAttending);
+		this.stubColumns(resultSetMock);
+		when(resultSetMock.getInt(1)).thenReturn(id);
+		when(resultSetMock.getString(2)).thenReturn(firstName);
+		when(resultSetMock.getString(3)).thenReturn(lastName);
+		when(resultSetMock.getString(4)).thenReturn(description);
+		when(resultSetMock.getString(5)).thenReturn(dietaryRestrictions);
+		when(resultSetMock.getString(6)).thenReturn(inviteCode);
+		when(resultSetMock.getInt(7)).thenReturn(reservationId);
+		when(resultSetMock.getBoolean(8)).thenReturn(isAttending);
 		
 		when(
 			this.databaseUnitOfWorkMock.createCallableStatement("{CALL GetGuest(?)}")
@@ -123,6 +131,87 @@ public class GuestRepository_BlackBoxTest {
 		assertEquals(expectedGuest, actualGuest);
 	}
 	
+	/**
+	 * INPUT 	- 	Existing guest identifier; repository reading versions.
+	 * OUTCOME 	- 	Guest with the version and last modified date of its row is returned.
+	 * @throws SQLException Fails the test.
+	 * @throws ResourceNotFoundException Fails the test.
+	 */
+	@BlackBox
+	@Test
+	public void getGuest_versioned_outcomeIs_versionRead() throws SQLException, ResourceNotFoundException{
+		
+		//constants.
+		final int id = 1;
+		final long version = 7;
+		final Timestamp lastModified = new Timestamp(1483228800000L);
+		
+		//create mocks.
+		CallableStatement callableStatementMock = mock(CallableStatement.class);
+		ResultSet resultSetMock = mock(ResultSet.class);
+		
+		//stub mocks.
+		when(resultSetMock.next()).thenReturn(true).thenReturn(false);
+		this.stubColumns(resultSetMock);
+		when(resultSetMock.getInt(1)).thenReturn(id);
+		when(resultSetMock.wasNull()).thenReturn(true);
+		when(resultSetMock.getLong(10)).thenReturn(version);
+		when(resultSetMock.getTimestamp(eq(11), any(Calendar.class))).thenReturn(lastModified);
+		
+		when(
+			this.databaseUnitOfWorkMock.createCallableStatement("{CALL GetGuest(?)}")
+		).thenReturn(callableStatementMock);
+		when(
+			callableStatementMock.executeQuery()
+		).thenReturn(resultSetMock);
+		
+		//action.
+		IGuestRepository guestRepository = new GuestRepository(this.databaseUnitOfWorkMock, true);
+		Guest actualGuest = guestRepository.getGuest(id);
+		
+		//assert.
+		assertEquals(Long.valueOf(version), actualGuest.getVersion());
+		assertEquals(lastModified, actualGuest.getLastModified());
+	}
+	
+	/**
+	 * INPUT	-	None.
+	 * OUTPUT	-	The change counter and last modified date of the guest collection.
+	 * @throws SQLException Fails the test.
+	 */
+	@BlackBox
+	@Test
+	public void getGuestsVersion_outcomeIs_collectionVersion() throws SQLException{
+		
+		//constants.
+		final long version = 42;
+		final Timestamp lastModified = new Timestamp(1483228800000L);
+		
+		//create mocks.
+		CallableStatement callableStatementMock = mock(CallableStatement.class);
+		ResultSet resultSetMock = mock(ResultSet.class);
+		
+		//stub mocks.
+		when(resultSetMock.next()).thenReturn(true).thenReturn(false);
+		when(resultSetMock.getLong("VERSION")).thenReturn(version);
+		when(resultSetMock.getTimestamp(eq("DATETIME_MODIFIED"), any(Calendar.class))).thenReturn(lastModified);
+		
+		when(
+			this.databaseUnitOfWorkMock.createCallableStatement("{CALL GetGuestsVersion()}")
+		).thenReturn(callableStatementMock);
+		when(
+			callableStatementMock.executeQuery()
+		).thenReturn(resultSetMock);
+		
+		//action.
+		IGuestRepository guestRepository = new GuestRepository(this.databaseUnitOfWorkMock);
+		CollectionVersion collectionVersion = guestRepository.getGuestsVersion();
+		
+		//assert.
+		assertEquals(version, collectionVersion.getVersion());
+		assertEquals(lastModified, collectionVersion.getLastModified());
+	}
+	
 	/**
 	 * INPUT	-	Null search criteria.
 	 * OUTPUT	-	All guests.
@@ -154,14 +243,15 @@ public class GuestRepository_BlackBoxTest {
 
 		//stub mocks.
 		when(resultSetMock.next()).thenReturn(true).thenReturn(false);
-		when(resultSetMock.getInt("GUEST_ID")).thenReturn(id);
-		when(resultSetMock.getString("FIRST_NAME")).thenReturn(firstName);
-		when(resultSetMock.getString("LAST_NAME")).thenReturn(lastName);
-		when(resultSetMock.getString("GUEST_DESCRIPTION")).thenReturn(description);
-		when(resultSetMock.getString("GUEST_DIETARY_RESTRICTIONS")).thenReturn(dietaryRestrictions);
-		when(resultSetMock.getString("INVITE_CODE")).thenReturn(inviteCode);
-		when(resultSetMock.getInt("RESERVATION_ID")).thenReturn(reservationId);
-		when(resultSetMock.getBoolean("IS_ATTENDING")).thenReturn(isAttending);
+		this.stubColumns(resultSetMock);
+		when(resultSetMock.getInt(1)).thenReturn(id);
+		when(resultSetMock.getString(2)).thenReturn(firstName);
+		when(resultSetMock.getString(3)).thenReturn(lastName);
+		when(resultSetMock.getString(4)).thenReturn(description);
+		when(resultSetMock.getString(5)).thenReturn(dietaryRestrictions);
+		when(resultSetMock.getString(6)).thenReturn(inviteCode);
+		when(resultSetMock.getInt(7)).thenReturn(reservationId);
+		when(resultSetMock.getBoolean(8)).thenReturn(isAttending);
 
 		when(
 			this.databaseUnitOfWorkMock.createCallableStatement("{CALL GetGuests(?, ?, ?, ?, ?)}")
@@ -182,6 +272,58 @@ public class GuestRepository_BlackBoxTest {
 		assertEquals(expectedGuest, actualGuests.get(0));
 	}
 	
+	/**
+	 * INPUT	-	Null search criteria and a result handler.
+	 * OUTPUT	-	All guests are handed to the handler, and the result set is closed.
+	 * @throws SQLException Fails the test.
+	 */
+	@BlackBox
+	@Test
+	public void streamGuests_outcomeIs_allGuestsHandled() throws SQLException{
+		
+		//constants.
+		final int firstId = 1;
+		final int secondId = 2;
+			
+		//create mocks.
+		CallableStatement callableStatementMock = mock(CallableStatement.class);
+		ResultSet resultSetMock = mock(ResultSet.class);
+
+		//stub mocks.
+		when(resultSetMock.next()).thenReturn(true).thenReturn(true).thenReturn(false);
+		this.stubColumns(resultSetMock);
+		when(resultSetMock.getInt(1)).thenReturn(firstId).thenReturn(secondId);
+		when(resultSetMock.wasNull()).thenReturn(true);
+
+		when(
+			this.databaseUnitOfWorkMock.createCallableStatement("{CALL GetGuests(?, ?, ?, ?, ?)}")
+		).thenReturn(callableStatementMock);
+
+		when(
+			callableStatementMock.executeQuery()
+		).thenReturn(resultSetMock);
+
+		//action.
+		IGuestRepository guestRepository = 
+			new GuestRepository(this.databaseUnitOfWorkMock);
+
+		final ArrayList<Guest> handledGuests = new ArrayList<Guest>();
+		guestRepository.streamGuests(null, new IResultHandler<Guest>() {
+			public void handle(Guest guest) {
+				handledGuests.add(guest);
+			}
+		});
+		
+		//assert.
+		assertEquals(2, handledGuests.size());
+		assertEquals(Integer.valueOf(firstId), handledGuests.get(0).getId());
+		assertEquals(Integer.valueOf(secondId), handledGuests.get(1).getId());
+		assertNull(handledGuests.get(0).getReservation());
+		verify(callableStatementMock).setFetchSize(Integer.MIN_VALUE);
+		verify(resultSetMock).close();
+		verify(this.databaseUnitOfWorkMock).destroyStatement(callableStatementMock);
+	}
+	
 	/**
 	 * INPUT	-	Search criteria.
 	 * OUTPUT	-	Guests matching the search criteria.
@@ -217,14 +359,15 @@ public class GuestRepository_BlackBoxTest {
 
 		//stub mocks.
 		when(resultSetMock.next()).thenReturn(true).thenReturn(false);
-		when(resultSetMock.getInt("GUEST_ID")).thenReturn(id);
-		when(resultSetMock.getString("FIRST_NAME")).thenReturn(firstName);
-		when(resultSetMock.getString("LAST_NAME")).thenReturn(lastName);
-		when(resultSetMock.getString("GUEST_DESCRIPTION")).thenReturn(description);
-		when(resultSetMock.getString("GUEST_DIETARY_RESTRICTIONS")).thenReturn(dietaryRestrictions);
-		when(resultSetMock.getString("INVITE_CODE")).thenReturn(inviteCode);
-		when(resultSetMock.getInt("RESERVATION_ID")).thenReturn(reservationId);
-		when(resultSetMock.getBoolean("IS_ATTENDING")).thenReturn(isAttending);
+		this.stubColumns(resultSetMock);
+		when(resultSetMock.getInt(1)).thenReturn(id);
+		when(resultSetMock.getString(2)).thenReturn(firstName);
+		when(resultSetMock.getString(3)).thenReturn(lastName);
+		when(resultSetMock.getString(4)).thenReturn(description);
+		when(resultSetMock.getString(5)).thenReturn(dietaryRestrictions);
+		when(resultSetMock.getString(6)).thenReturn(inviteCode);
+		when(resultSetMock.getInt(7)).thenReturn(reservationId);
+		when(resultSetMock.getBoolean(8)).thenReturn(isAttending);
 
 		when(
 			this.databaseUnitOfWorkMock.createCallableStatement("{CALL GetGuests(?, ?, ?, ?, ?)}")
@@ -287,5 +430,52 @@ public class GuestRepository_BlackBoxTest {
 		//assert.
 		assertEquals(0, actualGuests.size());
 	}
+	
+	/**
+	 * INPUT	-	Search criteria for the second page of results.
+	 * OUTPUT	-	The number of guests matching the search criteria across all pages.
+	 * @throws SQLException Fails test.
+	 */
+	@BlackBox
+	@Test
+	public void getGuestCount_outcomeIs_matchingGuestCount() throws SQLException{
+		
+		//constants.
+		final int expectedCount = 42;
+		final GuestSearchQuery searchQuery = 
+			new GuestSearchQuery(null, "Freer", null, 10, 10);
+		
+		//create mocks.
+		CallableStatement callableStatementMock = mock(CallableStatement.class);
+		ResultSet resultSetMock = mock(ResultSet.class);
 
+		//stub mocks.
+		when(resultSetMock.next()).thenReturn(true);
+		when(resultSetMock.getInt(1)).thenReturn(expectedCount);
+
+		when(
+			this.databaseUnitOfWorkMock.createCallableStatement("{CALL GetGuestsCount(?, ?, ?)}")
+		).thenReturn(callableStatementMock);
+
+		when(
+			callableStatementMock.executeQuery()
+		).thenReturn(resultSetMock);
+
+		//action.
+		IGuestRepository guestRepository = 
+			new GuestRepository(this.databaseUnitOfWorkMock);
+
+		int actualCount = guestRepository.getGuestCount(searchQuery);
+		
+		//assert.
+		assertEquals(expectedCount, actualCount);
+	}
+
+	private void stubColumns(ResultSet resultSetMock) throws SQLException {
+		String[] columns = { "GUEST_ID", "FIRST_NAME", "LAST_NAME", "GUEST_DESCRIPTION", "GUEST_DIETARY_RESTRICTIONS",
+			"INVITE_CODE", "RESERVATION_ID", "IS_ATTENDING", "DATETIME_SUBMITTED", "VERSION", "DATETIME_MODIFIED" };
+		for (int i = 0; i < columns.length; i++) {
+			when(resultSetMock.findColumn(columns[i])).thenReturn(i + 1);
+		}
+	}
 }
@@ -2,8 +2,11 @@ package com.jonfreer.wedding.infrastructure.repositories;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 
 import com.jonfreer.wedding.annotations.WhiteBox;
+import com.jonfreer.wedding.domain.Guest;
+import com.jonfreer.wedding.domain.Reservation;
 import com.jonfreer.wedding.infrastructure.exceptions.ResourceNotFoundException;
 import com.jonfreer.wedding.infrastructure.queries.GuestSearchQuery;
 import com.jonfreer.wedding.domain.interfaces.repositories.IGuestRepository;
@@ -18,10 +21,22 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 public class GuestRepository_WhiteBoxTest {
 
@@ -54,6 +69,7 @@ public class GuestRepository_WhiteBoxTest {
 
 		// stub mocks.
 		when(resultSetMock.next()).thenReturn(true);
+		this.stubColumns(resultSetMock);
 		when(resultSetMock.wasNull()).thenReturn(false);
 		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL GetGuest(?)}"))
 			.thenReturn(callableStatementMock);
@@ -80,15 +96,16 @@ public class GuestRepository_WhiteBoxTest {
 		verifyNoMoreInteractions(callableStatementMock);
 
 		verify(resultSetMock, times(1)).next();
-		verify(resultSetMock, times(1)).getInt("GUEST_ID");
-		verify(resultSetMock, times(1)).getString("FIRST_NAME");
-		verify(resultSetMock, times(1)).getString("LAST_NAME");
-		verify(resultSetMock, times(1)).getString("GUEST_DESCRIPTION");
-		verify(resultSetMock, times(1)).getString("GUEST_DIETARY_RESTRICTIONS");
-		verify(resultSetMock, times(1)).getString("INVITE_CODE");
-		verify(resultSetMock, times(1)).getInt("RESERVATION_ID");
-		verify(resultSetMock, times(1)).getBoolean("IS_ATTENDING");
-		verify(resultSetMock, times(1)).getTimestamp(eq("DATETIME_SUBMITTED"), any(Calendar.class));
+		this.verifyColumnsResolved(resultSetMock);
+		verify(resultSetMock, times(1)).getInt(1);
+		verify(resultSetMock, times(1)).getString(2);
+		verify(resultSetMock, times(1)).getString(3);
+		verify(resultSetMock, times(1)).getString(4);
+		verify(resultSetMock, times(1)).getString(5);
+		verify(resultSetMock, times(1)).getString(6);
+		verify(resultSetMock, times(1)).getInt(7);
+		verify(resultSetMock, times(1)).getBoolean(8);
+		verify(resultSetMock, times(1)).getTimestamp(eq(9), any(Calendar.class));
 		verify(resultSetMock, times(1)).wasNull();
 		verifyNoMoreInteractions(resultSetMock);
 	}
@@ -115,6 +132,7 @@ public class GuestRepository_WhiteBoxTest {
 
 		// stub mocks.
 		when(resultSetMock.next()).thenReturn(true);
+		this.stubColumns(resultSetMock);
 		when(resultSetMock.wasNull()).thenReturn(true);
 		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL GetGuest(?)}"))
 			.thenReturn(callableStatementMock);
@@ -139,13 +157,14 @@ public class GuestRepository_WhiteBoxTest {
 		verifyNoMoreInteractions(callableStatementMock);
 
 		verify(resultSetMock, times(1)).next();
-		verify(resultSetMock, times(1)).getInt("GUEST_ID");
-		verify(resultSetMock, times(1)).getString("FIRST_NAME");
-		verify(resultSetMock, times(1)).getString("LAST_NAME");
-		verify(resultSetMock, times(1)).getString("GUEST_DESCRIPTION");
-		verify(resultSetMock, times(1)).getString("GUEST_DIETARY_RESTRICTIONS");
-		verify(resultSetMock, times(1)).getString("INVITE_CODE");
-		verify(resultSetMock, times(1)).getInt("RESERVATION_ID");
+		this.verifyColumnsResolved(resultSetMock);
+		verify(resultSetMock, times(1)).getInt(1);
+		verify(resultSetMock, times(1)).getString(2);
+		verify(resultSetMock, times(1)).getString(3);
+		verify(resultSetMock, times(1)).getString(4);
+		verify(resultSetMock, times(1)).getString(5);
+		verify(resultSetMock, times(1)).getString(6);
+		verify(resultSetMock, times(1)).getInt(7);
 		verify(resultSetMock, times(1)).wasNull();
 		verifyNoMoreInteractions(resultSetMock);
 	}
@@ -166,6 +185,7 @@ public class GuestRepository_WhiteBoxTest {
 
 		// stub mocks.
 		when(resultSetMock.next()).thenReturn(true).thenReturn(false);
+		this.stubColumns(resultSetMock);
 		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL GetGuests(?, ?, ?, ?, ?)}"))
 			.thenReturn(callableStatementMock);
 
@@ -194,15 +214,16 @@ public class GuestRepository_WhiteBoxTest {
 		verifyNoMoreInteractions(callableStatementMock);
 
 		verify(resultSetMock, times(2)).next();
-		verify(resultSetMock, times(1)).getInt("GUEST_ID");
-		verify(resultSetMock, times(1)).getString("FIRST_NAME");
-		verify(resultSetMock, times(1)).getString("LAST_NAME");
-		verify(resultSetMock, times(1)).getString("GUEST_DESCRIPTION");
-		verify(resultSetMock, times(1)).getString("GUEST_DIETARY_RESTRICTIONS");
-		verify(resultSetMock, times(1)).getString("INVITE_CODE");
-		verify(resultSetMock, times(1)).getInt("RESERVATION_ID");
-		verify(resultSetMock, times(1)).getBoolean("IS_ATTENDING");
-		verify(resultSetMock, times(1)).getTimestamp(eq("DATETIME_SUBMITTED"), any(Calendar.class));
+		this.verifyColumnsResolved(resultSetMock);
+		verify(resultSetMock, times(1)).getInt(1);
+		verify(resultSetMock, times(1)).getString(2);
+		verify(resultSetMock, times(1)).getString(3);
+		verify(resultSetMock, times(1)).getString(4);
+		verify(resultSetMock, times(1)).getString(5);
+		verify(resultSetMock, times(1)).getString(6);
+		verify(resultSetMock, times(1)).getInt(7);
+		verify(resultSetMock, times(1)).getBoolean(8);
+		verify(resultSetMock, times(1)).getTimestamp(eq(9), any(Calendar.class));
 		verify(resultSetMock, times(1)).wasNull();
 		verifyNoMoreInteractions(resultSetMock);
 
@@ -233,6 +254,7 @@ public class GuestRepository_WhiteBoxTest {
 		ResultSet resultSetMock = mock(ResultSet.class);
 
 		when(resultSetMock.next()).thenReturn(true).thenReturn(false);
+		this.stubColumns(resultSetMock);
 		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL GetGuests(?, ?, ?, ?, ?)}"))
 			.thenReturn(callableStatementMock);
 
@@ -261,15 +283,16 @@ public class GuestRepository_WhiteBoxTest {
 		verifyNoMoreInteractions(callableStatementMock);
 
 		verify(resultSetMock, times(2)).next();
-		verify(resultSetMock, times(1)).getInt("GUEST_ID");
-		verify(resultSetMock, times(1)).getString("FIRST_NAME");
-		verify(resultSetMock, times(1)).getString("LAST_NAME");
-		verify(resultSetMock, times(1)).getString("GUEST_DESCRIPTION");
-		verify(resultSetMock, times(1)).getString("GUEST_DIETARY_RESTRICTIONS");
-		verify(resultSetMock, times(1)).getString("INVITE_CODE");
-		verify(resultSetMock, times(1)).getInt("RESERVATION_ID");
-		verify(resultSetMock, times(1)).getBoolean("IS_ATTENDING");
-		verify(resultSetMock, times(1)).getTimestamp(eq("DATETIME_SUBMITTED"), any(Calendar.class));
+		this.verifyColumnsResolved(resultSetMock);
+		verify(resultSetMock, times(1)).getInt(1);
+		verify(resultSetMock, times(1)).getString(2);
+		verify(resultSetMock, times(1)).getString(3);
+		verify(resultSetMock, times(1)).getString(4);
+		verify(resultSetMock, times(1)).getString(5);
+		verify(resultSetMock, times(1)).getString(6);
+		verify(resultSetMock, times(1)).getInt(7);
+		verify(resultSetMock, times(1)).getBoolean(8);
+		verify(resultSetMock, times(1)).getTimestamp(eq(9), any(Calendar.class));
 		verify(resultSetMock, times(1)).wasNull();
 		verifyNoMoreInteractions(resultSetMock);
 	}
@@ -299,6 +322,7 @@ public class GuestRepository_WhiteBoxTest {
 		ResultSet resultSetMock = mock(ResultSet.class);
 
 		when(resultSetMock.next()).thenReturn(false);
+		this.stubColumns(resultSetMock);
 		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL GetGuests(?, ?, ?, ?, ?)}"))
 			.thenReturn(callableStatementMock);
 
@@ -327,14 +351,549 @@ public class GuestRepository_WhiteBoxTest {
 		verifyNoMoreInteractions(callableStatementMock);
 
 		verify(resultSetMock, times(1)).next();
-		verify(resultSetMock, never()).getInt("GUEST_ID");
-		verify(resultSetMock, never()).getString("FIRST_NAME");
-		verify(resultSetMock, never()).getString("LAST_NAME");
-		verify(resultSetMock, never()).getString("GUEST_DESCRIPTION");
-		verify(resultSetMock, never()).getString("GUEST_DIETARY_RESTRICTIONS");
-		verify(resultSetMock, never()).getString("INVITE_CODE");
-		verify(resultSetMock, never()).getInt("RESERVATION_ID");
+		verify(resultSetMock, never()).getInt(1);
+		verify(resultSetMock, never()).getString(2);
+		verify(resultSetMock, never()).getString(3);
+		verify(resultSetMock, never()).getString(4);
+		verify(resultSetMock, never()).getString(5);
+		verify(resultSetMock, never()).getString(6);
+		verify(resultSetMock, never()).getInt(7);
 		verify(resultSetMock, never()).wasNull();
 		verifyNoMoreInteractions(resultSetMock);
 	}
+
+	/**
+	 * Verifies that the columns of the guests retrieved are looked up by name
+	 * only once, no matter how many rows are read.
+	 * 
+	 * @throws SQLException
+	 *             Fails the test.
+	 */
+	@WhiteBox
+	@Test
+	public void getGuests_verifies_columnsResolvedOnce() throws SQLException {
+
+		// create mocks.
+		CallableStatement callableStatementMock = mock(CallableStatement.class);
+		ResultSet resultSetMock = mock(ResultSet.class);
+
+		// stub mocks.
+		when(resultSetMock.next()).thenReturn(true, true, true, false);
+		this.stubColumns(resultSetMock);
+		when(resultSetMock.wasNull()).thenReturn(true);
+		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL GetGuests(?, ?, ?, ?, ?)}"))
+			.thenReturn(callableStatementMock);
+		when(callableStatementMock.executeQuery()).thenReturn(resultSetMock);
+
+		// action.
+		IGuestRepository guestRepository = new GuestRepository(this.databaseUnitOfWorkMock);
+		guestRepository.getGuests(null);
+
+		// verify.
+		this.verifyColumnsResolved(resultSetMock);
+		verify(resultSetMock, times(3)).getInt(1);
+		verify(resultSetMock, times(3)).getInt(7);
+	}
+
+	/**
+	 * Verifies the code path taken for seeking backward past a cursor, where
+	 * the rows closest to the cursor come back first and are reversed.
+	 *
+	 * @throws SQLException
+	 *             Fails the test.
+	 */
+	@WhiteBox
+	@Test
+	public void getGuests_verifies_backwardSeekInAscendingOrder() throws SQLException {
+
+		// create mocks.
+		CallableStatement callableStatementMock = mock(CallableStatement.class);
+		ResultSet resultSetMock = mock(ResultSet.class);
+
+		// stub mocks.
+		when(resultSetMock.next()).thenReturn(true, true, false);
+		this.stubColumns(resultSetMock);
+		when(resultSetMock.getInt(1)).thenReturn(9, 8);
+		when(resultSetMock.wasNull()).thenReturn(true);
+		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL GetGuestsSeek(?, ?, ?, ?, ?, ?)}"))
+			.thenReturn(callableStatementMock);
+		when(callableStatementMock.executeQuery()).thenReturn(resultSetMock);
+
+		// action.
+		IGuestRepository guestRepository = new GuestRepository(this.databaseUnitOfWorkMock);
+		List<Guest> guests = guestRepository.getGuests(GuestSearchQuery.seek(null, null, null, null, 10, 2));
+
+		// verify.
+		verify(callableStatementMock, times(1)).setNull(4, Types.INTEGER);
+		verify(callableStatementMock, times(1)).setInt(5, 10);
+		verify(callableStatementMock, times(1)).setInt(6, 2);
+		assertEquals(Integer.valueOf(8), guests.get(0).getId());
+		assertEquals(Integer.valueOf(9), guests.get(1).getId());
+	}
+
+	/**
+	 * Verifies the code path taken for creating a versioned guest with a
+	 * reservation, where the state assigned while persisting it is set on the
+	 * guest from the OUT parameters of the stored procedures.
+	 * 
+	 * @throws SQLException
+	 *             Fails the test.
+	 */
+	@WhiteBox
+	@Test
+	public void insertGuest_verifies_persistedStateSetOnGuest() throws SQLException {
+
+		// create mocks.
+		CallableStatement createGuestMock = mock(CallableStatement.class);
+		CallableStatement createReservationMock = mock(CallableStatement.class);
+		Timestamp modified = new Timestamp(1500000001000L);
+
+		// stub mocks.
+		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL CreateVersionedGuest(?, ?, ?, ?, ?, ?, ?, ?, ?)}"))
+			.thenReturn(createGuestMock);
+		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL CreateReservation(?, ?, ?)}"))
+			.thenReturn(createReservationMock);
+		when(createReservationMock.getInt("Id")).thenReturn(10);
+		when(createGuestMock.getInt("Id")).thenReturn(7);
+		when(createGuestMock.getLong("Version")).thenReturn(1L);
+		when(createGuestMock.getTimestamp(eq("DateTimeModified"), any(Calendar.class))).thenReturn(modified);
+
+		Guest guest = new Guest();
+		guest.setGivenName("Jane");
+		guest.setSurName("Doe");
+		Reservation reservation = new Reservation();
+		reservation.setIsAttending(true);
+		reservation.setSubmittedDateTime(new java.util.Date(1500000000123L));
+		guest.setReservation(reservation);
+
+		// action.
+		IGuestRepository guestRepository = new GuestRepository(this.databaseUnitOfWorkMock, true);
+		int id = guestRepository.insertGuest(guest);
+
+		// verify.
+		assertEquals(7, id);
+		assertEquals(Integer.valueOf(7), guest.getId());
+		assertEquals(1500000000000L, guest.getReservation().getSubmittedDateTime().getTime());
+		assertEquals(Long.valueOf(1), guest.getVersion());
+		assertEquals(modified.getTime(), guest.getLastModified().getTime());
+		verify(createReservationMock, times(1)).setTimestamp(eq(2), eq(new Timestamp(1500000000000L)), any(Calendar.class));
+		verify(this.databaseUnitOfWorkMock, never()).createCallableStatement("{CALL UpdateReservation(?, ?, ?)}");
+		verify(createGuestMock, times(1)).setInt(6, 10);
+		verify(createGuestMock, times(1)).registerOutParameter("Version", Types.BIGINT);
+		verify(createGuestMock, times(1)).executeUpdate();
+		verify(this.databaseUnitOfWorkMock, never()).createCallableStatement("{CALL GetGuest(?)}");
+		verify(this.databaseUnitOfWorkMock, never()).createPreparedStatement(startsWith("INSERT INTO"), any(Integer.class));
+		verify(this.databaseUnitOfWorkMock, times(1)).destroyStatement(createReservationMock);
+	}
+
+	/**
+	 * Verifies the code path taken for creating guests in batches, where only
+	 * one of the guests has a reservation.
+	 * 
+	 * @throws SQLException
+	 *             Fails the test.
+	 */
+	@WhiteBox
+	@Test
+	public void insertGuests_verifies_reservationsInsertedFirst() throws SQLException {
+
+		// create mocks.
+		PreparedStatement insertReservationMock = mock(PreparedStatement.class);
+		PreparedStatement insertGuestMock = mock(PreparedStatement.class);
+		ResultSet reservationKeysMock = mock(ResultSet.class);
+		ResultSet guestKeysMock = mock(ResultSet.class);
+
+		// stub mocks.
+		when(this.databaseUnitOfWorkMock.createPreparedStatement(startsWith("INSERT INTO RESERVATION"), eq(Statement.RETURN_GENERATED_KEYS)))
+			.thenReturn(insertReservationMock);
+		when(this.databaseUnitOfWorkMock.createPreparedStatement(startsWith("INSERT INTO GUEST"), eq(Statement.RETURN_GENERATED_KEYS)))
+			.thenReturn(insertGuestMock);
+		when(insertReservationMock.getGeneratedKeys()).thenReturn(reservationKeysMock);
+		when(reservationKeysMock.next()).thenReturn(true, false);
+		when(reservationKeysMock.getInt(1)).thenReturn(10);
+		when(insertGuestMock.getGeneratedKeys()).thenReturn(guestKeysMock);
+		when(guestKeysMock.next()).thenReturn(true, true, false);
+		when(guestKeysMock.getInt(1)).thenReturn(1, 2);
+
+		Guest withoutReservation = new Guest();
+		withoutReservation.setGivenName("Jon");
+		withoutReservation.setSurName("Freer");
+		Guest withReservation = new Guest();
+		withReservation.setGivenName("Jane");
+		withReservation.setSurName("Doe");
+		Reservation reservation = new Reservation();
+		reservation.setIsAttending(true);
+		withReservation.setReservation(reservation);
+
+		// action.
+		IGuestRepository guestRepository = new GuestRepository(this.databaseUnitOfWorkMock);
+		int[] ids = guestRepository.insertGuests(Arrays.asList(withoutReservation, withReservation));
+
+		// verify.
+		assertArrayEquals(new int[] { 1, 2 }, ids);
+		verify(insertReservationMock, times(1)).setBoolean(1, true);
+		verify(insertReservationMock, times(1)).addBatch();
+		verify(insertReservationMock, times(1)).executeBatch();
+		verify(insertGuestMock, times(1)).setNull(6, Types.INTEGER);
+		verify(insertGuestMock, times(1)).setInt(6, 10);
+		verify(insertGuestMock, times(2)).addBatch();
+		verify(insertGuestMock, times(1)).executeBatch();
+		verify(reservationKeysMock, times(1)).close();
+		verify(guestKeysMock, times(1)).close();
+		verify(this.databaseUnitOfWorkMock, times(1)).destroyStatement(insertReservationMock);
+		verify(this.databaseUnitOfWorkMock, times(1)).destroyStatement(insertGuestMock);
+	}
+
+	/**
+	 * Verifies the code path taken for updating guests in batches, where one
+	 * guest gains a reservation, one changes its reservation, one loses its
+	 * reservation and one cannot be found.
+	 * 
+	 * @throws SQLException
+	 *             Fails the test.
+	 */
+	@WhiteBox
+	@Test
+	public void updateGuests_verifies_reservationChangesBatched() throws SQLException {
+
+		// create mocks.
+		PreparedStatement selectMock = mock(PreparedStatement.class);
+		ResultSet currentMock = mock(ResultSet.class);
+		PreparedStatement insertReservationMock = mock(PreparedStatement.class);
+		ResultSet reservationKeysMock = mock(ResultSet.class);
+		CallableStatement updateReservationMock = mock(CallableStatement.class);
+		CallableStatement updateGuestMock = mock(CallableStatement.class);
+		CallableStatement deleteReservationMock = mock(CallableStatement.class);
+
+		// stub mocks.
+		when(this.databaseUnitOfWorkMock.createPreparedStatement(
+			"SELECT GUEST_ID, RESERVATION_ID FROM GUEST WHERE GUEST_ID IN (?, ?, ?, ?) FOR UPDATE"))
+			.thenReturn(selectMock);
+		when(selectMock.executeQuery()).thenReturn(currentMock);
+		when(currentMock.next()).thenReturn(true, true, true, false);
+		when(currentMock.getInt("GUEST_ID")).thenReturn(1, 2, 3);
+		when(currentMock.getInt("RESERVATION_ID")).thenReturn(0, 20, 30);
+		when(currentMock.wasNull()).thenReturn(true, false, false);
+		when(this.databaseUnitOfWorkMock.createPreparedStatement(startsWith("INSERT INTO RESERVATION"), eq(Statement.RETURN_GENERATED_KEYS)))
+			.thenReturn(insertReservationMock);
+		when(insertReservationMock.getGeneratedKeys()).thenReturn(reservationKeysMock);
+		when(reservationKeysMock.next()).thenReturn(true, false);
+		when(reservationKeysMock.getInt(1)).thenReturn(10);
+		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL UpdateReservation(?, ?, ?)}"))
+			.thenReturn(updateReservationMock);
+		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL UpdateGuest(?, ?, ?, ?, ?, ?, ?)}"))
+			.thenReturn(updateGuestMock);
+		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL DeleteReservation(?)}"))
+			.thenReturn(deleteReservationMock);
+
+		Reservation attending = new Reservation();
+		attending.setIsAttending(true);
+		Guest adding = new Guest();
+		adding.setId(1);
+		adding.setReservation(attending);
+		Guest updating = new Guest();
+		updating.setId(2);
+		updating.setReservation(attending);
+		Guest deleting = new Guest();
+		deleting.setId(3);
+		Guest missing = new Guest();
+		missing.setId(4);
+
+		// action.
+		IGuestRepository guestRepository = new GuestRepository(this.databaseUnitOfWorkMock);
+		Set<Integer> missingIds = guestRepository.updateGuests(Arrays.asList(adding, updating, deleting, missing));
+
+		// verify.
+		assertEquals(Collections.singleton(4), missingIds);
+		verify(currentMock, times(1)).close();
+		verify(insertReservationMock, times(1)).addBatch();
+		verify(updateReservationMock, times(1)).setInt(1, 20);
+		verify(updateReservationMock, times(1)).addBatch();
+		verify(updateReservationMock, times(1)).executeBatch();
+		verify(updateGuestMock, times(1)).setInt(7, 10);
+		verify(updateGuestMock, times(1)).setInt(7, 20);
+		verify(updateGuestMock, times(1)).setNull(7, Types.INTEGER);
+		verify(updateGuestMock, times(3)).addBatch();
+		verify(updateGuestMock, times(1)).executeBatch();
+		verify(deleteReservationMock, times(1)).setInt(1, 30);
+		verify(deleteReservationMock, times(1)).executeBatch();
+		verify(updateGuestMock, never()).setInt(1, 4);
+	}
+
+	/**
+	 * Verifies the code path taken for updating a guest that gains a
+	 * reservation: the reservation is created before the guest refers to it.
+	 * 
+	 * @throws SQLException
+	 *             Fails the test.
+	 * @throws ResourceNotFoundException
+	 *             Fails the test.
+	 */
+	@WhiteBox
+	@Test
+	public void updateGuest_verifies_reservationAdded() throws SQLException, ResourceNotFoundException {
+
+		// create mocks.
+		PreparedStatement selectMock = mock(PreparedStatement.class);
+		ResultSet currentMock = mock(ResultSet.class);
+		CallableStatement createReservationMock = mock(CallableStatement.class);
+		CallableStatement updateGuestMock = mock(CallableStatement.class);
+
+		// stub mocks.
+		this.stubCurrentReservation(selectMock, currentMock, 1, null);
+		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL CreateReservation(?, ?, ?)}"))
+			.thenReturn(createReservationMock);
+		when(createReservationMock.getInt("Id")).thenReturn(10);
+		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL UpdateGuest(?, ?, ?, ?, ?, ?, ?)}"))
+			.thenReturn(updateGuestMock);
+
+		Guest guest = new Guest();
+		guest.setId(1);
+		Reservation reservation = new Reservation();
+		reservation.setIsAttending(true);
+		guest.setReservation(reservation);
+
+		// action.
+		IGuestRepository guestRepository = new GuestRepository(this.databaseUnitOfWorkMock);
+		guestRepository.updateGuest(guest);
+
+		// verify.
+		InOrder inOrder = inOrder(createReservationMock, updateGuestMock);
+		inOrder.verify(createReservationMock, times(1)).executeUpdate();
+		inOrder.verify(updateGuestMock, times(1)).setInt(7, 10);
+		inOrder.verify(updateGuestMock, times(1)).executeUpdate();
+		verify(currentMock, times(1)).close();
+		verify(this.databaseUnitOfWorkMock, never()).createCallableStatement("{CALL GetGuest(?)}");
+		verify(this.databaseUnitOfWorkMock, never()).createCallableStatement("{CALL UpdateReservation(?, ?, ?)}");
+		verify(this.databaseUnitOfWorkMock, never()).createCallableStatement("{CALL DeleteReservation(?)}");
+	}
+
+	/**
+	 * Verifies the code path taken for updating a guest whose reservation
+	 * changes: the existing reservation is updated in place.
+	 * 
+	 * @throws SQLException
+	 *             Fails the test.
+	 * @throws ResourceNotFoundException
+	 *             Fails the test.
+	 */
+	@WhiteBox
+	@Test
+	public void updateGuest_verifies_reservationUpdated() throws SQLException, ResourceNotFoundException {
+
+		// create mocks.
+		PreparedStatement selectMock = mock(PreparedStatement.class);
+		ResultSet currentMock = mock(ResultSet.class);
+		CallableStatement updateReservationMock = mock(CallableStatement.class);
+		CallableStatement updateGuestMock = mock(CallableStatement.class);
+
+		// stub mocks.
+		this.stubCurrentReservation(selectMock, currentMock, 2, 20);
+		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL UpdateReservation(?, ?, ?)}"))
+			.thenReturn(updateReservationMock);
+		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL UpdateGuest(?, ?, ?, ?, ?, ?, ?)}"))
+			.thenReturn(updateGuestMock);
+
+		Guest guest = new Guest();
+		guest.setId(2);
+		Reservation reservation = new Reservation();
+		reservation.setIsAttending(false);
+		guest.setReservation(reservation);
+
+		// action.
+		IGuestRepository guestRepository = new GuestRepository(this.databaseUnitOfWorkMock);
+		guestRepository.updateGuest(guest);
+
+		// verify.
+		verify(updateReservationMock, times(1)).setInt(1, 20);
+		verify(updateReservationMock, times(1)).setBoolean(3, false);
+		verify(updateReservationMock, times(1)).executeUpdate();
+		verify(updateGuestMock, times(1)).setInt(7, 20);
+		verify(updateGuestMock, times(1)).executeUpdate();
+		verify(currentMock, times(1)).close();
+		verify(this.databaseUnitOfWorkMock, never()).createPreparedStatement(startsWith("INSERT INTO RESERVATION"), any(Integer.class));
+		verify(this.databaseUnitOfWorkMock, never()).createCallableStatement("{CALL DeleteReservation(?)}");
+	}
+
+	/**
+	 * Verifies the code path taken for updating a guest that loses its
+	 * reservation: the guest stops referring to the reservation before it is
+	 * deleted.
+	 * 
+	 * @throws SQLException
+	 *             Fails the test.
+	 * @throws ResourceNotFoundException
+	 *             Fails the test.
+	 */
+	@WhiteBox
+	@Test
+	public void updateGuest_verifies_reservationDeleted() throws SQLException, ResourceNotFoundException {
+
+		// create mocks.
+		PreparedStatement selectMock = mock(PreparedStatement.class);
+		ResultSet currentMock = mock(ResultSet.class);
+		CallableStatement updateGuestMock = mock(CallableStatement.class);
+		CallableStatement deleteReservationMock = mock(CallableStatement.class);
+
+		// stub mocks.
+		this.stubCurrentReservation(selectMock, currentMock, 3, 30);
+		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL UpdateGuest(?, ?, ?, ?, ?, ?, ?)}"))
+			.thenReturn(updateGuestMock);
+		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL DeleteReservation(?)}"))
+			.thenReturn(deleteReservationMock);
+
+		Guest guest = new Guest();
+		guest.setId(3);
+
+		// action.
+		IGuestRepository guestRepository = new GuestRepository(this.databaseUnitOfWorkMock);
+		guestRepository.updateGuest(guest);
+
+		// verify.
+		InOrder inOrder = inOrder(updateGuestMock, deleteReservationMock);
+		inOrder.verify(updateGuestMock, times(1)).setNull(7, Types.INTEGER);
+		inOrder.verify(updateGuestMock, times(1)).executeUpdate();
+		inOrder.verify(deleteReservationMock, times(1)).setInt(1, 30);
+		inOrder.verify(deleteReservationMock, times(1)).executeUpdate();
+		verify(currentMock, times(1)).close();
+	}
+
+	/**
+	 * Verifies the code path taken for updating a guest that cannot be found:
+	 * nothing is written.
+	 * 
+	 * @throws SQLException
+	 *             Fails the test.
+	 * @throws ResourceNotFoundException
+	 *             Expected outcome.
+	 */
+	@WhiteBox
+	@Test(expected = ResourceNotFoundException.class)
+	public void updateGuest_verifies_nothingWrittenWhenNotFound() throws SQLException, ResourceNotFoundException {
+
+		// create mocks.
+		PreparedStatement selectMock = mock(PreparedStatement.class);
+		ResultSet currentMock = mock(ResultSet.class);
+
+		// stub mocks.
+		when(this.databaseUnitOfWorkMock.createPreparedStatement(
+			"SELECT GUEST_ID, RESERVATION_ID FROM GUEST WHERE GUEST_ID IN (?) FOR UPDATE"))
+			.thenReturn(selectMock);
+		when(selectMock.executeQuery()).thenReturn(currentMock);
+		when(currentMock.next()).thenReturn(false);
+
+		Guest guest = new Guest();
+		guest.setId(4);
+
+		// action.
+		IGuestRepository guestRepository = new GuestRepository(this.databaseUnitOfWorkMock);
+		try {
+			guestRepository.updateGuest(guest);
+		} finally {
+			// verify.
+			verify(currentMock, times(1)).close();
+			verify(this.databaseUnitOfWorkMock, never()).createCallableStatement("{CALL UpdateGuest(?, ?, ?, ?, ?, ?, ?)}");
+		}
+	}
+
+	/**
+	 * Verifies the code path taken for deleting a guest that has a
+	 * reservation: the guest is deleted before its reservation.
+	 * 
+	 * @throws SQLException
+	 *             Fails the test.
+	 * @throws ResourceNotFoundException
+	 *             Fails the test.
+	 */
+	@WhiteBox
+	@Test
+	public void deleteGuest_verifies_reservationDeletedAfterGuest() throws SQLException, ResourceNotFoundException {
+
+		// create mocks.
+		PreparedStatement selectMock = mock(PreparedStatement.class);
+		ResultSet currentMock = mock(ResultSet.class);
+		CallableStatement deleteGuestMock = mock(CallableStatement.class);
+		CallableStatement deleteReservationMock = mock(CallableStatement.class);
+
+		// stub mocks.
+		this.stubCurrentReservation(selectMock, currentMock, 5, 50);
+		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL DeleteGuest(?)}"))
+			.thenReturn(deleteGuestMock);
+		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL DeleteReservation(?)}"))
+			.thenReturn(deleteReservationMock);
+
+		// action.
+		IGuestRepository guestRepository = new GuestRepository(this.databaseUnitOfWorkMock);
+		guestRepository.deleteGuest(5);
+
+		// verify.
+		InOrder inOrder = inOrder(deleteGuestMock, deleteReservationMock);
+		inOrder.verify(deleteGuestMock, times(1)).executeUpdate();
+		inOrder.verify(deleteReservationMock, times(1)).setInt(1, 50);
+		inOrder.verify(deleteReservationMock, times(1)).executeUpdate();
+		verify(currentMock, times(1)).close();
+		verify(this.databaseUnitOfWorkMock, never()).createCallableStatement("{CALL GetGuest(?)}");
+	}
+
+	/**
+	 * Verifies the code path taken for deleting a guest that does not have a
+	 * reservation.
+	 * 
+	 * @throws SQLException
+	 *             Fails the test.
+	 * @throws ResourceNotFoundException
+	 *             Fails the test.
+	 */
+	@WhiteBox
+	@Test
+	public void deleteGuest_verifies_noReservationDeleted() throws SQLException, ResourceNotFoundException {
+
+		// create mocks.
+		PreparedStatement selectMock = mock(PreparedStatement.class);
+		ResultSet currentMock = mock(ResultSet.class);
+		CallableStatement deleteGuestMock = mock(CallableStatement.class);
+
+		// stub mocks.
+		this.stubCurrentReservation(selectMock, currentMock, 6, null);
+		when(this.databaseUnitOfWorkMock.createCallableStatement("{CALL DeleteGuest(?)}"))
+			.thenReturn(deleteGuestMock);
+
+		// action.
+		IGuestRepository guestRepository = new GuestRepository(this.databaseUnitOfWorkMock);
+		guestRepository.deleteGuest(6);
+
+		// verify.
+		verify(deleteGuestMock, times(1)).setInt(1, 6);
+		verify(deleteGuestMock, times(1)).executeUpdate();
+		verify(currentMock, times(1)).close();
+		verify(this.databaseUnitOfWorkMock, never()).createCallableStatement("{CALL DeleteReservation(?)}");
+	}
+
+	private void stubColumns(ResultSet resultSetMock) throws SQLException {
+		String[] columns = { "GUEST_ID", "FIRST_NAME", "LAST_NAME", "GUEST_DESCRIPTION", "GUEST_DIETARY_RESTRICTIONS",
+			"INVITE_CODE", "RESERVATION_ID", "IS_ATTENDING", "DATETIME_SUBMITTED" };
+		for (int i = 0; i < columns.length; i++) {
+			when(resultSetMock.findColumn(columns[i])).thenReturn(i + 1);
+		}
+	}
+
+	private void verifyColumnsResolved(ResultSet resultSetMock) throws SQLException {
+		for (String column : new String[] { "GUEST_ID", "FIRST_NAME", "LAST_NAME", "GUEST_DESCRIPTION",
+			"GUEST_DIETARY_RESTRICTIONS", "INVITE_CODE", "RESERVATION_ID", "IS_ATTENDING", "DATETIME_SUBMITTED" }) {
+			verify(resultSetMock, times(1)).findColumn(column);
+		}
+	}
+
+	private void stubCurrentReservation(
+		PreparedStatement selectMock, ResultSet currentMock, int guestId, Integer reservationId) throws SQLException {
+
+		when(this.databaseUnitOfWorkMock.createPreparedStatement(
+			"SELECT GUEST_ID, RESERVATION_ID FROM GUEST WHERE GUEST_ID IN (?) FOR UPDATE"))
+			.thenReturn(selectMock);
+		when(selectMock.executeQuery()).thenReturn(currentMock);
+		when(currentMock.next()).thenReturn(true, false);
+		when(currentMock.getInt("GUEST_ID")).thenReturn(guestId);
+		when(currentMock.getInt("RESERVATION_ID")).thenReturn(reservationId == null ? 0 : reservationId);
+		when(currentMock.wasNull()).thenReturn(reservationId == null);
+	}
 }
@@ -0,0 +1,83 @@
+package com.jonfreer.wedding.infrastructure.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import javax.ws.rs.core.EntityTag;
+
+import org.junit.Test;
+
+import com.jonfreer.wedding.servicemodel.Guest;
+import com.jonfreer.wedding.servicemodel.Reservation;
+
+public class EntityTagServiceTest {
+
+	/**
+	 * INPUT	-	Two guests with the same state.
+	 * OUTCOME	-	The entity tags are the same and strong.
+	 */
+	@Test
+	public void get_sameState_outcomeIs_sameEntityTag() {
+
+		//arrange.
+		EntityTagService entityTagService = new EntityTagService();
+		Guest guest = new Guest(1, "Jon", "Freer", "Groom.", "PA000", "None.");
+		guest.setReservation(new Reservation(true, new Date(1483228800000L)));
+
+		//action.
+		EntityTag entityTag = entityTagService.get(guest);
+
+		//assert.
+		assertEquals(entityTag, entityTagService.get(guest.clone()));
+		assertFalse(entityTag.isWeak());
+	}
+
+	/**
+	 * INPUT	-	Guests whose state differs only in where one field ends and the next begins,
+	 * 				and guests whose reservations differ.
+	 * OUTCOME	-	The entity tags differ.
+	 */
+	@Test
+	public void get_differentState_outcomeIs_differentEntityTag() {
+
+		//arrange.
+		EntityTagService entityTagService = new EntityTagService();
+		Guest guest = new Guest(1, "Jon", "Freer", "Groom.", "PA000", "None.");
+		Guest shiftedGuest = new Guest(1, "JonF", "reer", "Groom.", "PA000", "None.");
+		Guest attendingGuest = new Guest(1, "Jon", "Freer", "Groom.", "PA000", "None.");
+		attendingGuest.setReservation(new Reservation(true, new Date(1483228800000L)));
+		Guest notAttendingGuest = new Guest(1, "Jon", "Freer", "Groom.", "PA000", "None.");
+		notAttendingGuest.setReservation(new Reservation(false, new Date(1483228800000L)));
+
+		//action.
+		EntityTag entityTag = entityTagService.get(guest);
+
+		//assert.
+		assertNotEquals(entityTag, entityTagService.get(shiftedGuest));
+		assertNotEquals(entityTag, entityTagService.get(attendingGuest));
+		assertNotEquals(entityTagService.get(attendingGuest), entityTagService.get(notAttendingGuest));
+	}
+
+	/**
+	 * INPUT	-	Weak entity tag requested.
+	 * OUTCOME	-	The entity tag is weak, with the same value as the strong entity tag.
+	 */
+	@Test
+	public void get_weak_outcomeIs_weakEntityTag() {
+
+		//arrange.
+		EntityTagService entityTagService = new EntityTagService();
+		Guest guest = new Guest(1, "Jon", "Freer", "Groom.", "PA000", "None.");
+
+		//action.
+		EntityTag entityTag = entityTagService.get(guest, true);
+
+		//assert.
+		assertTrue(entityTag.isWeak());
+		assertEquals(entityTagService.get(guest, false).getValue(), entityTag.getValue());
+	}
+}
@@ -0,0 +1,221 @@
+package com.jonfreer.wedding.infrastructure.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.sql.CallableStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Properties;
+
+import javax.inject.Provider;
+import javax.ws.rs.core.EntityTag;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IUnitOfWorkListener;
+import com.jonfreer.wedding.infrastructure.caching.CachedResponse;
+import com.jonfreer.wedding.infrastructure.caching.ResponseCache;
+import com.jonfreer.wedding.infrastructure.configuration.ApplicationConfiguration;
+import com.jonfreer.wedding.infrastructure.metadata.ResourceMetadata;
+
+public class ResourceMetadataServiceTest {
+
+	private IDatabaseUnitOfWork unitOfWorkMock;
+	private CallableStatement getStatementMock;
+	private ResultSet resultSetMock;
+	private ResponseCache responseCache;
+	private ResourceMetadataService resourceMetadataService;
+
+	@Before
+	public void setUp() throws Exception {
+		this.unitOfWorkMock = mock(IDatabaseUnitOfWork.class);
+		this.getStatementMock = mock(CallableStatement.class);
+		this.resultSetMock = mock(ResultSet.class);
+
+		when(this.unitOfWorkMock.createCallableStatement("{ CALL GetResourceMetadata(?) }"))
+			.thenReturn(this.getStatementMock);
+		when(this.unitOfWorkMock.createCallableStatement("{ CALL UpdateResourceMetadata(?, ?, ?) }"))
+			.thenReturn(mock(CallableStatement.class));
+		when(this.getStatementMock.executeQuery()).thenReturn(this.resultSetMock);
+		when(this.resultSetMock.next()).thenReturn(false);
+
+		this.responseCache = new ResponseCache(new ApplicationConfiguration(new Properties()));
+		this.resourceMetadataService = new ResourceMetadataService(
+			new Provider<IDatabaseUnitOfWork>() {
+				public IDatabaseUnitOfWork get() {
+					return unitOfWorkMock;
+				}
+			},
+			new ApplicationConfiguration(new Properties()),
+			this.responseCache);
+	}
+
+	/**
+	 * INPUT	-	Metadata requested twice for a URI without metadata;
+	 * 				the second time with a trailing slash.
+	 * OUTCOME	-	The database is only consulted once.
+	 * @throws SQLException Fails the test.
+	 */
+	@Test
+	public void getResourceMetadata_outcomeIs_absenceCached() throws SQLException {
+
+		//action.
+		ResourceMetadata first =
+			this.resourceMetadataService.getResourceMetadata(URI.create("http://API.example.com/guests/1"));
+		ResourceMetadata second =
+			this.resourceMetadataService.getResourceMetadata(URI.create("http://api.example.com/guests/1/"));
+
+		//assert.
+		assertNull(first);
+		assertNull(second);
+		verify(this.getStatementMock, times(1)).executeQuery();
+	}
+
+	/**
+	 * INPUT	-	Metadata requested for a URI whose read fails, then requested again.
+	 * OUTCOME	-	The failure is thrown rather than taken for absent metadata, and
+	 * 				the second request reads the database again.
+	 * @throws SQLException Fails the test.
+	 */
+	@Test
+	public void getResourceMetadata_outcomeIs_failedReadNotCached() throws SQLException {
+
+		//arrange.
+		URI uri = URI.create("http://api.example.com/guests/1");
+		when(this.getStatementMock.executeQuery())
+			.thenThrow(new SQLException("Communications link failure"))
+			.thenReturn(this.resultSetMock);
+
+		//action.
+		RuntimeException failure = null;
+		try {
+			this.resourceMetadataService.getResourceMetadata(uri);
+		} catch (RuntimeException e) {
+			failure = e;
+		}
+		ResourceMetadata second = this.resourceMetadataService.getResourceMetadata(uri);
+
+		//assert.
+		assertNotNull(failure);
+		assertNull(second);
+		verify(this.getStatementMock, times(2)).executeQuery();
+	}
+
+	/**
+	 * INPUT	-	Metadata updated, then requested before and after the unit of work is saved.
+	 * OUTCOME	-	The updated metadata is served without consulting the database again.
+	 * @throws SQLException Fails the test.
+	 */
+	@Test
+	public void updateResourceMetaData_outcomeIs_cachedOnceSaved() throws SQLException {
+
+		//arrange.
+		URI uri = URI.create("http://api.example.com/guests/1");
+		this.resourceMetadataService.getResourceMetadata(uri);
+		ResourceMetadata resourceMetadata = new ResourceMetadata(uri, new Date(1500000000123L), new EntityTag("abc"));
+		ArgumentCaptor<IUnitOfWorkListener> listenerCaptor = ArgumentCaptor.forClass(IUnitOfWorkListener.class);
+
+		//action.
+		this.resourceMetadataService.updateResourceMetaData(resourceMetadata);
+		ResourceMetadata beforeSave = this.resourceMetadataService.getResourceMetadata(uri);
+		verify(this.unitOfWorkMock).addListener(listenerCaptor.capture());
+		listenerCaptor.getValue().saved();
+		ResourceMetadata afterSave = this.resourceMetadataService.getResourceMetadata(uri);
+
+		//assert.
+		assertEquals(new EntityTag("abc"), beforeSave.getEntityTag());
+		assertEquals(new Date(1500000000000L), afterSave.getLastModified());
+		assertEquals(new EntityTag("abc"), afterSave.getEntityTag());
+		verify(this.getStatementMock, times(1)).executeQuery();
+	}
+
+	/**
+	 * INPUT	-	Metadata updated for a resource whose representation is cached.
+	 * OUTCOME	-	The representation is served until the unit of work is saved, and discarded afterwards.
+	 */
+	@Test
+	public void updateResourceMetaData_outcomeIs_responseCacheInvalidatedOnceSaved() {
+
+		//arrange.
+		URI uri = URI.create("http://api.example.com/guests/1");
+		EntityTag entityTag = new EntityTag("abc");
+		this.responseCache.put(
+			URI.create("http://api.example.com/guests/1/"),
+			"application/json",
+			new CachedResponse(entityTag, new Date(1500000000000L), "application/json", new byte[]{ '{', '}' }));
+		ArgumentCaptor<IUnitOfWorkListener> listenerCaptor = ArgumentCaptor.forClass(IUnitOfWorkListener.class);
+
+		//action.
+		this.resourceMetadataService.updateResourceMetaData(
+			new ResourceMetadata(uri, new Date(1500000000000L), new EntityTag("def")));
+		CachedResponse beforeSave = this.responseCache.get(uri, "application/json", entityTag);
+		verify(this.unitOfWorkMock).addListener(listenerCaptor.capture());
+		listenerCaptor.getValue().saved();
+		CachedResponse afterSave = this.responseCache.get(uri, "application/json", entityTag);
+
+		//assert.
+		assertEquals(entityTag, beforeSave.getEntityTag());
+		assertNull(afterSave);
+		assertEquals(1, this.responseCache.getHits());
+		assertEquals(1, this.responseCache.getMisses());
+	}
+
+	/**
+	 * INPUT	-	Metadata updated in a batch for a resource known to be without metadata,
+	 * 				and for one that was never looked up.
+	 * OUTCOME	-	The batch is written without looking the metadata up; the first resource
+	 * 				stays without metadata, and the second is read from the database once saved.
+	 * @throws SQLException Fails the test.
+	 */
+	@Test
+	public void updateResourceMetaData_outcomeIs_batchWrittenWithoutLookUps() throws SQLException {
+
+		//arrange.
+		URI absentUri = URI.create("http://api.example.com/guests/1");
+		URI unknownUri = URI.create("http://api.example.com/guests/2");
+		this.resourceMetadataService.getResourceMetadata(absentUri);
+		ArgumentCaptor<IUnitOfWorkListener> listenerCaptor = ArgumentCaptor.forClass(IUnitOfWorkListener.class);
+
+		//action.
+		this.resourceMetadataService.updateResourceMetaData(Arrays.asList(
+			new ResourceMetadata(absentUri, new Date(1500000000000L), new EntityTag("abc")),
+			new ResourceMetadata(unknownUri, new Date(1500000000000L), new EntityTag("def"))));
+		verify(this.getStatementMock, times(1)).executeQuery();
+		verify(this.unitOfWorkMock).addListener(listenerCaptor.capture());
+		listenerCaptor.getValue().saved();
+		ResourceMetadata absent = this.resourceMetadataService.getResourceMetadata(absentUri);
+		ResourceMetadata unknown = this.resourceMetadataService.getResourceMetadata(unknownUri);
+
+		//assert.
+		assertNull(absent);
+		assertNull(unknown);
+		verify(this.getStatementMock, times(2)).executeQuery();
+	}
+
+	/**
+	 * INPUT	-	URIs differing only in case of host, dot segments and trailing slash.
+	 * OUTCOME	-	Both normalize to the same key.
+	 */
+	@Test
+	public void normalize_outcomeIs_equivalentUrisMatch() {
+
+		//action.
+		String first = ResourceMetadataService.normalize(URI.create("HTTP://Api.Example.com/guests/./1/"));
+		String second = ResourceMetadataService.normalize(URI.create("http://api.example.com/guests/1"));
+
+		//assert.
+		assertEquals(second, first);
+	}
+}
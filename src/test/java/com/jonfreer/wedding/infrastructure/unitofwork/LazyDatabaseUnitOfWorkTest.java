@@ -0,0 +1,50 @@
+package com.jonfreer.wedding.infrastructure.unitofwork;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+
+import org.junit.Test;
+
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IDatabaseUnitOfWork;
+import com.jonfreer.wedding.domain.interfaces.unitofwork.IUnitOfWorkListener;
+import com.jonfreer.wedding.infrastructure.interfaces.factories.IDatabaseUnitOfWorkFactory;
+
+public class LazyDatabaseUnitOfWorkTest {
+
+	/**
+	 * INPUT	-	A statement destroyed and a listener registered after the unit of work is saved.
+	 * OUTCOME	-	No new underlying unit of work is opened, and the listener is
+	 * 				notified when the unit of work is undone.
+	 */
+	@Test
+	public void destroyStatement_outcomeIs_noUnitOfWorkOpenedOnceCompleted() {
+
+		//arrange.
+		IDatabaseUnitOfWorkFactory unitOfWorkFactoryMock = mock(IDatabaseUnitOfWorkFactory.class);
+		IDatabaseUnitOfWork unitOfWorkMock = mock(IDatabaseUnitOfWork.class);
+		PreparedStatement statementMock = mock(PreparedStatement.class);
+		IUnitOfWorkListener listenerMock = mock(IUnitOfWorkListener.class);
+		when(unitOfWorkFactoryMock.create()).thenReturn(unitOfWorkMock);
+		when(unitOfWorkMock.createPreparedStatement("SELECT 1")).thenReturn(statementMock);
+		LazyDatabaseUnitOfWork unitOfWork = new LazyDatabaseUnitOfWork(unitOfWorkFactoryMock);
+
+		//action.
+		PreparedStatement statement = unitOfWork.createPreparedStatement("SELECT 1");
+		unitOfWork.Save();
+		unitOfWork.destroyStatement(statement);
+		unitOfWork.destroyStatements(statement);
+		unitOfWork.addListener(listenerMock);
+		unitOfWork.Undo();
+
+		//assert.
+		verify(unitOfWorkFactoryMock).create();
+		verify(unitOfWorkMock).Save();
+		verify(unitOfWorkMock, never()).destroyStatement(statementMock);
+		verify(unitOfWorkMock, never()).addListener(listenerMock);
+		verify(listenerMock).undone();
+	}
+}